@@ -2,15 +2,20 @@ package org.frizzlenpop.frizzlenEco;
 
 import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.frizzlenpop.frizzlenEco.backup.SnapshotManager;
 import org.frizzlenpop.frizzlenEco.api.EconomyAPI;
 import org.frizzlenpop.frizzlenEco.api.EconomyProvider;
 import org.frizzlenpop.frizzlenEco.commands.AdminCommands;
+import org.frizzlenpop.frizzlenEco.commands.CommandPipeline;
 import org.frizzlenpop.frizzlenEco.commands.EconomyCommands;
+import org.frizzlenpop.frizzlenEco.commands.NotificationQueue;
 import org.frizzlenpop.frizzlenEco.config.ConfigManager;
 import org.frizzlenpop.frizzlenEco.database.DatabaseManager;
 import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
 import org.frizzlenpop.frizzlenEco.listeners.PlayerListener;
+import org.frizzlenpop.frizzlenEco.listeners.TabCompleteListener;
 import org.frizzlenpop.frizzlenEco.metrics.MetricsManager;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
 import org.frizzlenpop.frizzlenEco.vault.VaultHook;
 
 import java.util.logging.Level;
@@ -23,6 +28,10 @@ public final class FrizzlenEco extends JavaPlugin {
     private EconomyAPI economyAPI;
     private MetricsManager metricsManager;
     private VaultHook vaultHook;
+    private SnapshotManager snapshotManager;
+    private CommandPipeline commandPipeline;
+    private NotificationQueue notificationQueue;
+    private TickProfiler tickProfiler;
 
     @Override
     public void onEnable() {
@@ -33,6 +42,10 @@ public final class FrizzlenEco extends JavaPlugin {
         configManager = new ConfigManager(this);
         configManager.loadConfigs();
         
+        // Initialize main-thread profiling before anything that reports to it
+        tickProfiler = new TickProfiler(this);
+        tickProfiler.initialize();
+        
         // Initialize database
         databaseManager = new DatabaseManager(this);
         if (!databaseManager.initialize()) {
@@ -49,7 +62,14 @@ public final class FrizzlenEco extends JavaPlugin {
         economyAPI = new EconomyAPI(this);
         getServer().getServicesManager().register(EconomyProvider.class, economyAPI, this, ServicePriority.Normal);
         
+        // Initialize snapshot backups
+        snapshotManager = new SnapshotManager(this);
+        snapshotManager.initialize();
+        
         // Register commands
+        commandPipeline = new CommandPipeline(this);
+        notificationQueue = new NotificationQueue(this);
+        notificationQueue.initialize();
         registerCommands();
         
         // Register listeners
@@ -67,15 +87,35 @@ public final class FrizzlenEco extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // Stop profiling, shutdown saves are expected to be slow
+        if (tickProfiler != null) {
+            tickProfiler.shutdown();
+        }
+        
         // Unhook from Vault
         if (vaultHook != null && vaultHook.isHooked()) {
             vaultHook.unhook();
         }
         
+        // Let queued commands finish before saving
+        if (commandPipeline != null) {
+            commandPipeline.shutdown();
+        }
+        
+        // Send the notices still being merged
+        if (notificationQueue != null) {
+            notificationQueue.shutdown();
+        }
+        
+        if (snapshotManager != null) {
+            snapshotManager.shutdown();
+        }
+        
         if (economyManager != null) {
             economyManager.shutdown();
         }
         
+        // Drain the database executor, then close the connections
         if (databaseManager != null) {
             databaseManager.shutdown();
         }
@@ -96,6 +136,7 @@ public final class FrizzlenEco extends JavaPlugin {
     private void registerListeners() {
         try {
             getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
+            getServer().getPluginManager().registerEvents(new TabCompleteListener(this), this);
             getLogger().info("Listeners registered successfully");
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Failed to register listeners", e);
@@ -144,4 +185,20 @@ public final class FrizzlenEco extends JavaPlugin {
     public VaultHook getVaultHook() {
         return vaultHook;
     }
+    
+    public SnapshotManager getSnapshotManager() {
+        return snapshotManager;
+    }
+    
+    public CommandPipeline getCommandPipeline() {
+        return commandPipeline;
+    }
+    
+    public NotificationQueue getNotificationQueue() {
+        return notificationQueue;
+    }
+    
+    public TickProfiler getTickProfiler() {
+        return tickProfiler;
+    }
 }
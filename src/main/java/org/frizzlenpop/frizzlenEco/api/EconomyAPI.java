@@ -2,10 +2,15 @@ package org.frizzlenpop.frizzlenEco.api;
 
 import org.bukkit.OfflinePlayer;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.economy.BalanceUpdate;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
 import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
+import org.frizzlenpop.frizzlenEco.economy.EconomyResult;
 
 import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Flow;
 import java.util.logging.Level;
 
 /**
@@ -114,7 +119,7 @@ public class EconomyAPI implements EconomyProvider {
                 return false;
             }
             
-            return economyManager.withdraw(player.getUniqueId(), amount, currency);
+            return economyManager.withdraw(player.getUniqueId(), amount, currency).isSuccess();
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Error withdrawing money from player", e);
             return false;
@@ -134,7 +139,7 @@ public class EconomyAPI implements EconomyProvider {
                 return false;
             }
             
-            return economyManager.deposit(player.getUniqueId(), amount, currency);
+            return economyManager.credit(player.getUniqueId(), amount, currency).isSuccess();
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Error depositing money to player", e);
             return false;
@@ -169,10 +174,65 @@ public class EconomyAPI implements EconomyProvider {
                 return false;
             }
             
-            return economyManager.transfer(from.getUniqueId(), to.getUniqueId(), amount, currency);
+            return economyManager.transfer(from.getUniqueId(), to.getUniqueId(), amount, currency).isSuccess();
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Error transferring money between players", e);
             return false;
         }
     }
+    
+    @Override
+    public EconomyResult withdrawIfAtLeast(OfflinePlayer player, BigDecimal amount, BigDecimal minimum) {
+        return withdrawIfAtLeast(player, amount, minimum, getDefaultCurrency());
+    }
+    
+    @Override
+    public EconomyResult withdrawIfAtLeast(OfflinePlayer player, BigDecimal amount, BigDecimal minimum, Currency currency) {
+        try {
+            return economyManager.withdrawIfAtLeast(player.getUniqueId(), amount, minimum, currency);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error withdrawing money from player", e);
+            return EconomyResult.failure(EconomyResult.Status.ERROR);
+        }
+    }
+    
+    @Override
+    public EconomyResult depositUpTo(OfflinePlayer player, BigDecimal amount) {
+        return depositUpTo(player, amount, getDefaultCurrency());
+    }
+    
+    @Override
+    public EconomyResult depositUpTo(OfflinePlayer player, BigDecimal amount, Currency currency) {
+        try {
+            return economyManager.depositUpTo(player.getUniqueId(), amount, currency);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error depositing money to player", e);
+            return EconomyResult.failure(EconomyResult.Status.ERROR);
+        }
+    }
+    
+    @Override
+    public EconomyResult setIfEquals(OfflinePlayer player, BigDecimal expected, BigDecimal newBalance) {
+        return setIfEquals(player, expected, newBalance, getDefaultCurrency());
+    }
+    
+    @Override
+    public EconomyResult setIfEquals(OfflinePlayer player, BigDecimal expected, BigDecimal newBalance, Currency currency) {
+        try {
+            return economyManager.setIfEquals(player.getUniqueId(), expected, newBalance, currency);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error setting player balance", e);
+            return EconomyResult.failure(EconomyResult.Status.ERROR);
+        }
+    }
+    
+    @Override
+    public Flow.Publisher<BalanceUpdate> balanceUpdates(Set<UUID> players, Currency currency) {
+        return economyManager.balanceUpdates(players, currency);
+    }
+    
+    @Override
+    public TransactionBuilder transaction() {
+        return new TransactionBuilder(plugin);
+    }
 } 
\ No newline at end of file
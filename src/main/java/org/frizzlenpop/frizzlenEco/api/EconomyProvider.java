@@ -1,10 +1,14 @@
 package org.frizzlenpop.frizzlenEco.api;
 
 import org.bukkit.OfflinePlayer;
+import org.frizzlenpop.frizzlenEco.economy.BalanceUpdate;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
+import org.frizzlenpop.frizzlenEco.economy.EconomyResult;
 
 import java.math.BigDecimal;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Flow;
 
 /**
  * Interface for Economy Service Provider
@@ -165,4 +169,78 @@ public interface EconomyProvider {
      * @return true if successful
      */
     boolean transfer(OfflinePlayer from, OfflinePlayer to, BigDecimal amount, Currency currency);
+    
+    /**
+     * Withdraw an amount only if the player's balance is at least a minimum, in one atomic step.
+     * Use instead of {@link #has} followed by {@link #withdraw}.
+     * @param player to withdraw from
+     * @param amount to withdraw
+     * @param minimum balance the player must have
+     * @return the result, with the new balance on success
+     */
+    EconomyResult withdrawIfAtLeast(OfflinePlayer player, BigDecimal amount, BigDecimal minimum);
+    
+    /**
+     * Withdraw an amount only if the player's balance is at least a minimum, in one atomic step
+     * @param player to withdraw from
+     * @param amount to withdraw
+     * @param minimum balance the player must have
+     * @param currency to withdraw from
+     * @return the result, with the new balance on success
+     */
+    EconomyResult withdrawIfAtLeast(OfflinePlayer player, BigDecimal amount, BigDecimal minimum, Currency currency);
+    
+    /**
+     * Deposit up to an amount, stopping at the maximum balance instead of failing
+     * @param player to deposit to
+     * @param amount most to deposit
+     * @return the result; the amount deposited is the new balance minus the old one
+     */
+    EconomyResult depositUpTo(OfflinePlayer player, BigDecimal amount);
+    
+    /**
+     * Deposit up to an amount in the specified currency, stopping at the maximum balance instead of failing
+     * @param player to deposit to
+     * @param amount most to deposit
+     * @param currency to deposit to
+     * @return the result; the amount deposited is the new balance minus the old one
+     */
+    EconomyResult depositUpTo(OfflinePlayer player, BigDecimal amount, Currency currency);
+    
+    /**
+     * Set a player's balance only if it still equals the expected balance (compare-and-set)
+     * @param player whose balance to set
+     * @param expected balance the player must have
+     * @param newBalance to set
+     * @return the result; if the balance changed, its status is BALANCE_CHANGED and it carries the current balance
+     */
+    EconomyResult setIfEquals(OfflinePlayer player, BigDecimal expected, BigDecimal newBalance);
+    
+    /**
+     * Set a player's balance in the specified currency only if it still equals the expected balance
+     * @param player whose balance to set
+     * @param expected balance the player must have
+     * @param newBalance to set
+     * @param currency of the balance
+     * @return the result; if the balance changed, its status is BALANCE_CHANGED and it carries the current balance
+     */
+    EconomyResult setIfEquals(OfflinePlayer player, BigDecimal expected, BigDecimal newBalance, Currency currency);
+    
+    /**
+     * Subscribe to balance changes instead of polling balances, e.g. for scoreboards.
+     * Subscribers are only told about the accounts they watch. Until a subscriber requests
+     * more, only the latest balance per account is kept for it. Updates arrive on a
+     * background thread, so hop to the main thread before touching the Bukkit API.
+     * @param players to watch, or null for all players
+     * @param currency to watch, or null for all currencies
+     * @return a publisher of balance updates
+     */
+    Flow.Publisher<BalanceUpdate> balanceUpdates(Set<UUID> players, Currency currency);
+    
+    /**
+     * Starts a transaction of several debit and credit legs, applied all-or-nothing
+     * and stored as one grouped entry in the transaction history
+     * @return a new transaction builder
+     */
+    TransactionBuilder transaction();
 } 
\ No newline at end of file
@@ -0,0 +1,108 @@
+package org.frizzlenpop.frizzlenEco.api;
+
+import org.bukkit.OfflinePlayer;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.economy.Currency;
+import org.frizzlenpop.frizzlenEco.economy.EconomyResult;
+import org.frizzlenpop.frizzlenEco.economy.TransactionLeg;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Collects the debit and credit legs of a transaction and applies them all-or-nothing,
+ * e.g. a buyer paying a seller, a tax account and a plot owner in one step.
+ * <pre>
+ * EconomyResult result = provider.transaction()
+ *         .type("SHOP_PURCHASE")
+ *         .debit(buyer, price)
+ *         .credit(seller, price.subtract(tax))
+ *         .credit(taxAccount, tax)
+ *         .commit();
+ * </pre>
+ * Legs may use different currencies. A builder is not thread-safe and is meant to be
+ * committed once.
+ */
+public class TransactionBuilder {
+    private final FrizzlenEco plugin;
+    private final List<TransactionLeg> legs = new ArrayList<>();
+    private String type = "TRANSACTION";
+    
+    /**
+     * Creates a new empty transaction
+     * @param plugin the FrizzlenEco plugin instance
+     */
+    TransactionBuilder(FrizzlenEco plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Sets the type the legs are recorded under in the transaction history
+     * @param type the transaction type
+     * @return this builder
+     */
+    public TransactionBuilder type(String type) {
+        this.type = type;
+        return this;
+    }
+    
+    /**
+     * Adds a leg taking an amount in the default currency
+     * @param player to take from
+     * @param amount to take
+     * @return this builder
+     */
+    public TransactionBuilder debit(OfflinePlayer player, BigDecimal amount) {
+        return debit(player, amount, plugin.getEconomyManager().getDefaultCurrency());
+    }
+    
+    /**
+     * Adds a leg taking an amount
+     * @param player to take from
+     * @param amount to take
+     * @param currency to take in
+     * @return this builder
+     */
+    public TransactionBuilder debit(OfflinePlayer player, BigDecimal amount, Currency currency) {
+        legs.add(new TransactionLeg(player != null ? player.getUniqueId() : null, currency, amount, true));
+        return this;
+    }
+    
+    /**
+     * Adds a leg giving an amount in the default currency
+     * @param player to give to
+     * @param amount to give
+     * @return this builder
+     */
+    public TransactionBuilder credit(OfflinePlayer player, BigDecimal amount) {
+        return credit(player, amount, plugin.getEconomyManager().getDefaultCurrency());
+    }
+    
+    /**
+     * Adds a leg giving an amount
+     * @param player to give to
+     * @param amount to give
+     * @param currency to give in
+     * @return this builder
+     */
+    public TransactionBuilder credit(OfflinePlayer player, BigDecimal amount, Currency currency) {
+        legs.add(new TransactionLeg(player != null ? player.getUniqueId() : null, currency, amount, false));
+        return this;
+    }
+    
+    /**
+     * Validates and applies all legs as one transaction
+     * @return the result; on failure its status says why, e.g. a leg would break a
+     *         balance limit, and none of the legs were applied
+     */
+    public EconomyResult commit() {
+        try {
+            return plugin.getEconomyManager().applyTransaction(List.copyOf(legs), type);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error applying multi-leg transaction", e);
+            return EconomyResult.failure(EconomyResult.Status.ERROR);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,95 @@
+package org.frizzlenpop.frizzlenEco.backup;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A point-in-time marker over the in-memory accounts.
+ * <p>
+ * Starting a snapshot is O(1). While it is active, the economy records the
+ * pre-image of an account the first time it is mutated (copy-on-write), so a
+ * background reader can reconstruct the state as it was when the marker was taken.
+ */
+public class AccountSnapshot {
+    private static final PreImage CREATED_AFTER = new PreImage(null, null);
+    
+    private final Instant takenAt;
+    private final Map<AccountHolder, PreImage> preImages = new ConcurrentHashMap<>();
+    private final Map<AccountHolder, BigDecimal> inTransit = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a new snapshot marker at the current time
+     */
+    public AccountSnapshot() {
+        this.takenAt = Instant.now();
+    }
+    
+    /**
+     * Gets the time the snapshot was taken
+     * @return the snapshot time
+     */
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+    
+    /**
+     * Records the state of an account before its first mutation after the marker.
+     * Must be called before the account is changed.
+     * @param account the account about to be mutated
+     */
+    public void beforeMutation(AccountHolder account) {
+        if (!preImages.containsKey(account)) {
+            preImages.putIfAbsent(account, new PreImage(account.getBalance(), account.getLastTransaction()));
+        }
+    }
+    
+    /**
+     * Records that an account was created after the marker and must be excluded.
+     * Must be called before the account becomes visible in the accounts map.
+     * @param account the newly created account
+     */
+    public void created(AccountHolder account) {
+        preImages.putIfAbsent(account, CREATED_AFTER);
+    }
+    
+    /**
+     * Records an amount taken from an account by a transfer that had not reached its
+     * receiver when the marker was taken. It is counted as the sender's, as if the
+     * transfer came after the marker. Must be called while the marker is installed.
+     * @param account the sender's account
+     * @param amount the amount in transit
+     */
+    public void inTransit(AccountHolder account, BigDecimal amount) {
+        inTransit.merge(account, amount, BigDecimal::add);
+    }
+    
+    /**
+     * Reads the state of an account as of the marker
+     * @param account the live account
+     * @return the state at snapshot time, or null if the account did not exist yet
+     */
+    public PreImage read(AccountHolder account) {
+        // Read the live value first, then check for a pre-image. Writers record the
+        // pre-image before mutating, so a missing pre-image means the value is current.
+        PreImage live = new PreImage(account.getBalance(), account.getLastTransaction());
+        PreImage preImage = preImages.get(account);
+        
+        PreImage state = preImage != null ? preImage : live;
+        if (state == CREATED_AFTER) {
+            return null;
+        }
+        
+        BigDecimal transit = inTransit.get(account);
+        return transit != null ? new PreImage(state.balance().add(transit), state.lastTransaction()) : state;
+    }
+    
+    /**
+     * Balance and last transaction time of an account at snapshot time
+     */
+    public record PreImage(BigDecimal balance, Instant lastTransaction) {
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,124 @@
+package org.frizzlenpop.frizzlenEco.backup;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The snapshot file format: a gzip stream of a header, one record per account and a
+ * trailer with the record count, followed by a CRC32 of everything before it.
+ */
+final class SnapshotFile {
+    static final int MAGIC = 0x46455350; // "FESP"
+    static final int FORMAT_VERSION = 1;
+    
+    private SnapshotFile() {
+    }
+    
+    /**
+     * Streams accounts as of a snapshot marker to a file
+     * @param file the file to write
+     * @param accounts the live accounts
+     * @param snapshot the snapshot marker, which supplies each account's state at the marker
+     * @return the number of accounts written
+     * @throws IOException if the file could not be written
+     */
+    static int write(File file, Map<UUID, Map<String, AccountHolder>> accounts, AccountSnapshot snapshot)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        int count = 0;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(gzip, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(snapshot.getTakenAt().toEpochMilli());
+            
+            for (Map<String, AccountHolder> playerAccounts : accounts.values()) {
+                for (AccountHolder account : playerAccounts.values()) {
+                    AccountSnapshot.PreImage state = snapshot.read(account);
+                    if (state == null) {
+                        continue; // Created after the marker
+                    }
+                    
+                    out.writeBoolean(true);
+                    out.writeLong(account.getPlayerUuid().getMostSignificantBits());
+                    out.writeLong(account.getPlayerUuid().getLeastSignificantBits());
+                    out.writeUTF(account.getPlayerName() != null ? account.getPlayerName() : "");
+                    out.writeUTF(account.getCurrencyId());
+                    out.writeUTF(state.balance().toString());
+                    out.writeLong(account.getCreated().toEpochMilli());
+                    out.writeLong(state.lastTransaction().toEpochMilli());
+                    count++;
+                }
+            }
+            
+            out.writeBoolean(false);
+            out.writeInt(count);
+            out.flush();
+            
+            // The checksum covers everything above and is stored after it
+            new DataOutputStream(gzip).writeLong(crc.getValue());
+        }
+        return count;
+    }
+    
+    /**
+     * Reads and verifies a snapshot file
+     * @param file the snapshot file
+     * @return map of player UUIDs to their account maps
+     * @throws IOException if the file is unreadable or corrupt
+     */
+    static Map<UUID, Map<String, AccountHolder>> read(File file) throws IOException {
+        Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
+        
+        CRC32 crc = new CRC32();
+        try (GZIPInputStream gzip = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(gzip, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a FrizzlenEco snapshot");
+            }
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version");
+            }
+            in.readLong(); // Snapshot time
+            
+            int count = 0;
+            while (in.readBoolean()) {
+                UUID playerUuid = new UUID(in.readLong(), in.readLong());
+                String playerName = in.readUTF();
+                String currencyId = in.readUTF();
+                BigDecimal balance = new BigDecimal(in.readUTF());
+                long created = in.readLong();
+                long lastTransaction = in.readLong();
+                
+                AccountHolder account = new AccountHolder(playerUuid, playerName, currencyId, balance);
+                account.setCreated(Instant.ofEpochMilli(created));
+                account.setLastTransaction(Instant.ofEpochMilli(lastTransaction));
+                
+                accounts.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>()).put(currencyId, account);
+                count++;
+            }
+            
+            if (in.readInt() != count) {
+                throw new IOException("Snapshot record count mismatch");
+            }
+            
+            long expected = crc.getValue();
+            if (new DataInputStream(gzip).readLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+        }
+        
+        return accounts;
+    }
+} 
\ No newline at end of file
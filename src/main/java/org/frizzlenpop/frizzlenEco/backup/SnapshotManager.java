@@ -0,0 +1,220 @@
+package org.frizzlenpop.frizzlenEco.backup;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitTask;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.BackupSettings;
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
+import org.frizzlenpop.frizzlenEco.util.MessageUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Creates, rotates and restores online snapshots of the in-memory accounts.
+ * <p>
+ * The snapshot marker is taken on the main thread in O(1); the accounts are then
+ * streamed to a gzip-compressed, CRC32-checksummed {@link SnapshotFile} on a background thread.
+ */
+public class SnapshotManager {
+    private static final String FILE_PREFIX = "snapshot-";
+    private static final String FILE_SUFFIX = ".fesnap.gz";
+    private static final DateTimeFormatter FILE_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+    
+    private final FrizzlenEco plugin;
+    private final EconomyManager economyManager;
+    private final BackupSettings settings;
+    private final File backupFolder;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    private BukkitTask scheduledTask;
+    
+    /**
+     * Creates a new SnapshotManager
+     * @param plugin the FrizzlenEco plugin instance
+     */
+    public SnapshotManager(FrizzlenEco plugin) {
+        this.plugin = plugin;
+        this.economyManager = plugin.getEconomyManager();
+        this.settings = plugin.getConfigManager().getBackupSettings();
+        this.backupFolder = new File(plugin.getDataFolder(), "backups");
+    }
+    
+    /**
+     * Initializes the snapshot system and schedules periodic snapshots
+     */
+    public void initialize() {
+        if (!settings.isEnabled()) {
+            plugin.getLogger().info("Scheduled snapshots are disabled in config");
+            return;
+        }
+        
+        long intervalTicks = Math.max(1, settings.getIntervalMinutes()) * 60L * 20L;
+        scheduledTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> createSnapshot(null),
+                intervalTicks, intervalTicks);
+    }
+    
+    /**
+     * Cancels scheduled snapshots
+     */
+    public void shutdown() {
+        if (scheduledTask != null) {
+            scheduledTask.cancel();
+            scheduledTask = null;
+        }
+    }
+    
+    /**
+     * Takes a snapshot marker and writes the snapshot in the background.
+     * Should be called from the main thread so main-thread operations are captured atomically.
+     * @param sender the sender to notify when done, or null
+     * @return true if a snapshot was started, false if one is already running
+     */
+    public boolean createSnapshot(CommandSender sender) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        
+        AccountSnapshot snapshot = economyManager.beginSnapshot();
+        
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.nanoTime();
+            try {
+                File file = writeSnapshot(snapshot);
+                rotate();
+                
+                long millis = (System.nanoTime() - start) / 1_000_000L;
+                plugin.getLogger().info("Snapshot written to " + file.getName() + " in " + millis + "ms");
+                notify(sender, true, "Snapshot written to " + file.getName());
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to write snapshot", e);
+                notify(sender, false, "Failed to write snapshot: " + e.getMessage());
+            } finally {
+                economyManager.endSnapshot(snapshot);
+                running.set(false);
+            }
+        });
+        
+        return true;
+    }
+    
+    /**
+     * Restores a snapshot file in the background, stores it and swaps it in on the main thread
+     * @param sender the sender to notify when done, or null
+     * @param fileName the snapshot file name inside the backups folder
+     */
+    public void restoreSnapshot(CommandSender sender, String fileName) {
+        File file = new File(backupFolder, fileName);
+        if (!file.getParentFile().equals(backupFolder) || !file.isFile()) {
+            notify(sender, false, "Snapshot not found: " + fileName);
+            return;
+        }
+        
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<UUID, Map<String, AccountHolder>> accounts;
+            try {
+                accounts = SnapshotFile.read(file);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to read snapshot " + fileName, e);
+                notify(sender, false, "Failed to read snapshot: " + e.getMessage());
+                return;
+            }
+            
+            economyManager.restoreAccounts(accounts).whenComplete((result, error) -> {
+                if (error != null) {
+                    notify(sender, false, "Failed to store snapshot " + fileName + ", accounts were not changed");
+                } else {
+                    notify(sender, true, "Restored " + accounts.size() + " players from " + fileName);
+                }
+            });
+        });
+    }
+    
+    /**
+     * Lists the available snapshot files, newest first
+     * @return list of snapshot file names
+     */
+    public List<String> listSnapshots() {
+        File[] files = backupFolder.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        
+        List<String> names = new ArrayList<>();
+        for (File file : files) {
+            names.add(file.getName());
+        }
+        names.sort(Comparator.reverseOrder());
+        return names;
+    }
+    
+    /**
+     * Checks if a snapshot is currently being written
+     * @return true if a snapshot is running
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    /**
+     * Streams the accounts as of the snapshot marker to a new snapshot file
+     * @param snapshot the snapshot marker
+     * @return the written file
+     * @throws IOException if the file could not be written
+     */
+    private File writeSnapshot(AccountSnapshot snapshot) throws IOException {
+        if (!backupFolder.exists()) {
+            backupFolder.mkdirs();
+        }
+        
+        String name = FILE_PREFIX + FILE_TIME_FORMAT.format(snapshot.getTakenAt()) + FILE_SUFFIX;
+        File target = new File(backupFolder, name);
+        File temp = new File(backupFolder, name + ".tmp");
+        
+        SnapshotFile.write(temp, economyManager.getAllAccounts(), snapshot);
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+    
+    /**
+     * Deletes the oldest snapshots beyond the configured limit
+     */
+    private void rotate() {
+        List<String> snapshots = listSnapshots();
+        for (int i = Math.max(1, settings.getKeep()); i < snapshots.size(); i++) {
+            File file = new File(backupFolder, snapshots.get(i));
+            if (!file.delete()) {
+                plugin.getLogger().warning("Could not delete old snapshot " + file.getName());
+            }
+        }
+    }
+    
+    /**
+     * Sends a result message to a sender on the main thread
+     * @param sender the sender, or null
+     * @param success whether the operation succeeded
+     * @param message the message to send
+     */
+    private void notify(CommandSender sender, boolean success, String message) {
+        if (sender == null) {
+            return;
+        }
+        
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (success) {
+                MessageUtil.sendSuccess(sender, message);
+            } else {
+                MessageUtil.sendError(sender, message);
+            }
+        });
+    }
+} 
\ No newline at end of file
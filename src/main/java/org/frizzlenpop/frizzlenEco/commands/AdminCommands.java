@@ -8,8 +8,13 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.backup.SnapshotManager;
+import org.frizzlenpop.frizzlenEco.config.NotificationSettings;
+import org.frizzlenpop.frizzlenEco.economy.AccountNameIndex;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
 import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
+import org.frizzlenpop.frizzlenEco.economy.EconomyResult;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
 import org.frizzlenpop.frizzlenEco.util.MessageUtil;
 
 import java.math.BigDecimal;
@@ -25,6 +30,8 @@ import java.util.stream.Collectors;
 public class AdminCommands implements CommandExecutor, TabCompleter {
     private final FrizzlenEco plugin;
     private final EconomyManager economyManager;
+    private final CommandPipeline pipeline;
+    private final NotificationQueue notifications;
     
     /**
      * Creates a new AdminCommands instance
@@ -33,6 +40,8 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
     public AdminCommands(FrizzlenEco plugin) {
         this.plugin = plugin;
         this.economyManager = plugin.getEconomyManager();
+        this.pipeline = plugin.getCommandPipeline();
+        this.notifications = plugin.getNotificationQueue();
         
         // Register commands
         plugin.getCommand("ecoadmin").setExecutor(this);
@@ -41,6 +50,19 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
     
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        String operation = args.length > 0 ? "ecoadmin " + args[0].toLowerCase() : "ecoadmin";
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.COMMAND, operation)) {
+            return executeCommand(sender, args);
+        }
+    }
+    
+    /**
+     * Runs an admin subcommand
+     * @param sender the command sender
+     * @param args the command arguments
+     * @return true if the command was handled
+     */
+    private boolean executeCommand(CommandSender sender, String[] args) {
         if (!sender.hasPermission("frizzleneco.admin")) {
             MessageUtil.sendError(sender, "You don't have permission to use this command");
             return true;
@@ -66,6 +88,10 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
                 return handleCreateCommand(sender, Arrays.copyOfRange(args, 1, args.length));
             case "reload":
                 return handleReloadCommand(sender, Arrays.copyOfRange(args, 1, args.length));
+            case "backup":
+                return handleBackupCommand(sender, Arrays.copyOfRange(args, 1, args.length));
+            case "profile":
+                return handleProfileCommand(sender, Arrays.copyOfRange(args, 1, args.length));
             case "help":
             default:
                 showHelp(sender);
@@ -84,7 +110,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         if (args.length == 1) {
             // Tab complete for subcommands
             String partialCommand = args[0].toLowerCase();
-            List<String> subCommands = Arrays.asList("give", "take", "set", "reset", "create", "reload", "help");
+            List<String> subCommands = Arrays.asList("give", "take", "set", "reset", "create", "reload", "backup", "profile", "help");
             
             for (String subCommand : subCommands) {
                 if (subCommand.startsWith(partialCommand)) {
@@ -97,12 +123,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             if (subCommand.equals("give") || subCommand.equals("take") || subCommand.equals("set") || subCommand.equals("reset")) {
                 if (args.length == 2) {
                     // Tab complete for player names
-                    String partialName = args[1].toLowerCase();
-                    for (Player player : Bukkit.getOnlinePlayers()) {
-                        if (player.getName().toLowerCase().startsWith(partialName)) {
-                            completions.add(player.getName());
-                        }
-                    }
+                    completions.addAll(economyManager.getNameIndex().complete(args[1], AccountNameIndex.COMPLETION_LIMIT));
                 } else if (args.length == 3 && !subCommand.equals("reset")) {
                     // Tab complete for amount (except reset)
                     completions.add("10");
@@ -117,6 +138,27 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
                         }
                     }
                 }
+            } else if (subCommand.equals("backup")) {
+                if (args.length == 2) {
+                    // Tab complete for backup actions
+                    String partialAction = args[1].toLowerCase();
+                    for (String action : Arrays.asList("create", "list", "restore")) {
+                        if (action.startsWith(partialAction)) {
+                            completions.add(action);
+                        }
+                    }
+                } else if (args.length == 3 && args[1].equalsIgnoreCase("restore")) {
+                    // Tab complete for snapshot files
+                    for (String snapshot : plugin.getSnapshotManager().listSnapshots()) {
+                        if (snapshot.startsWith(args[2])) {
+                            completions.add(snapshot);
+                        }
+                    }
+                }
+            } else if (subCommand.equals("profile")) {
+                if (args.length == 2 && "reset".startsWith(args[1].toLowerCase())) {
+                    completions.add("reset");
+                }
             } else if (subCommand.equals("create")) {
                 if (args.length == 2) {
                     // Tab complete for currency ID
@@ -153,6 +195,8 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         MessageUtil.sendInfo(sender, "/ecoadmin reset <player> [currency] - Reset a player's balance to initial value");
         MessageUtil.sendInfo(sender, "/ecoadmin create <id> <name> <symbol> <initialBalance> - Create a new currency");
         MessageUtil.sendInfo(sender, "/ecoadmin reload - Reload the plugin configuration");
+        MessageUtil.sendInfo(sender, "/ecoadmin backup <create|list|restore> [file] - Manage account snapshots");
+        MessageUtil.sendInfo(sender, "/ecoadmin profile [reset] - Show main-thread time used per tick");
     }
     
     /**
@@ -167,20 +211,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        // Find target player
         String playerName = args[0];
-        OfflinePlayer target = Bukkit.getPlayerExact(playerName);
-        
-        if (target == null) {
-            target = Arrays.stream(Bukkit.getOfflinePlayers())
-                    .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(playerName))
-                    .findFirst().orElse(null);
-        }
-        
-        if (target == null) {
-            MessageUtil.sendError(sender, "Player not found: " + playerName);
-            return true;
-        }
         
         // Parse amount
         BigDecimal amount;
@@ -196,37 +227,35 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         }
         
         // Get currency
-        Currency currency = economyManager.getDefaultCurrency();
-        if (args.length >= 3) {
-            String currencyId = args[2];
-            currency = economyManager.getCurrency(currencyId);
-            
-            if (currency == null) {
-                MessageUtil.sendError(sender, "Currency not found: " + currencyId);
-                return true;
-            }
-        }
-        
-        // Ensure player has an account
-        UUID targetUuid = target.getUniqueId();
-        if (!economyManager.hasAccount(targetUuid, currency)) {
-            economyManager.createAccount(targetUuid, target.getName(), currency);
+        Currency currency = parseCurrency(sender, args, 2);
+        if (currency == null) {
+            return true;
         }
         
-        // Give money to player
-        boolean success = economyManager.deposit(targetUuid, amount, currency);
-        
-        if (success) {
-            MessageUtil.sendSuccess(sender, "Gave " + currency.format(amount) + " to " + target.getName());
+        pipeline.submit(sender, () -> {
+            OfflinePlayer target = findPlayer(playerName);
+            if (target == null) {
+                return () -> MessageUtil.sendError(sender, "Player not found: " + playerName);
+            }
             
-            // Notify player if online
-            Player targetPlayer = target.getPlayer();
-            if (targetPlayer != null && targetPlayer.isOnline()) {
-                MessageUtil.sendSuccess(targetPlayer, "You received " + currency.format(amount) + " from an admin");
+            // Ensure player has an account
+            UUID targetUuid = target.getUniqueId();
+            if (!economyManager.hasAccount(targetUuid, currency)) {
+                economyManager.createAccount(targetUuid, target.getName(), currency);
             }
-        } else {
-            MessageUtil.sendError(sender, "Failed to give money to player. Please try again.");
-        }
+            
+            // Give money to player
+            if (!economyManager.deposit(targetUuid, amount, currency).isSuccess()) {
+                return () -> MessageUtil.sendError(sender, "Failed to give money to player. Please try again.");
+            }
+            
+            return () -> {
+                MessageUtil.sendSuccess(sender, "Gave " + currency.format(amount) + " to " + target.getName());
+                
+                // Notify player, merged with other gifts
+                notifications.notify(targetUuid, NotificationSettings.Type.ADMIN_GIVE, currency, amount, "an admin");
+            };
+        });
         
         return true;
     }
@@ -243,20 +272,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        // Find target player
         String playerName = args[0];
-        OfflinePlayer target = Bukkit.getPlayerExact(playerName);
-        
-        if (target == null) {
-            target = Arrays.stream(Bukkit.getOfflinePlayers())
-                    .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(playerName))
-                    .findFirst().orElse(null);
-        }
-        
-        if (target == null) {
-            MessageUtil.sendError(sender, "Player not found: " + playerName);
-            return true;
-        }
         
         // Parse amount
         BigDecimal amount;
@@ -272,38 +288,35 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         }
         
         // Get currency
-        Currency currency = economyManager.getDefaultCurrency();
-        if (args.length >= 3) {
-            String currencyId = args[2];
-            currency = economyManager.getCurrency(currencyId);
-            
-            if (currency == null) {
-                MessageUtil.sendError(sender, "Currency not found: " + currencyId);
-                return true;
-            }
-        }
-        
-        // Check if player has an account
-        UUID targetUuid = target.getUniqueId();
-        if (!economyManager.hasAccount(targetUuid, currency)) {
-            MessageUtil.sendError(sender, target.getName() + " doesn't have an account for " + currency.getName());
+        Currency currency = parseCurrency(sender, args, 2);
+        if (currency == null) {
             return true;
         }
         
-        // Take money from player
-        boolean success = economyManager.withdraw(targetUuid, amount, currency);
-        
-        if (success) {
-            MessageUtil.sendSuccess(sender, "Took " + currency.format(amount) + " from " + target.getName());
+        pipeline.submit(sender, () -> {
+            OfflinePlayer target = findPlayer(playerName);
+            if (target == null) {
+                return () -> MessageUtil.sendError(sender, "Player not found: " + playerName);
+            }
             
-            // Notify player if online
-            Player targetPlayer = target.getPlayer();
-            if (targetPlayer != null && targetPlayer.isOnline()) {
-                MessageUtil.sendWarning(targetPlayer, "An admin took " + currency.format(amount) + " from your account");
+            // Check if player has an account
+            UUID targetUuid = target.getUniqueId();
+            if (!economyManager.hasAccount(targetUuid, currency)) {
+                return () -> MessageUtil.sendError(sender, target.getName() + " doesn't have an account for " + currency.getName());
             }
-        } else {
-            MessageUtil.sendError(sender, "Failed to take money from player. They may not have enough funds.");
-        }
+            
+            // Take money from player
+            if (!economyManager.withdraw(targetUuid, amount, currency).isSuccess()) {
+                return () -> MessageUtil.sendError(sender, "Failed to take money from player. They may not have enough funds.");
+            }
+            
+            return () -> {
+                MessageUtil.sendSuccess(sender, "Took " + currency.format(amount) + " from " + target.getName());
+                
+                // Notify player, merged with other removals
+                notifications.notify(targetUuid, NotificationSettings.Type.ADMIN_TAKE, currency, amount, "an admin");
+            };
+        });
         
         return true;
     }
@@ -320,20 +333,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        // Find target player
         String playerName = args[0];
-        OfflinePlayer target = Bukkit.getPlayerExact(playerName);
-        
-        if (target == null) {
-            target = Arrays.stream(Bukkit.getOfflinePlayers())
-                    .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(playerName))
-                    .findFirst().orElse(null);
-        }
-        
-        if (target == null) {
-            MessageUtil.sendError(sender, "Player not found: " + playerName);
-            return true;
-        }
         
         // Parse amount
         BigDecimal amount;
@@ -349,50 +349,44 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         }
         
         // Get currency
-        Currency currency = economyManager.getDefaultCurrency();
-        if (args.length >= 3) {
-            String currencyId = args[2];
-            currency = economyManager.getCurrency(currencyId);
-            
-            if (currency == null) {
-                MessageUtil.sendError(sender, "Currency not found: " + currencyId);
-                return true;
-            }
-        }
-        
-        // Ensure player has an account
-        UUID targetUuid = target.getUniqueId();
-        if (!economyManager.hasAccount(targetUuid, currency)) {
-            economyManager.createAccount(targetUuid, target.getName(), currency);
-        }
-        
-        // Get current balance
-        BigDecimal currentBalance = economyManager.getBalance(targetUuid, currency);
-        
-        // Set player's balance
-        boolean success;
-        if (amount.compareTo(currentBalance) > 0) {
-            // Need to deposit
-            success = economyManager.deposit(targetUuid, amount.subtract(currentBalance), currency);
-        } else if (amount.compareTo(currentBalance) < 0) {
-            // Need to withdraw
-            success = economyManager.withdraw(targetUuid, currentBalance.subtract(amount), currency);
-        } else {
-            // No change needed
-            success = true;
+        Currency currency = parseCurrency(sender, args, 2);
+        if (currency == null) {
+            return true;
         }
         
-        if (success) {
-            MessageUtil.sendSuccess(sender, "Set " + target.getName() + "'s balance to " + currency.format(amount));
+        pipeline.submit(sender, () -> {
+            OfflinePlayer target = findPlayer(playerName);
+            if (target == null) {
+                return () -> MessageUtil.sendError(sender, "Player not found: " + playerName);
+            }
             
-            // Notify player if online
-            Player targetPlayer = target.getPlayer();
-            if (targetPlayer != null && targetPlayer.isOnline()) {
-                MessageUtil.sendWarning(targetPlayer, "An admin set your balance to " + currency.format(amount));
+            // Ensure player has an account
+            UUID targetUuid = target.getUniqueId();
+            if (!economyManager.hasAccount(targetUuid, currency)) {
+                economyManager.createAccount(targetUuid, target.getName(), currency);
             }
-        } else {
-            MessageUtil.sendError(sender, "Failed to set player's balance. Please try again.");
-        }
+            
+            // Set player's balance, retrying if it changes between the read and the write
+            BigDecimal currentBalance = economyManager.getBalance(targetUuid, currency);
+            EconomyResult result = economyManager.setIfEquals(targetUuid, currentBalance, amount, currency);
+            while (result.getStatus() == EconomyResult.Status.BALANCE_CHANGED) {
+                result = economyManager.setIfEquals(targetUuid, result.getNewBalance(), amount, currency);
+            }
+            
+            if (!result.isSuccess()) {
+                return () -> MessageUtil.sendError(sender, "Failed to set player's balance. Please try again.");
+            }
+            
+            return () -> {
+                MessageUtil.sendSuccess(sender, "Set " + target.getName() + "'s balance to " + currency.format(amount));
+                
+                // Notify player if online
+                Player targetPlayer = Bukkit.getPlayer(targetUuid);
+                if (targetPlayer != null && targetPlayer.isOnline()) {
+                    MessageUtil.sendWarning(targetPlayer, "An admin set your balance to " + currency.format(amount));
+                }
+            };
+        });
         
         return true;
     }
@@ -409,54 +403,79 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        // Find target player
         String playerName = args[0];
-        OfflinePlayer target = Bukkit.getPlayerExact(playerName);
-        
-        if (target == null) {
-            target = Arrays.stream(Bukkit.getOfflinePlayers())
-                    .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(playerName))
-                    .findFirst().orElse(null);
-        }
         
-        if (target == null) {
-            MessageUtil.sendError(sender, "Player not found: " + playerName);
+        // Get currency
+        Currency currency = parseCurrency(sender, args, 1);
+        if (currency == null) {
             return true;
         }
         
-        // Get currency
-        Currency currency = economyManager.getDefaultCurrency();
-        if (args.length >= 2) {
-            String currencyId = args[1];
-            currency = economyManager.getCurrency(currencyId);
+        pipeline.submit(sender, () -> {
+            OfflinePlayer target = findPlayer(playerName);
+            if (target == null) {
+                return () -> MessageUtil.sendError(sender, "Player not found: " + playerName);
+            }
             
-            if (currency == null) {
-                MessageUtil.sendError(sender, "Currency not found: " + currencyId);
-                return true;
+            // Reset player's account
+            UUID targetUuid = target.getUniqueId();
+            if (!economyManager.createAccount(targetUuid, target.getName(), currency)) {
+                return () -> MessageUtil.sendError(sender, "Failed to reset player's balance. Please try again.");
             }
-        }
-        
-        // Reset player's account
-        UUID targetUuid = target.getUniqueId();
-        boolean success = economyManager.createAccount(targetUuid, target.getName(), currency);
-        
-        if (success) {
-            MessageUtil.sendSuccess(sender, "Reset " + target.getName() + "'s balance to " + 
-                    currency.format(currency.getInitialBalance()));
             
-            // Notify player if online
-            Player targetPlayer = target.getPlayer();
-            if (targetPlayer != null && targetPlayer.isOnline()) {
-                MessageUtil.sendWarning(targetPlayer, "An admin reset your balance to " + 
+            return () -> {
+                MessageUtil.sendSuccess(sender, "Reset " + target.getName() + "'s balance to " + 
                         currency.format(currency.getInitialBalance()));
-            }
-        } else {
-            MessageUtil.sendError(sender, "Failed to reset player's balance. Please try again.");
-        }
+                
+                // Notify player if online
+                Player targetPlayer = Bukkit.getPlayer(targetUuid);
+                if (targetPlayer != null && targetPlayer.isOnline()) {
+                    MessageUtil.sendWarning(targetPlayer, "An admin reset your balance to " + 
+                            currency.format(currency.getInitialBalance()));
+                }
+            };
+        });
         
         return true;
     }
     
+    /**
+     * Gets the currency argument at the given index, or the default currency if absent.
+     * Sends an error to the sender if the currency does not exist.
+     * @param sender the command sender
+     * @param args the command arguments
+     * @param index the index of the currency argument
+     * @return the currency, or null if not found
+     */
+    private Currency parseCurrency(CommandSender sender, String[] args, int index) {
+        if (args.length <= index) {
+            return economyManager.getDefaultCurrency();
+        }
+        
+        Currency currency = economyManager.getCurrency(args[index]);
+        if (currency == null) {
+            MessageUtil.sendError(sender, "Currency not found: " + args[index]);
+        }
+        return currency;
+    }
+    
+    /**
+     * Finds an online or offline player by name.
+     * Scans offline players, so call it from the command pipeline rather than the main thread.
+     * @param playerName the player's name
+     * @return the player, or null if not found
+     */
+    private OfflinePlayer findPlayer(String playerName) {
+        OfflinePlayer player = Bukkit.getPlayerExact(playerName);
+        if (player != null) {
+            return player;
+        }
+        
+        return Arrays.stream(Bukkit.getOfflinePlayers())
+                .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(playerName))
+                .findFirst().orElse(null);
+    }
+    
     /**
      * Handles the create command
      * @param sender the command sender
@@ -503,8 +522,9 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         // Save currency to config
         plugin.getConfigManager().saveCurrency(currency);
         
-        // Reload economy manager to load the new currency
-        economyManager.initialize();
+        // Reload currencies so the new one is available
+        economyManager.reloadCurrencies();
+        invalidateVaultPreferences();
         
         MessageUtil.sendSuccess(sender, "Created new currency: " + name + " (" + symbol + ")");
         
@@ -518,17 +538,92 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
      * @return true if the command was handled
      */
     private boolean handleReloadCommand(CommandSender sender, String[] args) {
-        // Save all data first
-        economyManager.shutdown();
-        
         // Reload config
         plugin.getConfigManager().loadConfigs();
         
-        // Reinitialize economy
-        economyManager.initialize();
+        // Apply it to the running economy, shutting it down would stop the shards for good
+        economyManager.reload();
+        invalidateVaultPreferences();
         
         MessageUtil.sendSuccess(sender, "FrizzlenEco configuration reloaded");
         
         return true;
     }
+    
+    /**
+     * Re-resolves cached Vault currency preferences after currencies were reloaded
+     */
+    private void invalidateVaultPreferences() {
+        if (plugin.getVaultHook() != null && plugin.getVaultHook().getCurrencyAdapter() != null) {
+            plugin.getVaultHook().getCurrencyAdapter().invalidatePreferences();
+        }
+    }
+    
+    /**
+     * Handles the backup command
+     * @param sender the command sender
+     * @param args the command arguments
+     * @return true if the command was handled
+     */
+    private boolean handleBackupCommand(CommandSender sender, String[] args) {
+        if (args.length < 1) {
+            MessageUtil.sendError(sender, "Usage: /ecoadmin backup <create|list|restore> [file]");
+            return true;
+        }
+        
+        SnapshotManager snapshotManager = plugin.getSnapshotManager();
+        
+        switch (args[0].toLowerCase()) {
+            case "create":
+                if (snapshotManager.createSnapshot(sender)) {
+                    MessageUtil.sendInfo(sender, "Snapshot started, you will be notified when it is written");
+                } else {
+                    MessageUtil.sendError(sender, "A snapshot is already being written");
+                }
+                return true;
+            case "list":
+                List<String> snapshots = snapshotManager.listSnapshots();
+                if (snapshots.isEmpty()) {
+                    MessageUtil.sendInfo(sender, "No snapshots found");
+                    return true;
+                }
+                
+                MessageUtil.sendInfo(sender, "=== Snapshots (newest first) ===");
+                for (String snapshot : snapshots) {
+                    MessageUtil.sendInfo(sender, snapshot);
+                }
+                return true;
+            case "restore":
+                if (args.length < 2) {
+                    MessageUtil.sendError(sender, "Usage: /ecoadmin backup restore <file>");
+                    return true;
+                }
+                
+                MessageUtil.sendWarning(sender, "Restoring " + args[1] + ", current balances will be replaced");
+                snapshotManager.restoreSnapshot(sender, args[1]);
+                return true;
+            default:
+                MessageUtil.sendError(sender, "Usage: /ecoadmin backup <create|list|restore> [file]");
+                return true;
+        }
+    }
+    
+    /**
+     * Handles the profile command
+     * @param sender the command sender
+     * @param args the command arguments
+     * @return true if the command was handled
+     */
+    private boolean handleProfileCommand(CommandSender sender, String[] args) {
+        TickProfiler profiler = plugin.getTickProfiler();
+        
+        if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            profiler.reset();
+            MessageUtil.sendSuccess(sender, "Profiler history cleared");
+            return true;
+        }
+        
+        profiler.sendReport(sender);
+        return true;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,135 @@
+package org.frizzlenpop.frizzlenEco.commands;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
+import org.frizzlenpop.frizzlenEco.util.MessageUtil;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Runs the expensive part of economy commands off the main thread.
+ * <p>
+ * Commands parse their arguments on the main thread and submit the rest here.
+ * Work runs on a dedicated executor, and the returned reply is scheduled back
+ * onto the main thread. Work from the same sender is chained, so two quick
+ * commands from one player always run in the order they were issued.
+ */
+public class CommandPipeline {
+    private static final String CONSOLE_KEY = "console";
+    
+    private final FrizzlenEco plugin;
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    private final Map<Object, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a new CommandPipeline
+     * @param plugin the FrizzlenEco plugin instance
+     */
+    public CommandPipeline(FrizzlenEco plugin) {
+        this.plugin = plugin;
+        this.timeoutMillis = plugin.getConfigManager().getGeneralSettings().getCommandTimeoutMillis();
+        
+        int threads = Math.max(1, plugin.getConfigManager().getGeneralSettings().getCommandThreads());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "FrizzlenEco-Commands-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Submits command work for a sender.
+     * The work runs off the main thread and returns a reply to run on the main thread, or null.
+     * @param sender the command sender, used for ordering and feedback
+     * @param work the work to run asynchronously
+     */
+    public void submit(CommandSender sender, Supplier<Runnable> work) {
+        Object key = sender instanceof Player ? ((Player) sender).getUniqueId() : CONSOLE_KEY;
+        
+        CompletableFuture<Runnable> task = new CompletableFuture<>();
+        CompletableFuture<?> previous = tails.put(key, task);
+        
+        Runnable run = () -> {
+            try {
+                task.complete(work.get());
+            } catch (Throwable t) {
+                task.completeExceptionally(t);
+            }
+        };
+        
+        // Chain behind the sender's previous command, whether it succeeded or not
+        if (previous == null) {
+            dispatch(run, task);
+        } else {
+            previous.whenComplete((result, error) -> dispatch(run, task));
+        }
+        
+        task.whenComplete((reply, error) -> {
+            tails.remove(key, task);
+            if (!plugin.isEnabled()) {
+                return;
+            }
+            
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Error executing command for " + sender.getName(), error);
+                    MessageUtil.sendError(sender, "An internal error occurred while processing your command");
+                } else if (reply != null) {
+                    try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.COMMAND, "reply")) {
+                        reply.run();
+                    }
+                }
+            });
+        });
+        
+        // Let the sender know if the command is stuck behind a slow database
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!task.isDone() && plugin.isEnabled()) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    if (!task.isDone()) {
+                        MessageUtil.sendWarning(sender, "Your request is taking longer than expected, " +
+                                "you will be notified when it completes");
+                    }
+                });
+            }
+        });
+    }
+    
+    /**
+     * Hands work to the executor, failing the task if the pipeline was shut down
+     * @param run the work to run
+     * @param task the task completed by the work
+     */
+    private void dispatch(Runnable run, CompletableFuture<Runnable> task) {
+        try {
+            executor.execute(run);
+        } catch (RejectedExecutionException e) {
+            task.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * Stops accepting work and waits briefly for queued commands to finish
+     */
+    public void shutdown() {
+        executor.shutdown();
+        
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for queued commands to finish");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+} 
\ No newline at end of file
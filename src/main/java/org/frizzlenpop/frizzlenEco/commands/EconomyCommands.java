@@ -9,8 +9,12 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.NotificationSettings;
+import org.frizzlenpop.frizzlenEco.economy.AccountNameIndex;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
 import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
+import org.frizzlenpop.frizzlenEco.economy.EconomyResult;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
 import org.frizzlenpop.frizzlenEco.util.MessageUtil;
 
 import java.math.BigDecimal;
@@ -26,6 +30,8 @@ import java.util.stream.Collectors;
 public class EconomyCommands implements CommandExecutor, TabCompleter {
     private final FrizzlenEco plugin;
     private final EconomyManager economyManager;
+    private final CommandPipeline pipeline;
+    private final NotificationQueue notifications;
     
     /**
      * Creates a new EconomyCommands instance
@@ -34,6 +40,8 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
     public EconomyCommands(FrizzlenEco plugin) {
         this.plugin = plugin;
         this.economyManager = plugin.getEconomyManager();
+        this.pipeline = plugin.getCommandPipeline();
+        this.notifications = plugin.getNotificationQueue();
         
         // Register commands
         plugin.getCommand("money").setExecutor(this);
@@ -46,6 +54,19 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
     
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.COMMAND, command.getName())) {
+            return executeCommand(sender, command, args);
+        }
+    }
+    
+    /**
+     * Runs a balance or pay command
+     * @param sender the command sender
+     * @param command the command
+     * @param args the command arguments
+     * @return true if the command was handled
+     */
+    private boolean executeCommand(CommandSender sender, Command command, String[] args) {
         if (command.getName().equalsIgnoreCase("money") || command.getName().equalsIgnoreCase("balance")) {
             return handleBalanceCommand(sender, args);
         } else if (command.getName().equalsIgnoreCase("pay")) {
@@ -62,12 +83,7 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
         if (command.getName().equalsIgnoreCase("money") || command.getName().equalsIgnoreCase("balance")) {
             if (args.length == 1) {
                 // Tab complete for player names
-                String partialName = args[0].toLowerCase();
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    if (player.getName().toLowerCase().startsWith(partialName)) {
-                        completions.add(player.getName());
-                    }
-                }
+                completions.addAll(economyManager.getNameIndex().complete(args[0], AccountNameIndex.COMPLETION_LIMIT));
             } else if (args.length == 2) {
                 // Tab complete for currency
                 String partialCurrency = args[1].toLowerCase();
@@ -80,10 +96,9 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
         } else if (command.getName().equalsIgnoreCase("pay")) {
             if (args.length == 1) {
                 // Tab complete for player names
-                String partialName = args[0].toLowerCase();
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    if (player.getName().toLowerCase().startsWith(partialName) && !player.getName().equals(sender.getName())) {
-                        completions.add(player.getName());
+                for (String name : economyManager.getNameIndex().complete(args[0], AccountNameIndex.COMPLETION_LIMIT + 1)) {
+                    if (!name.equals(sender.getName()) && completions.size() < AccountNameIndex.COMPLETION_LIMIT) {
+                        completions.add(name);
                     }
                 }
             } else if (args.length == 3) {
@@ -108,7 +123,6 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
      */
     private boolean handleBalanceCommand(CommandSender sender, String[] args) {
         // /balance [player] [currency]
-        OfflinePlayer target;
         Currency currency = economyManager.getDefaultCurrency();
         
         if (args.length == 0) {
@@ -118,44 +132,42 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
                 return true;
             }
             
-            target = (Player) sender;
-        } else {
-            // Check another player's balance
-            String playerName = args[0];
-            target = Bukkit.getPlayerExact(playerName);
+            UUID senderUuid = ((Player) sender).getUniqueId();
+            Currency finalCurrency = currency;
+            pipeline.submit(sender, () -> {
+                BigDecimal balance = economyManager.getBalance(senderUuid, finalCurrency);
+                return () -> MessageUtil.sendInfo(sender, "Your balance: " + finalCurrency.format(balance));
+            });
+            return true;
+        }
+        
+        // Check for specified currency
+        if (args.length >= 2) {
+            String currencyId = args[1];
+            currency = economyManager.getCurrency(currencyId);
             
-            if (target == null) {
-                target = Arrays.stream(Bukkit.getOfflinePlayers())
-                        .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(playerName))
-                        .findFirst().orElse(null);
+            if (currency == null) {
+                MessageUtil.sendError(sender, "Currency not found: " + currencyId);
+                return true;
             }
-            
+        }
+        
+        // Resolve the player and read the balance off the main thread
+        String playerName = args[0];
+        Currency finalCurrency = currency;
+        pipeline.submit(sender, () -> {
+            OfflinePlayer target = findPlayer(playerName);
             if (target == null) {
-                MessageUtil.sendError(sender, "Player not found: " + playerName);
-                return true;
+                return () -> MessageUtil.sendError(sender, "Player not found: " + playerName);
             }
             
-            // Check for specified currency
-            if (args.length >= 2) {
-                String currencyId = args[1];
-                currency = economyManager.getCurrency(currencyId);
-                
-                if (currency == null) {
-                    MessageUtil.sendError(sender, "Currency not found: " + currencyId);
-                    return true;
-                }
+            BigDecimal balance = economyManager.getBalance(target.getUniqueId(), finalCurrency);
+            
+            if (sender.equals(target)) {
+                return () -> MessageUtil.sendInfo(sender, "Your balance: " + finalCurrency.format(balance));
             }
-        }
-        
-        // Get the balance
-        BigDecimal balance = economyManager.getBalance(target.getUniqueId(), currency);
-        
-        // Send balance message
-        if (sender.equals(target)) {
-            MessageUtil.sendInfo(sender, "Your balance: " + currency.format(balance));
-        } else {
-            MessageUtil.sendInfo(sender, target.getName() + "'s balance: " + currency.format(balance));
-        }
+            return () -> MessageUtil.sendInfo(sender, target.getName() + "'s balance: " + finalCurrency.format(balance));
+        });
         
         return true;
     }
@@ -181,25 +193,6 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
         Player from = (Player) sender;
         String targetName = args[0];
         
-        // Find target player
-        OfflinePlayer to = Bukkit.getPlayerExact(targetName);
-        if (to == null) {
-            to = Arrays.stream(Bukkit.getOfflinePlayers())
-                 .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(targetName))
-                 .findFirst().orElse(null);
-            
-            if (to == null) {
-                MessageUtil.sendError(sender, "Player not found: " + targetName);
-                return true;
-            }
-        }
-        
-        // Cannot pay yourself
-        if (from.getUniqueId().equals(to.getUniqueId())) {
-            MessageUtil.sendError(sender, "You cannot pay yourself");
-            return true;
-        }
-        
         // Parse amount
         BigDecimal amount;
         try {
@@ -225,30 +218,63 @@ public class EconomyCommands implements CommandExecutor, TabCompleter {
             }
         }
         
-        // Check if sender has enough money
+        // Resolve the target and move the money off the main thread
         UUID fromUuid = from.getUniqueId();
-        if (!economyManager.has(fromUuid, amount, currency)) {
-            MessageUtil.sendError(sender, "You don't have enough " + currency.getName() + 
-                    ". Required: " + currency.format(amount));
-            return true;
-        }
-        
-        // Perform transfer
-        boolean success = economyManager.transfer(fromUuid, to.getUniqueId(), amount, currency);
-        if (success) {
-            MessageUtil.sendSuccess(sender, "You paid " + to.getName() + " " + 
-                    currency.format(amount));
+        String fromName = from.getName();
+        Currency finalCurrency = currency;
+        pipeline.submit(sender, () -> {
+            OfflinePlayer to = findPlayer(targetName);
+            if (to == null) {
+                return () -> MessageUtil.sendError(sender, "Player not found: " + targetName);
+            }
             
-            // Notify receiver if online
-            Player toPlayer = to.getPlayer();
-            if (toPlayer != null && toPlayer.isOnline()) {
-                MessageUtil.sendSuccess(toPlayer, "You received " + currency.format(amount) + 
-                        " from " + from.getName());
+            // Cannot pay yourself
+            if (fromUuid.equals(to.getUniqueId())) {
+                return () -> MessageUtil.sendError(sender, "You cannot pay yourself");
             }
-        } else {
-            MessageUtil.sendError(sender, "Failed to transfer funds. Please try again.");
-        }
+            
+            // Perform transfer, the result says why it failed
+            EconomyResult result = economyManager.transfer(fromUuid, to.getUniqueId(), amount, finalCurrency);
+            switch (result.getStatus()) {
+                case SUCCESS:
+                    break;
+                case INSUFFICIENT_FUNDS:
+                case NO_ACCOUNT:
+                    return () -> MessageUtil.sendError(sender, "You don't have enough " + finalCurrency.getName() +
+                            ". Required: " + finalCurrency.format(amount));
+                case BALANCE_LIMIT:
+                    return () -> MessageUtil.sendError(sender, to.getName() + " cannot hold that much " + finalCurrency.getName());
+                default:
+                    return () -> MessageUtil.sendError(sender, "Failed to transfer funds. Please try again.");
+            }
+            
+            UUID toUuid = to.getUniqueId();
+            String toName = to.getName();
+            return () -> {
+                MessageUtil.sendSuccess(sender, "You paid " + toName + " " + finalCurrency.format(amount));
+                
+                // Notify receiver, merged with other payments they receive
+                notifications.notify(toUuid, NotificationSettings.Type.PAYMENT_RECEIVED, finalCurrency, amount, fromName);
+            };
+        });
         
         return true;
     }
+    
+    /**
+     * Finds an online or offline player by name.
+     * Scans offline players, so call it from the command pipeline rather than the main thread.
+     * @param playerName the player's name
+     * @return the player, or null if not found
+     */
+    private OfflinePlayer findPlayer(String playerName) {
+        OfflinePlayer player = Bukkit.getPlayerExact(playerName);
+        if (player != null) {
+            return player;
+        }
+        
+        return Arrays.stream(Bukkit.getOfflinePlayers())
+                .filter(p -> p.getName() != null && p.getName().equalsIgnoreCase(playerName))
+                .findFirst().orElse(null);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,204 @@
+package org.frizzlenpop.frizzlenEco.commands;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.NotificationSettings;
+import org.frizzlenpop.frizzlenEco.economy.Currency;
+import org.frizzlenpop.frizzlenEco.util.MessageUtil;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Merges balance notifications to players before sending them.
+ * <p>
+ * A shop selling 40 items in a second would otherwise send its owner 40 chat messages.
+ * Notices of a batched type are collected per player, type and currency for a short
+ * window and then sent as one message, e.g. "You received $1,240 from 12 players".
+ * Pending notices are checked once per tick on the main thread.
+ */
+public class NotificationQueue {
+    private final FrizzlenEco plugin;
+    private final NotificationSettings settings;
+    private final Map<Key, Batch> batches = new LinkedHashMap<>();
+    private BukkitTask tickTask;
+    private long tick;
+    
+    /**
+     * Creates a new NotificationQueue
+     * @param plugin the FrizzlenEco plugin instance
+     */
+    public NotificationQueue(FrizzlenEco plugin) {
+        this.plugin = plugin;
+        this.settings = plugin.getConfigManager().getNotificationSettings();
+    }
+    
+    /**
+     * Starts sending due notifications every tick
+     */
+    public void initialize() {
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sendDue, 1L, 1L);
+    }
+    
+    /**
+     * Notifies a player of a change to their balance, now or merged with others of its kind.
+     * Call from the main thread.
+     * @param playerUuid the player to notify
+     * @param type the kind of change
+     * @param currency the currency of the change
+     * @param amount the amount of the change
+     * @param from who caused the change, e.g. the paying player's name
+     */
+    public void notify(UUID playerUuid, NotificationSettings.Type type, Currency currency, BigDecimal amount, String from) {
+        if (!settings.isBatched(type)) {
+            Batch single = new Batch(tick);
+            single.add(amount, from);
+            send(playerUuid, type, currency, single);
+            return;
+        }
+        
+        batches.computeIfAbsent(new Key(playerUuid, type, currency), key -> new Batch(tick)).add(amount, from);
+    }
+    
+    /**
+     * Sends the batches whose window has passed
+     */
+    private void sendDue() {
+        tick++;
+        if (batches.isEmpty()) {
+            return;
+        }
+        
+        // Batches are kept in the order they were started, so the due ones come first
+        List<Map.Entry<Key, Batch>> due = new ArrayList<>();
+        for (Iterator<Map.Entry<Key, Batch>> it = batches.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Batch> entry = it.next();
+            if (tick - entry.getValue().startTick < settings.getWindowTicks()) {
+                break;
+            }
+            due.add(entry);
+            it.remove();
+        }
+        
+        for (Map.Entry<Key, Batch> entry : due) {
+            send(entry.getKey().playerUuid, entry.getKey().type, entry.getKey().currency, entry.getValue());
+        }
+    }
+    
+    private void send(UUID playerUuid, NotificationSettings.Type type, Currency currency, Batch batch) {
+        Player player = Bukkit.getPlayer(playerUuid);
+        if (player == null || !player.isOnline()) {
+            return;
+        }
+        
+        String message = format(type, currency.format(batch.total), batch);
+        if (type == NotificationSettings.Type.ADMIN_TAKE) {
+            MessageUtil.sendWarning(player, message);
+        } else {
+            MessageUtil.sendSuccess(player, message);
+        }
+    }
+    
+    /**
+     * Words a notification, naming the sender of a single notice or counting merged ones
+     * @param type the kind of change
+     * @param total the formatted total amount
+     * @param batch the merged notices
+     * @return the message
+     */
+    static String format(NotificationSettings.Type type, String total, Batch batch) {
+        if (type == NotificationSettings.Type.ADMIN_TAKE) {
+            return batch.count == 1
+                    ? "An admin took " + total + " from your account"
+                    : "Admins took " + total + " from your account in " + batch.count + " changes";
+        }
+        
+        String from;
+        if (batch.senders.size() == 1) {
+            from = batch.senders.iterator().next();
+            if (batch.count > 1) {
+                from += " in " + batch.count + " payments";
+            }
+        } else {
+            from = batch.senders.size() + " players";
+        }
+        return "You received " + total + " from " + from;
+    }
+    
+    /**
+     * Stops the tick task and sends whatever is still pending
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        
+        for (Map.Entry<Key, Batch> entry : batches.entrySet()) {
+            send(entry.getKey().playerUuid, entry.getKey().type, entry.getKey().currency, entry.getValue());
+        }
+        batches.clear();
+    }
+    
+    /**
+     * Notices merged into one message
+     */
+    static final class Batch {
+        private final long startTick;
+        private final Set<String> senders = new LinkedHashSet<>();
+        private BigDecimal total = BigDecimal.ZERO;
+        private int count;
+        
+        Batch(long startTick) {
+            this.startTick = startTick;
+        }
+        
+        void add(BigDecimal amount, String from) {
+            total = total.add(amount);
+            senders.add(from != null ? from : "an unknown player");
+            count++;
+        }
+        
+        BigDecimal getTotal() {
+            return total;
+        }
+    }
+    
+    /**
+     * A player's notices of one type in one currency
+     */
+    private static final class Key {
+        private final UUID playerUuid;
+        private final NotificationSettings.Type type;
+        private final Currency currency;
+        
+        private Key(UUID playerUuid, NotificationSettings.Type type, Currency currency) {
+            this.playerUuid = playerUuid;
+            this.type = type;
+            this.currency = currency;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return playerUuid.equals(key.playerUuid) && type == key.type && currency.equals(key.currency);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerUuid, type, currency);
+        }
+    }
+} 
\ No newline at end of file
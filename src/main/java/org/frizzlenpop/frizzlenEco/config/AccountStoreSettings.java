@@ -0,0 +1,44 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores settings for how loaded accounts are kept in memory
+ */
+public class AccountStoreSettings {
+    /**
+     * The memory layout of the loaded accounts
+     */
+    public enum Layout {
+        HEAP,
+        COMPACT,
+        OFF_HEAP
+    }
+    
+    private final Layout layout;
+    private final int initialCapacity;
+    
+    /**
+     * Creates new account store settings
+     * @param layout the memory layout of the loaded accounts
+     * @param initialCapacity the number of accounts space is reserved for up front
+     */
+    public AccountStoreSettings(Layout layout, int initialCapacity) {
+        this.layout = layout;
+        this.initialCapacity = Math.max(16, initialCapacity);
+    }
+    
+    /**
+     * Gets the memory layout of the loaded accounts
+     * @return the layout
+     */
+    public Layout getLayout() {
+        return layout;
+    }
+    
+    /**
+     * Gets the number of accounts space is reserved for up front
+     * @return the initial capacity
+     */
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,48 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores settings for aggregating small deposits
+ */
+public class AggregationSettings {
+    private final boolean enabled;
+    private final BigDecimal threshold;
+    private final int windowMillis;
+    
+    /**
+     * Creates new aggregation settings
+     * @param enabled whether small deposits are aggregated
+     * @param threshold the largest amount that counts as a small deposit
+     * @param windowMillis how long small deposits are collected before they are applied
+     */
+    public AggregationSettings(boolean enabled, BigDecimal threshold, int windowMillis) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.windowMillis = Math.max(50, windowMillis);
+    }
+    
+    /**
+     * Checks whether small deposits are aggregated
+     * @return true if aggregation is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Gets the largest amount that counts as a small deposit
+     * @return the threshold
+     */
+    public BigDecimal getThreshold() {
+        return threshold;
+    }
+    
+    /**
+     * Gets how long small deposits are collected before they are applied
+     * @return the window in milliseconds, at least one tick
+     */
+    public int getWindowMillis() {
+        return windowMillis;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,46 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores snapshot backup settings
+ */
+public class BackupSettings {
+    private final boolean enabled;
+    private final int intervalMinutes;
+    private final int keep;
+    
+    /**
+     * Creates new backup settings
+     * @param enabled whether scheduled snapshots are enabled
+     * @param intervalMinutes the interval between scheduled snapshots in minutes
+     * @param keep the number of snapshot files to keep
+     */
+    public BackupSettings(boolean enabled, int intervalMinutes, int keep) {
+        this.enabled = enabled;
+        this.intervalMinutes = intervalMinutes;
+        this.keep = keep;
+    }
+    
+    /**
+     * Checks if scheduled snapshots are enabled
+     * @return true if scheduled snapshots are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Gets the interval between scheduled snapshots
+     * @return the interval in minutes
+     */
+    public int getIntervalMinutes() {
+        return intervalMinutes;
+    }
+    
+    /**
+     * Gets the number of snapshot files to keep
+     * @return the number of snapshots kept during rotation
+     */
+    public int getKeep() {
+        return keep;
+    }
+} 
\ No newline at end of file
@@ -10,9 +10,11 @@ import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -28,7 +30,18 @@ public class ConfigManager {
     private File currencyFile;
     
     private DatabaseSettings databaseSettings;
+    private FlushSettings flushSettings;
+    private SqliteSettings sqliteSettings;
+    private MySqlBulkSettings mySqlBulkSettings;
+    private LogStoreSettings logStoreSettings;
+    private AccountStoreSettings accountStoreSettings;
+    private EngineSettings engineSettings;
+    private AggregationSettings aggregationSettings;
+    private NotificationSettings notificationSettings;
+    private EventSettings eventSettings;
     private GeneralSettings generalSettings;
+    private BackupSettings backupSettings;
+    private ProfilerSettings profilerSettings;
     
     /**
      * Creates a new ConfigManager
@@ -83,6 +96,30 @@ public class ConfigManager {
             config.set("database.sqlite.file", "database.db");
         }
         
+        if (!config.contains("database.sqlite.tuned")) {
+            config.set("database.sqlite.tuned", true);
+        }
+        
+        if (!config.contains("database.sqlite.cacheSizeKb")) {
+            config.set("database.sqlite.cacheSizeKb", 32768);
+        }
+        
+        if (!config.contains("database.sqlite.mmapSizeMb")) {
+            config.set("database.sqlite.mmapSizeMb", 256);
+        }
+        
+        if (!config.contains("database.sqlite.readConnections")) {
+            config.set("database.sqlite.readConnections", 4);
+        }
+        
+        if (!config.contains("database.sqlite.maxBatchSize")) {
+            config.set("database.sqlite.maxBatchSize", 1000);
+        }
+        
+        if (!config.contains("database.sqlite.shards")) {
+            config.set("database.sqlite.shards", 1);
+        }
+        
         if (!config.contains("database.mysql.host")) {
             config.set("database.mysql.host", "localhost");
         }
@@ -107,6 +144,70 @@ public class ConfigManager {
             config.set("database.mysql.useSSL", false);
         }
         
+        if (!config.contains("database.mysql.bulk.minRows")) {
+            config.set("database.mysql.bulk.minRows", 64);
+        }
+        
+        if (!config.contains("database.mysql.bulk.maxRows")) {
+            config.set("database.mysql.bulk.maxRows", 4096);
+        }
+        
+        if (!config.contains("database.mysql.bulk.targetLatencyMillis")) {
+            config.set("database.mysql.bulk.targetLatencyMillis", 50);
+        }
+        
+        if (!config.contains("database.mysql.bulk.transactionFlushMillis")) {
+            config.set("database.mysql.bulk.transactionFlushMillis", 1000);
+        }
+        
+        if (!config.contains("database.log.directory")) {
+            config.set("database.log.directory", "storage");
+        }
+        
+        if (!config.contains("database.log.segmentSizeMb")) {
+            config.set("database.log.segmentSizeMb", 64);
+        }
+        
+        if (!config.contains("database.log.syncIntervalMillis")) {
+            config.set("database.log.syncIntervalMillis", 0);
+        }
+        
+        if (!config.contains("database.log.compactionIntervalSeconds")) {
+            config.set("database.log.compactionIntervalSeconds", 300);
+        }
+        
+        if (!config.contains("database.log.compactionGarbageRatio")) {
+            config.set("database.log.compactionGarbageRatio", 0.5);
+        }
+        
+        if (!config.contains("database.log.historyPerPlayer")) {
+            config.set("database.log.historyPerPlayer", 100);
+        }
+        
+        if (!config.contains("database.loader.threads")) {
+            config.set("database.loader.threads", 4);
+        }
+        
+        if (!config.contains("database.loader.fetchSize")) {
+            config.set("database.loader.fetchSize", 5000);
+        }
+        
+        if (!config.contains("database.flush.intervalSeconds")) {
+            config.set("database.flush.intervalSeconds", 60);
+        }
+        
+        if (!config.contains("database.flush.threads")) {
+            config.set("database.flush.threads", 4);
+        }
+        
+        if (!config.contains("database.flush.chunkSize")) {
+            config.set("database.flush.chunkSize", 500);
+        }
+        
+        if (!config.contains("database.flush.shutdownDeadlineSeconds")) {
+            config.set("database.flush.shutdownDeadlineSeconds", 20);
+        }
+        
         // General settings
         if (!config.contains("general.commandPrefix")) {
             config.set("general.commandPrefix", "&a[FrizzlenEco]&r");
@@ -132,6 +233,105 @@ public class ConfigManager {
             config.set("general.enableUpdateChecks", true);
         }
         
+        if (!config.contains("general.commandThreads")) {
+            config.set("general.commandThreads", 2);
+        }
+        
+        if (!config.contains("general.commandTimeoutMillis")) {
+            config.set("general.commandTimeoutMillis", 3000);
+        }
+        
+        // Account store settings
+        if (!config.contains("accounts.store")) {
+            config.set("accounts.store", "heap");
+        }
+        
+        if (!config.contains("accounts.initialCapacity")) {
+            config.set("accounts.initialCapacity", 16384);
+        }
+        
+        // Engine settings
+        if (!config.contains("engine.mode")) {
+            config.set("engine.mode", "direct");
+        }
+        
+        if (!config.contains("engine.shards")) {
+            config.set("engine.shards", 0);
+        }
+        
+        // Aggregation settings
+        if (!config.contains("aggregation.enabled")) {
+            config.set("aggregation.enabled", false);
+        }
+        
+        if (!config.contains("aggregation.threshold")) {
+            config.set("aggregation.threshold", 10.0);
+        }
+        
+        if (!config.contains("aggregation.windowMillis")) {
+            config.set("aggregation.windowMillis", 1000);
+        }
+        
+        // Event settings
+        if (!config.contains("events.mode")) {
+            config.set("events.mode", "queue");
+        }
+        
+        if (!config.contains("events.queueCapacity")) {
+            config.set("events.queueCapacity", 10000);
+        }
+        
+        if (!config.contains("events.tickBudgetMicros")) {
+            config.set("events.tickBudgetMicros", 2000);
+        }
+        
+        // Notification settings
+        if (!config.contains("notifications.windowTicks")) {
+            config.set("notifications.windowTicks", 20);
+        }
+        
+        if (!config.contains("notifications.batch.paymentReceived")) {
+            config.set("notifications.batch.paymentReceived", true);
+        }
+        
+        if (!config.contains("notifications.batch.adminGive")) {
+            config.set("notifications.batch.adminGive", true);
+        }
+        
+        if (!config.contains("notifications.batch.adminTake")) {
+            config.set("notifications.batch.adminTake", true);
+        }
+        
+        // Backup settings
+        if (!config.contains("backup.enabled")) {
+            config.set("backup.enabled", true);
+        }
+        
+        if (!config.contains("backup.intervalMinutes")) {
+            config.set("backup.intervalMinutes", 360);
+        }
+        
+        if (!config.contains("backup.keep")) {
+            config.set("backup.keep", 10);
+        }
+        
+        // Profiler settings
+        if (!config.contains("profiler.enabled")) {
+            config.set("profiler.enabled", true);
+        }
+        
+        if (!config.contains("profiler.tickBudgetMicros")) {
+            config.set("profiler.tickBudgetMicros", 5000);
+        }
+        
+        if (!config.contains("profiler.operationBudgetMicros")) {
+            config.set("profiler.operationBudgetMicros", 2000);
+        }
+        
+        if (!config.contains("profiler.logStackTraces")) {
+            config.set("profiler.logStackTraces", true);
+        }
+        
         saveMainConfig();
     }
     
@@ -180,6 +380,8 @@ public class ConfigManager {
     private void loadSettings() {
         // Load database settings
         String dbType = config.getString("database.type", "sqlite");
+        int loaderThreads = config.getInt("database.loader.threads", 4);
+        int fetchSize = config.getInt("database.loader.fetchSize", 5000);
         
         if (dbType.equalsIgnoreCase("mysql")) {
             String host = config.getString("database.mysql.host");
@@ -190,13 +392,57 @@ public class ConfigManager {
             boolean useSSL = config.getBoolean("database.mysql.useSSL");
             
             databaseSettings = new DatabaseSettings(DatabaseSettings.DatabaseType.MYSQL,
-                    host, port, database, username, password, useSSL, null);
+                    host, port, database, username, password, useSSL, null, loaderThreads, fetchSize);
+        } else if (dbType.equalsIgnoreCase("memory")) {
+            databaseSettings = new DatabaseSettings(DatabaseSettings.DatabaseType.MEMORY,
+                    null, 0, null, null, null, false, null, loaderThreads, fetchSize);
+        } else if (dbType.equalsIgnoreCase("log")) {
+            databaseSettings = new DatabaseSettings(DatabaseSettings.DatabaseType.LOG,
+                    null, 0, null, null, null, false, null, loaderThreads, fetchSize);
         } else {
             String file = config.getString("database.sqlite.file");
             databaseSettings = new DatabaseSettings(DatabaseSettings.DatabaseType.SQLITE,
-                    null, 0, null, null, null, false, new File(plugin.getDataFolder(), file));
+                    null, 0, null, null, null, false, new File(plugin.getDataFolder(), file),
+                    loaderThreads, fetchSize);
         }
         
+        // Load SQLite tuning settings
+        boolean sqliteTuned = config.getBoolean("database.sqlite.tuned");
+        int cacheSizeKb = config.getInt("database.sqlite.cacheSizeKb");
+        int mmapSizeMb = config.getInt("database.sqlite.mmapSizeMb");
+        int readConnections = config.getInt("database.sqlite.readConnections");
+        int maxBatchSize = config.getInt("database.sqlite.maxBatchSize");
+        int shards = config.getInt("database.sqlite.shards");
+        
+        sqliteSettings = new SqliteSettings(sqliteTuned, cacheSizeKb, mmapSizeMb, readConnections, maxBatchSize, shards);
+        
+        // Load MySQL bulk write settings
+        int bulkMinRows = config.getInt("database.mysql.bulk.minRows");
+        int bulkMaxRows = config.getInt("database.mysql.bulk.maxRows");
+        int targetLatency = config.getInt("database.mysql.bulk.targetLatencyMillis");
+        int transactionFlush = config.getInt("database.mysql.bulk.transactionFlushMillis");
+        
+        mySqlBulkSettings = new MySqlBulkSettings(bulkMinRows, bulkMaxRows, targetLatency, transactionFlush);
+        
+        // Load log store settings
+        File logDirectory = new File(plugin.getDataFolder(), config.getString("database.log.directory", "storage"));
+        int segmentSizeMb = config.getInt("database.log.segmentSizeMb");
+        int syncInterval = config.getInt("database.log.syncIntervalMillis");
+        int compactionInterval = config.getInt("database.log.compactionIntervalSeconds");
+        double garbageRatio = config.getDouble("database.log.compactionGarbageRatio");
+        int historyPerPlayer = config.getInt("database.log.historyPerPlayer");
+        
+        logStoreSettings = new LogStoreSettings(logDirectory, segmentSizeMb, syncInterval, compactionInterval,
+                garbageRatio, historyPerPlayer);
+        
+        // Load flush settings
+        int flushInterval = config.getInt("database.flush.intervalSeconds");
+        int flushThreads = config.getInt("database.flush.threads");
+        int flushChunkSize = config.getInt("database.flush.chunkSize");
+        int shutdownDeadline = config.getInt("database.flush.shutdownDeadlineSeconds");
+        
+        flushSettings = new FlushSettings(flushInterval, flushThreads, flushChunkSize, shutdownDeadline);
+        
         // Load general settings
         String commandPrefix = config.getString("general.commandPrefix");
         String balanceFormat = config.getString("general.balanceFormat");
@@ -204,9 +450,79 @@ public class ConfigManager {
         int interestInterval = config.getInt("general.interestInterval");
         boolean enableMetrics = config.getBoolean("general.enableMetrics");
         boolean enableUpdateChecks = config.getBoolean("general.enableUpdateChecks");
+        int commandThreads = config.getInt("general.commandThreads");
+        long commandTimeoutMillis = config.getLong("general.commandTimeoutMillis");
         
         generalSettings = new GeneralSettings(commandPrefix, balanceFormat, enableInterest,
-                interestInterval, enableMetrics, enableUpdateChecks);
+                interestInterval, enableMetrics, enableUpdateChecks, commandThreads, commandTimeoutMillis);
+        
+        // Load account store settings
+        String accountStore = config.getString("accounts.store", "heap");
+        AccountStoreSettings.Layout layout;
+        if (accountStore.equalsIgnoreCase("offheap")) {
+            layout = AccountStoreSettings.Layout.OFF_HEAP;
+        } else if (accountStore.equalsIgnoreCase("compact")) {
+            layout = AccountStoreSettings.Layout.COMPACT;
+        } else {
+            layout = AccountStoreSettings.Layout.HEAP;
+        }
+        int initialCapacity = config.getInt("accounts.initialCapacity");
+        
+        accountStoreSettings = new AccountStoreSettings(layout, initialCapacity);
+        
+        // Load engine settings
+        String engineMode = config.getString("engine.mode", "direct");
+        EngineSettings.Mode mode = engineMode.equalsIgnoreCase("sharded")
+                ? EngineSettings.Mode.SHARDED : EngineSettings.Mode.DIRECT;
+        int engineShards = config.getInt("engine.shards");
+        
+        engineSettings = new EngineSettings(mode, engineShards);
+        
+        // Load aggregation settings
+        boolean aggregationEnabled = config.getBoolean("aggregation.enabled");
+        BigDecimal aggregationThreshold = BigDecimal.valueOf(config.getDouble("aggregation.threshold"));
+        int aggregationWindow = config.getInt("aggregation.windowMillis");
+        
+        aggregationSettings = new AggregationSettings(aggregationEnabled, aggregationThreshold, aggregationWindow);
+        
+        // Load event settings
+        String eventMode = config.getString("events.mode", "queue");
+        EventSettings.Mode eventDispatch = eventMode.equalsIgnoreCase("async")
+                ? EventSettings.Mode.ASYNC : EventSettings.Mode.QUEUE;
+        int eventQueueCapacity = config.getInt("events.queueCapacity");
+        int eventTickBudget = config.getInt("events.tickBudgetMicros");
+        
+        eventSettings = new EventSettings(eventDispatch, eventQueueCapacity, eventTickBudget);
+        
+        // Load notification settings
+        int notificationWindow = config.getInt("notifications.windowTicks");
+        Set<NotificationSettings.Type> batched = EnumSet.noneOf(NotificationSettings.Type.class);
+        if (config.getBoolean("notifications.batch.paymentReceived")) {
+            batched.add(NotificationSettings.Type.PAYMENT_RECEIVED);
+        }
+        if (config.getBoolean("notifications.batch.adminGive")) {
+            batched.add(NotificationSettings.Type.ADMIN_GIVE);
+        }
+        if (config.getBoolean("notifications.batch.adminTake")) {
+            batched.add(NotificationSettings.Type.ADMIN_TAKE);
+        }
+        
+        notificationSettings = new NotificationSettings(notificationWindow, batched);
+        
+        // Load backup settings
+        boolean backupEnabled = config.getBoolean("backup.enabled");
+        int backupInterval = config.getInt("backup.intervalMinutes");
+        int backupKeep = config.getInt("backup.keep");
+        
+        backupSettings = new BackupSettings(backupEnabled, backupInterval, backupKeep);
+        
+        // Load profiler settings
+        boolean profilerEnabled = config.getBoolean("profiler.enabled");
+        long tickBudgetMicros = config.getLong("profiler.tickBudgetMicros");
+        long operationBudgetMicros = config.getLong("profiler.operationBudgetMicros");
+        boolean logStackTraces = config.getBoolean("profiler.logStackTraces");
+        
+        profilerSettings = new ProfilerSettings(profilerEnabled, tickBudgetMicros, operationBudgetMicros, logStackTraces);
     }
     
     /**
@@ -283,6 +599,78 @@ public class ConfigManager {
         return databaseSettings;
     }
     
+    /**
+     * Gets the SQLite tuning settings
+     * @return the SQLite settings
+     */
+    public SqliteSettings getSqliteSettings() {
+        return sqliteSettings;
+    }
+    
+    /**
+     * Gets the MySQL bulk write settings
+     * @return the MySQL bulk settings
+     */
+    public MySqlBulkSettings getMySqlBulkSettings() {
+        return mySqlBulkSettings;
+    }
+    
+    /**
+     * Gets the embedded log store settings
+     * @return the log store settings
+     */
+    public LogStoreSettings getLogStoreSettings() {
+        return logStoreSettings;
+    }
+    
+    /**
+     * Gets the settings for flushing changed accounts
+     * @return the flush settings
+     */
+    public FlushSettings getFlushSettings() {
+        return flushSettings;
+    }
+    
+    /**
+     * Gets the settings for how loaded accounts are kept in memory
+     * @return the account store settings
+     */
+    public AccountStoreSettings getAccountStoreSettings() {
+        return accountStoreSettings;
+    }
+    
+    /**
+     * Gets the settings for how balance-changing operations are executed
+     * @return the engine settings
+     */
+    public EngineSettings getEngineSettings() {
+        return engineSettings;
+    }
+    
+    /**
+     * Gets the settings for aggregating small deposits
+     * @return the aggregation settings
+     */
+    public AggregationSettings getAggregationSettings() {
+        return aggregationSettings;
+    }
+    
+    /**
+     * Gets the settings for firing economy events off the main thread
+     * @return the event settings
+     */
+    public EventSettings getEventSettings() {
+        return eventSettings;
+    }
+    
+    /**
+     * Gets the settings for batching balance notifications
+     * @return the notification settings
+     */
+    public NotificationSettings getNotificationSettings() {
+        return notificationSettings;
+    }
+    
     /**
      * Gets the general settings
      * @return the general settings
@@ -291,6 +679,22 @@ public class ConfigManager {
         return generalSettings;
     }
     
+    /**
+     * Gets the backup settings
+     * @return the backup settings
+     */
+    public BackupSettings getBackupSettings() {
+        return backupSettings;
+    }
+    
+    /**
+     * Gets the profiler settings
+     * @return the profiler settings
+     */
+    public ProfilerSettings getProfilerSettings() {
+        return profilerSettings;
+    }
+    
     /**
      * Gets the main configuration
      * @return the main configuration
@@ -11,7 +11,9 @@ public class DatabaseSettings {
      */
     public enum DatabaseType {
         SQLITE,
-        MYSQL
+        MYSQL,
+        MEMORY,
+        LOG
     }
     
     private final DatabaseType type;
@@ -22,6 +24,8 @@ public class DatabaseSettings {
     private final String password;
     private final boolean useSSL;
     private final File sqliteFile;
+    private final int loaderThreads;
+    private final int fetchSize;
     
     /**
      * Creates new database settings
@@ -33,9 +37,12 @@ public class DatabaseSettings {
      * @param password the MySQL password (null for SQLite)
      * @param useSSL whether to use SSL for MySQL (false for SQLite)
      * @param sqliteFile the SQLite database file (null for MySQL)
+     * @param loaderThreads the number of parallel partitions used to load accounts
+     * @param fetchSize the JDBC fetch size used when loading accounts
      */
     public DatabaseSettings(DatabaseType type, String host, int port, String database,
-                            String username, String password, boolean useSSL, File sqliteFile) {
+                            String username, String password, boolean useSSL, File sqliteFile,
+                            int loaderThreads, int fetchSize) {
         this.type = type;
         this.host = host;
         this.port = port;
@@ -44,6 +51,8 @@ public class DatabaseSettings {
         this.password = password;
         this.useSSL = useSSL;
         this.sqliteFile = sqliteFile;
+        this.loaderThreads = loaderThreads;
+        this.fetchSize = fetchSize;
     }
     
     /**
@@ -110,6 +119,22 @@ public class DatabaseSettings {
         return sqliteFile;
     }
     
+    /**
+     * Gets the number of parallel partitions used to load accounts
+     * @return the number of loader threads
+     */
+    public int getLoaderThreads() {
+        return loaderThreads;
+    }
+    
+    /**
+     * Gets the JDBC fetch size used when loading accounts
+     * @return the fetch size
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+    
     /**
      * Checks if this is a SQLite database
      * @return true if SQLite
@@ -125,4 +150,20 @@ public class DatabaseSettings {
     public boolean isMySQL() {
         return type == DatabaseType.MYSQL;
     }
+    
+    /**
+     * Checks if this is the in-memory store
+     * @return true if nothing is persisted
+     */
+    public boolean isMemory() {
+        return type == DatabaseType.MEMORY;
+    }
+    
+    /**
+     * Checks if this is the embedded log-structured store
+     * @return true if the log store is used
+     */
+    public boolean isLog() {
+        return type == DatabaseType.LOG;
+    }
 } 
\ No newline at end of file
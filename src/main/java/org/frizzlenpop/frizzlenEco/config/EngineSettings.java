@@ -0,0 +1,43 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores settings for how balance-changing operations are executed
+ */
+public class EngineSettings {
+    /**
+     * How operations on accounts are executed
+     */
+    public enum Mode {
+        DIRECT,
+        SHARDED
+    }
+    
+    private final Mode mode;
+    private final int shards;
+    
+    /**
+     * Creates new engine settings
+     * @param mode how operations on accounts are executed
+     * @param shards the number of single-writer shards, or 0 or less for one per processor
+     */
+    public EngineSettings(Mode mode, int shards) {
+        this.mode = mode;
+        this.shards = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+    
+    /**
+     * Gets how operations on accounts are executed
+     * @return the engine mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Gets the number of single-writer shards
+     * @return the shard count
+     */
+    public int getShards() {
+        return shards;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores settings for firing economy events from threads other than the main thread
+ */
+public class EventSettings {
+    /**
+     * How events raised off the main thread are fired
+     */
+    public enum Mode {
+        QUEUE,
+        ASYNC
+    }
+    
+    private final Mode mode;
+    private final int queueCapacity;
+    private final int tickBudgetMicros;
+    
+    /**
+     * Creates new event settings
+     * @param mode how events raised off the main thread are fired
+     * @param queueCapacity the most events waiting for the main thread or the async event thread
+     * @param tickBudgetMicros how long the main thread may spend firing queued events per tick
+     */
+    public EventSettings(Mode mode, int queueCapacity, int tickBudgetMicros) {
+        this.mode = mode;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.tickBudgetMicros = Math.max(1, tickBudgetMicros);
+    }
+    
+    /**
+     * Gets how events raised off the main thread are fired
+     * @return the event mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Gets the most events waiting for the main thread or the async event thread
+     * @return the queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    /**
+     * Gets how long the main thread may spend firing queued events per tick
+     * @return the budget in microseconds
+     */
+    public int getTickBudgetMicros() {
+        return tickBudgetMicros;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,57 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores settings for flushing changed accounts to the database
+ */
+public class FlushSettings {
+    private final int intervalSeconds;
+    private final int threads;
+    private final int chunkSize;
+    private final int shutdownDeadlineSeconds;
+    
+    /**
+     * Creates new flush settings
+     * @param intervalSeconds the interval between periodic flushes in seconds
+     * @param threads the number of connections used in parallel (MySQL only)
+     * @param chunkSize the number of accounts written per transaction
+     * @param shutdownDeadlineSeconds how long the shutdown flush may take before the rest is spooled
+     */
+    public FlushSettings(int intervalSeconds, int threads, int chunkSize, int shutdownDeadlineSeconds) {
+        this.intervalSeconds = intervalSeconds;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.shutdownDeadlineSeconds = shutdownDeadlineSeconds;
+    }
+    
+    /**
+     * Gets the interval between periodic flushes
+     * @return the interval in seconds
+     */
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+    
+    /**
+     * Gets the number of connections used in parallel
+     * @return the number of flush threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+    
+    /**
+     * Gets the number of accounts written per transaction
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    /**
+     * Gets how long the shutdown flush may take
+     * @return the deadline in seconds
+     */
+    public int getShutdownDeadlineSeconds() {
+        return shutdownDeadlineSeconds;
+    }
+} 
\ No newline at end of file
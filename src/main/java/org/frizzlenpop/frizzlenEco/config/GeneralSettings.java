@@ -10,6 +10,8 @@ public class GeneralSettings {
     private final int interestInterval;
     private final boolean enableMetrics;
     private final boolean enableUpdateChecks;
+    private final int commandThreads;
+    private final long commandTimeoutMillis;
     
     /**
      * Creates new general settings
@@ -19,15 +21,20 @@ public class GeneralSettings {
      * @param interestInterval the interval for interest in minutes
      * @param enableMetrics whether metrics are enabled
      * @param enableUpdateChecks whether update checks are enabled
+     * @param commandThreads the number of threads executing economy commands
+     * @param commandTimeoutMillis the time after which a slow command is reported to the sender
      */
     public GeneralSettings(String commandPrefix, String balanceFormat, boolean enableInterest,
-                          int interestInterval, boolean enableMetrics, boolean enableUpdateChecks) {
+                          int interestInterval, boolean enableMetrics, boolean enableUpdateChecks,
+                          int commandThreads, long commandTimeoutMillis) {
         this.commandPrefix = commandPrefix;
         this.balanceFormat = balanceFormat;
         this.enableInterest = enableInterest;
         this.interestInterval = interestInterval;
         this.enableMetrics = enableMetrics;
         this.enableUpdateChecks = enableUpdateChecks;
+        this.commandThreads = commandThreads;
+        this.commandTimeoutMillis = commandTimeoutMillis;
     }
     
     /**
@@ -77,4 +84,20 @@ public class GeneralSettings {
     public boolean isEnableUpdateChecks() {
         return enableUpdateChecks;
     }
+    
+    /**
+     * Gets the number of threads executing economy commands
+     * @return the number of command threads
+     */
+    public int getCommandThreads() {
+        return commandThreads;
+    }
+    
+    /**
+     * Gets the time after which a slow command is reported to the sender
+     * @return the command timeout in milliseconds
+     */
+    public long getCommandTimeoutMillis() {
+        return commandTimeoutMillis;
+    }
 } 
\ No newline at end of file
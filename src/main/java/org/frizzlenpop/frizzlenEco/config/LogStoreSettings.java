@@ -0,0 +1,82 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+import java.io.File;
+
+/**
+ * Stores settings for the embedded log-structured storage engine
+ */
+public class LogStoreSettings {
+    private final File directory;
+    private final int segmentSizeMb;
+    private final int syncIntervalMillis;
+    private final int compactionIntervalSeconds;
+    private final double compactionGarbageRatio;
+    private final int historyPerPlayer;
+    
+    /**
+     * Creates new log store settings
+     * @param directory the folder the segment files are kept in
+     * @param segmentSizeMb the size at which a new segment file is started in MiB
+     * @param syncIntervalMillis how long appends are collected before one fsync, 0 for none
+     * @param compactionIntervalSeconds the seconds between compaction runs
+     * @param compactionGarbageRatio the share of replaced records at which a segment is compacted
+     * @param historyPerPlayer the number of recent transactions indexed per player
+     */
+    public LogStoreSettings(File directory, int segmentSizeMb, int syncIntervalMillis, int compactionIntervalSeconds,
+                            double compactionGarbageRatio, int historyPerPlayer) {
+        this.directory = directory;
+        this.segmentSizeMb = Math.max(1, segmentSizeMb);
+        this.syncIntervalMillis = Math.max(0, syncIntervalMillis);
+        this.compactionIntervalSeconds = Math.max(1, compactionIntervalSeconds);
+        this.compactionGarbageRatio = Math.max(0.05, Math.min(1.0, compactionGarbageRatio));
+        this.historyPerPlayer = Math.max(0, historyPerPlayer);
+    }
+    
+    /**
+     * Gets the folder the segment files are kept in
+     * @return the storage folder
+     */
+    public File getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Gets the size at which a new segment file is started
+     * @return the segment size in MiB
+     */
+    public int getSegmentSizeMb() {
+        return segmentSizeMb;
+    }
+    
+    /**
+     * Gets how long appends are collected before one fsync
+     * @return the sync interval in milliseconds, 0 to sync as soon as the last sync is done
+     */
+    public int getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+    
+    /**
+     * Gets the time between compaction runs
+     * @return the compaction interval in seconds
+     */
+    public int getCompactionIntervalSeconds() {
+        return compactionIntervalSeconds;
+    }
+    
+    /**
+     * Gets the share of replaced records at which a segment is compacted
+     * @return the garbage ratio, between 0.05 and 1
+     */
+    public double getCompactionGarbageRatio() {
+        return compactionGarbageRatio;
+    }
+    
+    /**
+     * Gets the number of recent transactions indexed per player
+     * @return the history size per player
+     */
+    public int getHistoryPerPlayer() {
+        return historyPerPlayer;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,57 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores settings for bulk writes to MySQL
+ */
+public class MySqlBulkSettings {
+    private final int minRows;
+    private final int maxRows;
+    private final int targetLatencyMillis;
+    private final int transactionFlushMillis;
+    
+    /**
+     * Creates new MySQL bulk settings
+     * @param minRows the fewest rows sent in one multi-row statement
+     * @param maxRows the most rows sent in one multi-row statement
+     * @param targetLatencyMillis the statement latency the row count is adapted to
+     * @param transactionFlushMillis how often buffered transaction records are inserted
+     */
+    public MySqlBulkSettings(int minRows, int maxRows, int targetLatencyMillis, int transactionFlushMillis) {
+        this.minRows = minRows;
+        this.maxRows = maxRows;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.transactionFlushMillis = transactionFlushMillis;
+    }
+    
+    /**
+     * Gets the fewest rows sent in one multi-row statement
+     * @return the minimum rows per statement
+     */
+    public int getMinRows() {
+        return minRows;
+    }
+    
+    /**
+     * Gets the most rows sent in one multi-row statement
+     * @return the maximum rows per statement
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+    
+    /**
+     * Gets the statement latency the row count is adapted to
+     * @return the target latency in milliseconds
+     */
+    public int getTargetLatencyMillis() {
+        return targetLatencyMillis;
+    }
+    
+    /**
+     * Gets how often buffered transaction records are inserted
+     * @return the flush interval in milliseconds
+     */
+    public int getTransactionFlushMillis() {
+        return transactionFlushMillis;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,48 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores settings for batching balance notifications to players
+ */
+public class NotificationSettings {
+    /**
+     * Kinds of notification a player can receive about their balance
+     */
+    public enum Type {
+        PAYMENT_RECEIVED,
+        ADMIN_GIVE,
+        ADMIN_TAKE
+    }
+    
+    private final int windowTicks;
+    private final Set<Type> batched;
+    
+    /**
+     * Creates new notification settings
+     * @param windowTicks how long notifications are merged before they are sent
+     * @param batched the notification types that are merged
+     */
+    public NotificationSettings(int windowTicks, Set<Type> batched) {
+        this.windowTicks = Math.max(1, windowTicks);
+        this.batched = batched.isEmpty() ? EnumSet.noneOf(Type.class) : EnumSet.copyOf(batched);
+    }
+    
+    /**
+     * Gets how long notifications are merged before they are sent
+     * @return the window in ticks
+     */
+    public int getWindowTicks() {
+        return windowTicks;
+    }
+    
+    /**
+     * Checks whether notifications of a type are merged
+     * @param type the notification type
+     * @return true if they are batched, false if each is sent on its own
+     */
+    public boolean isBatched(Type type) {
+        return batched.contains(type);
+    }
+} 
\ No newline at end of file
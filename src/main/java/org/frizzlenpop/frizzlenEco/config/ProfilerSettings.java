@@ -0,0 +1,57 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores main-thread tick profiler settings
+ */
+public class ProfilerSettings {
+    private final boolean enabled;
+    private final long tickBudgetMicros;
+    private final long operationBudgetMicros;
+    private final boolean logStackTraces;
+    
+    /**
+     * Creates new profiler settings
+     * @param enabled whether main-thread time is profiled
+     * @param tickBudgetMicros the plugin's main-thread budget per tick in microseconds
+     * @param operationBudgetMicros the budget for a single operation in microseconds
+     * @param logStackTraces whether warnings include the stack of the slow operation
+     */
+    public ProfilerSettings(boolean enabled, long tickBudgetMicros, long operationBudgetMicros, boolean logStackTraces) {
+        this.enabled = enabled;
+        this.tickBudgetMicros = tickBudgetMicros;
+        this.operationBudgetMicros = operationBudgetMicros;
+        this.logStackTraces = logStackTraces;
+    }
+    
+    /**
+     * Checks if the profiler is enabled
+     * @return true if main-thread time is profiled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Gets the plugin's main-thread budget per tick
+     * @return the budget in microseconds
+     */
+    public long getTickBudgetMicros() {
+        return tickBudgetMicros;
+    }
+    
+    /**
+     * Gets the budget for a single operation
+     * @return the budget in microseconds
+     */
+    public long getOperationBudgetMicros() {
+        return operationBudgetMicros;
+    }
+    
+    /**
+     * Checks if budget warnings include a stack trace
+     * @return true if stack traces are logged
+     */
+    public boolean isLogStackTraces() {
+        return logStackTraces;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,80 @@
+package org.frizzlenpop.frizzlenEco.config;
+
+/**
+ * Stores SQLite tuning settings
+ */
+public class SqliteSettings {
+    private final boolean tuned;
+    private final int cacheSizeKb;
+    private final int mmapSizeMb;
+    private final int readConnections;
+    private final int maxBatchSize;
+    private final int shards;
+    
+    /**
+     * Creates new SQLite settings
+     * @param tuned whether the high-throughput mode (WAL, single writer, read pool) is used
+     * @param cacheSizeKb the page cache size per connection in KiB
+     * @param mmapSizeMb the maximum memory-mapped size in MiB
+     * @param readConnections the number of read-only connections
+     * @param maxBatchSize the maximum number of writes committed in one transaction
+     * @param shards the number of database files accounts are split across
+     */
+    public SqliteSettings(boolean tuned, int cacheSizeKb, int mmapSizeMb, int readConnections, int maxBatchSize,
+                          int shards) {
+        this.tuned = tuned;
+        this.cacheSizeKb = cacheSizeKb;
+        this.mmapSizeMb = mmapSizeMb;
+        this.readConnections = readConnections;
+        this.maxBatchSize = maxBatchSize;
+        this.shards = Math.max(1, Math.min(64, shards));
+    }
+    
+    /**
+     * Checks if the high-throughput mode is used
+     * @return true if SQLite runs in tuned mode
+     */
+    public boolean isTuned() {
+        return tuned;
+    }
+    
+    /**
+     * Gets the page cache size per connection
+     * @return the cache size in KiB
+     */
+    public int getCacheSizeKb() {
+        return cacheSizeKb;
+    }
+    
+    /**
+     * Gets the maximum memory-mapped size
+     * @return the mmap size in MiB
+     */
+    public int getMmapSizeMb() {
+        return mmapSizeMb;
+    }
+    
+    /**
+     * Gets the number of read-only connections
+     * @return the read pool size
+     */
+    public int getReadConnections() {
+        return readConnections;
+    }
+    
+    /**
+     * Gets the maximum number of writes committed in one transaction
+     * @return the maximum group commit size
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+    
+    /**
+     * Gets the number of database files accounts are split across
+     * @return the shard count, 1 for a single file
+     */
+    public int getShards() {
+        return shards;
+    }
+} 
\ No newline at end of file
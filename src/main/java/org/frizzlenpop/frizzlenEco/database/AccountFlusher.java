@@ -0,0 +1,133 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes changed accounts to a storage backend in parallel.
+ * <p>
+ * Rows are split into chunks, and each worker hands chunks to the backend one at a time,
+ * one transaction per chunk. Workers stop taking new chunks once the deadline passes,
+ * and every row that was not committed is handed back to the caller, e.g. for spooling.
+ */
+public class AccountFlusher {
+    private final Logger logger;
+    private final StorageBackend backend;
+    private final DatabaseExecutor executor;
+    private final int threads;
+    private final int chunkSize;
+    
+    /**
+     * Creates a new AccountFlusher
+     * @param logger the logger to report to
+     * @param backend the backend to write to
+     * @param executor the executor whose permits bound the database calls
+     * @param threads the number of parallel workers (1 to 16)
+     * @param chunkSize the number of rows written per transaction
+     */
+    public AccountFlusher(Logger logger, StorageBackend backend, DatabaseExecutor executor, int threads, int chunkSize) {
+        this.logger = logger;
+        this.backend = backend;
+        this.executor = executor;
+        this.threads = Math.max(1, Math.min(16, threads));
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    /**
+     * Writes the given rows, stopping at the deadline
+     * @param rows the rows to write
+     * @param deadlineNanos the {@link System#nanoTime()} after which no new chunk is started
+     * @return the rows that were not committed
+     */
+    List<AccountRow> flush(List<AccountRow> rows, long deadlineNanos) {
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        long start = System.nanoTime();
+        int size = Math.min(chunkSize, rows.size());
+        Queue<List<AccountRow>> pending = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < rows.size(); i += size) {
+            pending.add(rows.subList(i, Math.min(rows.size(), i + size)));
+        }
+        
+        int workers = Math.min(threads, pending.size());
+        Queue<List<AccountRow>> failed = new ConcurrentLinkedQueue<>();
+        Queue<List<AccountRow>> inFlight = new ConcurrentLinkedQueue<>();
+        AtomicInteger written = new AtomicInteger();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "FrizzlenEco-AccountFlusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(() -> runWorker(pending, inFlight, failed, written, deadlineNanos));
+            }
+            executor.shutdown();
+            
+            // Give chunks that started before the deadline a moment to commit
+            long wait = Math.max(0L, deadlineNanos - System.nanoTime()) + TimeUnit.SECONDS.toNanos(1);
+            if (!executor.awaitTermination(wait, TimeUnit.NANOSECONDS)) {
+                logger.warning("Account flush did not finish before its deadline");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        // Anything not committed goes back to the caller. A chunk still in flight commits in
+        // line with the other writes for its players, so it can't land over a newer save.
+        List<AccountRow> unwritten = new ArrayList<>();
+        for (Queue<List<AccountRow>> queue : List.of(pending, inFlight, failed)) {
+            for (List<AccountRow> chunk : queue) {
+                unwritten.addAll(chunk);
+            }
+        }
+        
+        logger.info(String.format("Flushed %d changed accounts in %dms (%d workers, %d left over)",
+                written.get(), (System.nanoTime() - start) / 1_000_000L, workers, unwritten.size()));
+        return unwritten;
+    }
+    
+    /**
+     * Takes and writes chunks until none are left or the deadline passes
+     * @param pending chunks waiting to be written
+     * @param inFlight chunks currently being written
+     * @param failed chunks that could not be written
+     * @param written counter of committed rows
+     * @param deadlineNanos the time after which no new chunk is started
+     */
+    private void runWorker(Queue<List<AccountRow>> pending, Queue<List<AccountRow>> inFlight,
+                           Queue<List<AccountRow>> failed, AtomicInteger written, long deadlineNanos) {
+        List<AccountRow> chunk;
+        while (System.nanoTime() < deadlineNanos && (chunk = pending.poll()) != null) {
+            inFlight.add(chunk);
+            try {
+                // In line with the other writes for these players, and marked flushed in that order
+                List<AccountRow> rows = chunk;
+                executor.submitAsync(DatabaseManager.playersOf(rows), "flushAccounts",
+                        () -> backend.upsertAccounts(rows).thenRun(() -> rows.forEach(AccountRow::markFlushed))).get();
+                written.addAndGet(chunk.size());
+            } catch (ExecutionException e) {
+                logger.log(Level.WARNING, "Failed to write a chunk of " + chunk.size() + " accounts", e.getCause());
+                failed.add(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.add(chunk);
+                return;
+            } finally {
+                inFlight.remove(chunk);
+            }
+        }
+    }
+} 
\ No newline at end of file
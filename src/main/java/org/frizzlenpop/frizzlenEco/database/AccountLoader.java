@@ -0,0 +1,213 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.util.FastParser;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streams all accounts from the database at startup.
+ * <p>
+ * The UUID key space is split into ranges on the first hex digit of the stored
+ * UUID string, and each range is read on its own connection in parallel with an
+ * explicit fetch size. Rows are parsed with {@link FastParser} straight into a
+ * presized map, so there is no separate merge step.
+ */
+public class AccountLoader {
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final long PROGRESS_INTERVAL_MILLIS = 2000L;
+    
+    /**
+     * Opens a new connection for a loader partition
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        /**
+         * Opens a new connection that the loader closes when done
+         * @return a new connection
+         * @throws SQLException if the connection could not be opened
+         */
+        Connection open() throws SQLException;
+    }
+    
+    private final Logger logger;
+    private final ConnectionFactory connectionFactory;
+    private final int partitions;
+    private final int fetchSize;
+    
+    /**
+     * Creates a new AccountLoader
+     * @param logger the logger to report progress to
+     * @param connectionFactory opens one connection per partition
+     * @param partitions the number of UUID-range partitions to load in parallel (1 to 16)
+     * @param fetchSize the JDBC fetch size for each partition
+     */
+    public AccountLoader(Logger logger, ConnectionFactory connectionFactory, int partitions, int fetchSize) {
+        this.logger = logger;
+        this.connectionFactory = connectionFactory;
+        this.partitions = Math.max(1, Math.min(16, partitions));
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+    
+    /**
+     * Loads all accounts
+     * @return map of player UUIDs to their account maps
+     * @throws SQLException if any partition failed to load
+     */
+    public Map<UUID, Map<String, AccountHolder>> loadAll() throws SQLException {
+        long start = System.nanoTime();
+        
+        // Phase 1: count rows so the map can be presized and progress reported
+        long totalRows = countRows();
+        long counted = System.nanoTime();
+        
+        Map<UUID, Map<String, AccountHolder>> accounts =
+                new ConcurrentHashMap<>((int) Math.min(Integer.MAX_VALUE, Math.max(16, totalRows)), 0.75f, partitions);
+        
+        // Phase 2: scan partitions in parallel
+        AtomicLong loadedRows = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(partitions, runnable -> {
+            Thread thread = new Thread(runnable, "FrizzlenEco-AccountLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try {
+            List<Future<?>> futures = new ArrayList<>(partitions);
+            for (int i = 0; i < partitions; i++) {
+                String lower = i == 0 ? null : String.valueOf(HEX_DIGITS.charAt(i * 16 / partitions));
+                String upper = i == partitions - 1 ? null : String.valueOf(HEX_DIGITS.charAt((i + 1) * 16 / partitions));
+                futures.add(executor.submit(() -> {
+                    loadPartition(lower, upper, accounts, loadedRows);
+                    return null;
+                }));
+            }
+            
+            awaitAll(futures, loadedRows, totalRows);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        long scanned = System.nanoTime();
+        logger.info(String.format("Loaded %d rows for %d players (count %dms, scan %dms, total %dms, %d partitions)",
+                loadedRows.get(), accounts.size(),
+                (counted - start) / 1_000_000L, (scanned - counted) / 1_000_000L, (scanned - start) / 1_000_000L,
+                partitions));
+        
+        return accounts;
+    }
+    
+    /**
+     * Counts all account rows
+     * @return the number of rows
+     * @throws SQLException if an error occurs
+     */
+    private long countRows() throws SQLException {
+        try (Connection conn = connectionFactory.open();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM accounts")) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+    
+    /**
+     * Loads one UUID range into the shared map
+     * @param lower the inclusive lower bound, or null for no bound
+     * @param upper the exclusive upper bound, or null for no bound
+     * @param accounts the map to load into
+     * @param loadedRows counter of loaded rows for progress reporting
+     * @throws SQLException if an error occurs
+     */
+    private void loadPartition(String lower, String upper, Map<UUID, Map<String, AccountHolder>> accounts,
+                               AtomicLong loadedRows) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT player_uuid, player_name, currency_id, balance, created, last_transaction FROM accounts");
+        if (lower != null || upper != null) {
+            sql.append(" WHERE ");
+            if (lower != null) {
+                sql.append("player_uuid >= ?");
+            }
+            if (upper != null) {
+                sql.append(lower != null ? " AND " : "").append("player_uuid < ?");
+            }
+        }
+        
+        try (Connection conn = connectionFactory.open();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            
+            int index = 1;
+            if (lower != null) {
+                stmt.setString(index++, lower);
+            }
+            if (upper != null) {
+                stmt.setString(index, upper);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                long rows = 0;
+                while (rs.next()) {
+                    UUID playerUuid = FastParser.parseUuid(rs.getString(1));
+                    String playerName = rs.getString(2);
+                    String currencyId = rs.getString(3);
+                    BigDecimal balance = FastParser.parseDecimal(rs.getString(4));
+                    Instant created = Instant.ofEpochMilli(rs.getLong(5));
+                    Instant lastTransaction = Instant.ofEpochMilli(rs.getLong(6));
+                    
+                    // A player's rows all fall in this partition, so no other thread touches this entry
+                    Map<String, AccountHolder> playerAccounts = accounts.get(playerUuid);
+                    if (playerAccounts == null) {
+                        playerAccounts = new ConcurrentHashMap<>(2);
+                        accounts.put(playerUuid, playerAccounts);
+                    }
+                    playerAccounts.put(currencyId, new AccountHolder(playerUuid, playerName, currencyId,
+                            balance, created, lastTransaction));
+                    
+                    if (++rows % 1024 == 0) {
+                        loadedRows.addAndGet(1024);
+                    }
+                }
+                loadedRows.addAndGet(rows % 1024);
+            }
+        }
+    }
+    
+    /**
+     * Waits for all partitions while logging progress
+     * @param futures the partition futures
+     * @param loadedRows counter of loaded rows
+     * @param totalRows the expected number of rows
+     * @throws SQLException if any partition failed
+     */
+    private void awaitAll(List<Future<?>> futures, AtomicLong loadedRows, long totalRows) throws SQLException {
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    long loaded = loadedRows.get();
+                    logger.info(String.format("Loading accounts: %d/%d rows (%d%%)",
+                            loaded, totalRows, totalRows > 0 ? loaded * 100 / totalRows : 100));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while loading accounts", e);
+                } catch (ExecutionException e) {
+                    logger.log(Level.SEVERE, "Account loader partition failed", e.getCause());
+                    throw new SQLException("Account loader partition failed", e.getCause());
+                }
+            }
+        }
+    }
+} 
\ No newline at end of file
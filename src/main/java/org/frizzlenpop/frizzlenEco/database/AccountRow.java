@@ -0,0 +1,187 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An immutable image of an account row, taken at a known account version.
+ * Writers store the image and then mark the account flushed as of that version,
+ * so changes made while the write was in flight keep the account dirty.
+ */
+public final class AccountRow {
+    private final AccountHolder account;
+    private final long version;
+    private final UUID playerUuid;
+    private final String playerName;
+    private final String currencyId;
+    private final String balance;
+    private final long created;
+    private final long lastTransaction;
+    
+    /**
+     * Creates a row image
+     * @param account the live account, or null if the row did not come from one
+     * @param version the account version the image was taken at
+     * @param playerUuid the player's UUID
+     * @param playerName the player's name
+     * @param currencyId the currency ID
+     * @param balance the balance as a plain decimal string
+     * @param created the creation time in epoch milliseconds
+     * @param lastTransaction the last transaction time in epoch milliseconds
+     */
+    AccountRow(AccountHolder account, long version, UUID playerUuid, String playerName, String currencyId,
+               String balance, long created, long lastTransaction) {
+        this.account = account;
+        this.version = version;
+        this.playerUuid = playerUuid;
+        this.playerName = playerName;
+        this.currencyId = currencyId;
+        this.balance = balance;
+        this.created = created;
+        this.lastTransaction = lastTransaction;
+    }
+    
+    /**
+     * Takes an image of a live account
+     * @param account the account
+     * @return the row image
+     */
+    static AccountRow of(AccountHolder account) {
+        // The version must be read before the fields it covers
+        long version = account.getVersion();
+        return new AccountRow(account, version, account.getPlayerUuid(), account.getPlayerName(),
+                account.getCurrencyId(), account.getBalance().toString(),
+                account.getCreated().toEpochMilli(), account.getLastTransaction().toEpochMilli());
+    }
+    
+    /**
+     * Gets a copy of this image that is not tied to a live account, for stores that keep rows
+     * @return the detached row
+     */
+    AccountRow detached() {
+        return account == null ? this : new AccountRow(null, 0L, playerUuid, playerName, currencyId,
+                balance, created, lastTransaction);
+    }
+    
+    /**
+     * Creates a live account from this image
+     * @return the new account, not dirty
+     */
+    AccountHolder toAccount() {
+        return new AccountHolder(playerUuid, playerName, currencyId, new BigDecimal(balance),
+                Instant.ofEpochMilli(created), Instant.ofEpochMilli(lastTransaction));
+    }
+    
+    /**
+     * Gets the upsert statement for account rows
+     * @param mysql true for MySQL syntax, false for SQLite
+     * @return the SQL statement
+     */
+    static String upsertSql(boolean mysql) {
+        if (mysql) {
+            return "INSERT INTO accounts (player_uuid, player_name, currency_id, balance, created, last_transaction) " +
+                   "VALUES (?, ?, ?, ?, ?, ?) " +
+                   "ON DUPLICATE KEY UPDATE player_name = VALUES(player_name), balance = VALUES(balance), last_transaction = VALUES(last_transaction)";
+        }
+        return "INSERT OR REPLACE INTO accounts (player_uuid, player_name, currency_id, balance, created, last_transaction) " +
+               "VALUES (?, ?, ?, ?, ?, ?)";
+    }
+    
+    /**
+     * Binds this row to an upsert statement from {@link #upsertSql(boolean)}
+     * @param stmt the statement
+     * @throws SQLException if an error occurs
+     */
+    void bind(PreparedStatement stmt) throws SQLException {
+        bind(stmt, 1);
+    }
+    
+    /**
+     * Binds this row to one row of a multi-row statement
+     * @param stmt the statement
+     * @param index the index of the row's first parameter
+     * @return the index of the next row's first parameter
+     * @throws SQLException if an error occurs
+     */
+    int bind(PreparedStatement stmt, int index) throws SQLException {
+        stmt.setString(index, playerUuid.toString());
+        stmt.setString(index + 1, playerName);
+        stmt.setString(index + 2, currencyId);
+        stmt.setString(index + 3, balance);
+        stmt.setLong(index + 4, created);
+        stmt.setLong(index + 5, lastTransaction);
+        return index + 6;
+    }
+    
+    /**
+     * Estimates the bytes this row adds to a statement on the wire
+     * @return the estimated size in bytes
+     */
+    int estimateBytes() {
+        // Quoted UTF-8 strings take up to 4 bytes per char, longs up to 20 digits
+        int chars = 36 + (playerName != null ? playerName.length() : 0) + currencyId.length() + balance.length();
+        return chars * 4 + 2 * 20 + 32;
+    }
+    
+    /**
+     * Marks the live account as stored, once the write has committed
+     */
+    void markFlushed() {
+        if (account != null) {
+            account.markFlushed(version);
+        }
+    }
+    
+    /**
+     * Gets the player's UUID
+     * @return the player's UUID
+     */
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+    
+    /**
+     * Gets the player's name
+     * @return the player's name
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+    
+    /**
+     * Gets the currency ID
+     * @return the currency ID
+     */
+    public String getCurrencyId() {
+        return currencyId;
+    }
+    
+    /**
+     * Gets the balance
+     * @return the balance as a plain decimal string
+     */
+    public String getBalance() {
+        return balance;
+    }
+    
+    /**
+     * Gets the creation time
+     * @return the creation time in epoch milliseconds
+     */
+    public long getCreated() {
+        return created;
+    }
+    
+    /**
+     * Gets the last transaction time
+     * @return the last transaction time in epoch milliseconds
+     */
+    public long getLastTransaction() {
+        return lastTransaction;
+    }
+} 
\ No newline at end of file
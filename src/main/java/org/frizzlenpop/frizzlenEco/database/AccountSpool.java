@@ -0,0 +1,146 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Local spool for account rows that could not be written before shutdown.
+ * <p>
+ * Each spool file holds one batch of rows with a CRC32 trailer and is written
+ * through a temporary file, so a crash never leaves a partial spool behind.
+ * Spool files are replayed in order on the next start and deleted once committed.
+ */
+public class AccountSpool {
+    private static final int MAGIC = 0x4645534C; // "FESL"
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_PREFIX = "accounts-";
+    private static final String FILE_SUFFIX = ".spool";
+    
+    private final File spoolFolder;
+    
+    /**
+     * Creates a new AccountSpool
+     * @param spoolFolder the folder spool files are kept in
+     */
+    public AccountSpool(File spoolFolder) {
+        this.spoolFolder = spoolFolder;
+    }
+    
+    /**
+     * Writes rows to a new spool file
+     * @param rows the rows to spool
+     * @return the written file
+     * @throws IOException if the file could not be written
+     */
+    File write(List<AccountRow> rows) throws IOException {
+        if (!spoolFolder.exists()) {
+            spoolFolder.mkdirs();
+        }
+        
+        String name = FILE_PREFIX + System.currentTimeMillis() + FILE_SUFFIX;
+        File target = new File(spoolFolder, name);
+        File temp = new File(spoolFolder, name + ".tmp");
+        
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file, 1 << 16);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(rows.size());
+            
+            for (AccountRow row : rows) {
+                out.writeLong(row.getPlayerUuid().getMostSignificantBits());
+                out.writeLong(row.getPlayerUuid().getLeastSignificantBits());
+                out.writeUTF(row.getPlayerName() != null ? row.getPlayerName() : "");
+                out.writeUTF(row.getCurrencyId());
+                out.writeUTF(row.getBalance());
+                out.writeLong(row.getCreated());
+                out.writeLong(row.getLastTransaction());
+            }
+            out.flush();
+            
+            // The checksum covers everything above and is stored after it
+            new DataOutputStream(buffered).writeLong(crc.getValue());
+            buffered.flush();
+            file.getFD().sync();
+        }
+        
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+    
+    /**
+     * Lists spool files waiting to be replayed, oldest first
+     * @return the spool files
+     */
+    List<File> listFiles() {
+        File[] files = spoolFolder.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        
+        // Names hold the creation time, so sorting by name replays in order
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+    
+    /**
+     * Reads and verifies a spool file
+     * @param file the spool file
+     * @return the spooled rows
+     * @throws IOException if the file is unreadable or corrupt
+     */
+    List<AccountRow> read(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (BufferedInputStream buffered = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(buffered, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a FrizzlenEco spool file");
+            }
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported spool version");
+            }
+            
+            int count = in.readInt();
+            List<AccountRow> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID playerUuid = new UUID(in.readLong(), in.readLong());
+                String playerName = in.readUTF();
+                String currencyId = in.readUTF();
+                String balance = in.readUTF();
+                long created = in.readLong();
+                long lastTransaction = in.readLong();
+                
+                rows.add(new AccountRow(null, 0L, playerUuid, playerName, currencyId, balance, created, lastTransaction));
+            }
+            
+            long expected = crc.getValue();
+            if (new DataInputStream(buffered).readLong() != expected) {
+                throw new IOException("Spool checksum mismatch");
+            }
+            return rows;
+        }
+    }
+    
+    /**
+     * Sets a spool file that cannot be replayed aside, so it is kept for inspection
+     * @param file the spool file
+     * @return the new location of the file
+     * @throws IOException if the file could not be moved
+     */
+    File quarantine(File file) throws IOException {
+        File target = new File(spoolFolder, file.getName() + ".corrupt");
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,391 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs blocking database calls on virtual threads.
+ * <p>
+ * Every call gets its own virtual thread, so thousands can be in flight without tying
+ * up platform threads; a call blocked on JDBC only parks its virtual thread. A semaphore
+ * sized to the backend's connections bounds how many reach the database at once, the
+ * rest wait cheaply for a permit. Backend calls that already return a future hold their
+ * permit until the future completes, without a thread waiting on it. Such calls can be
+ * given keys, e.g. the players whose rows they write; a keyed call only starts once the
+ * calls submitted before it for the same keys completed, so writes for one player reach
+ * the backend, and complete, in the order they were submitted. Each call carries
+ * a {@link Context} naming the operation and the thread that started it, which nested
+ * calls inherit, for metrics and for tracing slow calls back to their origin.
+ */
+public class DatabaseExecutor {
+    private static final long SLOW_CALL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+    
+    private final Logger logger;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int permitCount;
+    
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<CompletableFuture<?>> started = ConcurrentHashMap.newKeySet();
+    private final Map<Object, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a new DatabaseExecutor
+     * @param logger the logger to report slow and failed calls to
+     * @param permits the number of calls that may use the database at once, e.g. the connection pool size
+     */
+    public DatabaseExecutor(Logger logger, int permits) {
+        this.logger = logger;
+        this.permitCount = Math.max(1, permits);
+        this.permits = new Semaphore(permitCount, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("FrizzlenEco-DB-", 0).factory());
+    }
+    
+    /**
+     * Runs a database call on a virtual thread.
+     * A call must not wait for calls it submits itself, they may need its permit.
+     * @param operation a short name of the call, for metrics and logs
+     * @param call the call
+     * @param <T> the result type
+     * @return a future completed with the call's result
+     */
+    public <T> CompletableFuture<T> submit(String operation, Callable<T> call) {
+        Context parent = CURRENT.get();
+        Context context = new Context(operation, parent != null ? parent.origin : Thread.currentThread().getName(), System.nanoTime());
+        
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(context, call, future));
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new IllegalStateException("Database executor is shut down", e));
+        }
+        return future;
+    }
+    
+    /**
+     * Runs a database call without a result on a virtual thread
+     * @param operation a short name of the call, for metrics and logs
+     * @param call the call
+     * @return a future completed when the call returns
+     */
+    public CompletableFuture<Void> execute(String operation, Runnable call) {
+        return submit(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Starts a database call that returns a future of its own, e.g. a backend write.
+     * The call is started under a permit, which is released once its future completes,
+     * so no thread waits for the backend while holding it.
+     * @param operation a short name of the call, for metrics and logs
+     * @param call starts the call
+     * @param <T> the result type
+     * @return a future completed with the call's result
+     */
+    public <T> CompletableFuture<T> submitAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        Context parent = CURRENT.get();
+        Context context = new Context(operation, parent != null ? parent.origin : Thread.currentThread().getName(), System.nanoTime());
+        
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> start(context, call, future));
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new IllegalStateException("Database executor is shut down", e));
+        }
+        return future;
+    }
+    
+    /**
+     * Starts a database call that returns a future of its own, as {@link #submitAsync(String, Supplier)},
+     * once every call submitted earlier with any of the same keys has completed, whether it
+     * succeeded or not. Work that must happen in write order, such as recording the stored
+     * version, belongs in the call's future, before the next call for the key starts.
+     * @param keys what the call writes, e.g. player UUIDs
+     * @param operation a short name of the call, for metrics and logs
+     * @param call starts the call
+     * @param <T> the result type
+     * @return a future completed with the call's result
+     */
+    public <T> CompletableFuture<T> submitAsync(Collection<?> keys, String operation, Supplier<CompletableFuture<T>> call) {
+        Context parent = CURRENT.get();
+        Context context = new Context(operation, parent != null ? parent.origin : Thread.currentThread().getName(), System.nanoTime());
+        
+        // Queue behind every key at once, two calls sharing keys must not each wait for the other
+        CompletableFuture<T> future = new CompletableFuture<>();
+        List<CompletableFuture<?>> previous = new ArrayList<>(keys.size());
+        synchronized (tails) {
+            for (Object key : keys) {
+                CompletableFuture<?> tail = tails.put(key, future);
+                if (tail != null && tail != future) {
+                    previous.add(tail);
+                }
+            }
+        }
+        submitted.increment();
+        
+        future.whenComplete((result, error) -> {
+            for (Object key : keys) {
+                tails.remove(key, future);
+            }
+        });
+        
+        Runnable dispatch = () -> {
+            try {
+                executor.execute(() -> start(context, call, future));
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(new IllegalStateException("Database executor is shut down", e));
+            }
+        };
+        if (previous.isEmpty()) {
+            dispatch.run();
+        } else {
+            CompletableFuture.allOf(previous.toArray(new CompletableFuture[0])).whenComplete((result, error) -> dispatch.run());
+        }
+        return future;
+    }
+    
+    private <T> void run(Context context, Callable<T> call, CompletableFuture<T> future) {
+        if (!acquire(context, future)) {
+            return;
+        }
+        
+        long started = System.nanoTime();
+        T value = null;
+        Throwable error = null;
+        CURRENT.set(context);
+        try {
+            value = call.call();
+        } catch (Throwable t) {
+            error = t;
+        } finally {
+            CURRENT.remove();
+        }
+        
+        // Release before completing, so a caller never sees its finished call still in flight
+        release(context, started);
+        finish(future, value, error);
+    }
+    
+    private <T> void start(Context context, Supplier<CompletableFuture<T>> call, CompletableFuture<T> future) {
+        if (!acquire(context, future)) {
+            return;
+        }
+        
+        long startedAt = System.nanoTime();
+        CompletableFuture<T> result;
+        CURRENT.set(context);
+        try {
+            result = call.get();
+        } catch (Throwable t) {
+            result = CompletableFuture.failedFuture(t);
+        } finally {
+            CURRENT.remove();
+        }
+        
+        // Shutdown waits for calls whose futures are still pending
+        started.add(future);
+        result.whenComplete((value, error) -> {
+            release(context, startedAt);
+            finish(future, value, error);
+            started.remove(future);
+        });
+    }
+    
+    private <T> void finish(CompletableFuture<T> future, T value, Throwable error) {
+        if (error != null) {
+            failed.increment();
+            future.completeExceptionally(error);
+        } else {
+            completed.increment();
+            future.complete(value);
+        }
+    }
+    
+    private boolean acquire(Context context, CompletableFuture<?> future) {
+        inFlight.incrementAndGet();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            inFlight.decrementAndGet();
+            failed.increment();
+            future.completeExceptionally(e);
+            return false;
+        }
+        waitNanos.add(System.nanoTime() - context.submittedAt);
+        return true;
+    }
+    
+    private void release(Context context, long started) {
+        permits.release();
+        inFlight.decrementAndGet();
+        
+        long elapsed = System.nanoTime() - started;
+        runNanos.add(elapsed);
+        if (elapsed > SLOW_CALL_NANOS) {
+            logger.warning("Slow database call " + context.operation + " from " + context.origin
+                    + " took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+        }
+    }
+    
+    /**
+     * Gets the context of the database call running on the current thread
+     * @return the context, or null outside a database call
+     */
+    public static Context current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Gets the number of calls that may use the database at once
+     * @return the permit count
+     */
+    public int getPermits() {
+        return permitCount;
+    }
+    
+    /**
+     * Gets the number of calls waiting for or holding a permit
+     * @return the calls in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    /**
+     * Gets the number of calls submitted
+     * @return the submitted count
+     */
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+    
+    /**
+     * Gets the number of calls that failed
+     * @return the failed count
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+    
+    /**
+     * Gets the average time calls waited for a permit
+     * @return the average wait in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long calls = completed.sum() + failed.sum();
+        return calls == 0 ? 0 : waitNanos.sum() / 1_000_000.0 / calls;
+    }
+    
+    /**
+     * Gets the average time calls held a permit
+     * @return the average run time in milliseconds
+     */
+    public double getAverageRunMillis() {
+        long calls = completed.sum() + failed.sum();
+        return calls == 0 ? 0 : runNanos.sum() / 1_000_000.0 / calls;
+    }
+    
+    /**
+     * Stops accepting calls and waits for the submitted ones to finish
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if every call finished in time
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            // Keyed calls still waiting for earlier ones start on the executor, let them get there
+            CompletableFuture.allOf(tails.values().toArray(new CompletableFuture[0])).get(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Failed ones are finished too, and ones still waiting are reported below
+        }
+        
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                CompletableFuture.allOf(started.toArray(new CompletableFuture[0]))
+                        .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            return true; // Failed calls are finished too, and were reported to their callers
+        } catch (TimeoutException e) {
+            // Reported below
+        }
+        
+        logger.log(Level.WARNING, inFlight.get() + " database calls did not finish before shutdown");
+        executor.shutdownNow();
+        return false;
+    }
+    
+    /**
+     * Where a database call came from
+     */
+    public static final class Context {
+        private final String operation;
+        private final String origin;
+        private final long submittedAt;
+        
+        private Context(String operation, String origin, long submittedAt) {
+            this.operation = operation;
+            this.origin = origin;
+            this.submittedAt = submittedAt;
+        }
+        
+        /**
+         * Gets the name of the call
+         * @return the operation
+         */
+        public String getOperation() {
+            return operation;
+        }
+        
+        /**
+         * Gets the thread that started the call, or the call it was made from
+         * @return the origin thread name
+         */
+        public String getOrigin() {
+            return origin;
+        }
+        
+        /**
+         * Gets when the call was submitted
+         * @return the {@link System#nanoTime()} of submission
+         */
+        public long getSubmittedAt() {
+            return submittedAt;
+        }
+    }
+} 
\ No newline at end of file
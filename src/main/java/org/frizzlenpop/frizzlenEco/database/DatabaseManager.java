@@ -2,24 +2,34 @@ package org.frizzlenpop.frizzlenEco.database;
 
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
 import org.frizzlenpop.frizzlenEco.config.DatabaseSettings;
+import org.frizzlenpop.frizzlenEco.config.FlushSettings;
 import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.economy.TransactionLeg;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
 
 import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.*;
-import java.time.Instant;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 /**
- * Manages database connections and operations for economy data
+ * Manages storage of economy data through the configured {@link StorageBackend}
  */
 public class DatabaseManager {
     private final FrizzlenEco plugin;
     private final DatabaseSettings settings;
+    private final StorageBackend backend;
+    
+    private final AccountSpool spool;
+    private DatabaseExecutor executor;
+    private final ReentrantLock flushLock = new ReentrantLock();
     
-    private Connection connection;
     private boolean initialized;
     
     /**
@@ -29,9 +39,32 @@ public class DatabaseManager {
     public DatabaseManager(FrizzlenEco plugin) {
         this.plugin = plugin;
         this.settings = plugin.getConfigManager().getDatabaseSettings();
+        this.backend = createBackend();
+        this.spool = new AccountSpool(new File(plugin.getDataFolder(), "spool"));
         this.initialized = false;
     }
     
+    /**
+     * Creates the backend for the configured database type
+     * @return the storage backend
+     */
+    private StorageBackend createBackend() {
+        switch (settings.getType()) {
+            case MYSQL:
+                return new MySqlBackend(plugin, settings);
+            case MEMORY:
+                return new MemoryBackend();
+            case LOG:
+                return new LogBackend(plugin, plugin.getConfigManager().getLogStoreSettings());
+            case SQLITE:
+            default:
+                if (plugin.getConfigManager().getSqliteSettings().getShards() > 1) {
+                    return new ShardedSqliteBackend(plugin, settings);
+                }
+                return new SqliteBackend(plugin, settings);
+        }
+    }
+    
     /**
      * Initializes the database connection and tables
      * @return true if initialization was successful
@@ -42,11 +75,14 @@ public class DatabaseManager {
         }
         
         try {
-            // Create connection
-            createConnection();
+            backend.open();
+            
+            // One permit per connection the backend can use in parallel, readers and writers
+            StorageCapabilities capabilities = backend.getCapabilities();
+            executor = new DatabaseExecutor(plugin.getLogger(), capabilities.getMaxReaders() + capabilities.getMaxWriters());
             
-            // Create tables
-            createTables();
+            // Write back anything the last shutdown could not
+            replaySpool();
             
             initialized = true;
             plugin.getLogger().info("Database initialized successfully");
@@ -61,113 +97,40 @@ public class DatabaseManager {
      * Shuts down the database connection
      */
     public void shutdown() {
+        // Let submitted calls finish while the connections are still open
+        if (executor != null) {
+            executor.shutdown(plugin.getConfigManager().getFlushSettings().getShutdownDeadlineSeconds(), TimeUnit.SECONDS);
+        }
+        
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
+            backend.close();
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Error closing database connection", e);
         }
     }
     
     /**
-     * Creates the database connection
-     * @throws SQLException if an error occurs
+     * Gets the storage backend
+     * @return the storage backend
      */
-    private void createConnection() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            return;
-        }
-        
-        if (settings.isSQLite()) {
-            try {
-                Class.forName("org.sqlite.JDBC");
-                
-                File dataFolder = plugin.getDataFolder();
-                if (!dataFolder.exists()) {
-                    dataFolder.mkdirs();
-                }
-                
-                File dbFile = settings.getSqliteFile();
-                String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
-                
-                connection = DriverManager.getConnection(url);
-                
-                if (connection != null) {
-                    plugin.getLogger().info("Connected to SQLite database");
-                }
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to connect to SQLite database", e);
-                throw new SQLException("Failed to connect to SQLite database", e);
-            }
-        } else if (settings.isMySQL()) {
-            try {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                
-                String url = "jdbc:mysql://" + settings.getHost() + ":" + settings.getPort() + "/" + settings.getDatabase()
-                    + "?useUnicode=true&characterEncoding=utf8&useSSL=" + settings.isUseSSL()
-                    + "&allowPublicKeyRetrieval=true&serverTimezone=UTC";
-                Properties properties = new Properties();
-                properties.setProperty("user", settings.getUsername());
-                properties.setProperty("password", settings.getPassword());
-                
-                connection = DriverManager.getConnection(url, properties);
-                
-                if (connection != null) {
-                    plugin.getLogger().info("Connected to MySQL database");
-                }
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to connect to MySQL database", e);
-                throw new SQLException("Failed to connect to MySQL database", e);
-            }
-        }
+    public StorageBackend getBackend() {
+        return backend;
     }
     
     /**
-     * Creates the necessary database tables
-     * @throws SQLException if an error occurs
+     * Gets the executor that runs database calls on virtual threads
+     * @return the database executor
      */
-    private void createTables() throws SQLException {
-        try (Statement statement = connection.createStatement()) {
-            // Create accounts table
-            String accountsTable = "CREATE TABLE IF NOT EXISTS accounts (" +
-                    "player_uuid VARCHAR(36) NOT NULL, " +
-                    "player_name VARCHAR(36) NOT NULL, " +
-                    "currency_id VARCHAR(36) NOT NULL, " +
-                    "balance TEXT NOT NULL, " +
-                    "created BIGINT NOT NULL, " +
-                    "last_transaction BIGINT NOT NULL, " +
-                    "PRIMARY KEY (player_uuid, currency_id)" +
-                    ");";
-            
-            statement.execute(accountsTable);
-            
-            // Create transactions table
-            String transactionsTable = "CREATE TABLE IF NOT EXISTS transactions (" +
-                    "id VARCHAR(36) NOT NULL, " +
-                    "transaction_type VARCHAR(36) NOT NULL, " +
-                    "from_uuid VARCHAR(36), " +
-                    "to_uuid VARCHAR(36), " +
-                    "currency_id VARCHAR(36) NOT NULL, " +
-                    "amount TEXT NOT NULL, " +
-                    "timestamp BIGINT NOT NULL, " +
-                    "PRIMARY KEY (id)" +
-                    ");";
-            
-            statement.execute(transactionsTable);
-        }
+    public DatabaseExecutor getExecutor() {
+        return executor;
     }
     
     /**
-     * Gets a new database connection or reconnects if necessary
-     * @return the database connection
-     * @throws SQLException if an error occurs
+     * Gets what the storage backend can do well
+     * @return the backend's capabilities
      */
-    private Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            createConnection();
-        }
-        return connection;
+    public StorageCapabilities getCapabilities() {
+        return backend.getCapabilities();
     }
     
     /**
@@ -175,100 +138,166 @@ public class DatabaseManager {
      * @return map of player UUIDs to their account maps
      */
     public Map<UUID, Map<String, AccountHolder>> loadAllAccounts() {
-        Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM accounts");
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
-                String playerName = rs.getString("player_name");
-                String currencyId = rs.getString("currency_id");
-                BigDecimal balance = new BigDecimal(rs.getString("balance"));
-                long created = rs.getLong("created");
-                long lastTransaction = rs.getLong("last_transaction");
-                
-                AccountHolder account = new AccountHolder(playerUuid, playerName, currencyId, balance);
-                account.setCreated(Instant.ofEpochMilli(created));
-                
-                // Get or create player's account map
-                Map<String, AccountHolder> playerAccounts = accounts.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>());
-                
-                // Add account to player's map
-                playerAccounts.put(currencyId, account);
-            }
-            
+        try {
+            Map<UUID, Map<String, AccountHolder>> accounts = backend.loadAllAccounts();
             plugin.getLogger().info("Loaded " + accounts.size() + " accounts from database");
+            return accounts;
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Error loading accounts from database", e);
+            return new ConcurrentHashMap<>();
         }
-        
-        return accounts;
     }
     
     /**
-     * Saves all accounts to the database
+     * Writes every changed account to the database.
+     * Accounts are split into chunks written in parallel transactions, and no new chunk
+     * is started after the deadline.
      * @param accounts map of player UUIDs to their account maps
+     * @param deadlineNanos the {@link System#nanoTime()} after which no new chunk is started
+     * @param spoolLeftovers whether to spool rows that were not written, e.g. on shutdown
+     * @return the number of changed accounts that were not written to the database
      */
-    public void saveAllAccounts(Map<UUID, Map<String, AccountHolder>> accounts) {
+    public int flushAccounts(Map<UUID, Map<String, AccountHolder>> accounts, long deadlineNanos, boolean spoolLeftovers) {
         if (accounts == null || accounts.isEmpty()) {
-            return;
+            return 0;
         }
         
-        try (Connection conn = getConnection()) {
-            // Use a batch update for efficiency
-            String sql = "INSERT OR REPLACE INTO accounts (player_uuid, player_name, currency_id, balance, created, last_transaction) " +
-                         "VALUES (?, ?, ?, ?, ?, ?)";
+        // A periodic flush may still be running when shutdown starts
+        try {
+            if (!flushLock.tryLock(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                plugin.getLogger().warning("Another account flush is still running, skipping this one");
+                return spoolLeftovers ? spool(collectDirty(accounts)) : 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.DB_WRITE, "flushAccounts")) {
+            List<AccountRow> dirty = collectDirty(accounts);
+            if (dirty.isEmpty()) {
+                return 0;
+            }
             
-            if (settings.isMySQL()) {
-                sql = "INSERT INTO accounts (player_uuid, player_name, currency_id, balance, created, last_transaction) " +
-                      "VALUES (?, ?, ?, ?, ?, ?) " +
-                      "ON DUPLICATE KEY UPDATE player_name = VALUES(player_name), balance = VALUES(balance), last_transaction = VALUES(last_transaction)";
+            // More workers than the backend can write with would only wait on each other, and
+            // a chunk is one transaction, so let it hold at least one full multi-row statement
+            FlushSettings flushSettings = plugin.getConfigManager().getFlushSettings();
+            StorageCapabilities capabilities = backend.getCapabilities();
+            int threads = Math.min(flushSettings.getThreads(), capabilities.getMaxWriters());
+            int chunkSize = Math.max(flushSettings.getChunkSize(), capabilities.getMaxStatementRows());
+            
+            AccountFlusher flusher = new AccountFlusher(plugin.getLogger(), backend, executor, threads, chunkSize);
+            List<AccountRow> unwritten = flusher.flush(dirty, deadlineNanos);
+            if (!unwritten.isEmpty() && spoolLeftovers) {
+                return spool(unwritten);
+            }
+            return unwritten.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * Takes row images of all changed accounts
+     * @param accounts map of player UUIDs to their account maps
+     * @return the rows to write
+     */
+    private List<AccountRow> collectDirty(Map<UUID, Map<String, AccountHolder>> accounts) {
+        List<AccountRow> dirty = new ArrayList<>();
+        for (Map<String, AccountHolder> playerAccounts : accounts.values()) {
+            for (AccountHolder account : playerAccounts.values()) {
+                if (account.isDirty()) {
+                    dirty.add(AccountRow.of(account));
+                }
+            }
+        }
+        return dirty;
+    }
+    
+    /**
+     * Writes rows that could not reach the database to the local spool
+     * @param rows the rows to spool
+     * @return the number of rows that could not be spooled either
+     */
+    private int spool(List<AccountRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            File file = spool.write(rows);
+            plugin.getLogger().warning("Spooled " + rows.size() + " unsaved accounts to " + file.getName() +
+                    ", they will be written on the next start");
+            return 0;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to spool " + rows.size() + " unsaved accounts", e);
+            return rows.size();
+        }
+    }
+    
+    /**
+     * Replays spool files left by a previous shutdown, oldest first
+     */
+    private void replaySpool() {
+        for (File file : spool.listFiles()) {
+            List<AccountRow> rows;
+            try {
+                rows = spool.read(file);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Spool file " + file.getName() + " is unreadable, setting it aside", e);
+                try {
+                    spool.quarantine(file);
+                } catch (IOException moveError) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to set aside spool file " + file.getName(), moveError);
+                }
+                continue;
             }
             
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                conn.setAutoCommit(false);
-                
-                int count = 0;
+            try {
+                backend.upsertAccounts(rows).get();
                 
-                for (Map.Entry<UUID, Map<String, AccountHolder>> entry : accounts.entrySet()) {
-                    for (AccountHolder account : entry.getValue().values()) {
-                        stmt.setString(1, account.getPlayerUuid().toString());
-                        stmt.setString(2, account.getPlayerName());
-                        stmt.setString(3, account.getCurrencyId());
-                        stmt.setString(4, account.getBalance().toString());
-                        stmt.setLong(5, account.getCreated().toEpochMilli());
-                        stmt.setLong(6, account.getLastTransaction().toEpochMilli());
-                        
-                        stmt.addBatch();
-                        count++;
-                        
-                        // Execute in batches of 100
-                        if (count % 100 == 0) {
-                            stmt.executeBatch();
-                        }
-                    }
+                Files.delete(file.toPath());
+                plugin.getLogger().info("Replayed " + rows.size() + " spooled accounts from " + file.getName());
+            } catch (Exception e) {
+                // Keep the file, so the rows are retried on the next start
+                plugin.getLogger().log(Level.SEVERE, "Failed to replay spool file " + file.getName(), e);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Replaces all stored accounts with the given ones in a single transaction.
+     * The accounts are not marked as flushed, so the next flush writes them again over
+     * any save of the accounts they replace that lands after this.
+     * @param accounts map of player UUIDs to their account maps
+     * @param players the players whose writes submitted before this are stored before it,
+     *                and whose writes submitted after it are stored after it
+     * @return a future completed once the accounts are stored
+     */
+    public CompletableFuture<Void> replaceAllAccounts(Map<UUID, Map<String, AccountHolder>> accounts,
+                                                      Collection<UUID> players) {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.DB_WRITE, "replaceAllAccounts")) {
+            List<AccountRow> rows = new ArrayList<>();
+            for (Map<String, AccountHolder> playerAccounts : accounts.values()) {
+                for (AccountHolder account : playerAccounts.values()) {
+                    rows.add(AccountRow.of(account));
                 }
-                
-                // Execute any remaining statements
-                stmt.executeBatch();
-                conn.commit();
-                
-                plugin.getLogger().info("Saved " + count + " accounts to database");
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
             }
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Error saving accounts to database", e);
+            
+            return executor.submitAsync(players, "replaceAllAccounts", () -> backend.replaceAllAccounts(rows)).whenComplete((result, error) -> {
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Error replacing accounts in database", error);
+                } else {
+                    plugin.getLogger().info("Replaced stored accounts with " + rows.size() + " restored accounts");
+                }
+            });
         }
     }
     
     /**
-     * Saves a single account to the database
+     * Saves a single account to the database.
+     * A failed write leaves the account dirty, so the next flush retries it.
      * @param account the account to save
      */
     public void saveAccount(AccountHolder account) {
@@ -276,31 +305,87 @@ public class DatabaseManager {
             return;
         }
         
-        try (Connection conn = getConnection()) {
-            String sql = "INSERT OR REPLACE INTO accounts (player_uuid, player_name, currency_id, balance, created, last_transaction) " +
-                         "VALUES (?, ?, ?, ?, ?, ?)";
+        saveAccounts(List.of(account));
+    }
+    
+    /**
+     * Saves accounts to the database in a single transaction, so either all or none are written.
+     * A failed write leaves the accounts dirty, so the next flush retries them.
+     * @param accounts the accounts to save
+     */
+    public void saveAccounts(List<AccountHolder> accounts) {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.DB_WRITE, "saveAccount")) {
+            List<AccountRow> rows = new ArrayList<>(accounts.size());
+            for (AccountHolder account : accounts) {
+                rows.add(AccountRow.of(account));
+            }
             
-            if (settings.isMySQL()) {
-                sql = "INSERT INTO accounts (player_uuid, player_name, currency_id, balance, created, last_transaction) " +
-                      "VALUES (?, ?, ?, ?, ?, ?) " +
-                      "ON DUPLICATE KEY UPDATE player_name = VALUES(player_name), balance = VALUES(balance), last_transaction = VALUES(last_transaction)";
+            // A commit, so the sharded backend keeps accounts on different shards all-or-nothing too
+            executor.submitAsync(playersOf(rows), "saveAccounts", () -> commitInOrder(rows, List.of())).whenComplete((result, error) -> {
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Error saving accounts to database: " + rows.get(0).getPlayerUuid(), error);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Saves the accounts a multi-leg transaction changed, journalling each leg under one group ID,
+     * in a single database transaction where the backend supports it.
+     * A failed write leaves the accounts dirty, so the next flush retries them.
+     * @param accounts the changed accounts
+     * @param legs the legs of the transaction
+     * @param type the transaction type recorded for each leg
+     * @param groupId the ID shared by the legs' records
+     */
+    public void commitTransaction(List<AccountHolder> accounts, List<TransactionLeg> legs, String type, String groupId) {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.DB_WRITE, "commitTransaction")) {
+            List<AccountRow> rows = new ArrayList<>(accounts.size());
+            for (AccountHolder account : accounts) {
+                rows.add(AccountRow.of(account));
             }
             
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, account.getPlayerUuid().toString());
-                stmt.setString(2, account.getPlayerName());
-                stmt.setString(3, account.getCurrencyId());
-                stmt.setString(4, account.getBalance().toString());
-                stmt.setLong(5, account.getCreated().toEpochMilli());
-                stmt.setLong(6, account.getLastTransaction().toEpochMilli());
-                
-                stmt.executeUpdate();
+            long timestamp = System.currentTimeMillis();
+            List<TransactionRow> records = new ArrayList<>(legs.size());
+            for (TransactionLeg leg : legs) {
+                records.add(new TransactionRow(type, leg.isDebit() ? leg.getPlayerUuid() : null,
+                        leg.isDebit() ? null : leg.getPlayerUuid(), leg.getCurrency().getId(), leg.getAmount(),
+                        groupId, timestamp));
             }
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Error saving account to database: " + account.getPlayerUuid(), e);
+            
+            executor.submitAsync(playersOf(rows), "commitTransaction", () -> commitInOrder(rows, records)).whenComplete((result, error) -> {
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Error saving transaction " + groupId + " to database", error);
+                }
+            });
         }
     }
     
+    /**
+     * Commits rows and records, and records the stored versions before the call completes.
+     * Calls for the same players run one after another on the executor, so the versions are
+     * recorded in the order the rows were committed and the last one stored is the one kept.
+     * @param rows the account rows
+     * @param records the journal records
+     * @return a future completed once the rows are stored and marked flushed
+     */
+    private CompletableFuture<Void> commitInOrder(List<AccountRow> rows, List<TransactionRow> records) {
+        return backend.commit(rows, records).thenRun(() -> rows.forEach(AccountRow::markFlushed));
+    }
+    
+    /**
+     * Gets the players whose rows a write changes, its keys on the database executor
+     * @param rows the account rows
+     * @return the players' UUIDs
+     */
+    static List<UUID> playersOf(List<AccountRow> rows) {
+        List<UUID> players = new ArrayList<>(rows.size());
+        for (AccountRow row : rows) {
+            players.add(row.getPlayerUuid());
+        }
+        return players;
+    }
+    
     /**
      * Records a transaction in the database
      * @param type the transaction type
@@ -310,24 +395,90 @@ public class DatabaseManager {
      * @param amount the amount of the transaction
      */
     public void recordTransaction(String type, UUID fromUuid, UUID toUuid, String currencyId, BigDecimal amount) {
-        try (Connection conn = getConnection()) {
-            String sql = "INSERT INTO transactions (id, transaction_type, from_uuid, to_uuid, currency_id, amount, timestamp) " +
-                         "VALUES (?, ?, ?, ?, ?, ?, ?)";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                String id = UUID.randomUUID().toString();
-                stmt.setString(1, id);
-                stmt.setString(2, type);
-                stmt.setString(3, fromUuid != null ? fromUuid.toString() : null);
-                stmt.setString(4, toUuid != null ? toUuid.toString() : null);
-                stmt.setString(5, currencyId);
-                stmt.setString(6, amount.toString());
-                stmt.setLong(7, System.currentTimeMillis());
-                
-                stmt.executeUpdate();
-            }
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.DB_WRITE, "recordTransaction")) {
+            TransactionRow record = new TransactionRow(type, fromUuid, toUuid, currencyId, amount);
+            executor.submitAsync("recordTransaction", () -> backend.appendTransactions(List.of(record))).whenComplete((result, error) -> {
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Error recording transaction in database", error);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Gets a player's most recent transactions, newest first
+     * @param playerUuid the player's UUID
+     * @param limit the maximum number of transactions
+     * @return the transactions, or an empty list if they could not be read
+     */
+    public List<TransactionRow> getTransactionHistory(UUID playerUuid, int limit) {
+        try {
+            return backend.queryHistory(playerUuid, limit);
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Error recording transaction in database", e);
+            plugin.getLogger().log(Level.SEVERE, "Error loading transaction history: " + playerUuid, e);
+            return Collections.emptyList();
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Gets a player's most recent transactions on the database executor
+     * @param playerUuid the player's UUID
+     * @param limit the maximum number of transactions
+     * @return a future completed with the transactions, or an empty list if they could not be read
+     */
+    public CompletableFuture<List<TransactionRow>> getTransactionHistoryAsync(UUID playerUuid, int limit) {
+        return executor.submit("getTransactionHistory", () -> getTransactionHistory(playerUuid, limit));
+    }
+    
+    /**
+     * Loads a player's Vault currency preference on the database executor
+     * @param playerUuid the player's UUID
+     * @return a future completed with the preferred currency ID, or null if none is stored
+     */
+    public CompletableFuture<String> loadCurrencyPreferenceAsync(UUID playerUuid) {
+        return executor.submit("loadCurrencyPreference", () -> loadCurrencyPreference(playerUuid));
+    }
+    
+    /**
+     * Loads a player's Vault currency preference
+     * @param playerUuid the player's UUID
+     * @return the preferred currency ID, or null if none is stored
+     */
+    public String loadCurrencyPreference(UUID playerUuid) {
+        try {
+            return backend.loadCurrencyPreference(playerUuid);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error loading currency preference: " + playerUuid, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Saves a player's Vault currency preference on the database executor.
+     * Saves and deletes for one player are applied in the order they were made.
+     * @param playerUuid the player's UUID
+     * @param currencyId the preferred currency ID
+     */
+    public void saveCurrencyPreference(UUID playerUuid, String currencyId) {
+        executor.submitAsync(List.of(playerUuid), "saveCurrencyPreference", () -> backend.saveCurrencyPreference(playerUuid, currencyId))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.SEVERE, "Error saving currency preference: " + playerUuid, error);
+                    }
+                });
+    }
+    
+    /**
+     * Deletes a player's Vault currency preference on the database executor.
+     * Saves and deletes for one player are applied in the order they were made.
+     * @param playerUuid the player's UUID
+     */
+    public void deleteCurrencyPreference(UUID playerUuid) {
+        executor.submitAsync(List.of(playerUuid), "deleteCurrencyPreference", () -> backend.deleteCurrencyPreference(playerUuid))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.SEVERE, "Error deleting currency preference: " + playerUuid, error);
+                    }
+                });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,305 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.config.DatabaseSettings;
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.util.FastParser;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Shared JDBC implementation of {@link StorageBackend}.
+ * <p>
+ * Subclasses decide where reads and writes run, e.g. on a pooled connection or a single
+ * writer thread, and supply the SQL that differs between databases. Balances are stored as
+ * decimal text and always written whole.
+ */
+public abstract class JdbcBackend implements StorageBackend {
+    private static final String SELECT_ACCOUNTS = "SELECT player_uuid, player_name, currency_id, balance, created, " +
+            "last_transaction FROM accounts WHERE player_uuid = ?";
+    
+    /**
+     * A write run inside a transaction on a backend connection
+     */
+    @FunctionalInterface
+    protected interface WriteOperation {
+        /**
+         * Runs the write
+         * @param statements the connection's statement cache
+         * @throws SQLException if the write failed
+         */
+        void execute(StatementCache statements) throws SQLException;
+    }
+    
+    protected final Logger logger;
+    protected final DatabaseSettings settings;
+    
+    /**
+     * Creates a new JdbcBackend
+     * @param logger the logger to report to
+     * @param settings the database settings
+     */
+    protected JdbcBackend(Logger logger, DatabaseSettings settings) {
+        this.logger = logger;
+        this.settings = settings;
+    }
+    
+    /**
+     * Opens a new, independent connection, e.g. for the parallel account loader
+     * @return the new connection
+     * @throws SQLException if an error occurs
+     */
+    protected abstract Connection openConnection() throws SQLException;
+    
+    /**
+     * Runs a read on a backend connection
+     * @param operation the read to run
+     * @param <T> the result type
+     * @return the result of the read
+     * @throws SQLException if the read failed
+     */
+    protected abstract <T> T read(StatementPool.Operation<T> operation) throws SQLException;
+    
+    /**
+     * Runs a write in its own transaction, or in a group of writes committed together
+     * @param operation the write to run
+     * @return a future completed once the write has committed
+     */
+    protected abstract CompletableFuture<Void> write(WriteOperation operation);
+    
+    /**
+     * Gets the upsert statement for currency preferences
+     * @return the SQL statement
+     */
+    protected abstract String upsertPreferenceSql();
+    
+    /**
+     * Gets the number of connections the startup load runs on in parallel
+     * @return the number of loader threads
+     */
+    protected int getLoaderThreads() {
+        return settings.getLoaderThreads();
+    }
+    
+    /**
+     * Creates the necessary database tables
+     * @param conn the connection to use
+     * @throws SQLException if an error occurs
+     */
+    protected void createTables(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            // Create accounts table
+            String accountsTable = "CREATE TABLE IF NOT EXISTS accounts (" +
+                    "player_uuid VARCHAR(36) NOT NULL, " +
+                    "player_name VARCHAR(36) NOT NULL, " +
+                    "currency_id VARCHAR(36) NOT NULL, " +
+                    "balance TEXT NOT NULL, " +
+                    "created BIGINT NOT NULL, " +
+                    "last_transaction BIGINT NOT NULL, " +
+                    "PRIMARY KEY (player_uuid, currency_id)" +
+                    ");";
+            
+            statement.execute(accountsTable);
+            
+            // Create transactions table
+            String transactionsTable = "CREATE TABLE IF NOT EXISTS transactions (" +
+                    "id VARCHAR(36) NOT NULL, " +
+                    "transaction_type VARCHAR(36) NOT NULL, " +
+                    "from_uuid VARCHAR(36), " +
+                    "to_uuid VARCHAR(36), " +
+                    "currency_id VARCHAR(36) NOT NULL, " +
+                    "amount TEXT NOT NULL, " +
+                    "timestamp BIGINT NOT NULL, " +
+                    "group_id VARCHAR(36), " +
+                    "PRIMARY KEY (id)" +
+                    ");";
+            
+            statement.execute(transactionsTable);
+            
+            // Tables created before multi-leg transactions lack the group column
+            try (ResultSet rs = conn.getMetaData().getColumns(null, null, "transactions", "group_id")) {
+                if (!rs.next()) {
+                    statement.execute("ALTER TABLE transactions ADD COLUMN group_id VARCHAR(36)");
+                }
+            }
+            
+            // Create Vault currency preferences table
+            String preferencesTable = "CREATE TABLE IF NOT EXISTS vault_preferences (" +
+                    "player_uuid VARCHAR(36) NOT NULL, " +
+                    "currency_id VARCHAR(36) NOT NULL, " +
+                    "PRIMARY KEY (player_uuid)" +
+                    ");";
+            
+            statement.execute(preferencesTable);
+        }
+    }
+    
+    /**
+     * Writes rows using a batched upsert. The caller is responsible for transaction handling.
+     * @param statements the connection's statement cache
+     * @param rows the rows to write
+     * @throws SQLException if an error occurs
+     */
+    protected void writeRows(StatementCache statements, List<AccountRow> rows) throws SQLException {
+        PreparedStatement stmt = statements.prepare(AccountRow.upsertSql(settings.isMySQL()));
+        int count = 0;
+        
+        for (AccountRow row : rows) {
+            row.bind(stmt);
+            stmt.addBatch();
+            count++;
+            
+            // Execute in batches of 100
+            if (count % 100 == 0) {
+                stmt.executeBatch();
+            }
+        }
+        
+        // Execute any remaining statements
+        stmt.executeBatch();
+    }
+    
+    /**
+     * Inserts transaction records using a batched insert. The caller is responsible for transaction handling.
+     * @param statements the connection's statement cache
+     * @param records the records to insert
+     * @throws SQLException if an error occurs
+     */
+    protected void writeTransactions(StatementCache statements, List<TransactionRow> records) throws SQLException {
+        PreparedStatement stmt = statements.prepare(TransactionRow.INSERT_COLUMNS + TransactionRow.VALUES_GROUP);
+        for (TransactionRow record : records) {
+            record.bind(stmt, 1);
+            stmt.addBatch();
+        }
+        stmt.executeBatch();
+    }
+    
+    @Override
+    public Map<UUID, Map<String, AccountHolder>> loadAllAccounts() throws StorageException {
+        AccountLoader loader = new AccountLoader(logger, this::openConnection,
+                getLoaderThreads(), settings.getFetchSize());
+        try {
+            return loader.loadAll();
+        } catch (SQLException e) {
+            throw new StorageException("Failed to load accounts", e);
+        }
+    }
+    
+    @Override
+    public Map<String, AccountHolder> loadAccounts(UUID playerUuid) throws StorageException {
+        try {
+            return read(statements -> {
+                PreparedStatement stmt = statements.prepare(SELECT_ACCOUNTS);
+                stmt.setString(1, playerUuid.toString());
+                
+                Map<String, AccountHolder> accounts = new ConcurrentHashMap<>(2);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String currencyId = rs.getString(3);
+                        accounts.put(currencyId, new AccountHolder(playerUuid, rs.getString(2), currencyId,
+                                FastParser.parseDecimal(rs.getString(4)),
+                                Instant.ofEpochMilli(rs.getLong(5)),
+                                Instant.ofEpochMilli(rs.getLong(6))));
+                    }
+                }
+                return accounts;
+            });
+        } catch (SQLException e) {
+            throw new StorageException("Failed to load accounts of " + playerUuid, e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> upsertAccounts(List<AccountRow> rows) {
+        return write(statements -> writeRows(statements, rows));
+    }
+    
+    @Override
+    public CompletableFuture<Void> replaceAllAccounts(List<AccountRow> rows) {
+        return write(statements -> {
+            statements.prepare("DELETE FROM accounts").executeUpdate();
+            writeRows(statements, rows);
+        });
+    }
+    
+    @Override
+    public CompletableFuture<Void> appendTransactions(List<TransactionRow> records) {
+        return write(statements -> writeTransactions(statements, records));
+    }
+    
+    @Override
+    public CompletableFuture<Void> commit(List<AccountRow> rows, List<TransactionRow> records) {
+        return write(statements -> {
+            writeRows(statements, rows);
+            writeTransactions(statements, records);
+        });
+    }
+    
+    @Override
+    public List<TransactionRow> queryHistory(UUID playerUuid, int limit) throws StorageException {
+        String sql = "SELECT id, transaction_type, from_uuid, to_uuid, currency_id, amount, timestamp, group_id FROM transactions " +
+                     "WHERE from_uuid = ? OR to_uuid = ? ORDER BY timestamp DESC LIMIT ?";
+        try {
+            return read(statements -> {
+                PreparedStatement stmt = statements.prepare(sql);
+                stmt.setString(1, playerUuid.toString());
+                stmt.setString(2, playerUuid.toString());
+                stmt.setInt(3, limit);
+                
+                List<TransactionRow> records = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String from = rs.getString(3);
+                        String to = rs.getString(4);
+                        records.add(new TransactionRow(rs.getString(1), rs.getString(2),
+                                from != null ? FastParser.parseUuid(from) : null,
+                                to != null ? FastParser.parseUuid(to) : null,
+                                rs.getString(5), FastParser.parseDecimal(rs.getString(6)), rs.getLong(7), rs.getString(8)));
+                    }
+                }
+                return records;
+            });
+        } catch (SQLException e) {
+            throw new StorageException("Failed to query transactions of " + playerUuid, e);
+        }
+    }
+    
+    @Override
+    public String loadCurrencyPreference(UUID playerUuid) throws StorageException {
+        try {
+            return read(statements -> {
+                PreparedStatement stmt = statements.prepare("SELECT currency_id FROM vault_preferences WHERE player_uuid = ?");
+                stmt.setString(1, playerUuid.toString());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getString("currency_id") : null;
+                }
+            });
+        } catch (SQLException e) {
+            throw new StorageException("Failed to load currency preference of " + playerUuid, e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> saveCurrencyPreference(UUID playerUuid, String currencyId) {
+        return write(statements -> {
+            PreparedStatement stmt = statements.prepare(upsertPreferenceSql());
+            stmt.setString(1, playerUuid.toString());
+            stmt.setString(2, currencyId);
+            stmt.executeUpdate();
+        });
+    }
+    
+    @Override
+    public CompletableFuture<Void> deleteCurrencyPreference(UUID playerUuid) {
+        return write(statements -> {
+            PreparedStatement stmt = statements.prepare("DELETE FROM vault_preferences WHERE player_uuid = ?");
+            stmt.setString(1, playerUuid.toString());
+            stmt.executeUpdate();
+        });
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,793 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.LogStoreSettings;
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+
+/**
+ * Embedded log-structured storage for single-server setups, without JDBC.
+ * <p>
+ * Account rows and currency preferences are appended as binary records to a
+ * {@link SegmentLog}, and an in-memory index maps each account to its newest record.
+ * Replaced records are garbage, and a background task compacts segments with enough of it
+ * by appending their live records again and deleting the segment. Transaction records go
+ * to a second log that is never compacted, with the newest few indexed per player.
+ */
+public class LogBackend implements StorageBackend {
+    private static final byte ACCOUNT = 1;
+    private static final byte RESET = 2;
+    private static final byte PREFERENCE = 3;
+    private static final byte PREFERENCE_DELETE = 4;
+    private static final byte TRANSACTION = 5;
+    
+    private static final int COMPACTION_BATCH = 1000;
+    
+    private final FrizzlenEco plugin;
+    private final LogStoreSettings logSettings;
+    
+    // Guards the account and preference indexes, and keeps segments from being deleted mid-read
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Map<String, SegmentLog.Location>> accounts = new HashMap<>();
+    private final Map<UUID, String> preferences = new HashMap<>();
+    private final Map<UUID, SegmentLog.Location> preferenceLocations = new HashMap<>();
+    private final Map<UUID, ArrayDeque<SegmentLog.Location>> history = new HashMap<>();
+    
+    private SegmentLog accountLog;
+    private SegmentLog transactionLog;
+    private BukkitTask compactionTask;
+    
+    /**
+     * Creates a new LogBackend
+     * @param plugin the FrizzlenEco plugin instance
+     * @param logSettings the log store settings
+     */
+    public LogBackend(FrizzlenEco plugin, LogStoreSettings logSettings) {
+        this.plugin = plugin;
+        this.logSettings = logSettings;
+    }
+    
+    @Override
+    public StorageCapabilities getCapabilities() {
+        // All appends share one file
+        // Reads share the index lock and run in parallel
+        return new StorageCapabilities(false, true, Runtime.getRuntime().availableProcessors(), 1, 4096);
+    }
+    
+    @Override
+    public void open() throws StorageException {
+        long start = System.nanoTime();
+        long segmentBytes = logSettings.getSegmentSizeMb() * 1024L * 1024L;
+        File directory = logSettings.getDirectory();
+        
+        try {
+            accountLog = new SegmentLog(plugin.getLogger(), new File(directory, "accounts"),
+                    segmentBytes, logSettings.getSyncIntervalMillis());
+            accountLog.open(this::replay);
+            
+            transactionLog = new SegmentLog(plugin.getLogger(), new File(directory, "transactions"),
+                    segmentBytes, logSettings.getSyncIntervalMillis());
+            transactionLog.open(this::indexTransaction);
+        } catch (IOException e) {
+            close();
+            throw new StorageException("Failed to open log storage in " + directory.getPath(), e);
+        }
+        
+        long ticks = logSettings.getCompactionIntervalSeconds() * 20L;
+        compactionTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::compact, ticks, ticks);
+        
+        plugin.getLogger().info("Opened log storage with " + accounts.size() + " players in "
+                + (System.nanoTime() - start) / 1_000_000L + " ms");
+    }
+    
+    @Override
+    public void close() {
+        if (compactionTask != null) {
+            compactionTask.cancel();
+            compactionTask = null;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            if (accountLog != null) {
+                accountLog.close();
+                accountLog = null;
+            }
+            if (transactionLog != null) {
+                transactionLog.close();
+                transactionLog = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Rebuilds the account and preference indexes from a committed record
+     * @param payload the record
+     * @param location where the record is stored
+     */
+    private void replay(ByteBuffer payload, SegmentLog.Location location) {
+        ByteBuffer in = payload.duplicate();
+        switch (in.get()) {
+            case ACCOUNT: {
+                UUID playerUuid = new UUID(in.getLong(), in.getLong());
+                getString(in);
+                String currencyId = getString(in);
+                indexAccount(playerUuid, currencyId, location);
+                break;
+            }
+            case RESET:
+                clearIndexes();
+                accountLog.release(location);
+                break;
+            case PREFERENCE: {
+                UUID playerUuid = new UUID(in.getLong(), in.getLong());
+                indexPreference(playerUuid, getString(in), location);
+                break;
+            }
+            case PREFERENCE_DELETE:
+                removePreference(new UUID(in.getLong(), in.getLong()));
+                accountLog.release(location);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Adds a committed transaction record to the per-player history
+     * @param payload the record
+     * @param location where the record is stored
+     */
+    private void indexTransaction(ByteBuffer payload, SegmentLog.Location location) {
+        TransactionRow record = decodeTransaction(payload);
+        indexHistory(record.getFromUuid(), location);
+        indexHistory(record.getToUuid(), location);
+    }
+    
+    @Override
+    public Map<UUID, Map<String, AccountHolder>> loadAllAccounts() throws StorageException {
+        lock.readLock().lock();
+        try {
+            SegmentLog log = requireOpen();
+            Map<UUID, Map<String, AccountHolder>> loaded = new ConcurrentHashMap<>(Math.max(16, accounts.size() * 4 / 3));
+            
+            // Reading whole segments in order is much faster than one read per account
+            for (int segmentId : log.getSegmentIds()) {
+                log.scan(segmentId, (payload, location) -> {
+                    if (payload.get(0) == ACCOUNT) {
+                        AccountRow row = decodeAccount(payload);
+                        if (location.equals(find(row.getPlayerUuid(), row.getCurrencyId()))) {
+                            loaded.computeIfAbsent(row.getPlayerUuid(), k -> new ConcurrentHashMap<>(4))
+                                    .put(row.getCurrencyId(), row.toAccount());
+                        }
+                    }
+                });
+            }
+            return loaded;
+        } catch (IOException e) {
+            throw new StorageException("Failed to load accounts from log storage", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public Map<String, AccountHolder> loadAccounts(UUID playerUuid) throws StorageException {
+        lock.readLock().lock();
+        try {
+            SegmentLog log = requireOpen();
+            Map<String, AccountHolder> loaded = new ConcurrentHashMap<>(4);
+            Map<String, SegmentLog.Location> locations = accounts.get(playerUuid);
+            if (locations != null) {
+                for (SegmentLog.Location location : locations.values()) {
+                    AccountRow row = decodeAccount(log.read(location));
+                    loaded.put(row.getCurrencyId(), row.toAccount());
+                }
+            }
+            return loaded;
+        } catch (IOException e) {
+            throw new StorageException("Failed to load accounts of " + playerUuid + " from log storage", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> upsertAccounts(List<AccountRow> rows) {
+        List<ByteBuffer> records = new ArrayList<>(rows.size());
+        for (AccountRow row : rows) {
+            records.add(encodeAccount(row));
+        }
+        
+        lock.writeLock().lock();
+        try {
+            SegmentLog log = requireOpen();
+            List<SegmentLog.Location> locations = new ArrayList<>(rows.size());
+            CompletableFuture<Void> durable = log.append(records, locations);
+            if (!durable.isCompletedExceptionally()) {
+                for (int i = 0; i < rows.size(); i++) {
+                    indexAccount(rows.get(i).getPlayerUuid(), rows.get(i).getCurrencyId(), locations.get(i));
+                }
+            }
+            return durable;
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> replaceAllAccounts(List<AccountRow> rows) {
+        // The reset marker comes first in a fresh segment, followed by the preferences it would
+        // otherwise clear, so every older segment can be deleted once the batch is durable
+        List<ByteBuffer> records = new ArrayList<>(rows.size() + 1);
+        records.add(ByteBuffer.wrap(new byte[] {RESET}));
+        
+        int resetSegment;
+        CompletableFuture<Void> durable;
+        lock.writeLock().lock();
+        try {
+            SegmentLog log = requireOpen();
+            List<UUID> preferenceUuids = new ArrayList<>(preferences.keySet());
+            for (UUID playerUuid : preferenceUuids) {
+                records.add(encodePreference(playerUuid, preferences.get(playerUuid)));
+            }
+            for (AccountRow row : rows) {
+                records.add(encodeAccount(row));
+            }
+            
+            resetSegment = log.roll();
+            List<SegmentLog.Location> locations = new ArrayList<>(records.size());
+            durable = log.append(records, locations);
+            if (durable.isCompletedExceptionally()) {
+                return durable;
+            }
+            
+            Map<UUID, String> kept = new HashMap<>(preferences);
+            clearIndexes();
+            log.release(locations.get(0));
+            for (int i = 0; i < preferenceUuids.size(); i++) {
+                UUID playerUuid = preferenceUuids.get(i);
+                indexPreference(playerUuid, kept.get(playerUuid), locations.get(1 + i));
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                AccountRow row = rows.get(i);
+                indexAccount(row.getPlayerUuid(), row.getCurrencyId(), locations.get(1 + preferenceUuids.size() + i));
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        return durable.thenRun(() -> deleteSegmentsBefore(resetSegment));
+    }
+    
+    /**
+     * Deletes segments that only hold records a reset has replaced
+     * @param segmentId the segment the reset was written to
+     */
+    private void deleteSegmentsBefore(int segmentId) {
+        lock.writeLock().lock();
+        try {
+            SegmentLog log = requireOpen();
+            for (int id : log.getSegmentIds()) {
+                if (id < segmentId) {
+                    log.delete(id);
+                }
+            }
+        } catch (IOException e) {
+            // Replay still stops at the reset, so the old segments are only wasted space
+            plugin.getLogger().log(Level.WARNING, "Failed to delete replaced log segments", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> appendTransactions(List<TransactionRow> records) {
+        List<ByteBuffer> encoded = new ArrayList<>(records.size());
+        for (TransactionRow record : records) {
+            encoded.add(encodeTransaction(record));
+        }
+        
+        synchronized (history) {
+            SegmentLog log = transactionLog;
+            if (log == null) {
+                return CompletableFuture.failedFuture(new StorageException("Log storage is not open"));
+            }
+            
+            List<SegmentLog.Location> locations = new ArrayList<>(records.size());
+            CompletableFuture<Void> durable = log.append(encoded, locations);
+            if (!durable.isCompletedExceptionally()) {
+                for (int i = 0; i < records.size(); i++) {
+                    indexHistory(records.get(i).getFromUuid(), locations.get(i));
+                    indexHistory(records.get(i).getToUuid(), locations.get(i));
+                }
+            }
+            return durable;
+        }
+    }
+    
+    @Override
+    public List<TransactionRow> queryHistory(UUID playerUuid, int limit) throws StorageException {
+        List<SegmentLog.Location> locations = new ArrayList<>();
+        SegmentLog log;
+        synchronized (history) {
+            log = transactionLog;
+            ArrayDeque<SegmentLog.Location> recent = history.get(playerUuid);
+            if (recent != null) {
+                Iterator<SegmentLog.Location> newestFirst = recent.iterator();
+                while (newestFirst.hasNext() && locations.size() < limit) {
+                    locations.add(newestFirst.next());
+                }
+            }
+        }
+        if (log == null) {
+            throw new StorageException("Log storage is not open");
+        }
+        
+        // The transaction log is never compacted, so the records cannot move while they are read
+        try {
+            List<TransactionRow> records = new ArrayList<>(locations.size());
+            for (SegmentLog.Location location : locations) {
+                records.add(decodeTransaction(log.read(location)));
+            }
+            return records;
+        } catch (IOException e) {
+            throw new StorageException("Failed to read transaction history of " + playerUuid, e);
+        }
+    }
+    
+    @Override
+    public String loadCurrencyPreference(UUID playerUuid) {
+        lock.readLock().lock();
+        try {
+            return preferences.get(playerUuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> saveCurrencyPreference(UUID playerUuid, String currencyId) {
+        lock.writeLock().lock();
+        try {
+            List<SegmentLog.Location> locations = new ArrayList<>(1);
+            CompletableFuture<Void> durable = requireOpen().append(
+                    Collections.singletonList(encodePreference(playerUuid, currencyId)), locations);
+            if (!durable.isCompletedExceptionally()) {
+                indexPreference(playerUuid, currencyId, locations.get(0));
+            }
+            return durable;
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> deleteCurrencyPreference(UUID playerUuid) {
+        lock.writeLock().lock();
+        try {
+            if (!preferences.containsKey(playerUuid)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            
+            SegmentLog log = requireOpen();
+            ByteBuffer record = ByteBuffer.allocate(17).put(PREFERENCE_DELETE)
+                    .putLong(playerUuid.getMostSignificantBits()).putLong(playerUuid.getLeastSignificantBits()).flip();
+            List<SegmentLog.Location> locations = new ArrayList<>(1);
+            CompletableFuture<Void> durable = log.append(Collections.singletonList(record), locations);
+            if (!durable.isCompletedExceptionally()) {
+                removePreference(playerUuid);
+                log.release(locations.get(0));
+            }
+            return durable;
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Compacts account segments with enough replaced records.
+     * Live records are appended again in batches, each checked under the index lock so a
+     * concurrent write always wins, and the segment is deleted once the copies are durable.
+     */
+    private void compact() {
+        SegmentLog log = accountLog;
+        if (log == null) {
+            return;
+        }
+        
+        for (int segmentId : log.findCompactable(logSettings.getCompactionGarbageRatio())) {
+            List<ByteBuffer> payloads = new ArrayList<>();
+            List<SegmentLog.Location> sources = new ArrayList<>();
+            try {
+                log.scan(segmentId, (payload, location) -> {
+                    payloads.add(payload);
+                    sources.add(location);
+                });
+                
+                CompletableFuture<Void> durable = CompletableFuture.completedFuture(null);
+                for (int from = 0; from < payloads.size(); from += COMPACTION_BATCH) {
+                    int to = Math.min(payloads.size(), from + COMPACTION_BATCH);
+                    CompletableFuture<Void> copied = copyLive(log, segmentId, payloads.subList(from, to), sources.subList(from, to));
+                    if (copied == null) {
+                        // A reset still shadows older segments, so this one has to wait for them
+                        durable = null;
+                        break;
+                    }
+                    durable = durable.thenCombine(copied, (a, b) -> null);
+                }
+                if (durable == null) {
+                    continue;
+                }
+                durable.join();
+                
+                lock.writeLock().lock();
+                try {
+                    log.delete(segmentId);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to compact log segment " + segmentId, e);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Appends the still-live records of a batch from a segment being compacted
+     * @param log the account log
+     * @param segmentId the segment being compacted
+     * @param payloads the records
+     * @param sources where the records are stored now
+     * @return a future completed once the copies are durable, or null if the segment cannot be compacted yet
+     * @throws IOException if the copies could not be appended
+     */
+    private CompletableFuture<Void> copyLive(SegmentLog log, int segmentId, List<ByteBuffer> payloads,
+                                             List<SegmentLog.Location> sources) throws IOException {
+        lock.writeLock().lock();
+        try {
+            List<ByteBuffer> live = new ArrayList<>();
+            for (int i = 0; i < payloads.size(); i++) {
+                ByteBuffer payload = payloads.get(i);
+                ByteBuffer in = payload.duplicate();
+                byte type = in.get();
+                switch (type) {
+                    case ACCOUNT: {
+                        UUID playerUuid = new UUID(in.getLong(), in.getLong());
+                        getString(in);
+                        if (sources.get(i).equals(find(playerUuid, getString(in)))) {
+                            live.add(payload);
+                        }
+                        break;
+                    }
+                    case PREFERENCE:
+                        if (sources.get(i).equals(preferenceLocations.get(new UUID(in.getLong(), in.getLong())))) {
+                            live.add(payload);
+                        }
+                        break;
+                    case PREFERENCE_DELETE:
+                        // A deletion only matters while an older segment may still hold the preference
+                        if (log.hasOlderThan(segmentId) && !preferences.containsKey(new UUID(in.getLong(), in.getLong()))) {
+                            live.add(payload);
+                        }
+                        break;
+                    case RESET:
+                        // Copied forward it would also clear newer records, so it must stay put
+                        if (log.hasOlderThan(segmentId)) {
+                            return null;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (live.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            
+            List<SegmentLog.Location> locations = new ArrayList<>(live.size());
+            CompletableFuture<Void> durable = log.append(live, locations);
+            if (durable.isCompletedExceptionally()) {
+                return durable;
+            }
+            for (int i = 0; i < live.size(); i++) {
+                ByteBuffer in = live.get(i).duplicate();
+                byte type = in.get();
+                UUID playerUuid = new UUID(in.getLong(), in.getLong());
+                if (type == ACCOUNT) {
+                    getString(in);
+                    indexAccount(playerUuid, getString(in), locations.get(i));
+                } else if (type == PREFERENCE) {
+                    indexPreference(playerUuid, getString(in), locations.get(i));
+                } else {
+                    log.release(locations.get(i));
+                }
+            }
+            return durable;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets the account log, failing if the backend is closed
+     * @return the account log
+     * @throws IOException if the backend is not open
+     */
+    private SegmentLog requireOpen() throws IOException {
+        SegmentLog log = accountLog;
+        if (log == null) {
+            throw new IOException("Log storage is not open");
+        }
+        return log;
+    }
+    
+    /**
+     * Finds the newest record of an account
+     * @param playerUuid the player's UUID
+     * @param currencyId the currency ID
+     * @return where the record is stored, or null if there is no such account
+     */
+    private SegmentLog.Location find(UUID playerUuid, String currencyId) {
+        Map<String, SegmentLog.Location> locations = accounts.get(playerUuid);
+        return locations != null ? locations.get(currencyId) : null;
+    }
+    
+    /**
+     * Points the index at an account's newest record
+     * @param playerUuid the player's UUID
+     * @param currencyId the currency ID
+     * @param location where the record is stored
+     */
+    private void indexAccount(UUID playerUuid, String currencyId, SegmentLog.Location location) {
+        SegmentLog.Location replaced = accounts.computeIfAbsent(playerUuid, k -> new HashMap<>(4)).put(currencyId, location);
+        if (replaced != null) {
+            accountLog.release(replaced);
+        }
+    }
+    
+    /**
+     * Points the index at a player's newest currency preference
+     * @param playerUuid the player's UUID
+     * @param currencyId the preferred currency ID
+     * @param location where the record is stored
+     */
+    private void indexPreference(UUID playerUuid, String currencyId, SegmentLog.Location location) {
+        preferences.put(playerUuid, currencyId);
+        SegmentLog.Location replaced = preferenceLocations.put(playerUuid, location);
+        if (replaced != null) {
+            accountLog.release(replaced);
+        }
+    }
+    
+    /**
+     * Removes a player's currency preference from the index
+     * @param playerUuid the player's UUID
+     */
+    private void removePreference(UUID playerUuid) {
+        preferences.remove(playerUuid);
+        SegmentLog.Location replaced = preferenceLocations.remove(playerUuid);
+        if (replaced != null) {
+            accountLog.release(replaced);
+        }
+    }
+    
+    /**
+     * Empties the account and preference indexes, marking every record they point at replaced
+     */
+    private void clearIndexes() {
+        for (Map<String, SegmentLog.Location> locations : accounts.values()) {
+            locations.values().forEach(accountLog::release);
+        }
+        preferenceLocations.values().forEach(accountLog::release);
+        accounts.clear();
+        preferences.clear();
+        preferenceLocations.clear();
+    }
+    
+    /**
+     * Adds a transaction to a player's recent history, dropping the oldest beyond the limit
+     * @param playerUuid the player's UUID, or null
+     * @param location where the transaction is stored
+     */
+    private void indexHistory(UUID playerUuid, SegmentLog.Location location) {
+        if (playerUuid == null || logSettings.getHistoryPerPlayer() == 0) {
+            return;
+        }
+        
+        ArrayDeque<SegmentLog.Location> recent = history.computeIfAbsent(playerUuid, k -> new ArrayDeque<>());
+        recent.addFirst(location);
+        if (recent.size() > logSettings.getHistoryPerPlayer()) {
+            recent.removeLast();
+        }
+    }
+    
+    /**
+     * Encodes an account record
+     * @param row the account row
+     * @return the record
+     */
+    private static ByteBuffer encodeAccount(AccountRow row) {
+        byte[] name = bytes(row.getPlayerName());
+        byte[] currencyId = bytes(row.getCurrencyId());
+        byte[] balance = bytes(row.getBalance());
+        
+        ByteBuffer record = ByteBuffer.allocate(1 + 16 + length(name) + length(currencyId) + length(balance) + 16);
+        record.put(ACCOUNT);
+        record.putLong(row.getPlayerUuid().getMostSignificantBits()).putLong(row.getPlayerUuid().getLeastSignificantBits());
+        putString(record, name);
+        putString(record, currencyId);
+        putString(record, balance);
+        record.putLong(row.getCreated()).putLong(row.getLastTransaction());
+        return record.flip();
+    }
+    
+    /**
+     * Decodes an account record
+     * @param payload the record
+     * @return the account row
+     */
+    private static AccountRow decodeAccount(ByteBuffer payload) {
+        ByteBuffer in = payload.duplicate();
+        in.get();
+        UUID playerUuid = new UUID(in.getLong(), in.getLong());
+        String playerName = getString(in);
+        String currencyId = getString(in);
+        String balance = getString(in);
+        return new AccountRow(null, 0L, playerUuid, playerName, currencyId, balance, in.getLong(), in.getLong());
+    }
+    
+    /**
+     * Encodes a currency preference record
+     * @param playerUuid the player's UUID
+     * @param currencyId the preferred currency ID
+     * @return the record
+     */
+    private static ByteBuffer encodePreference(UUID playerUuid, String currencyId) {
+        byte[] currency = bytes(currencyId);
+        ByteBuffer record = ByteBuffer.allocate(1 + 16 + length(currency));
+        record.put(PREFERENCE).putLong(playerUuid.getMostSignificantBits()).putLong(playerUuid.getLeastSignificantBits());
+        putString(record, currency);
+        return record.flip();
+    }
+    
+    /**
+     * Encodes a transaction record
+     * @param record the transaction
+     * @return the record
+     */
+    private static ByteBuffer encodeTransaction(TransactionRow record) {
+        byte[] id = bytes(record.getId());
+        byte[] type = bytes(record.getType());
+        byte[] currencyId = bytes(record.getCurrencyId());
+        byte[] amount = bytes(record.getAmount().toPlainString());
+        
+        byte[] groupId = bytes(record.getGroupId());
+        
+        ByteBuffer encoded = ByteBuffer.allocate(1 + 2 * 17 + length(id) + length(type) + length(currencyId)
+                + length(amount) + 8 + (groupId != null ? length(groupId) : 0));
+        encoded.put(TRANSACTION);
+        putUuid(encoded, record.getFromUuid());
+        putUuid(encoded, record.getToUuid());
+        putString(encoded, id);
+        putString(encoded, type);
+        putString(encoded, currencyId);
+        putString(encoded, amount);
+        encoded.putLong(record.getTimestamp());
+        if (groupId != null) {
+            // Optional trailer, so records written before groups existed still decode
+            putString(encoded, groupId);
+        }
+        return encoded.flip();
+    }
+    
+    /**
+     * Decodes a transaction record
+     * @param payload the record
+     * @return the transaction
+     */
+    private static TransactionRow decodeTransaction(ByteBuffer payload) {
+        ByteBuffer in = payload.duplicate();
+        in.get();
+        UUID fromUuid = getUuid(in);
+        UUID toUuid = getUuid(in);
+        String id = getString(in);
+        String type = getString(in);
+        String currencyId = getString(in);
+        BigDecimal amount = new BigDecimal(getString(in));
+        long timestamp = in.getLong();
+        String groupId = in.hasRemaining() ? getString(in) : null;
+        return new TransactionRow(id, type, fromUuid, toUuid, currencyId, amount, timestamp, groupId);
+    }
+    
+    /**
+     * Encodes a string as UTF-8
+     * @param value the string, or null
+     * @return the bytes, or null
+     */
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+    
+    /**
+     * Gets the encoded size of a string
+     * @param value the string's bytes, or null
+     * @return the size including its length prefix
+     */
+    private static int length(byte[] value) {
+        return 4 + (value != null ? value.length : 0);
+    }
+    
+    /**
+     * Writes a length-prefixed string, with length -1 for null
+     * @param out the record
+     * @param value the string's bytes, or null
+     */
+    private static void putString(ByteBuffer out, byte[] value) {
+        if (value == null) {
+            out.putInt(-1);
+        } else {
+            out.putInt(value.length).put(value);
+        }
+    }
+    
+    /**
+     * Reads a length-prefixed string
+     * @param in the record, backed by an array
+     * @return the string, or null
+     */
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+    
+    /**
+     * Writes a UUID that may be null
+     * @param out the record
+     * @param value the UUID, or null
+     */
+    private static void putUuid(ByteBuffer out, UUID value) {
+        out.put((byte) (value != null ? 1 : 0));
+        out.putLong(value != null ? value.getMostSignificantBits() : 0L);
+        out.putLong(value != null ? value.getLeastSignificantBits() : 0L);
+    }
+    
+    /**
+     * Reads a UUID that may be null
+     * @param in the record
+     * @return the UUID, or null
+     */
+    private static UUID getUuid(ByteBuffer in) {
+        boolean present = in.get() != 0;
+        UUID value = new UUID(in.getLong(), in.getLong());
+        return present ? value : null;
+    }
+} 
\ No newline at end of file
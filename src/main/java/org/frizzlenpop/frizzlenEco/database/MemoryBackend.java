@@ -0,0 +1,125 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * In-memory storage for tests and benchmarks. Nothing survives a restart.
+ * <p>
+ * Single-row writes are lock-free. Writes that must be all-or-nothing across rows,
+ * such as a full replace, hold the backend's lock.
+ */
+public class MemoryBackend implements StorageBackend {
+    private final Map<UUID, Map<String, AccountRow>> accounts = new ConcurrentHashMap<>();
+    private final Deque<TransactionRow> transactions = new ConcurrentLinkedDeque<>();
+    private final Map<UUID, String> preferences = new ConcurrentHashMap<>();
+    
+    @Override
+    public StorageCapabilities getCapabilities() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new StorageCapabilities(false, false, cores, cores, Integer.MAX_VALUE);
+    }
+    
+    @Override
+    public void open() {
+        // Nothing to connect to
+    }
+    
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+    
+    @Override
+    public Map<UUID, Map<String, AccountHolder>> loadAllAccounts() {
+        Map<UUID, Map<String, AccountHolder>> loaded = new ConcurrentHashMap<>(Math.max(16, accounts.size()));
+        for (Map.Entry<UUID, Map<String, AccountRow>> entry : accounts.entrySet()) {
+            loaded.put(entry.getKey(), toAccounts(entry.getValue()));
+        }
+        return loaded;
+    }
+    
+    @Override
+    public Map<String, AccountHolder> loadAccounts(UUID playerUuid) {
+        Map<String, AccountRow> rows = accounts.get(playerUuid);
+        return rows != null ? toAccounts(rows) : new ConcurrentHashMap<>(2);
+    }
+    
+    @Override
+    public CompletableFuture<Void> upsertAccounts(List<AccountRow> rows) {
+        for (AccountRow row : rows) {
+            put(row.detached());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    @Override
+    public synchronized CompletableFuture<Void> replaceAllAccounts(List<AccountRow> rows) {
+        accounts.clear();
+        return upsertAccounts(rows);
+    }
+    
+    @Override
+    public CompletableFuture<Void> appendTransactions(List<TransactionRow> records) {
+        for (TransactionRow record : records) {
+            transactions.addFirst(record);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    @Override
+    public List<TransactionRow> queryHistory(UUID playerUuid, int limit) {
+        List<TransactionRow> history = new ArrayList<>();
+        for (TransactionRow record : transactions) {
+            if (history.size() >= limit) {
+                break;
+            }
+            if (playerUuid.equals(record.getFromUuid()) || playerUuid.equals(record.getToUuid())) {
+                history.add(record);
+            }
+        }
+        return history;
+    }
+    
+    @Override
+    public String loadCurrencyPreference(UUID playerUuid) {
+        return preferences.get(playerUuid);
+    }
+    
+    @Override
+    public CompletableFuture<Void> saveCurrencyPreference(UUID playerUuid, String currencyId) {
+        preferences.put(playerUuid, currencyId);
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    @Override
+    public CompletableFuture<Void> deleteCurrencyPreference(UUID playerUuid) {
+        preferences.remove(playerUuid);
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    /**
+     * Stores a row, replacing any row for the same account
+     * @param row the detached row
+     */
+    private void put(AccountRow row) {
+        accounts.computeIfAbsent(row.getPlayerUuid(), k -> new ConcurrentHashMap<>(2)).put(row.getCurrencyId(), row);
+    }
+    
+    /**
+     * Creates live accounts from a player's stored rows
+     * @param rows the stored rows
+     * @return map of currency IDs to accounts
+     */
+    private Map<String, AccountHolder> toAccounts(Map<String, AccountRow> rows) {
+        Map<String, AccountHolder> loaded = new ConcurrentHashMap<>(Math.max(2, rows.size()));
+        for (AccountRow row : rows.values()) {
+            loaded.put(row.getCurrencyId(), row.toAccount());
+        }
+        return loaded;
+    }
+} 
\ No newline at end of file
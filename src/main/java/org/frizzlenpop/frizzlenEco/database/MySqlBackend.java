@@ -0,0 +1,193 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.DatabaseSettings;
+import org.frizzlenpop.frizzlenEco.config.MySqlBulkSettings;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+/**
+ * MySQL storage. Work runs on the calling thread using a pool of connections, one per
+ * flush worker, and account rows and transaction records are sent as multi-row statements
+ * by a {@link MySqlBulkWriter}. Transaction records are buffered and inserted together.
+ */
+public class MySqlBackend extends JdbcBackend {
+    private static final int MAX_PENDING_TRANSACTIONS = 100_000;
+    
+    private final FrizzlenEco plugin;
+    private final MySqlBulkSettings bulkSettings;
+    private final MySqlBulkWriter bulkWriter;
+    private final int poolSize;
+    private final Queue<TransactionRow> pendingTransactions = new ConcurrentLinkedQueue<>();
+    
+    private StatementPool pool;
+    private BukkitTask transactionTask;
+    
+    /**
+     * Creates a new MySqlBackend
+     * @param plugin the FrizzlenEco plugin instance
+     * @param settings the database settings
+     */
+    public MySqlBackend(FrizzlenEco plugin, DatabaseSettings settings) {
+        super(plugin.getLogger(), settings);
+        this.plugin = plugin;
+        this.bulkSettings = plugin.getConfigManager().getMySqlBulkSettings();
+        // One connection per flush worker, plus one so other work is not starved during a flush
+        this.poolSize = Math.max(1, Math.min(16, plugin.getConfigManager().getFlushSettings().getThreads())) + 1;
+        this.bulkWriter = new MySqlBulkWriter(logger, bulkSettings);
+    }
+    
+    @Override
+    public StorageCapabilities getCapabilities() {
+        // Reads and writes share one pool
+        return new StorageCapabilities(true, true, 0, poolSize, bulkWriter.getMaxRows());
+    }
+    
+    @Override
+    public void open() throws StorageException {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+            
+            pool = new StatementPool(this::openConnection, poolSize);
+            pool.use(statements -> {
+                createTables(statements.getConnection());
+                bulkWriter.detectPacketLimit(statements.getConnection());
+                return null;
+            });
+        } catch (Exception e) {
+            close();
+            throw new StorageException("Failed to connect to MySQL database", e);
+        }
+        
+        long ticks = Math.max(1L, bulkSettings.getTransactionFlushMillis() / 50L);
+        transactionTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flushTransactions, ticks, ticks);
+        
+        logger.info("Connected to MySQL database with " + poolSize + " connections");
+    }
+    
+    @Override
+    public void close() {
+        if (transactionTask != null) {
+            transactionTask.cancel();
+            transactionTask = null;
+            flushTransactions();
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+    
+    @Override
+    protected Connection openConnection() throws SQLException {
+        String url = "jdbc:mysql://" + settings.getHost() + ":" + settings.getPort() + "/" + settings.getDatabase()
+            + "?useUnicode=true&characterEncoding=utf8&useSSL=" + settings.isUseSSL()
+            + "&allowPublicKeyRetrieval=true&serverTimezone=UTC&useCursorFetch=true"
+            // Rewrite batches into multi-row statements and keep server-side statements prepared
+            + "&rewriteBatchedStatements=true&useServerPrepStmts=true&cachePrepStmts=true"
+            + "&prepStmtCacheSize=256&prepStmtCacheSqlLimit=262144";
+        Properties properties = new Properties();
+        properties.setProperty("user", settings.getUsername());
+        properties.setProperty("password", settings.getPassword());
+        
+        return DriverManager.getConnection(url, properties);
+    }
+    
+    @Override
+    protected <T> T read(StatementPool.Operation<T> operation) throws SQLException {
+        StatementPool current = pool;
+        if (current == null) {
+            throw new SQLException("MySQL backend is not open");
+        }
+        return current.use(operation);
+    }
+    
+    @Override
+    protected CompletableFuture<Void> write(WriteOperation operation) {
+        StatementPool current = pool;
+        if (current == null) {
+            return CompletableFuture.failedFuture(new SQLException("MySQL backend is not open"));
+        }
+        
+        try {
+            current.use(statements -> {
+                Connection conn = statements.getConnection();
+                conn.setAutoCommit(false);
+                try {
+                    operation.execute(statements);
+                    conn.commit();
+                } catch (SQLException | RuntimeException e) {
+                    statements.clearBatches();
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                return null;
+            });
+            return CompletableFuture.completedFuture(null);
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    @Override
+    protected String upsertPreferenceSql() {
+        return "INSERT INTO vault_preferences (player_uuid, currency_id) VALUES (?, ?) " +
+               "ON DUPLICATE KEY UPDATE currency_id = VALUES(currency_id)";
+    }
+    
+    @Override
+    protected void writeRows(StatementCache statements, List<AccountRow> rows) throws SQLException {
+        bulkWriter.writeAccounts(statements.getConnection(), rows);
+    }
+    
+    @Override
+    public CompletableFuture<Void> appendTransactions(List<TransactionRow> records) {
+        // Inserted together with others by the transaction flush task
+        pendingTransactions.addAll(records);
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    /**
+     * Inserts buffered transaction records as multi-row statements in one transaction.
+     * Records are put back if the insert fails, so they are retried on the next run.
+     */
+    private synchronized void flushTransactions() {
+        if (pendingTransactions.isEmpty()) {
+            return;
+        }
+        
+        List<TransactionRow> records = new ArrayList<>();
+        TransactionRow record;
+        while ((record = pendingTransactions.poll()) != null) {
+            records.add(record);
+        }
+        
+        try {
+            write(statements -> bulkWriter.writeTransactions(statements.getConnection(), records)).join();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error recording " + records.size() + " transactions in database", e);
+            
+            // Keep retrying through an outage, but do not grow without bound
+            int room = MAX_PENDING_TRANSACTIONS - pendingTransactions.size();
+            if (room < records.size()) {
+                logger.severe("Dropping " + (records.size() - Math.max(0, room)) + " transaction records");
+            }
+            if (room > 0) {
+                pendingTransactions.addAll(records.subList(0, Math.min(room, records.size())));
+            }
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,232 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.config.MySqlBulkSettings;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes accounts and transaction records to MySQL as multi-row statements.
+ * <p>
+ * Each statement carries as many rows as fit in the server's {@code max_allowed_packet}
+ * and the current row limit, so a large flush takes a few dozen round-trips instead of
+ * one per row. The row limit doubles while statements finish well under the target
+ * latency and halves when one goes over it, so the writer backs off on a busy server.
+ * Row limits are powers of two, and a statement cut short by the packet budget or the
+ * end of the rows is rounded down to a power of two as well, the rest going into the
+ * next, smaller statements. That bounds the distinct statements, and with them the
+ * statement cache and the server's prepared statements, to one per power of two.
+ * <p>
+ * Thread-safe; the flush workers share one writer.
+ */
+public class MySqlBulkWriter {
+    private static final String ACCOUNT_COLUMNS = "INSERT INTO accounts " +
+            "(player_uuid, player_name, currency_id, balance, created, last_transaction) VALUES ";
+    private static final String ACCOUNT_VALUES = "(?, ?, ?, ?, ?, ?)";
+    private static final String ACCOUNT_UPDATE = " ON DUPLICATE KEY UPDATE player_name = VALUES(player_name), " +
+            "balance = VALUES(balance), last_transaction = VALUES(last_transaction)";
+    // MySQL rejects prepared statements with more placeholders than this
+    private static final int MAX_PLACEHOLDERS = 65_535;
+    private static final int DEFAULT_PACKET_BYTES = 4 * 1024 * 1024;
+    
+    private final Logger logger;
+    private final int minRows;
+    private final int maxRows;
+    private final long targetLatencyNanos;
+    private final Map<Integer, String> accountSql = new ConcurrentHashMap<>();
+    private final Map<Integer, String> transactionSql = new ConcurrentHashMap<>();
+    
+    private volatile int packetBudget = DEFAULT_PACKET_BYTES / 4 * 3;
+    private volatile int batchRows;
+    
+    /**
+     * Creates a new MySqlBulkWriter
+     * @param logger the logger to report to
+     * @param settings the bulk write settings
+     */
+    public MySqlBulkWriter(Logger logger, MySqlBulkSettings settings) {
+        this.logger = logger;
+        // Transaction rows have the most parameters, so they bound the row count
+        int rowLimit = Math.max(1, Math.min(MAX_PLACEHOLDERS / TransactionRow.PARAMETERS, settings.getMaxRows()));
+        this.maxRows = Integer.highestOneBit(rowLimit);
+        this.minRows = Integer.highestOneBit(Math.max(1, Math.min(maxRows, settings.getMinRows())));
+        this.targetLatencyNanos = Math.max(1, settings.getTargetLatencyMillis()) * 1_000_000L;
+        
+        // Start a few steps above the minimum, measurements move it from there
+        this.batchRows = Math.min(maxRows, minRows * 4);
+    }
+    
+    /**
+     * Reads the server's packet limit, keeping a quarter as headroom for the statement text
+     * @param conn a connection to the server
+     */
+    public void detectPacketLimit(Connection conn) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT @@max_allowed_packet")) {
+            if (rs.next()) {
+                packetBudget = (int) Math.min(Integer.MAX_VALUE, rs.getLong(1) / 4 * 3);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Could not read max_allowed_packet, assuming "
+                    + DEFAULT_PACKET_BYTES / 1024 / 1024 + " MiB", e);
+        }
+    }
+    
+    /**
+     * Upserts account rows. The caller is responsible for transaction handling.
+     * @param conn the connection to use
+     * @param rows the rows to write
+     * @return the number of rows written
+     * @throws SQLException if an error occurs
+     */
+    int writeAccounts(Connection conn, List<AccountRow> rows) throws SQLException {
+        int start = 0;
+        while (start < rows.size()) {
+            int limit = batchRows;
+            int end = start;
+            long bytes = 0;
+            while (end < rows.size() && end - start < limit) {
+                int rowBytes = rows.get(end).estimateBytes();
+                if (end > start && bytes + rowBytes > packetBudget) {
+                    break;
+                }
+                bytes += rowBytes;
+                end++;
+            }
+            
+            // Only powers of two are cached, the rows cut off go into the next statement
+            int count = Integer.highestOneBit(end - start);
+            end = start + count;
+            long began = System.nanoTime();
+            try (PreparedStatement stmt = conn.prepareStatement(accountSql.computeIfAbsent(count, this::buildAccountSql))) {
+                int index = 1;
+                for (int i = start; i < end; i++) {
+                    index = rows.get(i).bind(stmt, index);
+                }
+                stmt.executeUpdate();
+            }
+            adapt(count, limit, System.nanoTime() - began);
+            start = end;
+        }
+        return rows.size();
+    }
+    
+    /**
+     * Inserts transaction records. The caller is responsible for transaction handling.
+     * @param conn the connection to use
+     * @param records the records to insert
+     * @return the number of records inserted
+     * @throws SQLException if an error occurs
+     */
+    int writeTransactions(Connection conn, List<TransactionRow> records) throws SQLException {
+        int start = 0;
+        while (start < records.size()) {
+            int limit = batchRows;
+            int end = start;
+            long bytes = 0;
+            while (end < records.size() && end - start < limit) {
+                int rowBytes = records.get(end).estimateBytes();
+                if (end > start && bytes + rowBytes > packetBudget) {
+                    break;
+                }
+                bytes += rowBytes;
+                end++;
+            }
+            
+            // Only powers of two are cached, the rows cut off go into the next statement
+            int count = Integer.highestOneBit(end - start);
+            end = start + count;
+            long began = System.nanoTime();
+            try (PreparedStatement stmt = conn.prepareStatement(transactionSql.computeIfAbsent(count, this::buildTransactionSql))) {
+                int index = 1;
+                for (int i = start; i < end; i++) {
+                    index = records.get(i).bind(stmt, index);
+                }
+                stmt.executeUpdate();
+            }
+            adapt(count, limit, System.nanoTime() - began);
+            start = end;
+        }
+        return records.size();
+    }
+    
+    /**
+     * Gets the most rows sent in one statement
+     * @return the maximum rows per statement
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+    
+    /**
+     * Gets the current row limit per statement
+     * @return the rows per statement
+     */
+    public int getBatchRows() {
+        return batchRows;
+    }
+    
+    /**
+     * Adapts the row limit to the latency of a statement.
+     * Only statements that used the full limit tell whether the limit itself is too big or too small.
+     * @param rows the rows in the statement
+     * @param limit the row limit the statement was built with
+     * @param nanos the time the statement took
+     */
+    private void adapt(int rows, int limit, long nanos) {
+        if (rows < limit) {
+            return;
+        }
+        
+        if (nanos > targetLatencyNanos && limit > minRows) {
+            batchRows = Math.max(minRows, limit / 2);
+        } else if (nanos < targetLatencyNanos / 2 && limit < maxRows) {
+            batchRows = Math.min(maxRows, limit * 2);
+        }
+    }
+    
+    /**
+     * Builds a multi-row account upsert
+     * @param rows the number of rows
+     * @return the SQL statement
+     */
+    private String buildAccountSql(int rows) {
+        return buildSql(ACCOUNT_COLUMNS, ACCOUNT_VALUES, rows) + ACCOUNT_UPDATE;
+    }
+    
+    /**
+     * Builds a multi-row transaction insert
+     * @param rows the number of rows
+     * @return the SQL statement
+     */
+    private String buildTransactionSql(int rows) {
+        return buildSql(TransactionRow.INSERT_COLUMNS, TransactionRow.VALUES_GROUP, rows);
+    }
+    
+    /**
+     * Builds the VALUES list of a multi-row insert
+     * @param prefix the statement up to VALUES
+     * @param group the placeholders of one row
+     * @param rows the number of rows
+     * @return the SQL statement without any suffix
+     */
+    private static String buildSql(String prefix, String group, int rows) {
+        StringBuilder sql = new StringBuilder(prefix.length() + rows * (group.length() + 2));
+        sql.append(prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(group);
+        }
+        return sql.toString();
+    }
+} 
\ No newline at end of file
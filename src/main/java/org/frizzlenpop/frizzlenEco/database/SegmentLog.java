@@ -0,0 +1,610 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of binary records, split into numbered segment files.
+ * <p>
+ * Records are appended in batches. Each batch is written with one write call and ends
+ * with a commit record, so after a crash a batch is either replayed whole or not at all.
+ * Appends land in the OS page cache right away and a sync thread fsyncs them in groups,
+ * completing the batches' futures once they are durable.
+ * <p>
+ * Frames are {@code [int length][int CRC32C][payload]}. The first payload byte is the
+ * record type, and type {@link #COMMIT} is reserved for commit records.
+ */
+public class SegmentLog implements AutoCloseable {
+    static final byte COMMIT = 0;
+    
+    private static final int MAGIC = 0x4645534C; // "FESL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int FRAME_BYTES = 8;
+    private static final int COMMIT_BYTES = FRAME_BYTES + 1;
+    private static final String FILE_SUFFIX = ".seg";
+    
+    /**
+     * Where a record is stored
+     */
+    public static final class Location {
+        private final int segment;
+        private final int offset;
+        private final int length;
+        
+        /**
+         * Creates a location
+         * @param segment the segment ID
+         * @param offset the offset of the record's frame in the segment
+         * @param length the length of the whole frame
+         */
+        Location(int segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Location)) return false;
+            Location other = (Location) o;
+            return segment == other.segment && offset == other.offset;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * segment + offset;
+        }
+    }
+    
+    /**
+     * Receives committed records while a segment is scanned
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * Visits a record
+         * @param payload the payload, starting with the record type
+         * @param location where the record is stored
+         * @throws IOException if the record cannot be handled
+         */
+        void visit(ByteBuffer payload, Location location) throws IOException;
+    }
+    
+    /**
+     * A segment file
+     */
+    private static final class Segment {
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+        private long garbage;
+        
+        private Segment(int id, File file, FileChannel channel, long size) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+    
+    private final Logger logger;
+    private final File directory;
+    private final long segmentBytes;
+    private final long syncIntervalMillis;
+    
+    private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+    private final Set<Segment> unsynced = new HashSet<>();
+    private List<CompletableFuture<Void>> pending = new ArrayList<>();
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(1 << 16);
+    private final CRC32C crc = new CRC32C();
+    
+    private Segment active;
+    private Thread syncThread;
+    private IOException failure;
+    private volatile boolean closing;
+    
+    /**
+     * Creates a new SegmentLog
+     * @param logger the logger to report problems to
+     * @param directory the folder the segment files are kept in
+     * @param segmentBytes the size at which a new segment is started
+     * @param syncIntervalMillis how long the sync thread collects appends before an fsync, 0 for none
+     */
+    public SegmentLog(Logger logger, File directory, long segmentBytes, long syncIntervalMillis) {
+        this.logger = logger;
+        this.directory = directory;
+        // Offsets are ints, so segments stay below 2 GiB
+        this.segmentBytes = Math.max(1L << 16, Math.min(segmentBytes, Integer.MAX_VALUE / 2));
+        this.syncIntervalMillis = Math.max(0L, syncIntervalMillis);
+    }
+    
+    /**
+     * Opens the segment files, replaying every committed record in order.
+     * A torn batch at the end of the newest segment is cut off.
+     * @param visitor receives the committed records
+     * @throws IOException if a segment is unreadable or corrupt
+     */
+    public void open(RecordVisitor visitor) throws IOException {
+        Files.createDirectories(directory.toPath());
+        
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                int id;
+                try {
+                    id = Integer.parseInt(file.getName().substring(0, file.getName().length() - FILE_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                segments.put(id, new Segment(id, file, channel, channel.size()));
+            }
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(0);
+        for (Segment segment : segments.values()) {
+            boolean newest = segment == segments.lastEntry().getValue();
+            if (buffer.capacity() < segment.size) {
+                buffer = ByteBuffer.allocate((int) segment.size);
+            }
+            
+            long end = scan(segment, buffer, visitor, true);
+            if (end < segment.size) {
+                if (!newest) {
+                    throw new IOException("Segment " + segment.file.getName() + " is corrupt at offset " + end);
+                }
+                logger.warning("Cutting off " + (segment.size - end) + " bytes of an unfinished write at the end of "
+                        + segment.file.getName());
+                segment.channel.truncate(end);
+                segment.size = end;
+            }
+        }
+        
+        if (segments.isEmpty() || segments.lastEntry().getValue().size >= segmentBytes) {
+            active = createSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        
+        syncThread = new Thread(this::runSync, "FrizzlenEco-LogSync-" + directory.getName());
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+    
+    /**
+     * Replays the committed records of one segment
+     * @param segmentId the segment ID
+     * @param visitor receives the committed records
+     * @throws IOException if the segment cannot be read
+     */
+    public void scan(int segmentId, RecordVisitor visitor) throws IOException {
+        Segment segment;
+        synchronized (this) {
+            segment = segments.get(segmentId);
+        }
+        if (segment != null) {
+            scan(segment, ByteBuffer.allocate((int) segment.size), visitor, false);
+        }
+    }
+    
+    /**
+     * Reads a segment and hands its committed records to a visitor
+     * @param segment the segment
+     * @param buffer a buffer large enough for the whole segment
+     * @param visitor receives the committed records
+     * @param countCommits whether to count the commit records as garbage, when opening
+     * @return the offset after the last committed batch
+     * @throws IOException if the segment cannot be read
+     */
+    private long scan(Segment segment, ByteBuffer buffer, RecordVisitor visitor, boolean countCommits) throws IOException {
+        buffer.clear();
+        buffer.limit((int) segment.size);
+        while (buffer.hasRemaining()) {
+            if (segment.channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        
+        if (buffer.remaining() < HEADER_BYTES) {
+            // Created but never written, so there is nothing to lose
+            if (segment.size == 0 || segment == segments.lastEntry().getValue()) {
+                writeHeader(segment);
+                return HEADER_BYTES;
+            }
+            return 0;
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException(segment.file.getName() + " is not a FrizzlenEco segment file");
+        }
+        
+        // Records are handed out only once the commit record of their batch is read
+        List<ByteBuffer> batch = new ArrayList<>();
+        List<Location> locations = new ArrayList<>();
+        CRC32C check = new CRC32C();
+        int committed = HEADER_BYTES;
+        while (buffer.remaining() >= FRAME_BYTES) {
+            int offset = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 1 || length > buffer.remaining()) {
+                break;
+            }
+            
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            check.reset();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != checksum) {
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            
+            if (payload.get(0) == COMMIT) {
+                if (countCommits) {
+                    segment.garbage += COMMIT_BYTES;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    visitor.visit(batch.get(i), locations.get(i));
+                }
+                batch.clear();
+                locations.clear();
+                committed = buffer.position();
+            } else {
+                batch.add(payload);
+                locations.add(new Location(segment.id, offset, FRAME_BYTES + length));
+            }
+        }
+        return committed;
+    }
+    
+    /**
+     * Appends records as one batch
+     * @param records the payloads, each starting with its record type
+     * @param locations receives where each record is stored, in order
+     * @return a future completed once the batch is durable
+     */
+    public CompletableFuture<Void> append(List<ByteBuffer> records, List<Location> locations) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            try {
+                if (failure != null) {
+                    throw new IOException("Log is unusable after an earlier write failure", failure);
+                }
+                if (closing) {
+                    throw new IOException("Log is closed");
+                }
+                
+                int bytes = COMMIT_BYTES;
+                for (ByteBuffer record : records) {
+                    bytes += FRAME_BYTES + record.remaining();
+                }
+                // A batch never spans segments, so a commit record always follows its records
+                if (active.size > HEADER_BYTES && active.size + bytes > segmentBytes) {
+                    roll();
+                }
+                
+                ByteBuffer buffer = writeBuffer(bytes);
+                int offset = (int) active.size;
+                for (ByteBuffer record : records) {
+                    int length = record.remaining();
+                    locations.add(new Location(active.id, offset, FRAME_BYTES + length));
+                    frame(buffer, record);
+                    offset += FRAME_BYTES + length;
+                }
+                frame(buffer, ByteBuffer.wrap(new byte[] {COMMIT}));
+                buffer.flip();
+                
+                write(buffer);
+                active.garbage += COMMIT_BYTES;
+                unsynced.add(active);
+                pending.add(future);
+                notifyAll();
+            } catch (IOException e) {
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+    
+    /**
+     * Writes a frame into the write buffer
+     * @param buffer the write buffer
+     * @param payload the payload
+     */
+    private void frame(ByteBuffer buffer, ByteBuffer payload) {
+        crc.reset();
+        crc.update(payload.duplicate());
+        buffer.putInt(payload.remaining());
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload.duplicate());
+    }
+    
+    /**
+     * Gets the write buffer, cleared and large enough for a batch
+     * @param bytes the size of the batch
+     * @return the write buffer
+     */
+    private ByteBuffer writeBuffer(int bytes) {
+        if (writeBuffer.capacity() < bytes) {
+            writeBuffer = ByteBuffer.allocateDirect(Math.max(bytes, writeBuffer.capacity() * 2));
+        }
+        writeBuffer.clear();
+        return writeBuffer;
+    }
+    
+    /**
+     * Writes a batch at the end of the active segment.
+     * A failed write is cut off again, so no half-written batch is followed by a later one.
+     * @param buffer the batch
+     * @throws IOException if the batch could not be written
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        long start = active.size;
+        try {
+            long position = start;
+            while (buffer.hasRemaining()) {
+                position += active.channel.write(buffer, position);
+            }
+            active.size = position;
+        } catch (IOException e) {
+            try {
+                active.channel.truncate(start);
+            } catch (IOException truncateError) {
+                failure = truncateError;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Reads a stored record
+     * @param location where the record is stored
+     * @return the payload, starting with the record type
+     * @throws IOException if the segment is gone or the record is corrupt
+     */
+    public ByteBuffer read(Location location) throws IOException {
+        Segment segment;
+        synchronized (this) {
+            segment = segments.get(location.segment);
+        }
+        if (segment == null) {
+            throw new IOException("Segment " + location.segment + " no longer exists");
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        while (buffer.hasRemaining()) {
+            if (segment.channel.read(buffer, location.offset + buffer.position()) < 0) {
+                throw new IOException("Record at " + location.offset + " runs past the end of segment " + location.segment);
+            }
+        }
+        buffer.flip();
+        
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        ByteBuffer payload = buffer.slice();
+        CRC32C check = new CRC32C();
+        check.update(payload.duplicate());
+        if (length != payload.remaining() || (int) check.getValue() != checksum) {
+            throw new IOException("Record at " + location.offset + " in segment " + location.segment + " is corrupt");
+        }
+        return payload;
+    }
+    
+    /**
+     * Notes that a stored record has been replaced or was never live, such as a deletion
+     * marker, so its segment is worth compacting sooner
+     * @param location where the replaced record is stored
+     */
+    public synchronized void release(Location location) {
+        Segment segment = segments.get(location.segment);
+        if (segment != null) {
+            segment.garbage += location.length;
+        }
+    }
+    
+    /**
+     * Finds sealed segments whose share of replaced records has reached a threshold
+     * @param garbageRatio the share of replaced bytes, between 0 and 1
+     * @return the segment IDs, oldest first
+     */
+    public synchronized List<Integer> findCompactable(double garbageRatio) {
+        List<Integer> ids = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != active && segment.garbage >= (segment.size - HEADER_BYTES) * garbageRatio) {
+                ids.add(segment.id);
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Checks if any segment older than the given one still exists
+     * @param segmentId the segment ID
+     * @return true if an older segment exists
+     */
+    public synchronized boolean hasOlderThan(int segmentId) {
+        Integer oldest = segments.isEmpty() ? null : segments.firstKey();
+        return oldest != null && oldest < segmentId;
+    }
+    
+    /**
+     * Deletes a segment whose live records have all been appended again
+     * @param segmentId the segment ID
+     * @throws IOException if the file could not be deleted
+     */
+    public void delete(int segmentId) throws IOException {
+        Segment segment;
+        synchronized (this) {
+            segment = segments.get(segmentId);
+            if (segment == null || segment == active) {
+                return;
+            }
+            segments.remove(segmentId);
+            unsynced.remove(segment);
+        }
+        segment.channel.close();
+        Files.deleteIfExists(segment.file.toPath());
+    }
+    
+    /**
+     * Gets the IDs of all segments
+     * @return the segment IDs, oldest first
+     */
+    public synchronized List<Integer> getSegmentIds() {
+        return new ArrayList<>(segments.keySet());
+    }
+    
+    /**
+     * Seals the active segment and starts a new one
+     * @return the ID of the new segment
+     * @throws IOException if the new segment could not be created
+     */
+    public synchronized int roll() throws IOException {
+        unsynced.add(active);
+        active = createSegment(active.id + 1);
+        return active.id;
+    }
+    
+    /**
+     * Creates an empty segment file
+     * @param id the segment ID
+     * @return the new segment
+     * @throws IOException if the file could not be created
+     */
+    private Segment createSegment(int id) throws IOException {
+        File file = new File(directory, String.format("%010d%s", id, FILE_SUFFIX));
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, file, channel, 0L);
+        writeHeader(segment);
+        segments.put(id, segment);
+        unsynced.add(segment);
+        syncDirectory();
+        return segment;
+    }
+    
+    /**
+     * Makes a new segment's directory entry durable, where the platform allows it
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on every platform, and the data itself is synced anyway
+        }
+    }
+    
+    /**
+     * Writes the file header of an empty segment
+     * @param segment the segment
+     * @throws IOException if the header could not be written
+     */
+    private void writeHeader(Segment segment) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+        segment.channel.truncate(0L);
+        while (header.hasRemaining()) {
+            segment.channel.write(header, header.position());
+        }
+        segment.size = HEADER_BYTES;
+    }
+    
+    /**
+     * Runs the sync thread, which fsyncs appended batches in groups
+     */
+    private void runSync() {
+        while (true) {
+            List<CompletableFuture<Void>> batch;
+            List<Segment> toSync;
+            synchronized (this) {
+                while (pending.isEmpty() && !closing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+            }
+            
+            // Give more appends the chance to share this fsync
+            if (syncIntervalMillis > 0 && !closing) {
+                try {
+                    Thread.sleep(syncIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                toSync = new ArrayList<>(unsynced);
+                unsynced.clear();
+            }
+            
+            try {
+                for (Segment segment : toSync) {
+                    try {
+                        segment.channel.force(false);
+                    } catch (ClosedChannelException e) {
+                        // Deleted by compaction, its records live on elsewhere
+                    }
+                }
+                for (CompletableFuture<Void> future : batch) {
+                    future.complete(null);
+                }
+            } catch (IOException e) {
+                // After a failed fsync the page cache may have dropped the writes, so callers must retry
+                logger.log(Level.SEVERE, "Failed to sync storage log in " + directory.getName(), e);
+                for (CompletableFuture<Void> future : batch) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Syncs what is appended and closes all segments
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closing = true;
+            notifyAll();
+        }
+        if (syncThread != null) {
+            try {
+                syncThread.join(10_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                try {
+                    segment.channel.close();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to close " + segment.file.getName(), e);
+                }
+            }
+            segments.clear();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,666 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.DatabaseSettings;
+import org.frizzlenpop.frizzlenEco.config.SqliteSettings;
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.util.FastParser;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * SQLite storage split across several database files by player UUID, so each file has
+ * its own writer thread and writes to different players run in parallel.
+ * <p>
+ * A player's accounts and preference live in the shard their UUID hashes to, and a
+ * transaction record is stored in the shards of both players so either one's history is
+ * local. Commits that span shards are made atomic with an intent: every change is
+ * committed to one shard first, then each shard applies its part together with a marker, and
+ * intents left by a crash are rolled forward on the next start. Plain upserts, as used by the
+ * periodic flush, are written to each shard independently.
+ */
+public class ShardedSqliteBackend implements StorageBackend {
+    private static final int MIGRATION_BATCH = 5000;
+    
+    private final Logger logger;
+    private final DatabaseSettings settings;
+    private final SqliteBackend[] shards;
+    
+    /**
+     * Creates a new ShardedSqliteBackend
+     * @param plugin the FrizzlenEco plugin instance
+     * @param settings the database settings
+     */
+    public ShardedSqliteBackend(FrizzlenEco plugin, DatabaseSettings settings) {
+        this(plugin.getLogger(), settings, plugin.getConfigManager().getSqliteSettings());
+    }
+    
+    /**
+     * Creates a ShardedSqliteBackend from settings alone
+     * @param logger the logger to report to
+     * @param settings the database settings
+     * @param sqliteSettings the SQLite settings, including the number of shards
+     */
+    ShardedSqliteBackend(Logger logger, DatabaseSettings settings, SqliteSettings sqliteSettings) {
+        this.logger = logger;
+        this.settings = settings;
+        
+        int count = sqliteSettings.getShards();
+        // Connections are shared out between the shards rather than multiplied by them
+        int readers = Math.max(1, sqliteSettings.getReadConnections() / count);
+        int loaders = Math.max(1, settings.getLoaderThreads() / count);
+        
+        this.shards = new SqliteBackend[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new SqliteBackend(logger, settings, sqliteSettings, shardFile(settings.getSqliteFile(), i), readers,
+                    loaders, true);
+        }
+    }
+    
+    /**
+     * Gets the file of a shard, named after the configured SQLite file
+     * @param file the configured SQLite file
+     * @param index the shard index
+     * @return the shard's database file
+     */
+    static File shardFile(File file, int index) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return new File(file.getParentFile(), stem + "-shard" + index + extension);
+    }
+    
+    /**
+     * Gets the shard a player's data lives in
+     * @param playerUuid the player's UUID
+     * @return the shard index
+     */
+    int shardOf(UUID playerUuid) {
+        // UUID#hashCode is specified, so players never move between shards
+        return Math.floorMod(playerUuid.hashCode(), shards.length);
+    }
+    
+    @Override
+    public StorageCapabilities getCapabilities() {
+        return new StorageCapabilities(true, true, shards.length * shards[0].getCapabilities().getMaxReaders(),
+                shards.length, 1);
+    }
+    
+    @Override
+    public void open() throws StorageException {
+        try {
+            for (SqliteBackend shard : shards) {
+                shard.open();
+            }
+            
+            boolean stamped = true;
+            for (int i = 0; i < shards.length; i++) {
+                stamped &= prepareShard(i);
+            }
+            
+            File legacy = settings.getSqliteFile();
+            if (legacy.isFile()) {
+                // Shards are stamped only once migration has finished, so a crash midway repeats it
+                if (!stamped) {
+                    migrate(legacy);
+                }
+                Files.move(legacy.toPath(), new File(legacy.getParentFile(), legacy.getName() + ".migrated").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                logger.info("Moved " + legacy.getName() + " into " + shards.length + " shards, the old file "
+                        + "is kept as " + legacy.getName() + ".migrated");
+            }
+            if (!stamped) {
+                for (int i = 0; i < shards.length; i++) {
+                    stampShard(i);
+                }
+            }
+            
+            recoverIntents();
+        } catch (Exception e) {
+            close();
+            throw new StorageException("Failed to open sharded SQLite database", e);
+        }
+        
+        logger.info("Connected to SQLite database split across " + shards.length + " files");
+    }
+    
+    @Override
+    public void close() {
+        for (SqliteBackend shard : shards) {
+            shard.close();
+        }
+    }
+    
+    /**
+     * Creates a shard's bookkeeping tables and checks it belongs to this shard layout
+     * @param index the shard index
+     * @return true if the shard is already stamped, false if it is new
+     * @throws Exception if the shard was created for a different layout or cannot be read
+     */
+    private boolean prepareShard(int index) throws Exception {
+        await(shards[index].write(statements -> {
+            try (Statement stmt = statements.getConnection().createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS shard_info (" +
+                        "shard_index INTEGER NOT NULL, " +
+                        "shard_count INTEGER NOT NULL)");
+                stmt.execute("CREATE TABLE IF NOT EXISTS pending_intent_rows (" +
+                        "intent_id VARCHAR(36) NOT NULL, " +
+                        "shard INTEGER NOT NULL, " +
+                        "player_uuid VARCHAR(36) NOT NULL, " +
+                        "player_name VARCHAR(36), " +
+                        "currency_id VARCHAR(36) NOT NULL, " +
+                        "balance TEXT NOT NULL, " +
+                        "created BIGINT NOT NULL, " +
+                        "last_transaction BIGINT NOT NULL)");
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_pending_intent_rows ON pending_intent_rows (intent_id)");
+                stmt.execute("CREATE TABLE IF NOT EXISTS pending_intent_records (" +
+                        "intent_id VARCHAR(36) NOT NULL, " +
+                        "shard INTEGER NOT NULL, " +
+                        "id VARCHAR(36) NOT NULL, " +
+                        "transaction_type VARCHAR(20) NOT NULL, " +
+                        "from_uuid VARCHAR(36), " +
+                        "to_uuid VARCHAR(36), " +
+                        "currency_id VARCHAR(36) NOT NULL, " +
+                        "amount TEXT NOT NULL, " +
+                        "timestamp BIGINT NOT NULL, " +
+                        "group_id VARCHAR(36))");
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_pending_intent_records ON pending_intent_records (intent_id)");
+                stmt.execute("CREATE TABLE IF NOT EXISTS applied_intents (" +
+                        "intent_id VARCHAR(36) NOT NULL, " +
+                        "PRIMARY KEY (intent_id))");
+            }
+        }));
+        
+        return shards[index].read(statements -> {
+            try (ResultSet rs = statements.prepare("SELECT shard_index, shard_count FROM shard_info").executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                if (rs.getInt(1) != index || rs.getInt(2) != shards.length) {
+                    throw new SQLException(shardFile(settings.getSqliteFile(), index).getName() + " is shard "
+                            + rs.getInt(1) + " of " + rs.getInt(2) + ", but database.sqlite.shards is " + shards.length);
+                }
+                return true;
+            }
+        });
+    }
+    
+    /**
+     * Records which shard of which layout a file is
+     * @param index the shard index
+     * @throws Exception if the stamp could not be written
+     */
+    private void stampShard(int index) throws Exception {
+        await(shards[index].write(statements -> {
+            // A crash while stamping can leave some shards stamped already
+            statements.prepare("DELETE FROM shard_info").executeUpdate();
+            PreparedStatement stmt = statements.prepare("INSERT INTO shard_info (shard_index, shard_count) VALUES (?, ?)");
+            stmt.setInt(1, index);
+            stmt.setInt(2, shards.length);
+            stmt.executeUpdate();
+        }));
+    }
+    
+    /**
+     * Copies accounts, transactions and preferences from an unsharded database into the shards.
+     * Every write is an upsert or ignores duplicates, so a repeated migration is harmless.
+     * @param legacy the unsharded database file
+     * @throws Exception if the old database cannot be read or a shard cannot be written
+     */
+    private void migrate(File legacy) throws Exception {
+        logger.info("Splitting " + legacy.getName() + " across " + shards.length + " shards...");
+        
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + legacy.getAbsolutePath());
+             Statement stmt = conn.createStatement()) {
+            List<List<AccountRow>> accounts = newBuckets();
+            try (ResultSet rs = stmt.executeQuery("SELECT player_uuid, player_name, currency_id, balance, created, " +
+                    "last_transaction FROM accounts")) {
+                while (rs.next()) {
+                    UUID playerUuid = FastParser.parseUuid(rs.getString(1));
+                    List<AccountRow> bucket = accounts.get(shardOf(playerUuid));
+                    bucket.add(new AccountRow(null, 0L, playerUuid, rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getLong(5), rs.getLong(6)));
+                    if (bucket.size() >= MIGRATION_BATCH) {
+                        await(shards[shardOf(playerUuid)].upsertAccounts(new ArrayList<>(bucket)));
+                        bucket.clear();
+                    }
+                }
+            }
+            for (int i = 0; i < shards.length; i++) {
+                await(shards[i].upsertAccounts(accounts.get(i)));
+            }
+            
+            List<List<TransactionRow>> transactions = newBuckets();
+            try (ResultSet rs = stmt.executeQuery("SELECT id, transaction_type, from_uuid, to_uuid, currency_id, amount, " +
+                    "timestamp FROM transactions")) {
+                while (rs.next()) {
+                    String from = rs.getString(3);
+                    String to = rs.getString(4);
+                    TransactionRow record = new TransactionRow(rs.getString(1), rs.getString(2),
+                            from != null ? FastParser.parseUuid(from) : null, to != null ? FastParser.parseUuid(to) : null,
+                            rs.getString(5), FastParser.parseDecimal(rs.getString(6)), rs.getLong(7));
+                    for (int shard : shardsOf(record)) {
+                        List<TransactionRow> bucket = transactions.get(shard);
+                        bucket.add(record);
+                        if (bucket.size() >= MIGRATION_BATCH) {
+                            insertIgnoringDuplicates(shard, new ArrayList<>(bucket));
+                            bucket.clear();
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < shards.length; i++) {
+                insertIgnoringDuplicates(i, transactions.get(i));
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT player_uuid, currency_id FROM vault_preferences")) {
+                while (rs.next()) {
+                    UUID playerUuid = FastParser.parseUuid(rs.getString(1));
+                    await(shards[shardOf(playerUuid)].saveCurrencyPreference(playerUuid, rs.getString(2)));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Inserts migrated transaction records, skipping those a previous attempt already inserted
+     * @param shard the shard index
+     * @param records the records
+     * @throws Exception if the records could not be written
+     */
+    private void insertIgnoringDuplicates(int shard, List<TransactionRow> records) throws Exception {
+        if (records.isEmpty()) {
+            return;
+        }
+        await(shards[shard].write(statements -> {
+            PreparedStatement stmt = statements.prepare("INSERT OR IGNORE INTO transactions " +
+                    "(id, transaction_type, from_uuid, to_uuid, currency_id, amount, timestamp, group_id) VALUES " +
+                    TransactionRow.VALUES_GROUP);
+            for (TransactionRow record : records) {
+                record.bind(stmt, 1);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }));
+    }
+    
+    @Override
+    public Map<UUID, Map<String, AccountHolder>> loadAllAccounts() throws StorageException {
+        ExecutorService executor = Executors.newFixedThreadPool(shards.length, runnable -> {
+            Thread thread = new Thread(runnable, "FrizzlenEco-ShardLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try {
+            List<Future<Map<UUID, Map<String, AccountHolder>>>> futures = new ArrayList<>(shards.length);
+            for (SqliteBackend shard : shards) {
+                futures.add(executor.submit(shard::loadAllAccounts));
+            }
+            
+            // Shards hold disjoint players, so their maps merge without conflicts
+            Map<UUID, Map<String, AccountHolder>> accounts = null;
+            for (Future<Map<UUID, Map<String, AccountHolder>>> future : futures) {
+                Map<UUID, Map<String, AccountHolder>> loaded = future.get();
+                if (accounts == null) {
+                    accounts = new ConcurrentHashMap<>(Math.max(16, loaded.size() * shards.length * 4 / 3));
+                }
+                accounts.putAll(loaded);
+            }
+            return accounts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("Interrupted while loading accounts", e);
+        } catch (ExecutionException e) {
+            throw new StorageException("Failed to load accounts from a shard", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Override
+    public Map<String, AccountHolder> loadAccounts(UUID playerUuid) throws StorageException {
+        return shards[shardOf(playerUuid)].loadAccounts(playerUuid);
+    }
+    
+    @Override
+    public CompletableFuture<Void> upsertAccounts(List<AccountRow> rows) {
+        // Each shard commits its rows on its own; use commit for all-or-nothing across shards
+        List<List<AccountRow>> buckets = newBuckets();
+        for (AccountRow row : rows) {
+            buckets.get(shardOf(row.getPlayerUuid())).add(row);
+        }
+        
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (!buckets.get(i).isEmpty()) {
+                writes.add(shards[i].upsertAccounts(buckets.get(i)));
+            }
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    }
+    
+    @Override
+    public CompletableFuture<Void> replaceAllAccounts(List<AccountRow> rows) {
+        // Each shard replaces its part atomically, but a failed shard leaves the others replaced
+        List<List<AccountRow>> buckets = newBuckets();
+        for (AccountRow row : rows) {
+            buckets.get(shardOf(row.getPlayerUuid())).add(row);
+        }
+        
+        CompletableFuture<?>[] writes = new CompletableFuture[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            writes[i] = shards[i].replaceAllAccounts(buckets.get(i));
+        }
+        return CompletableFuture.allOf(writes);
+    }
+    
+    @Override
+    public CompletableFuture<Void> commit(List<AccountRow> rows, List<TransactionRow> records) {
+        Map<Integer, IntentPart> byShard = split(rows, records);
+        if (byShard.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (byShard.size() == 1) {
+            Map.Entry<Integer, IntentPart> only = byShard.entrySet().iterator().next();
+            return shards[only.getKey()].commit(only.getValue().rows, only.getValue().records);
+        }
+        return commitIntent(byShard);
+    }
+    
+    /**
+     * Splits account rows and transaction records by the shard they are written to
+     * @param rows the account rows
+     * @param records the transaction records, one copy per player's shard
+     * @return the changes by shard index, in shard order
+     */
+    Map<Integer, IntentPart> split(List<AccountRow> rows, List<TransactionRow> records) {
+        Map<Integer, IntentPart> byShard = new TreeMap<>();
+        for (AccountRow row : rows) {
+            partOf(byShard, shardOf(row.getPlayerUuid())).rows.add(row);
+        }
+        for (TransactionRow record : records) {
+            for (int shard : shardsOf(record)) {
+                partOf(byShard, shard).records.add(record);
+            }
+        }
+        return byShard;
+    }
+    
+    private static IntentPart partOf(Map<Integer, IntentPart> byShard, int shard) {
+        return byShard.computeIfAbsent(shard, k -> new IntentPart());
+    }
+    
+    /**
+     * Commits the changes of several shards as an intent to the first of them, then applies it
+     * @param byShard the changes by shard index
+     * @return a future completed once the intent is committed and an attempt to apply it is over
+     */
+    private CompletableFuture<Void> commitIntent(Map<Integer, IntentPart> byShard) {
+        int coordinator = byShard.keySet().iterator().next();
+        return recordIntent(byShard).thenCompose(intentId -> applyIntent(intentId, coordinator, byShard));
+    }
+    
+    /**
+     * Commits the changes of several shards as an intent to the first of them.
+     * From here on the changes are made even if the server stops before they are applied.
+     * @param byShard the changes by shard index
+     * @return a future completed with the intent ID once the intent is committed
+     */
+    CompletableFuture<String> recordIntent(Map<Integer, IntentPart> byShard) {
+        String intentId = UUID.randomUUID().toString();
+        int coordinator = byShard.keySet().iterator().next();
+        return shards[coordinator].write(statements -> {
+            PreparedStatement rowStmt = statements.prepare("INSERT INTO pending_intent_rows " +
+                    "(intent_id, shard, player_uuid, player_name, currency_id, balance, created, last_transaction) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+            PreparedStatement recordStmt = statements.prepare("INSERT INTO pending_intent_records " +
+                    "(intent_id, shard, id, transaction_type, from_uuid, to_uuid, currency_id, amount, timestamp, group_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            for (Map.Entry<Integer, IntentPart> entry : byShard.entrySet()) {
+                for (AccountRow row : entry.getValue().rows) {
+                    rowStmt.setString(1, intentId);
+                    rowStmt.setInt(2, entry.getKey());
+                    row.bind(rowStmt, 3);
+                    rowStmt.addBatch();
+                }
+                for (TransactionRow record : entry.getValue().records) {
+                    recordStmt.setString(1, intentId);
+                    recordStmt.setInt(2, entry.getKey());
+                    record.bind(recordStmt, 3);
+                    recordStmt.addBatch();
+                }
+            }
+            rowStmt.executeBatch();
+            recordStmt.executeBatch();
+        }).thenApply(committed -> intentId);
+    }
+    
+    /**
+     * Applies a committed intent on each shard it touches, then removes it
+     * @param intentId the intent ID
+     * @param coordinator the shard the intent is stored in
+     * @param byShard the changes by shard index
+     * @return a future completed once the attempt is over; the intent is committed either way
+     */
+    private CompletableFuture<Void> applyIntent(String intentId, int coordinator, Map<Integer, IntentPart> byShard) {
+        return applyParts(intentId, byShard).handle((result, error) -> {
+            if (error != null) {
+                logger.log(Level.SEVERE, "Cross-shard write " + intentId
+                        + " is committed but not yet applied everywhere, it will be finished on the next start", error);
+                return null;
+            }
+            
+            // The markers are only needed while the intent exists
+            shards[coordinator].write(statements -> {
+                for (String table : new String[] {"pending_intent_rows", "pending_intent_records"}) {
+                    PreparedStatement stmt = statements.prepare("DELETE FROM " + table + " WHERE intent_id = ?");
+                    stmt.setString(1, intentId);
+                    stmt.executeUpdate();
+                }
+            }).thenRun(() -> {
+                for (int shard : byShard.keySet()) {
+                    shards[shard].write(statements -> {
+                        PreparedStatement stmt = statements.prepare("DELETE FROM applied_intents WHERE intent_id = ?");
+                        stmt.setString(1, intentId);
+                        stmt.executeUpdate();
+                    });
+                }
+            });
+            return null;
+        });
+    }
+    
+    /**
+     * Applies each shard's part of a committed intent together with the intent's marker.
+     * A shard that already holds the marker has applied its part and is skipped, so an
+     * intent may be applied again until it is removed.
+     * @param intentId the intent ID
+     * @param byShard the changes by shard index
+     * @return a future completed once every part is applied, or failed if one could not be
+     */
+    CompletableFuture<Void> applyParts(String intentId, Map<Integer, IntentPart> byShard) {
+        List<CompletableFuture<Void>> applied = new ArrayList<>(byShard.size());
+        for (Map.Entry<Integer, IntentPart> entry : byShard.entrySet()) {
+            SqliteBackend shard = shards[entry.getKey()];
+            IntentPart part = entry.getValue();
+            applied.add(shard.write(statements -> {
+                PreparedStatement marker = statements.prepare("INSERT OR IGNORE INTO applied_intents (intent_id) VALUES (?)");
+                marker.setString(1, intentId);
+                if (marker.executeUpdate() == 0) {
+                    return;
+                }
+                if (!part.rows.isEmpty()) {
+                    writeIntentRows(statements, part.rows);
+                }
+                if (!part.records.isEmpty()) {
+                    shard.writeTransactions(statements, part.records);
+                }
+            }));
+        }
+        return CompletableFuture.allOf(applied.toArray(new CompletableFuture[0]));
+    }
+    
+    /**
+     * Writes the account rows of an intent, unless a row stored since is newer.
+     * An intent is applied after it is committed, and on recovery after a restart, so a
+     * regular save of the same account may have reached the shard first.
+     * @param statements the shard writer's statement cache
+     * @param rows the rows to write
+     * @throws SQLException if an error occurs
+     */
+    private static void writeIntentRows(StatementCache statements, List<AccountRow> rows) throws SQLException {
+        PreparedStatement stmt = statements.prepare("INSERT INTO accounts " +
+                "(player_uuid, player_name, currency_id, balance, created, last_transaction) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (player_uuid, currency_id) DO UPDATE SET player_name = excluded.player_name, " +
+                "balance = excluded.balance, last_transaction = excluded.last_transaction " +
+                "WHERE excluded.last_transaction >= accounts.last_transaction");
+        for (AccountRow row : rows) {
+            row.bind(stmt);
+            stmt.addBatch();
+        }
+        stmt.executeBatch();
+    }
+    
+    /**
+     * Rolls forward cross-shard writes a crash left half applied
+     * @throws Exception if an intent cannot be read or applied
+     */
+    private void recoverIntents() throws Exception {
+        int recovered = 0;
+        for (int coordinator = 0; coordinator < shards.length; coordinator++) {
+            Map<String, Map<Integer, IntentPart>> intents = shards[coordinator].read(statements -> {
+                Map<String, Map<Integer, IntentPart>> pending = new LinkedHashMap<>();
+                try (ResultSet rs = statements.prepare("SELECT intent_id, shard, player_uuid, player_name, currency_id, " +
+                        "balance, created, last_transaction FROM pending_intent_rows").executeQuery()) {
+                    while (rs.next()) {
+                        partOf(pending.computeIfAbsent(rs.getString(1), k -> new TreeMap<>()), rs.getInt(2)).rows
+                                .add(new AccountRow(null, 0L, FastParser.parseUuid(rs.getString(3)), rs.getString(4),
+                                        rs.getString(5), rs.getString(6), rs.getLong(7), rs.getLong(8)));
+                    }
+                }
+                try (ResultSet rs = statements.prepare("SELECT intent_id, shard, id, transaction_type, from_uuid, to_uuid, " +
+                        "currency_id, amount, timestamp, group_id FROM pending_intent_records").executeQuery()) {
+                    while (rs.next()) {
+                        String from = rs.getString(5);
+                        String to = rs.getString(6);
+                        partOf(pending.computeIfAbsent(rs.getString(1), k -> new TreeMap<>()), rs.getInt(2)).records
+                                .add(new TransactionRow(rs.getString(3), rs.getString(4),
+                                        from != null ? FastParser.parseUuid(from) : null,
+                                        to != null ? FastParser.parseUuid(to) : null, rs.getString(7),
+                                        FastParser.parseDecimal(rs.getString(8)), rs.getLong(9), rs.getString(10)));
+                    }
+                }
+                return pending;
+            });
+            
+            for (Map.Entry<String, Map<Integer, IntentPart>> intent : intents.entrySet()) {
+                await(applyIntent(intent.getKey(), coordinator, intent.getValue()));
+                recovered++;
+            }
+        }
+        
+        if (recovered > 0) {
+            logger.info("Finished " + recovered + " cross-shard writes interrupted by the last shutdown");
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> appendTransactions(List<TransactionRow> records) {
+        List<List<TransactionRow>> buckets = newBuckets();
+        for (TransactionRow record : records) {
+            for (int shard : shardsOf(record)) {
+                buckets.get(shard).add(record);
+            }
+        }
+        
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (!buckets.get(i).isEmpty()) {
+                writes.add(shards[i].appendTransactions(buckets.get(i)));
+            }
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    }
+    
+    /**
+     * Gets the shards a transaction record is stored in, one per distinct player
+     * @param record the transaction record
+     * @return the shard indexes
+     */
+    private Set<Integer> shardsOf(TransactionRow record) {
+        Set<Integer> targets = new HashSet<>(4);
+        if (record.getFromUuid() != null) {
+            targets.add(shardOf(record.getFromUuid()));
+        }
+        if (record.getToUuid() != null) {
+            targets.add(shardOf(record.getToUuid()));
+        }
+        if (targets.isEmpty()) {
+            targets.add(0);
+        }
+        return targets;
+    }
+    
+    @Override
+    public List<TransactionRow> queryHistory(UUID playerUuid, int limit) throws StorageException {
+        return shards[shardOf(playerUuid)].queryHistory(playerUuid, limit);
+    }
+    
+    @Override
+    public String loadCurrencyPreference(UUID playerUuid) throws StorageException {
+        return shards[shardOf(playerUuid)].loadCurrencyPreference(playerUuid);
+    }
+    
+    @Override
+    public CompletableFuture<Void> saveCurrencyPreference(UUID playerUuid, String currencyId) {
+        return shards[shardOf(playerUuid)].saveCurrencyPreference(playerUuid, currencyId);
+    }
+    
+    @Override
+    public CompletableFuture<Void> deleteCurrencyPreference(UUID playerUuid) {
+        return shards[shardOf(playerUuid)].deleteCurrencyPreference(playerUuid);
+    }
+    
+    /**
+     * Creates one empty list per shard
+     * @param <T> the element type
+     * @return the lists, indexed by shard
+     */
+    private <T> List<List<T>> newBuckets() {
+        List<List<T>> buckets = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        return buckets;
+    }
+    
+    /**
+     * The changes an intent makes to one shard
+     */
+    static final class IntentPart {
+        private final List<AccountRow> rows = new ArrayList<>();
+        private final List<TransactionRow> records = new ArrayList<>();
+    }
+    
+    /**
+     * Waits for a shard write
+     * @param future the write's future
+     * @throws Exception the write's failure
+     */
+    private static void await(CompletableFuture<Void> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,183 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.DatabaseSettings;
+import org.frizzlenpop.frizzlenEco.config.SqliteSettings;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * SQLite storage. All writes go through one {@link SqliteWriter} thread that commits
+ * queued writes together, and reads use a small pool of read-only connections.
+ * In tuned mode the database runs in WAL mode, so readers never wait on the writer.
+ */
+public class SqliteBackend extends JdbcBackend {
+    private final SqliteSettings sqliteSettings;
+    private final File file;
+    private final int readConnections;
+    private final int loaderThreads;
+    private final boolean shard;
+    
+    private SqliteWriter writer;
+    private StatementPool readPool;
+    
+    /**
+     * Creates a new SqliteBackend
+     * @param plugin the FrizzlenEco plugin instance
+     * @param settings the database settings
+     */
+    public SqliteBackend(FrizzlenEco plugin, DatabaseSettings settings) {
+        this(plugin.getLogger(), settings, plugin.getConfigManager().getSqliteSettings(), settings.getSqliteFile(),
+                plugin.getConfigManager().getSqliteSettings().getReadConnections(), settings.getLoaderThreads(), false);
+    }
+    
+    /**
+     * Creates a SqliteBackend for a database file, e.g. one file of a sharded database
+     * @param logger the logger to report to
+     * @param settings the database settings
+     * @param sqliteSettings the SQLite tuning settings
+     * @param file the database file
+     * @param readConnections the number of read-only connections in tuned mode
+     * @param loaderThreads the number of connections the startup load runs on
+     * @param shard whether this is one shard of several, which report as one
+     */
+    SqliteBackend(Logger logger, DatabaseSettings settings, SqliteSettings sqliteSettings, File file, int readConnections,
+                  int loaderThreads, boolean shard) {
+        super(logger, settings);
+        this.sqliteSettings = sqliteSettings;
+        this.file = file;
+        this.readConnections = readConnections;
+        this.loaderThreads = loaderThreads;
+        this.shard = shard;
+    }
+    
+    @Override
+    public StorageCapabilities getCapabilities() {
+        // SQLite has one writer, and account rows are written as batched single-row statements
+        int readers = sqliteSettings.isTuned() ? readConnections : 1;
+        return new StorageCapabilities(true, true, readers, 1, 1);
+    }
+    
+    @Override
+    public void open() throws StorageException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+            
+            // Opening an empty file here would hide every account kept in the shards
+            if (!shard && !file.exists() && ShardedSqliteBackend.shardFile(file, 0).exists()) {
+                throw new SQLException(file.getName() + " has been split into shards, set database.sqlite.shards "
+                        + "back to the number of " + file.getName().replaceFirst("\\.[^.]*$", "") + "-shard files");
+            }
+            
+            try (Connection conn = openConnection()) {
+                createTables(conn);
+            }
+            
+            writer = new SqliteWriter(logger, openConnection(), sqliteSettings.getMaxBatchSize());
+            writer.start();
+            
+            // Without WAL a reader blocks the writer, so more readers would only queue up
+            readPool = new StatementPool(this::openReadConnection, getCapabilities().getMaxReaders());
+        } catch (Exception e) {
+            close();
+            throw new StorageException("Failed to connect to SQLite database", e);
+        }
+        
+        if (!shard) {
+            logger.info("Connected to SQLite database"
+                    + (sqliteSettings.isTuned() ? " in WAL mode with " + readPool.size() + " read connections" : ""));
+        }
+    }
+    
+    @Override
+    public void close() {
+        // Let the writer commit what is queued before anything is closed
+        if (writer != null) {
+            writer.shutdown(10_000L);
+            writer = null;
+        }
+        if (readPool != null) {
+            readPool.close();
+            readPool = null;
+        }
+    }
+    
+    @Override
+    protected Connection openConnection() throws SQLException {
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        Connection conn = DriverManager.getConnection(url);
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            if (sqliteSettings.isTuned()) {
+                // WAL lets readers run alongside the single writer, and NORMAL sync is durable
+                // in WAL mode except for the last commits before a power loss
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA synchronous = NORMAL");
+                stmt.execute("PRAGMA temp_store = MEMORY");
+                // A negative cache size is in KiB rather than pages
+                stmt.execute("PRAGMA cache_size = -" + sqliteSettings.getCacheSizeKb());
+                stmt.execute("PRAGMA mmap_size = " + sqliteSettings.getMmapSizeMb() * 1024L * 1024L);
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+    
+    /**
+     * Opens a connection for the read pool
+     * @return the new read-only connection
+     * @throws SQLException if an error occurs
+     */
+    private Connection openReadConnection() throws SQLException {
+        Connection conn = openConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON");
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+    
+    @Override
+    protected <T> T read(StatementPool.Operation<T> operation) throws SQLException {
+        StatementPool pool = readPool;
+        if (pool == null) {
+            throw new SQLException("SQLite backend is not open");
+        }
+        return pool.use(operation);
+    }
+    
+    @Override
+    protected CompletableFuture<Void> write(WriteOperation operation) {
+        SqliteWriter current = writer;
+        if (current == null) {
+            return CompletableFuture.failedFuture(new SQLException("SQLite backend is not open"));
+        }
+        return current.submit(operation::execute);
+    }
+    
+    @Override
+    protected int getLoaderThreads() {
+        return loaderThreads;
+    }
+    
+    @Override
+    protected String upsertPreferenceSql() {
+        return "INSERT OR REPLACE INTO vault_preferences (player_uuid, currency_id) VALUES (?, ?)";
+    }
+} 
\ No newline at end of file
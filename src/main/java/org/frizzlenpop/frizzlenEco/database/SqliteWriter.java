@@ -0,0 +1,235 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The single writer for a tuned SQLite database.
+ * <p>
+ * SQLite allows one writer at a time, so all writes are queued to one thread that owns
+ * the write connection. Whatever is queued when the thread wakes up is committed in one
+ * transaction (group commit), which turns many small fsyncs into one. If a group fails,
+ * its writes are retried one by one so a single bad write cannot fail the others.
+ */
+public class SqliteWriter {
+    private static final long POLL_MILLIS = 100L;
+    
+    /**
+     * A write run on the writer thread inside the current transaction
+     */
+    @FunctionalInterface
+    public interface WriteOperation {
+        /**
+         * Runs the write
+         * @param statements the writer connection's statement cache
+         * @throws SQLException if the write failed
+         */
+        void execute(StatementCache statements) throws SQLException;
+    }
+    
+    private final Logger logger;
+    private final StatementCache statements;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    
+    private volatile boolean running;
+    
+    /**
+     * Creates a new SqliteWriter
+     * @param logger the logger to report failures to
+     * @param connection the write connection, owned by the writer from now on
+     * @param maxBatchSize the maximum number of writes committed in one transaction
+     * @throws SQLException if the connection could not be switched to manual commits
+     */
+    public SqliteWriter(Logger logger, Connection connection, int maxBatchSize) throws SQLException {
+        this.logger = logger;
+        this.statements = new StatementCache(connection);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        
+        connection.setAutoCommit(false);
+        this.thread = new Thread(this::run, "FrizzlenEco-SqliteWriter");
+        this.thread.setDaemon(true);
+    }
+    
+    /**
+     * Starts the writer thread
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+    
+    /**
+     * Queues a write
+     * @param operation the write to run
+     * @return a future completed once the write has committed
+     */
+    public CompletableFuture<Void> submit(WriteOperation operation) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new RejectedExecutionException("SQLite writer is not running"));
+            return future;
+        }
+        
+        PendingWrite write = new PendingWrite(operation, future);
+        queue.add(write);
+        
+        // A shutdown between the check and the add may have failed the queue already, so this
+        // write would never be taken; whoever removes it from the queue completes it
+        if (!running && queue.remove(write)) {
+            future.completeExceptionally(new RejectedExecutionException("SQLite writer stopped"));
+        }
+        return future;
+    }
+    
+    /**
+     * Gets the number of writes waiting to be committed
+     * @return the queue length
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+    
+    /**
+     * Stops accepting writes, commits everything already queued and closes the connection
+     * @param timeoutMillis how long to wait for queued writes
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (thread.isAlive()) {
+            logger.warning("SQLite writer did not finish " + queue.size() + " queued writes in time");
+            thread.interrupt();
+        } else {
+            statements.close();
+            failQueued();
+        }
+    }
+    
+    /**
+     * Writer loop: waits for work, then commits everything queued as one group
+     */
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commitGroup(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        
+        // Anything left after an interrupt will never be written
+        failQueued();
+    }
+    
+    /**
+     * Fails writes that are still queued after the writer stopped
+     */
+    private void failQueued() {
+        PendingWrite left;
+        while ((left = queue.poll()) != null) {
+            left.future.completeExceptionally(new RejectedExecutionException("SQLite writer stopped"));
+        }
+    }
+    
+    /**
+     * Commits a group of writes in one transaction, falling back to one transaction per write
+     * @param batch the writes to commit
+     */
+    private void commitGroup(List<PendingWrite> batch) {
+        Connection conn = statements.getConnection();
+        try {
+            for (PendingWrite write : batch) {
+                write.operation.execute(statements);
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollback(conn);
+            
+            if (batch.size() == 1) {
+                logger.log(Level.SEVERE, "SQLite write failed", e);
+                batch.get(0).future.completeExceptionally(e);
+            } else {
+                commitIndividually(batch);
+            }
+            return;
+        }
+        
+        for (PendingWrite write : batch) {
+            write.future.complete(null);
+        }
+    }
+    
+    /**
+     * Commits each write of a failed group on its own
+     * @param batch the writes to commit
+     */
+    private void commitIndividually(List<PendingWrite> batch) {
+        Connection conn = statements.getConnection();
+        for (PendingWrite write : batch) {
+            try {
+                write.operation.execute(statements);
+                conn.commit();
+                write.future.complete(null);
+            } catch (SQLException | RuntimeException e) {
+                rollback(conn);
+                logger.log(Level.SEVERE, "SQLite write failed", e);
+                write.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    /**
+     * Rolls back the current transaction and drops half-built batches, logging rather than throwing
+     * @param conn the write connection
+     */
+    private void rollback(Connection conn) {
+        statements.clearBatches();
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to roll back SQLite write group", e);
+        }
+    }
+    
+    /**
+     * A queued write and the future completed when it commits
+     */
+    private static final class PendingWrite {
+        private final WriteOperation operation;
+        private final CompletableFuture<Void> future;
+        
+        PendingWrite(WriteOperation operation, CompletableFuture<Void> future) {
+            this.operation = operation;
+            this.future = future;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,83 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prepared statements cached for one connection, so each SQL string is only prepared once.
+ * Not thread-safe; a cache belongs to whichever thread currently owns its connection.
+ */
+public class StatementCache implements AutoCloseable {
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    
+    /**
+     * Creates a new StatementCache
+     * @param connection the connection statements are prepared on
+     */
+    public StatementCache(Connection connection) {
+        this.connection = connection;
+    }
+    
+    /**
+     * Gets the cached statement for the SQL, preparing it on first use
+     * @param sql the SQL statement
+     * @return the prepared statement, with parameters cleared
+     * @throws SQLException if the statement could not be prepared
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt == null) {
+            stmt = connection.prepareStatement(sql);
+            statements.put(sql, stmt);
+        } else {
+            stmt.clearParameters();
+        }
+        return stmt;
+    }
+    
+    /**
+     * Drops pending batches on all cached statements, e.g. after a failed transaction
+     */
+    public void clearBatches() {
+        for (PreparedStatement stmt : statements.values()) {
+            try {
+                stmt.clearBatch();
+            } catch (SQLException ignored) {
+                // Nothing queued
+            }
+        }
+    }
+    
+    /**
+     * Gets the underlying connection
+     * @return the connection
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+    
+    /**
+     * Closes all cached statements and the connection
+     */
+    @Override
+    public void close() {
+        for (PreparedStatement stmt : statements.values()) {
+            try {
+                stmt.close();
+            } catch (SQLException ignored) {
+                // Closing anyway
+            }
+        }
+        statements.clear();
+        
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Closing anyway
+        }
+    }
+} 
\ No newline at end of file
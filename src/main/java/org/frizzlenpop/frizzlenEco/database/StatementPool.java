@@ -0,0 +1,98 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A fixed pool of connections, each with its own {@link StatementCache}.
+ * A borrowed connection belongs to the borrowing thread until the operation returns.
+ */
+public class StatementPool implements AutoCloseable {
+    
+    /**
+     * An operation run on a pooled connection
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface Operation<T> {
+        /**
+         * Runs the operation
+         * @param statements the borrowed connection's statement cache
+         * @return the result
+         * @throws SQLException if the operation failed
+         */
+        T execute(StatementCache statements) throws SQLException;
+    }
+    
+    private final BlockingQueue<StatementCache> idle;
+    private final List<StatementCache> all = new ArrayList<>();
+    
+    /**
+     * Creates a new StatementPool, opening all connections up front
+     * @param connectionFactory opens and prepares the pooled connections
+     * @param size the number of connections
+     * @throws SQLException if a connection could not be opened
+     */
+    public StatementPool(AccountLoader.ConnectionFactory connectionFactory, int size) throws SQLException {
+        int connections = Math.max(1, size);
+        this.idle = new ArrayBlockingQueue<>(connections);
+        
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = connectionFactory.open();
+                StatementCache statements = new StatementCache(connection);
+                all.add(statements);
+                idle.add(statements);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Runs an operation on a pooled connection, waiting for one to become free if needed
+     * @param operation the operation to run
+     * @param <T> the result type
+     * @return the result of the operation
+     * @throws SQLException if the operation failed
+     */
+    public <T> T use(Operation<T> operation) throws SQLException {
+        StatementCache statements;
+        try {
+            statements = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        
+        try {
+            return operation.execute(statements);
+        } finally {
+            idle.add(statements);
+        }
+    }
+    
+    /**
+     * Gets the number of pooled connections
+     * @return the pool size
+     */
+    public int size() {
+        return all.size();
+    }
+    
+    /**
+     * Closes all pooled connections
+     */
+    @Override
+    public void close() {
+        for (StatementCache statements : all) {
+            statements.close();
+        }
+        all.clear();
+    }
+} 
\ No newline at end of file
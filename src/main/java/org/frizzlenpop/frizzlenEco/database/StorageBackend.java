@@ -0,0 +1,116 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A store for accounts, transaction records and Vault currency preferences.
+ * <p>
+ * {@link DatabaseManager} picks the backend from the configured database type and
+ * talks to it only through this interface. Writes return a future completed once the
+ * write is durable (or, for buffered writes, accepted), and may run on the calling
+ * thread or on a backend thread. Reads block the calling thread.
+ */
+public interface StorageBackend {
+    
+    /**
+     * Gets what this backend can do well
+     * @return the backend's capabilities
+     */
+    StorageCapabilities getCapabilities();
+    
+    /**
+     * Connects to the store and creates its schema if needed
+     * @throws StorageException if the store cannot be opened
+     */
+    void open() throws StorageException;
+    
+    /**
+     * Writes anything buffered and releases the store
+     */
+    void close();
+    
+    /**
+     * Loads every account
+     * @return map of player UUIDs to their account maps
+     * @throws StorageException if the accounts cannot be read
+     */
+    Map<UUID, Map<String, AccountHolder>> loadAllAccounts() throws StorageException;
+    
+    /**
+     * Loads one player's accounts
+     * @param playerUuid the player's UUID
+     * @return map of currency IDs to accounts, empty if the player has none
+     * @throws StorageException if the accounts cannot be read
+     */
+    Map<String, AccountHolder> loadAccounts(UUID playerUuid) throws StorageException;
+    
+    /**
+     * Inserts or replaces account rows in one transaction
+     * @param rows the rows to write
+     * @return a future completed once the rows are committed
+     */
+    CompletableFuture<Void> upsertAccounts(List<AccountRow> rows);
+    
+    /**
+     * Replaces all stored accounts with the given rows in one transaction
+     * @param rows the new rows
+     * @return a future completed once the rows are committed
+     */
+    CompletableFuture<Void> replaceAllAccounts(List<AccountRow> rows);
+    
+    /**
+     * Appends transaction records
+     * @param records the records to append
+     * @return a future completed once the records are committed or buffered
+     */
+    CompletableFuture<Void> appendTransactions(List<TransactionRow> records);
+    
+    /**
+     * Writes account rows together with the transaction records that explain them.
+     * Backends that can do so commit both in one transaction; the default writes the
+     * rows first and appends the records once the rows are committed.
+     * @param rows the account rows to write
+     * @param records the transaction records to append
+     * @return a future completed once both are committed
+     */
+    default CompletableFuture<Void> commit(List<AccountRow> rows, List<TransactionRow> records) {
+        return upsertAccounts(rows).thenCompose(ignored -> appendTransactions(records));
+    }
+    
+    /**
+     * Queries a player's most recent transactions, newest first
+     * @param playerUuid the player's UUID, matched as sender or receiver
+     * @param limit the maximum number of records
+     * @return the records
+     * @throws StorageException if the history cannot be read
+     */
+    List<TransactionRow> queryHistory(UUID playerUuid, int limit) throws StorageException;
+    
+    /**
+     * Loads a player's Vault currency preference
+     * @param playerUuid the player's UUID
+     * @return the preferred currency ID, or null if none is stored
+     * @throws StorageException if the preference cannot be read
+     */
+    String loadCurrencyPreference(UUID playerUuid) throws StorageException;
+    
+    /**
+     * Saves a player's Vault currency preference
+     * @param playerUuid the player's UUID
+     * @param currencyId the preferred currency ID
+     * @return a future completed once the preference is committed
+     */
+    CompletableFuture<Void> saveCurrencyPreference(UUID playerUuid, String currencyId);
+    
+    /**
+     * Deletes a player's Vault currency preference
+     * @param playerUuid the player's UUID
+     * @return a future completed once the deletion is committed
+     */
+    CompletableFuture<Void> deleteCurrencyPreference(UUID playerUuid);
+} 
\ No newline at end of file
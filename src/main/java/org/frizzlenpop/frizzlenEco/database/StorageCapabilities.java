@@ -0,0 +1,70 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+/**
+ * What a storage backend can do well, so callers can shape their work around it
+ */
+public final class StorageCapabilities {
+    private final boolean streamingCursors;
+    private final boolean persistent;
+    private final int maxReaders;
+    private final int maxWriters;
+    private final int maxStatementRows;
+    
+    /**
+     * Creates new storage capabilities
+     * @param streamingCursors whether bulk loads stream rows instead of materialising them first
+     * @param persistent whether data survives a restart
+     * @param maxReaders the number of read calls that run in parallel besides the writers
+     * @param maxWriters the number of concurrent write calls that make progress in parallel
+     * @param maxStatementRows the most rows sent to the store in one statement
+     */
+    public StorageCapabilities(boolean streamingCursors, boolean persistent, int maxReaders, int maxWriters, int maxStatementRows) {
+        this.streamingCursors = streamingCursors;
+        this.persistent = persistent;
+        this.maxReaders = maxReaders;
+        this.maxWriters = maxWriters;
+        this.maxStatementRows = maxStatementRows;
+    }
+    
+    /**
+     * Checks if bulk loads stream rows instead of materialising them first
+     * @return true if loads stream
+     */
+    public boolean hasStreamingCursors() {
+        return streamingCursors;
+    }
+    
+    /**
+     * Checks if data survives a restart
+     * @return true for durable stores
+     */
+    public boolean isPersistent() {
+        return persistent;
+    }
+    
+    /**
+     * Gets the number of read calls that run in parallel besides the writers, e.g. on a
+     * separate read-only pool. Zero if reads share the writers' connections.
+     * @return the useful number of extra reader threads
+     */
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+    
+    /**
+     * Gets the number of concurrent write calls that make progress in parallel
+     * @return the useful number of writer threads
+     */
+    public int getMaxWriters() {
+        return maxWriters;
+    }
+    
+    /**
+     * Gets the most rows sent to the store in one statement.
+     * Write calls larger than this still work, but are split up by the backend.
+     * @return the rows per statement
+     */
+    public int getMaxStatementRows() {
+        return maxStatementRows;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+/**
+ * Thrown when a storage backend cannot complete an operation
+ */
+public class StorageException extends Exception {
+    
+    /**
+     * Creates a new StorageException
+     * @param message the detail message
+     */
+    public StorageException(String message) {
+        super(message);
+    }
+    
+    /**
+     * Creates a new StorageException
+     * @param message the detail message
+     * @param cause the underlying error
+     */
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+} 
\ No newline at end of file
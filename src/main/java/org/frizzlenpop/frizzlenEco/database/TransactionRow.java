@@ -0,0 +1,183 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * An immutable transaction record, so it can be buffered and inserted later.
+ * The legs of a multi-leg transaction are stored as one record each, sharing a group ID.
+ */
+public final class TransactionRow {
+    static final String INSERT_COLUMNS = "INSERT INTO transactions " +
+            "(id, transaction_type, from_uuid, to_uuid, currency_id, amount, timestamp, group_id) VALUES ";
+    static final String VALUES_GROUP = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    static final int PARAMETERS = 8;
+    
+    private final String id;
+    private final String type;
+    private final UUID fromUuid;
+    private final UUID toUuid;
+    private final String currencyId;
+    private final BigDecimal amount;
+    private final long timestamp;
+    private final String groupId;
+    
+    /**
+     * Creates a transaction record with a new ID, stamped with the current time
+     * @param type the transaction type
+     * @param fromUuid the UUID money is taken from, or null
+     * @param toUuid the UUID money is given to, or null
+     * @param currencyId the currency ID
+     * @param amount the amount of the transaction
+     */
+    TransactionRow(String type, UUID fromUuid, UUID toUuid, String currencyId, BigDecimal amount) {
+        this(type, fromUuid, toUuid, currencyId, amount, null, System.currentTimeMillis());
+    }
+    
+    /**
+     * Creates a record for one leg of a multi-leg transaction, with a new ID
+     * @param type the transaction type
+     * @param fromUuid the UUID money is taken from, or null
+     * @param toUuid the UUID money is given to, or null
+     * @param currencyId the currency ID
+     * @param amount the amount of the leg
+     * @param groupId the ID shared by all legs of the transaction
+     * @param timestamp the time of the transaction in epoch milliseconds
+     */
+    TransactionRow(String type, UUID fromUuid, UUID toUuid, String currencyId, BigDecimal amount, String groupId,
+                   long timestamp) {
+        this(UUID.randomUUID().toString(), type, fromUuid, toUuid, currencyId, amount, timestamp, groupId);
+    }
+    
+    /**
+     * Creates a transaction record as stored
+     * @param id the transaction ID
+     * @param type the transaction type
+     * @param fromUuid the UUID money is taken from, or null
+     * @param toUuid the UUID money is given to, or null
+     * @param currencyId the currency ID
+     * @param amount the amount of the transaction
+     * @param timestamp the time of the transaction in epoch milliseconds
+     */
+    TransactionRow(String id, String type, UUID fromUuid, UUID toUuid, String currencyId, BigDecimal amount,
+                   long timestamp) {
+        this(id, type, fromUuid, toUuid, currencyId, amount, timestamp, null);
+    }
+    
+    /**
+     * Creates a transaction record as stored, with its group
+     * @param id the transaction ID
+     * @param type the transaction type
+     * @param fromUuid the UUID money is taken from, or null
+     * @param toUuid the UUID money is given to, or null
+     * @param currencyId the currency ID
+     * @param amount the amount of the transaction
+     * @param timestamp the time of the transaction in epoch milliseconds
+     * @param groupId the ID shared by the legs of a multi-leg transaction, or null
+     */
+    TransactionRow(String id, String type, UUID fromUuid, UUID toUuid, String currencyId, BigDecimal amount,
+                   long timestamp, String groupId) {
+        this.id = id;
+        this.type = type;
+        this.fromUuid = fromUuid;
+        this.toUuid = toUuid;
+        this.currencyId = currencyId;
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.groupId = groupId;
+    }
+    
+    /**
+     * Binds this record to one row of an insert statement
+     * @param stmt the statement
+     * @param index the index of the row's first parameter
+     * @return the index of the next row's first parameter
+     * @throws SQLException if an error occurs
+     */
+    int bind(PreparedStatement stmt, int index) throws SQLException {
+        stmt.setString(index, id);
+        stmt.setString(index + 1, type);
+        stmt.setString(index + 2, fromUuid != null ? fromUuid.toString() : null);
+        stmt.setString(index + 3, toUuid != null ? toUuid.toString() : null);
+        stmt.setString(index + 4, currencyId);
+        stmt.setString(index + 5, amount.toString());
+        stmt.setLong(index + 6, timestamp);
+        stmt.setString(index + 7, groupId);
+        return index + PARAMETERS;
+    }
+    
+    /**
+     * Estimates the bytes this record adds to a statement on the wire
+     * @return the estimated size in bytes
+     */
+    int estimateBytes() {
+        int chars = 4 * 36 + type.length() + currencyId.length() + amount.toString().length();
+        return chars * 4 + 20 + 36;
+    }
+    
+    /**
+     * Gets the transaction ID
+     * @return the transaction ID
+     */
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Gets the transaction type
+     * @return the transaction type
+     */
+    public String getType() {
+        return type;
+    }
+    
+    /**
+     * Gets the UUID money was taken from
+     * @return the sender's UUID, or null for deposits
+     */
+    public UUID getFromUuid() {
+        return fromUuid;
+    }
+    
+    /**
+     * Gets the UUID money was given to
+     * @return the receiver's UUID, or null for withdrawals
+     */
+    public UUID getToUuid() {
+        return toUuid;
+    }
+    
+    /**
+     * Gets the currency ID
+     * @return the currency ID
+     */
+    public String getCurrencyId() {
+        return currencyId;
+    }
+    
+    /**
+     * Gets the amount of the transaction
+     * @return the amount
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    /**
+     * Gets the time of the transaction
+     * @return the time in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    /**
+     * Gets the ID shared by the legs of a multi-leg transaction
+     * @return the group ID, or null for a single transaction
+     */
+    public String getGroupId() {
+        return groupId;
+    }
+} 
\ No newline at end of file
@@ -4,17 +4,20 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a player's account for a specific currency
  */
 public class AccountHolder {
     private final UUID playerUuid;
-    private final String playerName;
+    private volatile String playerName;
     private final String currencyId;
-    private BigDecimal balance;
-    private Instant lastTransaction;
-    private Instant created;
+    private volatile BigDecimal balance;
+    private volatile Instant lastTransaction;
+    private volatile Instant created;
+    private final AtomicLong version;
+    private final AtomicLong flushedVersion;
     
     /**
      * Creates a new account holder
@@ -30,6 +33,43 @@ public class AccountHolder {
         this.balance = initialBalance;
         this.created = Instant.now();
         this.lastTransaction = Instant.now();
+        this.version = new AtomicLong(1); // Not stored yet
+        this.flushedVersion = new AtomicLong();
+    }
+    
+    /**
+     * Creates an account holder with known timestamps, e.g. when loading from storage.
+     * The account starts out clean, as it matches what is stored.
+     * @param playerUuid the player's UUID
+     * @param playerName the player's name
+     * @param currencyId the currency ID
+     * @param balance the balance
+     * @param created the creation time
+     * @param lastTransaction the time of the last transaction
+     */
+    public AccountHolder(UUID playerUuid, String playerName, String currencyId, BigDecimal balance,
+                         Instant created, Instant lastTransaction) {
+        this.playerUuid = playerUuid;
+        this.playerName = playerName;
+        this.currencyId = currencyId;
+        this.balance = balance;
+        this.created = created;
+        this.lastTransaction = lastTransaction;
+        this.version = new AtomicLong();
+        this.flushedVersion = new AtomicLong();
+    }
+    
+    /**
+     * Creates an account whose state is kept elsewhere, for views that override every accessor.
+     * Only the identifying fields are set, so views of the same account are equal.
+     * @param playerUuid the player's UUID
+     * @param currencyId the currency ID
+     */
+    protected AccountHolder(UUID playerUuid, String currencyId) {
+        this.playerUuid = playerUuid;
+        this.currencyId = currencyId;
+        this.version = null;
+        this.flushedVersion = null;
     }
     
     /**
@@ -48,6 +88,15 @@ public class AccountHolder {
         return playerName;
     }
     
+    /**
+     * Sets the player's name, e.g. after a name change
+     * @param playerName the player's new name
+     */
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+        markDirty();
+    }
+    
     /**
      * Gets the currency ID
      * @return the currency ID
@@ -71,6 +120,7 @@ public class AccountHolder {
     public void setBalance(BigDecimal balance) {
         this.balance = balance;
         this.lastTransaction = Instant.now();
+        markDirty();
     }
     
     /**
@@ -81,6 +131,15 @@ public class AccountHolder {
         return lastTransaction;
     }
     
+    /**
+     * Sets the time of the last transaction
+     * @param lastTransaction the time of the last transaction
+     */
+    public void setLastTransaction(Instant lastTransaction) {
+        this.lastTransaction = lastTransaction;
+        markDirty();
+    }
+    
     /**
      * Gets the time the account was created
      * @return the creation time
@@ -95,12 +154,49 @@ public class AccountHolder {
      */
     public void setCreated(Instant created) {
         this.created = created;
+        markDirty();
+    }
+    
+    /**
+     * Gets the account's version, which increases with every change.
+     * Read the version before the fields it should cover.
+     * @return the current version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    /**
+     * Checks if the account has changes that are not stored yet
+     * @return true if the account has unsaved changes
+     */
+    public boolean isDirty() {
+        return version.get() != flushedVersion.get();
+    }
+    
+    /**
+     * Records that the account was stored as of the given version.
+     * Changes made after that version keep the account dirty. Writes for one player are
+     * committed one after another and recorded before the next one starts, so the version
+     * recorded last is the one in the database. An image taken before a newer one but
+     * queued after it is recorded as is, which makes the account dirty again.
+     * @param storedVersion the version that was read before the account was written
+     */
+    public void markFlushed(long storedVersion) {
+        flushedVersion.set(storedVersion);
+    }
+    
+    /**
+     * Marks the account as changed
+     */
+    private void markDirty() {
+        version.incrementAndGet();
     }
     
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof AccountHolder)) return false;
         AccountHolder that = (AccountHolder) o;
         return Objects.equals(playerUuid, that.playerUuid) && Objects.equals(currencyId, that.currencyId);
     }
@@ -114,9 +210,9 @@ public class AccountHolder {
     public String toString() {
         return "AccountHolder{" +
                 "playerUuid=" + playerUuid +
-                ", playerName='" + playerName + '\'' +
+                ", playerName='" + getPlayerName() + '\'' +
                 ", currencyId='" + currencyId + '\'' +
-                ", balance=" + balance +
+                ", balance=" + getBalance() +
                 '}';
     }
 } 
\ No newline at end of file
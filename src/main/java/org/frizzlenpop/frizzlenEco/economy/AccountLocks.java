@@ -0,0 +1,81 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks for changing account balances.
+ * <p>
+ * Accounts are mapped onto a fixed set of monitors by player UUID and currency. Stores
+ * may hand out a new view object for every lookup, so the monitors stand in for the
+ * accounts themselves. Operations on two accounts take both stripes in index order,
+ * which gives every thread the same global lock order and rules out deadlocks.
+ */
+public class AccountLocks {
+    private final Object[] stripes;
+    private final int mask;
+    
+    /**
+     * Creates the stripes
+     * @param stripes the number of stripes, rounded up to a power of two
+     */
+    public AccountLocks(int stripes) {
+        int count = Integer.highestOneBit(Math.max(2, stripes) - 1) << 1;
+        this.stripes = new Object[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Object();
+        }
+    }
+    
+    /**
+     * Gets the monitor guarding one account
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     * @return the monitor to synchronize on
+     */
+    public Object lockFor(UUID playerUuid, Currency currency) {
+        return stripes[indexOf(playerUuid, currency)];
+    }
+    
+    /**
+     * Gets the stripe an account maps to. Code locking two accounts takes the
+     * lower stripe first; monitors are reentrant, so one shared stripe is fine.
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     * @return the stripe index
+     */
+    public int indexOf(UUID playerUuid, Currency currency) {
+        int hash = playerUuid.hashCode() * 31 + currency.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+    
+    /**
+     * Runs an operation while holding several stripes, taken in ascending order
+     * @param sortedStripes distinct stripe indexes in ascending order
+     * @param operation the operation
+     * @param <T> the result type
+     * @return the operation's result
+     */
+    public <T> T withStripes(int[] sortedStripes, Supplier<T> operation) {
+        return withStripes(sortedStripes, 0, operation);
+    }
+    
+    private <T> T withStripes(int[] sortedStripes, int next, Supplier<T> operation) {
+        if (next == sortedStripes.length) {
+            return operation.get();
+        }
+        synchronized (stripes[sortedStripes[next]]) {
+            return withStripes(sortedStripes, next + 1, operation);
+        }
+    }
+    
+    /**
+     * Gets the monitor of a stripe
+     * @param index the stripe index
+     * @return the monitor to synchronize on
+     */
+    public Object get(int index) {
+        return stripes[index];
+    }
+} 
\ No newline at end of file
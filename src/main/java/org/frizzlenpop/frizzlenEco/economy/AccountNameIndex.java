@@ -0,0 +1,309 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive prefix trie of account holder names, used for tab completion.
+ * Kept up to date as accounts are created or players rename, and safe to query from async threads.
+ */
+public class AccountNameIndex {
+    /**
+     * How many names tab completion offers at most
+     */
+    public static final int COMPLETION_LIMIT = 50;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, String> namesByUuid = new HashMap<>();
+    private Node root = new Node();
+    
+    /**
+     * Adds a player to the index, or updates their name if it changed
+     * @param playerUuid the player's UUID
+     * @param playerName the player's current name
+     */
+    public void put(UUID playerUuid, String playerName) {
+        if (playerUuid == null || playerName == null || playerName.isEmpty()) {
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            String previous = namesByUuid.put(playerUuid, playerName);
+            if (playerName.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                removeName(previous);
+            }
+            insertName(playerName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Removes a player from the index
+     * @param playerUuid the player's UUID
+     */
+    public void remove(UUID playerUuid) {
+        lock.writeLock().lock();
+        try {
+            String previous = namesByUuid.remove(playerUuid);
+            if (previous != null) {
+                removeName(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replaces the contents of the index with the holders of the given accounts
+     * @param accounts map of player UUIDs to their account maps
+     */
+    public void rebuild(Map<UUID, Map<String, AccountHolder>> accounts) {
+        Node newRoot = new Node();
+        Map<UUID, String> newNames = new HashMap<>(Math.max(16, accounts.size() * 4 / 3 + 1));
+        
+        // Build off to the side so completions keep working until the swap
+        for (Map.Entry<UUID, Map<String, AccountHolder>> entry : accounts.entrySet()) {
+            for (AccountHolder account : entry.getValue().values()) {
+                String name = account.getPlayerName();
+                if (name != null && !name.isEmpty()) {
+                    if (newNames.putIfAbsent(entry.getKey(), name) == null) {
+                        insertName(newRoot, name);
+                    }
+                    break;
+                }
+            }
+        }
+        
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            namesByUuid.clear();
+            namesByUuid.putAll(newNames);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets up to {@code limit} names starting with the given prefix, in alphabetical order
+     * @param prefix the prefix to match, ignoring case
+     * @param limit the maximum number of names to return
+     * @return the matching names
+     */
+    public List<String> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            
+            List<String> matches = new ArrayList<>(Math.min(limit, node.size));
+            collect(node, matches, limit);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets the number of indexed players
+     * @return the number of indexed players
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return namesByUuid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts the nodes of the trie below the root, so tests can check that removed names leave none behind
+     * @return the number of nodes
+     */
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return countNodes(root) - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static int countNodes(Node node) {
+        int count = 1;
+        for (int i = 0; i < node.childCount; i++) {
+            count += countNodes(node.children[i]);
+        }
+        return count;
+    }
+    
+    private void insertName(String name) {
+        insertName(root, name);
+    }
+    
+    private static void insertName(Node root, String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Node node = root;
+        node.size++;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getOrAddChild(key.charAt(i));
+            node.size++;
+        }
+        node.addName(name);
+    }
+    
+    private void removeName(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        
+        // Names differing only by case share a node, so only this exact spelling goes
+        if (!path[key.length()].removeName(name)) {
+            return;
+        }
+        
+        // Walk back up, pruning branches that no longer lead to any name
+        for (int i = key.length(); i >= 0; i--) {
+            path[i].size--;
+            if (i > 0 && path[i].size == 0) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+    
+    /**
+     * Depth-first walk in key order; every branch leads to at least one name, so this stops after {@code limit} hits
+     */
+    private static void collect(Node node, List<String> matches, int limit) {
+        for (int i = 0; i < node.nameCount; i++) {
+            // Holders sharing the exact same name are offered once
+            if (i > 0 && node.names[i].equals(node.names[i - 1])) {
+                continue;
+            }
+            matches.add(node.names[i]);
+            if (matches.size() >= limit) {
+                return;
+            }
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            collect(node.children[i], matches, limit);
+            if (matches.size() >= limit) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * A trie node with children kept in sorted parallel arrays
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        private int size;
+        private String[] names;
+        private int nameCount;
+        
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+        
+        Node getOrAddChild(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            
+            int insertAt = -index - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+            
+            Node child = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            childCount++;
+            return child;
+        }
+        
+        void addName(String name) {
+            if (names == null) {
+                names = new String[1];
+            } else if (nameCount == names.length) {
+                names = Arrays.copyOf(names, nameCount * 2);
+            }
+            
+            // Kept sorted so completions list the spellings in a stable order
+            int insertAt = nameCount;
+            while (insertAt > 0 && names[insertAt - 1].compareTo(name) > 0) {
+                names[insertAt] = names[insertAt - 1];
+                insertAt--;
+            }
+            names[insertAt] = name;
+            nameCount++;
+        }
+        
+        boolean removeName(String name) {
+            for (int i = 0; i < nameCount; i++) {
+                if (names[i].equals(name)) {
+                    System.arraycopy(names, i + 1, names, i, nameCount - i - 1);
+                    names[--nameCount] = null;
+                    if (nameCount == 0) {
+                        names = null;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+} 
\ No newline at end of file
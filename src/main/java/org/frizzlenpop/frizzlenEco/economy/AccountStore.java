@@ -0,0 +1,61 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holds the loaded accounts of all players.
+ * Implementations are safe to read and write from any thread.
+ */
+public interface AccountStore {
+    
+    /**
+     * Gets a player's account in a currency
+     * @param playerUuid the player's UUID
+     * @param currencyId the currency ID
+     * @return the live account, or null if the player has none in that currency
+     */
+    AccountHolder get(UUID playerUuid, String currencyId);
+    
+    /**
+     * Gets a player's account in a currency, by the currency's ordinal where the store has arrays by ordinal
+     * @param playerUuid the player's UUID
+     * @param currency the currency, registered with the store's {@link CurrencyRegistry}
+     * @return the live account, or null if the player has none in that currency
+     */
+    default AccountHolder get(UUID playerUuid, Currency currency) {
+        return get(playerUuid, currency.getId());
+    }
+    
+    /**
+     * Gets all accounts of a player
+     * @param playerUuid the player's UUID
+     * @return a read-only map of currency IDs to live accounts, empty if the player has none
+     */
+    Map<String, AccountHolder> getPlayerAccounts(UUID playerUuid);
+    
+    /**
+     * Adds an account, unless the player already has one in that currency
+     * @param account the new account
+     * @return the live account now stored, which is the existing one if there was one
+     */
+    AccountHolder add(AccountHolder account);
+    
+    /**
+     * Replaces all accounts with the given ones
+     * @param accounts map of player UUIDs to their account maps
+     */
+    void replaceAll(Map<UUID, Map<String, AccountHolder>> accounts);
+    
+    /**
+     * Gets a read-only view of all accounts
+     * @return map of player UUIDs to their account maps
+     */
+    Map<UUID, Map<String, AccountHolder>> asMap();
+    
+    /**
+     * Gets the number of players with at least one account
+     * @return the number of players
+     */
+    int size();
+} 
\ No newline at end of file
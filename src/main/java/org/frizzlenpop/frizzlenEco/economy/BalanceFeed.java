@@ -0,0 +1,302 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes balance changes to the subscribers interested in them.
+ * <p>
+ * Scoreboards and holograms otherwise poll every balance every tick. A subscription
+ * names the players and currency it cares about, and changes are matched against
+ * those filters where they happen, so only interested subscribers do any work. Each
+ * subscription keeps just the latest balance per account until its subscriber asks
+ * for more, so a slow subscriber sees fewer, newer updates rather than a growing
+ * backlog. Updates are delivered one at a time on the feed's executor, never on the
+ * thread that changed the balance.
+ */
+public class BalanceFeed {
+    private static final Sub[] NONE = new Sub[0];
+    
+    private final CurrencyRegistry currencyRegistry;
+    private final Executor executor;
+    private final Logger logger;
+    private final Map<UUID, Sub[]> byPlayer = new ConcurrentHashMap<>();
+    private volatile Sub[] allPlayers = NONE;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private volatile boolean closed;
+    
+    /**
+     * Creates a new BalanceFeed
+     * @param currencyRegistry resolves the currencies of changed accounts
+     * @param executor runs deliveries to subscribers
+     * @param logger the logger to report failing subscribers to
+     */
+    public BalanceFeed(CurrencyRegistry currencyRegistry, Executor executor, Logger logger) {
+        this.currencyRegistry = currencyRegistry;
+        this.executor = executor;
+        this.logger = logger;
+    }
+    
+    /**
+     * Creates a publisher of balance updates for some accounts
+     * @param players the players to watch, or null for all players
+     * @param currency the currency to watch, or null for all currencies
+     * @return a publisher; each subscriber gets its own filtered, conflated subscription
+     */
+    public Flow.Publisher<BalanceUpdate> publisher(Set<UUID> players, Currency currency) {
+        Set<UUID> watched = players != null ? Set.copyOf(players) : null;
+        String currencyId = currency != null ? currency.getId() : null;
+        return subscriber -> subscribe(subscriber, watched, currencyId);
+    }
+    
+    private void subscribe(Flow.Subscriber<? super BalanceUpdate> subscriber, Set<UUID> players, String currencyId) {
+        Sub sub = new Sub(subscriber, players, currencyId);
+        subscriber.onSubscribe(sub);
+        if (closed) {
+            sub.complete();
+            return;
+        }
+        
+        // Register after onSubscribe, so no update can overtake it
+        synchronized (this) {
+            if (sub.cancelled) {
+                return;
+            }
+            if (players == null) {
+                allPlayers = append(allPlayers, sub);
+            } else {
+                for (UUID player : players) {
+                    byPlayer.merge(player, new Sub[] {sub}, BalanceFeed::concat);
+                }
+            }
+            subscriberCount.incrementAndGet();
+        }
+    }
+    
+    private synchronized void unregister(Sub sub) {
+        if (closed) {
+            return;
+        }
+        if (sub.players == null) {
+            Sub[] current = allPlayers;
+            Sub[] remaining = remove(current, sub);
+            if (remaining == current) {
+                return;
+            }
+            allPlayers = remaining;
+        } else {
+            for (UUID player : sub.players) {
+                byPlayer.computeIfPresent(player, (key, subs) -> {
+                    Sub[] remaining = remove(subs, sub);
+                    return remaining.length == 0 ? null : remaining;
+                });
+            }
+        }
+        subscriberCount.decrementAndGet();
+    }
+    
+    /**
+     * Checks whether anyone is subscribed, so callers can skip building updates
+     * @return true if there is at least one subscriber
+     */
+    public boolean hasSubscribers() {
+        return subscriberCount.get() > 0;
+    }
+    
+    /**
+     * Offers an account's new balance to the subscribers watching it.
+     * Call while the account is still locked, so updates to it are offered in order.
+     * @param playerUuid the player's UUID
+     * @param currencyId the currency ID of the account
+     * @param balance the new balance
+     */
+    public void publish(UUID playerUuid, String currencyId, BigDecimal balance) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        
+        BalanceUpdate update = null;
+        Sub[] watchers = byPlayer.isEmpty() ? null : byPlayer.get(playerUuid);
+        for (Sub[] subs : new Sub[][] {allPlayers, watchers}) {
+            if (subs == null) {
+                continue;
+            }
+            for (Sub sub : subs) {
+                if (sub.currencyId != null && !sub.currencyId.equals(currencyId)) {
+                    continue;
+                }
+                if (update == null) {
+                    Currency currency = currencyRegistry.getCurrency(currencyId);
+                    if (currency == null) {
+                        return; // Currency was removed from the configuration
+                    }
+                    update = new BalanceUpdate(playerUuid, currency, balance);
+                }
+                sub.offer(update);
+            }
+        }
+    }
+    
+    /**
+     * Completes every subscription and stops accepting new ones
+     */
+    public synchronized void close() {
+        closed = true;
+        for (Sub sub : allPlayers) {
+            sub.complete();
+        }
+        for (Sub[] subs : byPlayer.values()) {
+            for (Sub sub : subs) {
+                sub.complete();
+            }
+        }
+        allPlayers = NONE;
+        byPlayer.clear();
+        subscriberCount.set(0);
+    }
+    
+    private static Sub[] append(Sub[] subs, Sub sub) {
+        Sub[] grown = Arrays.copyOf(subs, subs.length + 1);
+        grown[subs.length] = sub;
+        return grown;
+    }
+    
+    private static Sub[] concat(Sub[] first, Sub[] second) {
+        Sub[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+    
+    private static Sub[] remove(Sub[] subs, Sub sub) {
+        for (int i = 0; i < subs.length; i++) {
+            if (subs[i] == sub) {
+                Sub[] shrunk = new Sub[subs.length - 1];
+                System.arraycopy(subs, 0, shrunk, 0, i);
+                System.arraycopy(subs, i + 1, shrunk, i, subs.length - i - 1);
+                return shrunk;
+            }
+        }
+        return subs;
+    }
+    
+    /**
+     * One subscriber's filters, demand and undelivered latest balances
+     */
+    private final class Sub implements Flow.Subscription {
+        private final Flow.Subscriber<? super BalanceUpdate> subscriber;
+        private final Set<UUID> players;
+        private final String currencyId;
+        
+        // Latest undelivered update per account, in the order accounts first changed
+        private final Map<String, BalanceUpdate> pending = new LinkedHashMap<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean completing;
+        private volatile Throwable error;
+        
+        private Sub(Flow.Subscriber<? super BalanceUpdate> subscriber, Set<UUID> players, String currencyId) {
+            this.subscriber = subscriber;
+            this.players = players;
+            this.currencyId = currencyId;
+        }
+        
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested " + n + " updates, must be positive");
+                cancel();
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+        
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                unregister(this);
+            }
+        }
+        
+        private void offer(BalanceUpdate update) {
+            synchronized (pending) {
+                pending.put(update.getPlayerUuid() + ":" + update.getCurrency().getId(), update);
+            }
+            schedule();
+        }
+        
+        private void complete() {
+            completing = true;
+            schedule();
+        }
+        
+        /**
+         * Starts a delivery run unless one is already going, which then picks up the new work
+         */
+        private void schedule() {
+            if (work.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::deliver);
+                } catch (RejectedExecutionException e) {
+                    work.set(0);
+                }
+            }
+        }
+        
+        private void deliver() {
+            int missed = 1;
+            do {
+                while (!cancelled && demand.get() > 0) {
+                    BalanceUpdate next;
+                    synchronized (pending) {
+                        Iterator<BalanceUpdate> it = pending.values().iterator();
+                        if (!it.hasNext()) {
+                            break;
+                        }
+                        next = it.next();
+                        it.remove();
+                    }
+                    
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(next);
+                    } catch (Throwable t) {
+                        logger.log(Level.WARNING, "Balance subscriber failed, cancelling its subscription", t);
+                        cancel();
+                    }
+                }
+                
+                Throwable failure = error;
+                if (failure != null) {
+                    error = null;
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (completing && !cancelled) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+} 
\ No newline at end of file
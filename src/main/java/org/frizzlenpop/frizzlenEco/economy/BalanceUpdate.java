@@ -0,0 +1,54 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The latest balance of an account, as pushed to balance subscribers
+ */
+public final class BalanceUpdate {
+    private final UUID playerUuid;
+    private final Currency currency;
+    private final BigDecimal balance;
+    
+    /**
+     * Creates a new balance update
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     * @param balance the account's balance
+     */
+    public BalanceUpdate(UUID playerUuid, Currency currency, BigDecimal balance) {
+        this.playerUuid = playerUuid;
+        this.currency = currency;
+        this.balance = balance;
+    }
+    
+    /**
+     * Gets the player's UUID
+     * @return the player's UUID
+     */
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+    
+    /**
+     * Gets the currency of the account
+     * @return the currency
+     */
+    public Currency getCurrency() {
+        return currency;
+    }
+    
+    /**
+     * Gets the account's balance
+     * @return the balance
+     */
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    @Override
+    public String toString() {
+        return "BalanceUpdate{" + playerUuid + ", " + currency.getId() + "=" + balance + "}";
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,59 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Packs a balance into a single long: the unscaled value shifted left, with the scale in the low bits.
+ * Balances with a negative or large scale, or an unscaled value over 58 bits, do not fit and are
+ * kept elsewhere by the caller.
+ */
+final class BalanceWord {
+    private static final int SCALE_BITS = 5;
+    private static final long SCALE_MASK = (1L << SCALE_BITS) - 1;
+    private static final int MAX_UNSCALED_BITS = 63 - SCALE_BITS;
+    
+    /**
+     * The word of a balance that does not fit, no encoded balance has it
+     */
+    static final long NONE = SCALE_MASK;
+    
+    private BalanceWord() {
+    }
+    
+    /**
+     * Encodes a balance
+     * @param balance the balance
+     * @return the balance word, or {@link #NONE} if it does not fit
+     */
+    static long encode(BigDecimal balance) {
+        int scale = balance.scale();
+        if (scale < 0 || scale >= NONE) {
+            return NONE;
+        }
+        
+        BigInteger unscaled = balance.unscaledValue();
+        if (unscaled.bitLength() > MAX_UNSCALED_BITS) {
+            return NONE;
+        }
+        return unscaled.longValue() << SCALE_BITS | scale;
+    }
+    
+    /**
+     * Checks if a word holds a balance
+     * @param word the balance word
+     * @return false if the balance is kept elsewhere
+     */
+    static boolean isEncoded(long word) {
+        return (word & SCALE_MASK) != NONE;
+    }
+    
+    /**
+     * Decodes a balance
+     * @param word a word for which {@link #isEncoded(long)} is true
+     * @return the balance
+     */
+    static BigDecimal decode(long word) {
+        return BigDecimal.valueOf(word >> SCALE_BITS, (int) (word & SCALE_MASK));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,553 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps accounts in a compact on-heap layout.
+ * <p>
+ * Players are found through an open-addressing table keyed on the two longs of their UUID,
+ * so a lookup costs no {@link UUID#hashCode()} or {@code equals} calls and no second map.
+ * Each player holds one {@code long[]} with a fixed stride per currency ordinal: the balance
+ * word, creation and last transaction time as epoch milliseconds, and the version counters.
+ * The name is stored once per player. Balances that do not fit in a word are kept boxed.
+ * <p>
+ * Lookups are lock-free. Changes to a player's accounts are serialized on the player, and
+ * adding players on one lock for the table. The {@link AccountHolder}s handed out are views.
+ */
+public class CompactAccountStore implements AccountStore {
+    // Longs per currency in a player's data array
+    private static final int BALANCE = 0;
+    private static final int CREATED = 1;
+    private static final int LAST_TRANSACTION = 2;
+    private static final int VERSION = 3;
+    private static final int FLUSHED_VERSION = 4;
+    private static final int STRIDE = 5;
+    
+    // The creation time of a currency the player has no account in
+    private static final long ABSENT = Long.MIN_VALUE;
+    
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle PLAYERS = MethodHandles.arrayElementVarHandle(Player[].class);
+    
+    private final Object writeLock = new Object();
+    private final CurrencyRegistry currencies;
+    private final int initialCapacity;
+    private volatile Table table;
+    
+    /**
+     * Creates a new empty store
+     * @param currencies the registry that numbers the currencies
+     * @param initialCapacity the number of players space is reserved for up front
+     */
+    public CompactAccountStore(CurrencyRegistry currencies, int initialCapacity) {
+        this.currencies = currencies;
+        this.initialCapacity = Math.max(16, initialCapacity);
+        this.table = new Table(this.initialCapacity);
+    }
+    
+    @Override
+    public AccountHolder get(UUID playerUuid, String currencyId) {
+        int currency = currencies.ordinalOf(currencyId);
+        if (currency < 0) {
+            return null;
+        }
+        
+        Player player = table.find(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits());
+        return player != null && player.has(currency) ? new AccountView(player, currency, playerUuid, currencyId) : null;
+    }
+    
+    @Override
+    public AccountHolder get(UUID playerUuid, Currency currency) {
+        int ordinal = currency.getOrdinal();
+        if (ordinal < 0) {
+            return get(playerUuid, currency.getId());
+        }
+        
+        Player player = table.find(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits());
+        return player != null && player.has(ordinal) ? new AccountView(player, ordinal, playerUuid, currency.getId()) : null;
+    }
+    
+    @Override
+    public Map<String, AccountHolder> getPlayerAccounts(UUID playerUuid) {
+        Player player = table.find(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits());
+        return player != null ? new PlayerAccounts(player, playerUuid) : Collections.emptyMap();
+    }
+    
+    @Override
+    public AccountHolder add(AccountHolder account) {
+        int currency = currencies.assignOrdinal(account.getCurrencyId());
+        Player player;
+        synchronized (writeLock) {
+            player = table.findOrInsert(account.getPlayerUuid());
+        }
+        player.add(currency, account);
+        return new AccountView(player, currency, account.getPlayerUuid(), account.getCurrencyId());
+    }
+    
+    @Override
+    public void replaceAll(Map<UUID, Map<String, AccountHolder>> accounts) {
+        synchronized (writeLock) {
+            // Built off to the side, views of the old players keep working but no longer count
+            Table replacement = new Table(Math.max(initialCapacity, accounts.size()));
+            for (Map.Entry<UUID, Map<String, AccountHolder>> entry : accounts.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    continue;
+                }
+                
+                Player player = replacement.findOrInsert(entry.getKey());
+                for (AccountHolder account : entry.getValue().values()) {
+                    player.add(currencies.assignOrdinal(account.getCurrencyId()), account);
+                }
+            }
+            table = replacement;
+        }
+    }
+    
+    @Override
+    public Map<UUID, Map<String, AccountHolder>> asMap() {
+        return new AllAccounts(table);
+    }
+    
+    @Override
+    public int size() {
+        return table.size;
+    }
+    
+    /**
+     * Spreads a player UUID over the table
+     */
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 29));
+    }
+    
+    /**
+     * The players of one generation, replaced as a whole by {@link #replaceAll(Map)}
+     */
+    private static final class Table {
+        private volatile Slots slots;
+        private volatile int size;
+        
+        private Table(int players) {
+            this.slots = new Slots(Integer.highestOneBit(Math.max(16, players * 4 / 3 + 1) - 1) << 1);
+        }
+        
+        private Player find(long msb, long lsb) {
+            return slots.find(msb, lsb);
+        }
+        
+        /**
+         * Finds a player, adding one without accounts if there is none. Must hold the write lock.
+         */
+        private Player findOrInsert(UUID playerUuid) {
+            long msb = playerUuid.getMostSignificantBits();
+            long lsb = playerUuid.getLeastSignificantBits();
+            Player player = slots.find(msb, lsb);
+            if (player != null) {
+                return player;
+            }
+            
+            // Grow at three quarters full, readers keep probing the old slots until the swap
+            if ((size + 1) * 4L > slots.players.length * 3L) {
+                Slots grown = new Slots(slots.players.length * 2);
+                for (Player existing : slots.players) {
+                    if (existing != null) {
+                        grown.put(existing);
+                    }
+                }
+                slots = grown;
+            }
+            
+            player = new Player(msb, lsb);
+            slots.put(player);
+            size++;
+            return player;
+        }
+    }
+    
+    /**
+     * Open-addressing slots keyed on the two longs of the player UUID
+     */
+    private static final class Slots {
+        private final long[] keys;
+        private final Player[] players;
+        private final int mask;
+        
+        private Slots(int capacity) {
+            this.keys = new long[capacity * 2];
+            this.players = new Player[capacity];
+            this.mask = capacity - 1;
+        }
+        
+        private Player find(long msb, long lsb) {
+            int cell = hash(msb, lsb) & mask;
+            while (true) {
+                // The keys are written before the player is published
+                Player player = (Player) PLAYERS.getAcquire(players, cell);
+                if (player == null) {
+                    return null;
+                }
+                if (keys[cell * 2] == msb && keys[cell * 2 + 1] == lsb) {
+                    return player;
+                }
+                cell = (cell + 1) & mask;
+            }
+        }
+        
+        private void put(Player player) {
+            int cell = hash(player.msb, player.lsb) & mask;
+            while (players[cell] != null) {
+                cell = (cell + 1) & mask;
+            }
+            keys[cell * 2] = player.msb;
+            keys[cell * 2 + 1] = player.lsb;
+            PLAYERS.setRelease(players, cell, player);
+        }
+    }
+    
+    /**
+     * All accounts of one player
+     */
+    private static final class Player {
+        private final long msb;
+        private final long lsb;
+        private volatile String name;
+        private volatile long[] data = new long[0];
+        private volatile BigDecimal[] boxedBalances;
+        
+        private Player(long msb, long lsb) {
+            this.msb = msb;
+            this.lsb = lsb;
+        }
+        
+        private boolean has(int currency) {
+            long[] current = data;
+            int base = currency * STRIDE;
+            return base < current.length && (long) LONGS.getAcquire(current, base + CREATED) != ABSENT;
+        }
+        
+        private int count() {
+            long[] current = data;
+            int count = 0;
+            for (int base = 0; base < current.length; base += STRIDE) {
+                if ((long) LONGS.getAcquire(current, base + CREATED) != ABSENT) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        /**
+         * Adds an account unless the player has one in that currency
+         */
+        private synchronized void add(int currency, AccountHolder account) {
+            if (has(currency)) {
+                return;
+            }
+            
+            int base = currency * STRIDE;
+            long[] current = data;
+            if (base >= current.length) {
+                int length = current.length;
+                current = Arrays.copyOf(current, base + STRIDE);
+                for (int i = length; i < current.length; i += STRIDE) {
+                    current[i + CREATED] = ABSENT;
+                }
+            }
+            
+            if (name == null) {
+                name = account.getPlayerName();
+            }
+            current[base + LAST_TRANSACTION] = account.getLastTransaction().toEpochMilli();
+            current[base + VERSION] = account.isDirty() ? 1L : 0L;
+            current[base + FLUSHED_VERSION] = 0L;
+            data = current;
+            setBalance(currency, account.getBalance());
+            LONGS.setRelease(current, base + CREATED, account.getCreated().toEpochMilli());
+        }
+        
+        private long get(int currency, int field) {
+            return (long) LONGS.getVolatile(data, currency * STRIDE + field);
+        }
+        
+        private BigDecimal getBalance(int currency) {
+            long word = get(currency, BALANCE);
+            if (BalanceWord.isEncoded(word)) {
+                return BalanceWord.decode(word);
+            }
+            
+            synchronized (this) {
+                word = get(currency, BALANCE);
+                return BalanceWord.isEncoded(word) ? BalanceWord.decode(word) : boxedBalances[currency];
+            }
+        }
+        
+        /**
+         * Stores a balance. Must hold the player's lock.
+         */
+        private void setBalance(int currency, BigDecimal balance) {
+            long word = BalanceWord.encode(balance);
+            if (word == BalanceWord.NONE) {
+                if (boxedBalances == null || boxedBalances.length <= currency) {
+                    boxedBalances = boxedBalances == null ? new BigDecimal[currency + 1] : Arrays.copyOf(boxedBalances, currency + 1);
+                }
+                boxedBalances[currency] = balance;
+            } else if (boxedBalances != null && boxedBalances.length > currency) {
+                boxedBalances[currency] = null;
+            }
+            LONGS.setVolatile(data, currency * STRIDE + BALANCE, word);
+        }
+        
+        private synchronized void update(int currency, BigDecimal balance, long lastTransaction) {
+            setBalance(currency, balance);
+            LONGS.setVolatile(data, currency * STRIDE + LAST_TRANSACTION, lastTransaction);
+            LONGS.getAndAdd(data, currency * STRIDE + VERSION, 1L);
+        }
+        
+        private synchronized void set(int currency, int field, long value) {
+            LONGS.setVolatile(data, currency * STRIDE + field, value);
+            LONGS.getAndAdd(data, currency * STRIDE + VERSION, 1L);
+        }
+        
+        private synchronized void rename(String playerName) {
+            name = playerName;
+            // Every account row carries the name, so all of them have to be written again
+            long[] current = data;
+            for (int base = 0; base < current.length; base += STRIDE) {
+                if (current[base + CREATED] != ABSENT) {
+                    LONGS.getAndAdd(current, base + VERSION, 1L);
+                }
+            }
+        }
+        
+        private synchronized void markFlushed(int currency, long storedVersion) {
+            // The last write to land wins, even an older one, see AccountHolder.markFlushed
+            LONGS.setVolatile(data, currency * STRIDE + FLUSHED_VERSION, storedVersion);
+        }
+    }
+    
+    /**
+     * A live account backed by a player's data array
+     */
+    private static final class AccountView extends AccountHolder {
+        private final Player player;
+        private final int currency;
+        
+        private AccountView(Player player, int currency, UUID playerUuid, String currencyId) {
+            super(playerUuid, currencyId);
+            this.player = player;
+            this.currency = currency;
+        }
+        
+        @Override
+        public String getPlayerName() {
+            return player.name;
+        }
+        
+        @Override
+        public void setPlayerName(String playerName) {
+            player.rename(playerName);
+        }
+        
+        @Override
+        public BigDecimal getBalance() {
+            return player.getBalance(currency);
+        }
+        
+        @Override
+        public void setBalance(BigDecimal balance) {
+            player.update(currency, balance, System.currentTimeMillis());
+        }
+        
+        @Override
+        public Instant getLastTransaction() {
+            return Instant.ofEpochMilli(player.get(currency, LAST_TRANSACTION));
+        }
+        
+        @Override
+        public void setLastTransaction(Instant lastTransaction) {
+            player.set(currency, LAST_TRANSACTION, lastTransaction.toEpochMilli());
+        }
+        
+        @Override
+        public Instant getCreated() {
+            return Instant.ofEpochMilli(player.get(currency, CREATED));
+        }
+        
+        @Override
+        public void setCreated(Instant created) {
+            player.set(currency, CREATED, created.toEpochMilli());
+        }
+        
+        @Override
+        public long getVersion() {
+            return player.get(currency, VERSION);
+        }
+        
+        @Override
+        public boolean isDirty() {
+            return player.get(currency, VERSION) != player.get(currency, FLUSHED_VERSION);
+        }
+        
+        @Override
+        public void markFlushed(long storedVersion) {
+            player.markFlushed(currency, storedVersion);
+        }
+    }
+    
+    /**
+     * Read-only view of one player's accounts
+     */
+    private final class PlayerAccounts extends AbstractMap<String, AccountHolder> {
+        private final Player player;
+        private final UUID playerUuid;
+        
+        private PlayerAccounts(Player player, UUID playerUuid) {
+            this.player = player;
+            this.playerUuid = playerUuid;
+        }
+        
+        @Override
+        public AccountHolder get(Object key) {
+            int currency = currencies.ordinalOf(key);
+            return currency >= 0 && player.has(currency) ? new AccountView(player, currency, playerUuid, (String) key) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            int currency = currencies.ordinalOf(key);
+            return currency >= 0 && player.has(currency);
+        }
+        
+        @Override
+        public int size() {
+            return player.count();
+        }
+        
+        @Override
+        public Set<Entry<String, AccountHolder>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, AccountHolder>> iterator() {
+                    String[] ids = currencies.ids();
+                    return new Iterator<>() {
+                        private int currency = advance(-1);
+                        
+                        private int advance(int from) {
+                            int next = from + 1;
+                            while (next < ids.length && !player.has(next)) {
+                                next++;
+                            }
+                            return next;
+                        }
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return currency < ids.length;
+                        }
+                        
+                        @Override
+                        public Entry<String, AccountHolder> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            AccountHolder account = new AccountView(player, currency, playerUuid, ids[currency]);
+                            currency = advance(currency);
+                            return new SimpleImmutableEntry<>(account.getCurrencyId(), account);
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    return player.count();
+                }
+            };
+        }
+    }
+    
+    /**
+     * Read-only view of all players, walking the table
+     */
+    private final class AllAccounts extends AbstractMap<UUID, Map<String, AccountHolder>> {
+        private final Table owner;
+        
+        private AllAccounts(Table owner) {
+            this.owner = owner;
+        }
+        
+        @Override
+        public Map<String, AccountHolder> get(Object key) {
+            if (!(key instanceof UUID playerUuid)) {
+                return null;
+            }
+            Player player = owner.find(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits());
+            return player != null ? new PlayerAccounts(player, playerUuid) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public int size() {
+            return owner.size;
+        }
+        
+        @Override
+        public Set<Entry<UUID, Map<String, AccountHolder>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<UUID, Map<String, AccountHolder>>> iterator() {
+                    // Slots that grew meanwhile hold the same player objects
+                    Player[] players = owner.slots.players;
+                    return new Iterator<>() {
+                        private int cell = advance(-1);
+                        
+                        private int advance(int from) {
+                            int next = from + 1;
+                            while (next < players.length && PLAYERS.getAcquire(players, next) == null) {
+                                next++;
+                            }
+                            return next;
+                        }
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return cell < players.length;
+                        }
+                        
+                        @Override
+                        public Entry<UUID, Map<String, AccountHolder>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Player player = (Player) PLAYERS.getAcquire(players, cell);
+                            cell = advance(cell);
+                            UUID playerUuid = new UUID(player.msb, player.lsb);
+                            return new SimpleImmutableEntry<>(playerUuid, new PlayerAccounts(player, playerUuid));
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    return owner.size;
+                }
+            };
+        }
+    }
+} 
\ No newline at end of file
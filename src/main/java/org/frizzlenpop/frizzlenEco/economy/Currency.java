@@ -20,6 +20,8 @@ public class Currency {
     private final BigDecimal interestRate;
     private final boolean allowNegative;
     private final boolean isEnabled;
+    private final int hash;
+    private volatile int ordinal = -1;
     
     /**
      * Creates a new Currency with the specified parameters
@@ -52,6 +54,7 @@ public class Currency {
         this.interestRate = interestRate;
         this.allowNegative = allowNegative;
         this.isEnabled = isEnabled;
+        this.hash = id != null ? id.hashCode() : 0;
     }
     
     /**
@@ -175,6 +178,22 @@ public class Currency {
         return String.format(format, symbol, amount);
     }
     
+    /**
+     * Gets the dense number the {@link CurrencyRegistry} gave this currency, for array-indexed lookups
+     * @return the ordinal, or -1 if the currency was never published
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+    
+    /**
+     * Sets the ordinal when the currency is published
+     * @param ordinal the ordinal
+     */
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -185,7 +204,7 @@ public class Currency {
     
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return hash;
     }
     
     @Override
@@ -0,0 +1,179 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numbers currencies densely from 0 and publishes the configured ones as an immutable snapshot.
+ * <p>
+ * A currency ID keeps its ordinal for the life of the registry, across reloads and when it
+ * is no longer configured, so arrays indexed by ordinal stay valid. Currencies of stored
+ * accounts that are not configured get ordinals too. Readers never lock, they read the
+ * current snapshot, which a reload replaces as a whole.
+ */
+public class CurrencyRegistry {
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[0];
+    private volatile Snapshot snapshot = new Snapshot(new Currency[0], List.of(), Map.of(), null);
+    
+    /**
+     * Gets the ordinal of a currency ID
+     * @param currencyId the currency ID
+     * @return the ordinal, or -1 if the ID has none yet
+     */
+    public int ordinalOf(Object currencyId) {
+        Integer ordinal = currencyId instanceof String ? ordinals.get(currencyId) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+    
+    /**
+     * Gets the ordinal of a currency ID, assigning the next one to a new ID
+     * @param currencyId the currency ID
+     * @return the ordinal
+     */
+    public int assignOrdinal(String currencyId) {
+        Integer ordinal = ordinals.get(currencyId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        
+        synchronized (this) {
+            ordinal = ordinals.get(currencyId);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            
+            String[] grown = Arrays.copyOf(ids, ids.length + 1);
+            grown[ids.length] = currencyId;
+            ids = grown;
+            ordinals.put(currencyId, ids.length - 1);
+            return ids.length - 1;
+        }
+    }
+    
+    /**
+     * Gets the number of ordinals handed out, which bounds every ordinal
+     * @return the ordinal count
+     */
+    public int getOrdinalCount() {
+        return ids.length;
+    }
+    
+    /**
+     * Gets the currency ID an ordinal was given to
+     * @param ordinal the ordinal
+     * @return the currency ID, or null if the ordinal was never handed out
+     */
+    public String getCurrencyId(int ordinal) {
+        String[] current = ids;
+        return ordinal >= 0 && ordinal < current.length ? current[ordinal] : null;
+    }
+    
+    /**
+     * Gets the currency IDs by ordinal, for account stores
+     * @return the IDs, which must not be modified
+     */
+    String[] ids() {
+        return ids;
+    }
+    
+    /**
+     * Replaces the configured currencies
+     * @param currencies the currencies in display order
+     * @param defaultCurrency the default currency, one of the given ones
+     */
+    public synchronized void publish(Collection<Currency> currencies, Currency defaultCurrency) {
+        Map<String, Currency> byId = new LinkedHashMap<>();
+        for (Currency currency : currencies) {
+            currency.setOrdinal(assignOrdinal(currency.getId()));
+            byId.put(currency.getId(), currency);
+        }
+        
+        Currency[] byOrdinal = new Currency[ids.length];
+        for (Currency currency : byId.values()) {
+            byOrdinal[currency.getOrdinal()] = currency;
+        }
+        snapshot = new Snapshot(byOrdinal, List.copyOf(byId.values()), Map.copyOf(byId), defaultCurrency);
+    }
+    
+    /**
+     * Gets the current snapshot, for reading several values that must belong together
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Gets a configured currency by ordinal
+     * @param ordinal the ordinal
+     * @return the currency, or null if it is not configured
+     */
+    public Currency getCurrency(int ordinal) {
+        return snapshot.getCurrency(ordinal);
+    }
+    
+    /**
+     * Gets a configured currency by ID
+     * @param currencyId the currency ID
+     * @return the currency, or null if it is not configured
+     */
+    public Currency getCurrency(String currencyId) {
+        return snapshot.getCurrency(currencyId);
+    }
+    
+    /**
+     * The configured currencies at one point in time
+     */
+    public static final class Snapshot {
+        private final Currency[] byOrdinal;
+        private final List<Currency> currencies;
+        private final Map<String, Currency> byId;
+        private final Currency defaultCurrency;
+        
+        private Snapshot(Currency[] byOrdinal, List<Currency> currencies, Map<String, Currency> byId, Currency defaultCurrency) {
+            this.byOrdinal = byOrdinal;
+            this.currencies = currencies;
+            this.byId = byId;
+            this.defaultCurrency = defaultCurrency;
+        }
+        
+        /**
+         * Gets a currency by ordinal
+         * @param ordinal the ordinal
+         * @return the currency, or null if it is not configured
+         */
+        public Currency getCurrency(int ordinal) {
+            return ordinal >= 0 && ordinal < byOrdinal.length ? byOrdinal[ordinal] : null;
+        }
+        
+        /**
+         * Gets a currency by ID
+         * @param currencyId the currency ID
+         * @return the currency, or null if it is not configured
+         */
+        public Currency getCurrency(String currencyId) {
+            return currencyId != null ? byId.get(currencyId) : null;
+        }
+        
+        /**
+         * Gets the configured currencies
+         * @return an immutable list in display order
+         */
+        public List<Currency> getCurrencies() {
+            return currencies;
+        }
+        
+        /**
+         * Gets the default currency
+         * @return the default currency, or null before the first publish
+         */
+        public Currency getDefaultCurrency() {
+            return defaultCurrency;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,143 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects small deposits per account until they are applied as one.
+ * <p>
+ * Reward plugins deposit tiny amounts many times a second. Each deposit collected here
+ * is one atomic map update instead of a balance change, a database write and two
+ * events; the owner applies the collected total once per window, or before anything
+ * else changes the account. Amounts are only ever added or taken as a whole, so none
+ * are lost to concurrent deposits.
+ */
+public class DepositAggregator {
+    private final BigDecimal threshold;
+    private final Map<Key, BigDecimal> pending = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a new aggregator
+     * @param threshold the largest amount collected instead of applied immediately
+     */
+    public DepositAggregator(BigDecimal threshold) {
+        this.threshold = threshold;
+    }
+    
+    /**
+     * Checks whether a deposit is small enough to collect
+     * @param amount the amount to deposit
+     * @return true for positive amounts up to the threshold
+     */
+    public boolean accepts(BigDecimal amount) {
+        return amount != null && amount.signum() > 0 && amount.compareTo(threshold) <= 0;
+    }
+    
+    /**
+     * Adds a deposit to an account's collected total, unless the balance with everything
+     * collected would then pass the currency's maximum. The caller must keep the balance
+     * from changing meanwhile, as the account's owner does.
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     * @param balance the account's balance, without collected deposits
+     * @param amount the amount to deposit
+     * @return the collected total including the amount, or null if it would pass the maximum
+     */
+    public BigDecimal collect(UUID playerUuid, Currency currency, BigDecimal balance, BigDecimal amount) {
+        BigDecimal[] collected = new BigDecimal[1];
+        pending.compute(new Key(playerUuid, currency), (key, total) -> {
+            BigDecimal current = total != null ? total : BigDecimal.ZERO;
+            if (balance.add(current).add(amount).compareTo(currency.getMaxBalance()) > 0) {
+                return total;
+            }
+            collected[0] = current.add(amount);
+            return collected[0];
+        });
+        return collected[0];
+    }
+    
+    /**
+     * Gets the total collected for an account and not yet applied
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     * @return the collected total, zero if there is none
+     */
+    public BigDecimal getPending(UUID playerUuid, Currency currency) {
+        if (pending.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        return pending.getOrDefault(new Key(playerUuid, currency), BigDecimal.ZERO);
+    }
+    
+    /**
+     * Removes the total collected for an account so it can be applied
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     * @return the collected total, or null if there is none
+     */
+    public BigDecimal take(UUID playerUuid, Currency currency) {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        return pending.remove(new Key(playerUuid, currency));
+    }
+    
+    /**
+     * Hands every collected total to a sink without removing it, so the owner can take
+     * each one when it gets to the account
+     * @param sink receives each account's current total
+     */
+    public void forEachPending(Sink sink) {
+        pending.forEach((key, amount) -> sink.accept(key.playerUuid, key.currency, amount));
+    }
+    
+    /**
+     * Checks whether any deposits are waiting to be applied
+     * @return true if nothing is collected
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+    
+    /**
+     * Receives the collected total of an account
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * Applies a collected total
+         * @param playerUuid the player's UUID
+         * @param currency the currency of the account
+         * @param amount the collected total
+         */
+        void accept(UUID playerUuid, Currency currency, BigDecimal amount);
+    }
+    
+    /**
+     * An account, by player and currency
+     */
+    private static final class Key {
+        private final UUID playerUuid;
+        private final Currency currency;
+        
+        private Key(UUID playerUuid, Currency currency) {
+            this.playerUuid = playerUuid;
+            this.currency = currency;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return playerUuid.equals(key.playerUuid) && currency.equals(key.currency);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * playerUuid.hashCode() + currency.hashCode();
+        }
+    }
+} 
\ No newline at end of file
@@ -1,15 +1,30 @@
 package org.frizzlenpop.frizzlenEco.economy;
 
 import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.scheduler.BukkitTask;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.backup.AccountSnapshot;
+import org.frizzlenpop.frizzlenEco.config.AccountStoreSettings;
+import org.frizzlenpop.frizzlenEco.config.AggregationSettings;
 import org.frizzlenpop.frizzlenEco.config.ConfigManager;
+import org.frizzlenpop.frizzlenEco.config.EngineSettings;
 import org.frizzlenpop.frizzlenEco.database.DatabaseManager;
 import org.frizzlenpop.frizzlenEco.economy.events.BalanceChangeEvent;
 import org.frizzlenpop.frizzlenEco.economy.events.TransactionEvent;
+import org.frizzlenpop.frizzlenEco.metrics.MetricsManager;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
@@ -20,11 +35,25 @@ public class EconomyManager {
     private final DatabaseManager databaseManager;
     private final ConfigManager configManager;
     
-    private final Map<String, Currency> currencies = new ConcurrentHashMap<>();
-    private final Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
+    private final CurrencyRegistry currencyRegistry = new CurrencyRegistry();
+    private final AccountStore accounts;
+    private final AccountNameIndex nameIndex = new AccountNameIndex();
+    private final ShardedEngine engine;
+    private final DepositAggregator aggregator;
+    private final EventBridge events;
+    private final ExecutorService feedExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("FrizzlenEco-Feed-", 0).factory());
+    private final BalanceFeed feed;
+    private final AccountLocks locks = new AccountLocks(1024);
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final Set<Transfer> inTransit = ConcurrentHashMap.newKeySet();
+    private final AtomicLong transactionIds = new AtomicLong(System.currentTimeMillis() << 20);
     
-    private Currency defaultCurrency;
     private boolean initialized = false;
+    private volatile AccountSnapshot activeSnapshot;
+    private volatile long restoreGeneration;
+    private BukkitTask flushTask;
+    private BukkitTask aggregationTask;
     
     /**
      * Creates a new EconomyManager
@@ -34,6 +63,47 @@ public class EconomyManager {
         this.plugin = plugin;
         this.databaseManager = plugin.getDatabaseManager();
         this.configManager = plugin.getConfigManager();
+        this.accounts = createAccountStore(configManager.getAccountStoreSettings());
+        this.engine = createEngine(configManager.getEngineSettings());
+        
+        AggregationSettings aggregation = configManager.getAggregationSettings();
+        this.aggregator = aggregation.isEnabled() ? new DepositAggregator(aggregation.getThreshold()) : null;
+        this.events = new EventBridge(plugin, configManager.getEventSettings());
+        this.feed = new BalanceFeed(currencyRegistry, feedExecutor, plugin.getLogger());
+    }
+    
+    /**
+     * Creates the single-writer shards if the sharded engine is configured
+     * @param settings the engine settings
+     * @return the sharded engine, or null to run operations on the calling thread
+     */
+    private ShardedEngine createEngine(EngineSettings settings) {
+        switch (settings.getMode()) {
+            case SHARDED:
+                plugin.getLogger().info("Running account operations on " + settings.getShards() + " shards");
+                return new ShardedEngine(settings.getShards());
+            case DIRECT:
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Creates the store for the configured account memory layout
+     * @param settings the account store settings
+     * @return the account store
+     */
+    private AccountStore createAccountStore(AccountStoreSettings settings) {
+        switch (settings.getLayout()) {
+            case COMPACT:
+                return new CompactAccountStore(currencyRegistry, settings.getInitialCapacity());
+            case OFF_HEAP:
+                plugin.getLogger().info("Keeping accounts off-heap");
+                return new OffHeapAccountStore(currencyRegistry, settings.getInitialCapacity());
+            case HEAP:
+            default:
+                return new HeapAccountStore();
+        }
     }
     
     /**
@@ -52,6 +122,18 @@ public class EconomyManager {
             // Load account data from database
             loadAccounts();
             
+            // Write changed accounts back in the background
+            scheduleFlush(-1L);
+            
+            // Fire events raised off the main thread
+            events.initialize();
+            
+            // Apply collected small deposits once per window
+            if (aggregator != null) {
+                long windowTicks = Math.max(1, configManager.getAggregationSettings().getWindowMillis() / 50);
+                aggregationTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::applyCollectedDeposits, windowTicks, windowTicks);
+            }
+            
             initialized = true;
             plugin.getLogger().info("Economy system initialized successfully");
             return true;
@@ -62,24 +144,86 @@ public class EconomyManager {
     }
     
     /**
-     * Shuts down the economy system and saves all data
+     * Shuts down the economy system and saves all data.
+     * Only called when the plugin is disabled; the shards, the event bridge and the
+     * balance subscriptions are not restarted afterwards.
      */
     public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        
+        // Queue the collected deposits, the shards then apply them with everything else
+        if (aggregationTask != null) {
+            aggregationTask.cancel();
+            aggregationTask = null;
+        }
+        if (aggregator != null) {
+            applyCollectedDeposits();
+        }
+        
+        // Let the shards apply what is queued before the final save
+        if (engine != null && !engine.shutdown(configManager.getFlushSettings().getShutdownDeadlineSeconds(), TimeUnit.SECONDS)) {
+            plugin.getLogger().warning("Economy shards did not finish their queued operations in time");
+        }
+        
+        // Fire the events the shards and async callers raised
+        events.shutdown();
+        
         try {
             saveAllData();
             plugin.getLogger().info("Economy data saved successfully");
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to save economy data", e);
         }
+        
+        // Complete the balance subscriptions, reloads keep them open
+        feed.close();
+        feedExecutor.shutdown();
+    }
+    
+    /**
+     * Applies a reloaded configuration while the economy keeps running, and writes
+     * changed accounts in the background rather than waiting for the next flush
+     */
+    public void reload() {
+        loadCurrencies();
+        
+        // Make sure events raised off the main thread are still drained
+        events.initialize();
+        
+        // Flush now, then at the reloaded interval
+        scheduleFlush(1L);
+    }
+    
+    /**
+     * Starts the periodic flush of changed accounts, replacing a running one
+     * @param delayTicks the ticks until the first flush, or -1 to wait one interval
+     */
+    private void scheduleFlush(long delayTicks) {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        long flushTicks = Math.max(1, configManager.getFlushSettings().getIntervalSeconds()) * 20L;
+        flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flushChanges,
+                delayTicks < 0 ? flushTicks : delayTicks, flushTicks);
+    }
+    
+    /**
+     * Reloads all currencies from configuration, keeping loaded accounts
+     */
+    public void reloadCurrencies() {
+        loadCurrencies();
     }
     
     /**
      * Loads all currencies from configuration
      */
     private void loadCurrencies() {
-        // Clear existing currencies
-        currencies.clear();
-        defaultCurrency = null;
+        // Collect into a fresh map and publish it as one snapshot once complete
+        Map<String, Currency> currencies = new LinkedHashMap<>();
+        Currency defaultCurrency = null;
         
         // Load from config
         List<Map<String, Object>> currencyConfigs = configManager.getCurrencyConfigs();
@@ -148,6 +292,7 @@ public class EconomyManager {
             }
         }
         
+        currencyRegistry.publish(currencies.values(), defaultCurrency);
         plugin.getLogger().info("Loaded " + currencies.size() + " currencies");
     }
     
@@ -155,23 +300,225 @@ public class EconomyManager {
      * Loads all account data from the database
      */
     private void loadAccounts() {
-        // Clear existing accounts
-        accounts.clear();
-        
-        // Load from database
+        // Load from database, replacing existing accounts
         Map<UUID, Map<String, AccountHolder>> loadedAccounts = databaseManager.loadAllAccounts();
-        if (loadedAccounts != null) {
-            accounts.putAll(loadedAccounts);
-        }
+        accounts.replaceAll(loadedAccounts != null ? loadedAccounts : Collections.emptyMap());
+        nameIndex.rebuild(accounts.asMap());
         
         plugin.getLogger().info("Loaded " + accounts.size() + " player accounts");
     }
     
     /**
-     * Saves all economy data to the database
+     * Writes changed accounts to the database within the shutdown deadline.
+     * Accounts that could not be written in time are spooled and written on the next start.
      */
     private void saveAllData() {
-        databaseManager.saveAllAccounts(accounts);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(configManager.getFlushSettings().getShutdownDeadlineSeconds());
+        int unsaved = databaseManager.flushAccounts(accounts.asMap(), deadline, true);
+        if (unsaved > 0) {
+            plugin.getLogger().severe(unsaved + " changed accounts could not be saved or spooled");
+        }
+    }
+    
+    /**
+     * Writes changed accounts to the database, run periodically in the background.
+     * Accounts that are not written stay dirty and are retried on the next run.
+     */
+    private void flushChanges() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(configManager.getFlushSettings().getIntervalSeconds());
+        databaseManager.flushAccounts(accounts.asMap(), deadline, false);
+    }
+    
+    /**
+     * Starts a point-in-time snapshot of all accounts.
+     * This only publishes a marker; mutations record pre-images until the snapshot ends.
+     * The marker is installed while no change runs, so it comes before or after all of a
+     * transfer, never in between. Amounts handed between shards at that moment are counted
+     * as their senders', as if those transfers came after the marker.
+     * @return the snapshot marker
+     */
+    public AccountSnapshot beginSnapshot() {
+        AccountSnapshot snapshot = new AccountSnapshot();
+        exclusive(() -> {
+            for (Transfer transfer : inTransit) {
+                snapshot.inTransit(transfer.source, transfer.amount);
+            }
+            activeSnapshot = snapshot;
+            return null;
+        });
+        return snapshot;
+    }
+    
+    /**
+     * Ends a snapshot started with {@link #beginSnapshot()}
+     * @param snapshot the snapshot marker
+     */
+    public void endSnapshot(AccountSnapshot snapshot) {
+        if (activeSnapshot == snapshot) {
+            activeSnapshot = null;
+        }
+    }
+    
+    /**
+     * Persists restored accounts, then replaces all in-memory accounts with them on the main thread.
+     * If the stored rows cannot be replaced, the accounts in memory are kept.
+     * <p>
+     * The swap runs while no change runs. Collected deposits and transfers between shards
+     * that are still in transit belong to the replaced accounts and are dropped with them.
+     * @param restoredAccounts map of player UUIDs to their account maps
+     * @return a future completed once the restored accounts are in use
+     */
+    public CompletableFuture<Void> restoreAccounts(Map<UUID, Map<String, AccountHolder>> restoredAccounts) {
+        // Replace the stored rows as well, so accounts missing from the snapshot don't come back
+        Set<UUID> players = new HashSet<>(restoredAccounts.keySet());
+        players.addAll(accounts.asMap().keySet());
+        return databaseManager.replaceAllAccounts(restoredAccounts, players).thenCompose(stored -> {
+            CompletableFuture<Void> swapped = new CompletableFuture<>();
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    exclusive(() -> swapAccounts(restoredAccounts));
+                    plugin.getLogger().info("Restored " + restoredAccounts.size() + " player accounts");
+                    swapped.complete(null);
+                } catch (Throwable t) {
+                    swapped.completeExceptionally(t);
+                }
+            });
+            return swapped;
+        });
+    }
+    
+    /**
+     * Replaces all in-memory accounts with restored ones. Runs while no change runs.
+     * @param restoredAccounts map of player UUIDs to their account maps
+     * @return null
+     */
+    private Void swapAccounts(Map<UUID, Map<String, AccountHolder>> restoredAccounts) {
+        // Changes made while the rows were replaced went to the accounts being dropped, and
+        // their saves may have landed after the replace, so the rows are replaced again after them
+        Set<UUID> players = new HashSet<>(restoredAccounts.keySet());
+        players.addAll(accounts.asMap().keySet());
+        
+        restoreGeneration++;
+        inTransit.clear();
+        if (aggregator != null) {
+            aggregator.forEachPending((playerUuid, currency, amount) -> aggregator.take(playerUuid, currency));
+        }
+        accounts.replaceAll(restoredAccounts);
+        nameIndex.rebuild(accounts.asMap());
+        
+        databaseManager.replaceAllAccounts(restoredAccounts, players);
+        return null;
+    }
+    
+    /**
+     * Gets a read-only view of all loaded accounts
+     * @return map of player UUIDs to their account maps
+     */
+    public Map<UUID, Map<String, AccountHolder>> getAllAccounts() {
+        return accounts.asMap();
+    }
+    
+    /**
+     * Sets an account's balance, recording its pre-image if a snapshot is active
+     * @param account the account to update
+     * @param newBalance the new balance
+     */
+    private void updateBalance(AccountHolder account, BigDecimal newBalance) {
+        AccountSnapshot snapshot = activeSnapshot;
+        if (snapshot != null) {
+            snapshot.beforeMutation(account);
+        }
+        account.setBalance(newBalance);
+        feed.publish(account.getPlayerUuid(), account.getCurrencyId(), newBalance);
+    }
+    
+    /**
+     * Adds a new account to the store
+     * @param account the new account
+     * @return the live account, which is an existing one if another thread created it first
+     */
+    private AccountHolder addAccount(AccountHolder account) {
+        AccountSnapshot snapshot = activeSnapshot;
+        if (snapshot != null) {
+            snapshot.created(account);
+        }
+        AccountHolder stored = accounts.add(account);
+        nameIndex.put(account.getPlayerUuid(), account.getPlayerName());
+        feed.publish(stored.getPlayerUuid(), stored.getCurrencyId(), stored.getBalance());
+        return stored;
+    }
+    
+    /**
+     * Updates the stored name on all of a player's accounts, e.g. after they changed their name
+     * @param playerUuid the player's UUID
+     * @param playerName the player's current name
+     * @return true if any account was renamed
+     */
+    public boolean updatePlayerName(UUID playerUuid, String playerName) {
+        return execute(playerUuid, () -> applyPlayerName(playerUuid, playerName));
+    }
+    
+    private boolean applyPlayerName(UUID playerUuid, String playerName) {
+        Map<String, AccountHolder> playerAccounts = accounts.getPlayerAccounts(playerUuid);
+        if (playerAccounts.isEmpty() || playerName == null) {
+            return false;
+        }
+        
+        List<AccountHolder> renamed = new ArrayList<>();
+        for (AccountHolder account : playerAccounts.values()) {
+            if (!playerName.equals(account.getPlayerName())) {
+                account.setPlayerName(playerName);
+                renamed.add(account);
+            }
+        }
+        if (renamed.isEmpty()) {
+            return false;
+        }
+        
+        nameIndex.put(playerUuid, playerName);
+        for (AccountHolder account : renamed) {
+            databaseManager.saveAccount(account);
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the index of account holder names used for tab completion
+     * @return the account name index
+     */
+    public AccountNameIndex getNameIndex() {
+        return nameIndex;
+    }
+    
+    /**
+     * Fires an economy event through the event bridge, which never blocks the calling thread.
+     * Events are created with {@code events.isAsync()} so they match the thread they are fired from.
+     * @param event the event to fire
+     */
+    private void callEvent(Event event) {
+        events.fire(event);
+    }
+    
+    /**
+     * Counts a transaction in the metrics and fires its event
+     * @param event the transaction event
+     */
+    private void callTransaction(TransactionEvent event) {
+        MetricsManager metrics = plugin.getMetricsManager();
+        if (metrics != null) {
+            metrics.recordTransaction(event.getType(), event.getCurrency(), event.getAmount());
+        }
+        events.fire(event);
+    }
+    
+    /**
+     * Creates a publisher of balance updates, filtered where balances change
+     * @param players the players to watch, or null for all players
+     * @param currency the currency to watch, or null for all currencies
+     * @return the publisher
+     */
+    public Flow.Publisher<BalanceUpdate> balanceUpdates(Set<UUID> players, Currency currency) {
+        return feed.publisher(players, currency);
     }
     
     /**
@@ -179,15 +526,15 @@ public class EconomyManager {
      * @return the default currency
      */
     public Currency getDefaultCurrency() {
-        return defaultCurrency;
+        return currencyRegistry.getSnapshot().getDefaultCurrency();
     }
     
     /**
      * Gets all currencies
-     * @return collection of all currencies
+     * @return immutable collection of all currencies, in configuration order
      */
     public Collection<Currency> getCurrencies() {
-        return Collections.unmodifiableCollection(currencies.values());
+        return currencyRegistry.getSnapshot().getCurrencies();
     }
     
     /**
@@ -196,7 +543,15 @@ public class EconomyManager {
      * @return the currency, or null if not found
      */
     public Currency getCurrency(String currencyId) {
-        return currencies.get(currencyId);
+        return currencyRegistry.getCurrency(currencyId);
+    }
+    
+    /**
+     * Gets the registry that numbers the currencies and publishes their snapshots
+     * @return the currency registry
+     */
+    public CurrencyRegistry getCurrencyRegistry() {
+        return currencyRegistry;
     }
     
     /**
@@ -206,12 +561,7 @@ public class EconomyManager {
      * @return true if the player has an account
      */
     public boolean hasAccount(UUID playerUuid, Currency currency) {
-        Map<String, AccountHolder> playerAccounts = accounts.get(playerUuid);
-        if (playerAccounts == null) {
-            return false;
-        }
-        
-        return playerAccounts.containsKey(currency.getId());
+        return accounts.get(playerUuid, currency) != null;
     }
     
     /**
@@ -221,17 +571,14 @@ public class EconomyManager {
      * @return the player's balance, or 0 if they don't have an account
      */
     public BigDecimal getBalance(UUID playerUuid, Currency currency) {
-        Map<String, AccountHolder> playerAccounts = accounts.get(playerUuid);
-        if (playerAccounts == null) {
-            return BigDecimal.ZERO;
-        }
+        AccountHolder account = accounts.get(playerUuid, currency);
+        BigDecimal balance = account != null ? account.getBalance() : BigDecimal.ZERO;
         
-        AccountHolder account = playerAccounts.get(currency.getId());
-        if (account == null) {
-            return BigDecimal.ZERO;
+        // Include small deposits that have been collected but not applied yet
+        if (aggregator != null) {
+            balance = balance.add(aggregator.getPending(playerUuid, currency));
         }
-        
-        return account.getBalance();
+        return balance;
     }
     
     /**
@@ -254,74 +601,164 @@ public class EconomyManager {
      * @return true if the account was created successfully
      */
     public boolean createAccount(UUID playerUuid, String playerName, Currency currency) {
+        return execute(playerUuid, () -> applyCreateAccount(playerUuid, playerName, currency));
+    }
+    
+    private boolean applyCreateAccount(UUID playerUuid, String playerName, Currency currency) {
         if (playerUuid == null || currency == null) {
             return false;
         }
         
-        // Get or create player's account map
-        Map<String, AccountHolder> playerAccounts = accounts.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>());
-        
-        // Check if account already exists
-        if (playerAccounts.containsKey(currency.getId())) {
-            return true; // Account already exists
-        }
-        
-        // Create new account
-        AccountHolder account = new AccountHolder(playerUuid, playerName, currency.getId(), currency.getInitialBalance());
-        playerAccounts.put(currency.getId(), account);
-        
-        // Save to database
-        databaseManager.saveAccount(account);
+        boolean created = locked(playerUuid, currency, () -> {
+            // Check if account already exists
+            if (accounts.get(playerUuid, currency) != null) {
+                return false;
+            }
+            
+            // Create new account
+            AccountHolder account = addAccount(new AccountHolder(playerUuid, playerName, currency.getId(), currency.getInitialBalance()));
+            
+            // Save to database
+            databaseManager.saveAccount(account);
+            return true;
+        });
         
         // Fire event
-        Bukkit.getPluginManager().callEvent(new BalanceChangeEvent(playerUuid, currency, BigDecimal.ZERO, currency.getInitialBalance()));
+        if (created) {
+            callEvent(new BalanceChangeEvent(playerUuid, currency, BigDecimal.ZERO, currency.getInitialBalance(), events.isAsync()));
+        }
         
         return true;
     }
     
     /**
-     * Withdraws money from a player's account
+     * Deposits money the way reward plugins do, many small amounts in quick succession.
+     * With aggregation enabled, amounts up to the threshold are collected and applied
+     * together once per window; the balance and {@link #has} include them right away.
+     * Anything else is deposited immediately.
      * @param playerUuid the player's UUID
-     * @param amount the amount to withdraw
-     * @param currency the currency to withdraw from
-     * @return true if the withdrawal was successful
+     * @param amount the amount to deposit
+     * @param currency the currency to deposit to
+     * @return the result, with the old and new balance on success
      */
-    public boolean withdraw(UUID playerUuid, BigDecimal amount, Currency currency) {
-        if (playerUuid == null || amount == null || currency == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            return false;
+    public EconomyResult credit(UUID playerUuid, BigDecimal amount, Currency currency) {
+        if (aggregator == null || playerUuid == null || currency == null || !aggregator.accepts(amount)) {
+            return deposit(playerUuid, amount, currency);
         }
         
-        // Get player's account map
-        Map<String, AccountHolder> playerAccounts = accounts.get(playerUuid);
-        if (playerAccounts == null) {
-            return false;
-        }
+        // Check against the balance and the collected total and add in one step, where settling
+        // runs as well, so concurrent credits cannot pass the maximum together
+        BigDecimal oldBalance = execute(playerUuid, () -> locked(playerUuid, currency, () -> collect(playerUuid, amount, currency)));
         
-        // Get account for this currency
-        AccountHolder account = playerAccounts.get(currency.getId());
+        // New accounts and deposits that would pass the maximum are applied now, so they fail as they should
+        if (oldBalance == null) {
+            return deposit(playerUuid, amount, currency);
+        }
+        return EconomyResult.success(oldBalance, oldBalance.add(amount), nextTransactionId());
+    }
+    
+    /**
+     * Adds a small deposit to an account's collected total if it stays within the maximum
+     * @param playerUuid the player's UUID
+     * @param amount the amount to deposit
+     * @param currency the currency of the account
+     * @return the balance including earlier collected deposits before this one, or null to deposit it now
+     */
+    private BigDecimal collect(UUID playerUuid, BigDecimal amount, Currency currency) {
+        AccountHolder account = accounts.get(playerUuid, currency);
         if (account == null) {
-            return false;
+            return null;
         }
         
-        // Check if player has enough money
-        BigDecimal currentBalance = account.getBalance();
-        BigDecimal newBalance = currentBalance.subtract(amount);
-        
-        if (!currency.isAllowNegative() && newBalance.compareTo(currency.getMinBalance()) < 0) {
-            return false; // Not enough money
+        BigDecimal balance = account.getBalance();
+        BigDecimal collected = aggregator.collect(playerUuid, currency, balance, amount);
+        if (collected == null) {
+            return null;
         }
         
-        // Update balance
-        account.setBalance(newBalance);
+        // Publish in the same step, so a later change to the account is offered after this one
+        feed.publish(playerUuid, currency.getId(), balance.add(collected));
+        return balance.add(collected).subtract(amount);
+    }
+    
+    /**
+     * Withdraws money from a player's account
+     * @param playerUuid the player's UUID
+     * @param amount the amount to withdraw
+     * @param currency the currency to withdraw from
+     * @return the result, with the old and new balance on success
+     */
+    public EconomyResult withdraw(UUID playerUuid, BigDecimal amount, Currency currency) {
+        return execute(playerUuid, () -> applyWithdraw(playerUuid, amount, null, currency));
+    }
+    
+    /**
+     * Withdraws money from a player's account on the shard that owns it
+     * @param playerUuid the player's UUID
+     * @param amount the amount to withdraw
+     * @param currency the currency to withdraw from
+     * @return a future completed with the result
+     */
+    public CompletableFuture<EconomyResult> withdrawAsync(UUID playerUuid, BigDecimal amount, Currency currency) {
+        return executeAsync(playerUuid, () -> applyWithdraw(playerUuid, amount, null, currency));
+    }
+    
+    /**
+     * Withdraws money from a player's account, but only if the balance is at least a minimum.
+     * The check and the withdrawal are one step, so nothing can change the balance in between.
+     * @param playerUuid the player's UUID
+     * @param amount the amount to withdraw
+     * @param minimum the balance the player must have, even if the currency allows negative balances
+     * @param currency the currency to withdraw from
+     * @return the result, {@link EconomyResult.Status#INSUFFICIENT_FUNDS} if the balance is below the minimum
+     */
+    public EconomyResult withdrawIfAtLeast(UUID playerUuid, BigDecimal amount, BigDecimal minimum, Currency currency) {
+        if (minimum == null) {
+            return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
+        }
+        return execute(playerUuid, () -> applyWithdraw(playerUuid, amount, minimum, currency));
+    }
+    
+    private EconomyResult applyWithdraw(UUID playerUuid, BigDecimal amount, BigDecimal minimum, Currency currency) {
+        if (playerUuid == null || amount == null || currency == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
+        }
+        settle(playerUuid, currency);
         
-        // Save to database
-        databaseManager.saveAccount(account);
+        EconomyResult result = locked(playerUuid, currency, () -> {
+            // Get account for this currency
+            AccountHolder account = accounts.get(playerUuid, currency);
+            if (account == null) {
+                return EconomyResult.failure(EconomyResult.Status.NO_ACCOUNT);
+            }
+            
+            // Check if player has enough money
+            BigDecimal currentBalance = account.getBalance();
+            BigDecimal newBalance = currentBalance.subtract(amount);
+            
+            if (minimum != null && currentBalance.compareTo(minimum) < 0) {
+                return EconomyResult.failure(EconomyResult.Status.INSUFFICIENT_FUNDS);
+            }
+            if (!currency.isAllowNegative() && newBalance.compareTo(currency.getMinBalance()) < 0) {
+                return EconomyResult.failure(EconomyResult.Status.INSUFFICIENT_FUNDS);
+            }
+            
+            // Update balance
+            updateBalance(account, newBalance);
+            
+            // Save to database
+            databaseManager.saveAccount(account);
+            return EconomyResult.success(currentBalance, newBalance, nextTransactionId());
+        });
+        if (!result.isSuccess()) {
+            return result;
+        }
         
         // Fire event
-        Bukkit.getPluginManager().callEvent(new BalanceChangeEvent(playerUuid, currency, currentBalance, newBalance));
-        Bukkit.getPluginManager().callEvent(new TransactionEvent(TransactionEvent.Type.WITHDRAW, playerUuid, null, currency, amount));
+        callEvent(new BalanceChangeEvent(playerUuid, currency, result.getOldBalance(), result.getNewBalance(), events.isAsync()));
+        callTransaction(new TransactionEvent(TransactionEvent.Type.WITHDRAW, playerUuid, null, currency, amount, events.isAsync()));
         
-        return true;
+        return result;
     }
     
     /**
@@ -329,82 +766,546 @@ public class EconomyManager {
      * @param playerUuid the player's UUID
      * @param amount the amount to deposit
      * @param currency the currency to deposit to
-     * @return true if the deposit was successful
+     * @return the result, with the old and new balance on success
+     */
+    public EconomyResult deposit(UUID playerUuid, BigDecimal amount, Currency currency) {
+        return execute(playerUuid, () -> applyDeposit(playerUuid, amount, false, currency));
+    }
+    
+    /**
+     * Deposits money into a player's account on the shard that owns it
+     * @param playerUuid the player's UUID
+     * @param amount the amount to deposit
+     * @param currency the currency to deposit to
+     * @return a future completed with the result
      */
-    public boolean deposit(UUID playerUuid, BigDecimal amount, Currency currency) {
+    public CompletableFuture<EconomyResult> depositAsync(UUID playerUuid, BigDecimal amount, Currency currency) {
+        return executeAsync(playerUuid, () -> applyDeposit(playerUuid, amount, false, currency));
+    }
+    
+    /**
+     * Deposits money into a player's account, capped so the balance does not exceed the
+     * currency's maximum. Depositing into a full account succeeds without changing it.
+     * @param playerUuid the player's UUID
+     * @param amount the most to deposit
+     * @param currency the currency to deposit to
+     * @return the result; the amount deposited is the new balance minus the old one
+     */
+    public EconomyResult depositUpTo(UUID playerUuid, BigDecimal amount, Currency currency) {
+        return execute(playerUuid, () -> applyDeposit(playerUuid, amount, true, currency));
+    }
+    
+    private EconomyResult applyDeposit(UUID playerUuid, BigDecimal amount, boolean capped, Currency currency) {
         if (playerUuid == null || amount == null || currency == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            return false;
+            return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
         }
+        settle(playerUuid, currency);
         
-        // Get or create player's account map
-        Map<String, AccountHolder> playerAccounts = accounts.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>());
+        // Look the name up before locking, it may have to go to the user cache
+        String playerName = accounts.get(playerUuid, currency) == null ? Bukkit.getOfflinePlayer(playerUuid).getName() : null;
         
-        // Get or create account for this currency
-        AccountHolder account = playerAccounts.get(currency.getId());
-        if (account == null) {
-            // Player doesn't have an account for this currency, create one
-            String playerName = Bukkit.getOfflinePlayer(playerUuid).getName();
-            account = new AccountHolder(playerUuid, playerName, currency.getId(), BigDecimal.ZERO);
-            playerAccounts.put(currency.getId(), account);
+        EconomyResult result = locked(playerUuid, currency, () -> {
+            // Get or create account for this currency
+            AccountHolder account = accounts.get(playerUuid, currency);
+            BigDecimal currentBalance = account != null ? account.getBalance() : BigDecimal.ZERO;
+            BigDecimal newBalance = currentBalance.add(amount);
+            
+            // Check if new balance would exceed maximum
+            if (newBalance.compareTo(currency.getMaxBalance()) > 0) {
+                if (!capped) {
+                    return EconomyResult.failure(EconomyResult.Status.BALANCE_LIMIT);
+                }
+                newBalance = currency.getMaxBalance().max(currentBalance);
+                if (newBalance.compareTo(currentBalance) == 0) {
+                    return EconomyResult.success(currentBalance, currentBalance, nextTransactionId());
+                }
+            }
+            
+            if (account == null) {
+                // Player doesn't have an account for this currency, create one
+                account = addAccount(new AccountHolder(playerUuid, playerName, currency.getId(), BigDecimal.ZERO));
+            }
+            
+            // Update balance
+            updateBalance(account, newBalance);
+            
+            // Save to database
+            databaseManager.saveAccount(account);
+            return EconomyResult.success(currentBalance, newBalance, nextTransactionId());
+        });
+        
+        // A full account is left as it was, without events
+        if (!result.isSuccess() || result.getNewBalance().compareTo(result.getOldBalance()) == 0) {
+            return result;
         }
         
-        // Check if new balance would exceed maximum
-        BigDecimal currentBalance = account.getBalance();
-        BigDecimal newBalance = currentBalance.add(amount);
+        // Fire event
+        BigDecimal deposited = result.getNewBalance().subtract(result.getOldBalance());
+        callEvent(new BalanceChangeEvent(playerUuid, currency, result.getOldBalance(), result.getNewBalance(), events.isAsync()));
+        callTransaction(new TransactionEvent(TransactionEvent.Type.DEPOSIT, null, playerUuid, currency, deposited, events.isAsync()));
         
-        if (newBalance.compareTo(currency.getMaxBalance()) > 0) {
-            return false; // Would exceed maximum balance
+        return result;
+    }
+    
+    /**
+     * Sets a player's balance, but only if it still equals an expected value.
+     * Lets callers read a balance, work out a new one and write it back without
+     * overwriting a change made in between.
+     * @param playerUuid the player's UUID
+     * @param expected the balance the account must have
+     * @param newBalance the balance to set
+     * @param currency the currency of the account
+     * @return the result, {@link EconomyResult.Status#BALANCE_CHANGED} with the current
+     *         balance if it no longer equals the expected one
+     */
+    public EconomyResult setIfEquals(UUID playerUuid, BigDecimal expected, BigDecimal newBalance, Currency currency) {
+        return execute(playerUuid, () -> applySetIfEquals(playerUuid, expected, newBalance, currency));
+    }
+    
+    private EconomyResult applySetIfEquals(UUID playerUuid, BigDecimal expected, BigDecimal newBalance, Currency currency) {
+        if (playerUuid == null || expected == null || newBalance == null || currency == null) {
+            return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
         }
+        if ((!currency.isAllowNegative() && newBalance.compareTo(currency.getMinBalance()) < 0)
+                || newBalance.compareTo(currency.getMaxBalance()) > 0) {
+            return EconomyResult.failure(EconomyResult.Status.BALANCE_LIMIT);
+        }
+        settle(playerUuid, currency);
         
-        // Update balance
-        account.setBalance(newBalance);
-        
-        // Save to database
-        databaseManager.saveAccount(account);
+        EconomyResult result = locked(playerUuid, currency, () -> {
+            AccountHolder account = accounts.get(playerUuid, currency);
+            if (account == null) {
+                return EconomyResult.failure(EconomyResult.Status.NO_ACCOUNT);
+            }
+            
+            // Compare by value, so 5 and 5.00 are the same balance
+            BigDecimal currentBalance = account.getBalance();
+            if (currentBalance.compareTo(expected) != 0) {
+                return EconomyResult.balanceChanged(currentBalance);
+            }
+            
+            updateBalance(account, newBalance);
+            databaseManager.saveAccount(account);
+            return EconomyResult.success(currentBalance, newBalance, nextTransactionId());
+        });
+        if (!result.isSuccess()) {
+            return result;
+        }
         
-        // Fire event
-        Bukkit.getPluginManager().callEvent(new BalanceChangeEvent(playerUuid, currency, currentBalance, newBalance));
-        Bukkit.getPluginManager().callEvent(new TransactionEvent(TransactionEvent.Type.DEPOSIT, null, playerUuid, currency, amount));
+        // Fire events, the change is recorded as the deposit or withdrawal of the difference
+        BigDecimal currentBalance = result.getOldBalance();
+        BigDecimal difference = newBalance.subtract(currentBalance);
+        callEvent(new BalanceChangeEvent(playerUuid, currency, currentBalance, newBalance, events.isAsync()));
+        if (difference.signum() > 0) {
+            callTransaction(new TransactionEvent(TransactionEvent.Type.DEPOSIT, null, playerUuid, currency, difference, events.isAsync()));
+        } else if (difference.signum() < 0) {
+            callTransaction(new TransactionEvent(TransactionEvent.Type.WITHDRAW, playerUuid, null, currency, difference.negate(), events.isAsync()));
+        }
         
-        return true;
+        return result;
     }
     
     /**
-     * Transfers money from one player to another
+     * Transfers money from one player to another.
+     * Both limits are checked before the money arrives, and both rows are written in one
+     * database transaction. On the sharded engine, a transfer to a player on another shard
+     * is handed off as with {@link #transferAsync}, and this waits for it.
      * @param fromUuid the UUID of the player to take money from
      * @param toUuid the UUID of the player to give money to
      * @param amount the amount to transfer
      * @param currency the currency to transfer
-     * @return true if the transfer was successful
+     * @return the result, with the sender's old and new balance on success
+     */
+    public EconomyResult transfer(UUID fromUuid, UUID toUuid, BigDecimal amount, Currency currency) {
+        if (isHandOff(fromUuid, toUuid)) {
+            return engine.await(transferAsync(fromUuid, toUuid, amount, currency));
+        }
+        return execute(fromUuid, () -> applyTransfer(fromUuid, toUuid, amount, currency));
+    }
+    
+    /**
+     * Transfers money from one player to another on the shard that owns the sender.
+     * If the receiver is on another shard, the sender's shard takes the amount and hands
+     * it to the receiver's shard, which adds it and saves both accounts together; if the
+     * receiver can't take it, the sender gets it back. Snapshots taken in between count
+     * the amount as the sender's.
+     * @param fromUuid the UUID of the player to take money from
+     * @param toUuid the UUID of the player to give money to
+     * @param amount the amount to transfer
+     * @param currency the currency to transfer
+     * @return a future completed with the result
+     */
+    public CompletableFuture<EconomyResult> transferAsync(UUID fromUuid, UUID toUuid, BigDecimal amount, Currency currency) {
+        if (isHandOff(fromUuid, toUuid)) {
+            return engine.handOff(fromUuid, toUuid, new Transfer(fromUuid, toUuid, amount, currency));
+        }
+        return executeAsync(fromUuid, () -> applyTransfer(fromUuid, toUuid, amount, currency));
+    }
+    
+    /**
+     * Checks whether a transfer has to be handed from one shard to another
+     * @param fromUuid the sender's UUID
+     * @param toUuid the receiver's UUID
+     * @return true on the sharded engine if different shards own the two players
      */
-    public boolean transfer(UUID fromUuid, UUID toUuid, BigDecimal amount, Currency currency) {
+    private boolean isHandOff(UUID fromUuid, UUID toUuid) {
+        return engine != null && fromUuid != null && toUuid != null && !engine.isSameShard(fromUuid, toUuid);
+    }
+    
+    private EconomyResult applyTransfer(UUID fromUuid, UUID toUuid, BigDecimal amount, Currency currency) {
         if (fromUuid == null || toUuid == null || amount == null || currency == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            return false;
+            return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
         }
         
         // Cannot transfer to self
         if (fromUuid.equals(toUuid)) {
-            return false;
+            return EconomyResult.failure(EconomyResult.Status.SAME_ACCOUNT);
         }
+        settle(fromUuid, currency);
+        settle(toUuid, currency);
         
-        // Withdraw from source account
-        boolean withdrawSuccess = withdraw(fromUuid, amount, currency);
-        if (!withdrawSuccess) {
-            return false;
+        // Look the name up before locking, it may have to go to the user cache
+        String toName = accounts.get(toUuid, currency) == null ? Bukkit.getOfflinePlayer(toUuid).getName() : null;
+        
+        BigDecimal[] toBalance = new BigDecimal[1];
+        EconomyResult result = locked(fromUuid, toUuid, currency, () -> {
+            AccountHolder source = accounts.get(fromUuid, currency);
+            if (source == null) {
+                return EconomyResult.failure(EconomyResult.Status.NO_ACCOUNT);
+            }
+            AccountHolder target = accounts.get(toUuid, currency);
+            
+            // Check both limits before changing anything
+            BigDecimal fromBalance = source.getBalance();
+            toBalance[0] = target != null ? target.getBalance() : BigDecimal.ZERO;
+            if (!currency.isAllowNegative() && fromBalance.subtract(amount).compareTo(currency.getMinBalance()) < 0) {
+                return EconomyResult.failure(EconomyResult.Status.INSUFFICIENT_FUNDS);
+            }
+            if (toBalance[0].add(amount).compareTo(currency.getMaxBalance()) > 0) {
+                return EconomyResult.failure(EconomyResult.Status.BALANCE_LIMIT);
+            }
+            
+            if (target == null) {
+                target = addAccount(new AccountHolder(toUuid, toName, currency.getId(), BigDecimal.ZERO));
+            }
+            updateBalance(source, fromBalance.subtract(amount));
+            updateBalance(target, toBalance[0].add(amount));
+            
+            // Save both rows in one transaction
+            databaseManager.saveAccounts(List.of(source, target));
+            return EconomyResult.success(fromBalance, fromBalance.subtract(amount), nextTransactionId());
+        });
+        if (!result.isSuccess()) {
+            return result;
         }
         
-        // Deposit to target account
-        boolean depositSuccess = deposit(toUuid, amount, currency);
-        if (!depositSuccess) {
-            // Rollback the withdrawal
-            deposit(fromUuid, amount, currency);
-            return false;
+        // Fire events
+        callEvent(new BalanceChangeEvent(fromUuid, currency, result.getOldBalance(), result.getNewBalance(), events.isAsync()));
+        callEvent(new BalanceChangeEvent(toUuid, currency, toBalance[0], toBalance[0].add(amount), events.isAsync()));
+        callTransaction(new TransactionEvent(TransactionEvent.Type.TRANSFER, fromUuid, toUuid, currency, amount, events.isAsync()));
+        
+        return result;
+    }
+    
+    /**
+     * Applies the debit and credit legs of a transaction all-or-nothing.
+     * Every account involved is locked, or on the sharded engine every shard involved is
+     * paused, and the net change to each account is checked against its currency's limits
+     * before any balance changes. The accounts are written together with one journal record
+     * per leg, sharing a group ID, in one database transaction.
+     * @param legs the legs, possibly across currencies
+     * @param type the transaction type recorded in the journal
+     * @return the result, whose transaction ID is the group ID of the journal records;
+     *         on failure none of the legs were applied
+     */
+    public EconomyResult applyTransaction(List<TransactionLeg> legs, String type) {
+        if (legs == null || legs.isEmpty() || type == null) {
+            return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
         }
         
-        // Fire transfer event
-        Bukkit.getPluginManager().callEvent(new TransactionEvent(TransactionEvent.Type.TRANSFER, fromUuid, toUuid, currency, amount));
+        // Net the legs per account, so an account in several legs is checked against its final balance
+        Map<UUID, Map<Currency, BigDecimal>> net = new LinkedHashMap<>();
+        for (TransactionLeg leg : legs) {
+            if (leg.getPlayerUuid() == null || leg.getCurrency() == null || leg.getAmount() == null
+                    || leg.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
+            }
+            net.computeIfAbsent(leg.getPlayerUuid(), k -> new LinkedHashMap<>())
+                    .merge(leg.getCurrency(), leg.getSignedAmount(), BigDecimal::add);
+        }
         
-        return true;
+        // Look names up before locking, they may have to go to the user cache
+        List<PendingChange> changes = new ArrayList<>();
+        for (Map.Entry<UUID, Map<Currency, BigDecimal>> player : net.entrySet()) {
+            for (Map.Entry<Currency, BigDecimal> change : player.getValue().entrySet()) {
+                UUID playerUuid = player.getKey();
+                String playerName = accounts.get(playerUuid, change.getKey()) == null && change.getValue().signum() > 0
+                        ? Bukkit.getOfflinePlayer(playerUuid).getName() : null;
+                changes.add(new PendingChange(playerUuid, playerName, change.getKey(), change.getValue()));
+            }
+        }
+        
+        long transactionId = nextTransactionId();
+        Supplier<EconomyResult> apply = () -> {
+            // Check every account before changing any
+            for (PendingChange change : changes) {
+                AccountHolder account = accounts.get(change.playerUuid, change.currency);
+                if (account == null && change.amount.signum() < 0) {
+                    return EconomyResult.failure(EconomyResult.Status.NO_ACCOUNT);
+                }
+                
+                change.account = account;
+                change.before = account != null ? account.getBalance() : BigDecimal.ZERO;
+                change.after = change.before.add(change.amount);
+                if (change.amount.signum() < 0 && !change.currency.isAllowNegative()
+                        && change.after.compareTo(change.currency.getMinBalance()) < 0) {
+                    return EconomyResult.failure(EconomyResult.Status.INSUFFICIENT_FUNDS);
+                }
+                if (change.amount.signum() > 0 && change.after.compareTo(change.currency.getMaxBalance()) > 0) {
+                    return EconomyResult.failure(EconomyResult.Status.BALANCE_LIMIT);
+                }
+            }
+            
+            List<AccountHolder> changed = new ArrayList<>(changes.size());
+            for (PendingChange change : changes) {
+                if (change.amount.signum() == 0) {
+                    continue; // Legs that cancel out
+                }
+                if (change.account == null) {
+                    change.account = addAccount(new AccountHolder(change.playerUuid, change.playerName,
+                            change.currency.getId(), BigDecimal.ZERO));
+                }
+                updateBalance(change.account, change.after);
+                changed.add(change.account);
+            }
+            
+            // Save every account and journal every leg in one transaction
+            databaseManager.commitTransaction(changed, legs, type, Long.toString(transactionId));
+            return EconomyResult.success(null, null, transactionId);
+        };
+        
+        EconomyResult result;
+        if (engine != null) {
+            // Pause the shards of every player involved, this thread is then the only writer of their accounts
+            result = engine.callExclusive(net.keySet(), () -> {
+                for (TransactionLeg leg : legs) {
+                    settle(leg.getPlayerUuid(), leg.getCurrency());
+                }
+                return apply.get();
+            });
+        } else {
+            for (TransactionLeg leg : legs) {
+                settle(leg.getPlayerUuid(), leg.getCurrency());
+            }
+            int[] stripes = changes.stream()
+                    .mapToInt(change -> locks.indexOf(change.playerUuid, change.currency))
+                    .distinct().sorted().toArray();
+            result = locked(stripes, apply);
+        }
+        if (!result.isSuccess()) {
+            return result;
+        }
+        
+        // Fire events
+        for (PendingChange change : changes) {
+            if (change.amount.signum() != 0) {
+                callEvent(new BalanceChangeEvent(change.playerUuid, change.currency, change.before, change.after, events.isAsync()));
+            }
+        }
+        for (TransactionLeg leg : legs) {
+            callTransaction(leg.isDebit()
+                    ? new TransactionEvent(TransactionEvent.Type.WITHDRAW, leg.getPlayerUuid(), null, leg.getCurrency(), leg.getAmount(), events.isAsync())
+                    : new TransactionEvent(TransactionEvent.Type.DEPOSIT, null, leg.getPlayerUuid(), leg.getCurrency(), leg.getAmount(), events.isAsync()));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Applies the small deposits collected for an account before another operation changes it,
+     * so the operation sees them in the balance. Runs on the thread that owns the account.
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     */
+    private void settle(UUID playerUuid, Currency currency) {
+        if (aggregator == null) {
+            return;
+        }
+        
+        // Take the total and add it to the balance in one step, so credit() never sees neither
+        Settled settled = locked(playerUuid, currency, () -> {
+            BigDecimal collected = aggregator.take(playerUuid, currency);
+            if (collected == null) {
+                return null;
+            }
+            AccountHolder account = accounts.get(playerUuid, currency);
+            if (account == null) {
+                return new Settled(collected, null, null);
+            }
+            BigDecimal currentBalance = account.getBalance();
+            BigDecimal newBalance = currentBalance.add(collected);
+            updateBalance(account, newBalance);
+            databaseManager.saveAccount(account);
+            return new Settled(collected, currentBalance, newBalance);
+        });
+        if (settled == null) {
+            return;
+        }
+        
+        if (settled.after() == null) {
+            // The account was removed since, e.g. by a restore, so deposit into a new one
+            applyDeposit(playerUuid, settled.collected(), true, currency);
+            return;
+        }
+        
+        // Applied in full even past the maximum, the amounts were already reported as deposited
+        if (settled.after().compareTo(currency.getMaxBalance()) > 0) {
+            plugin.getLogger().warning("Collected deposits took " + playerUuid + " past the maximum balance in " + currency.getId());
+        }
+        callEvent(new BalanceChangeEvent(playerUuid, currency, settled.before(), settled.after(), events.isAsync()));
+        callTransaction(new TransactionEvent(TransactionEvent.Type.DEPOSIT, null, playerUuid, currency, settled.collected(), events.isAsync()));
+    }
+    
+    /**
+     * Queues every account with collected small deposits to be settled, one deposit per account
+     */
+    private void applyCollectedDeposits() {
+        aggregator.forEachPending((playerUuid, currency, amount) ->
+                executeAsync(playerUuid, () -> {
+                    settle(playerUuid, currency);
+                    return null;
+                }).exceptionally(e -> {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to apply collected deposits of " + playerUuid, e);
+                    return null;
+                }));
+    }
+    
+    /**
+     * Hands out the ID of a new transaction. IDs start from the clock, shifted so that they
+     * keep increasing across restarts unless a server averages a million operations a millisecond.
+     * @return the transaction ID
+     */
+    private long nextTransactionId() {
+        return transactionIds.incrementAndGet();
+    }
+    
+    /**
+     * Runs an operation that changes a player's accounts, on their shard if the engine is sharded
+     * @param playerUuid the player whose accounts the operation changes
+     * @param operation the operation
+     * @param <T> the result type
+     * @return the operation's result
+     */
+    private <T> T execute(UUID playerUuid, Supplier<T> operation) {
+        if (engine == null || playerUuid == null) {
+            return operation.get();
+        }
+        return engine.call(playerUuid, operation);
+    }
+    
+    /**
+     * Queues an operation that changes a player's accounts on their shard, or runs it now
+     * if the engine is not sharded
+     * @param playerUuid the player whose accounts the operation changes
+     * @param operation the operation
+     * @param <T> the result type
+     * @return a future completed with the operation's result
+     */
+    private <T> CompletableFuture<T> executeAsync(UUID playerUuid, Supplier<T> operation) {
+        if (engine == null || playerUuid == null) {
+            return CompletableFuture.completedFuture(operation.get());
+        }
+        return engine.submit(playerUuid, operation);
+    }
+    
+    /**
+     * Runs a change to one account atomically. In direct mode it holds the read side of the
+     * snapshot lock and the account's stripe; on the sharded engine it already runs on the
+     * only thread that changes the account, so it takes no locks.
+     * @param playerUuid the player's UUID
+     * @param currency the currency of the account
+     * @param change the change
+     * @param <T> the result type
+     * @return the change's result
+     */
+    private <T> T locked(UUID playerUuid, Currency currency, Supplier<T> change) {
+        if (engine != null) {
+            return change.get();
+        }
+        
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (locks.lockFor(playerUuid, currency)) {
+                return change.get();
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Runs a change to two accounts of one currency atomically, as {@link #locked(UUID, Currency, Supplier)}.
+     * Both stripes are taken in index order, the same order on every thread.
+     * @param first the first player's UUID
+     * @param second the second player's UUID
+     * @param currency the currency of the accounts
+     * @param change the change
+     * @param <T> the result type
+     * @return the change's result
+     */
+    private <T> T locked(UUID first, UUID second, Currency currency, Supplier<T> change) {
+        if (engine != null) {
+            return change.get();
+        }
+        
+        int firstStripe = locks.indexOf(first, currency);
+        int secondStripe = locks.indexOf(second, currency);
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (locks.get(Math.min(firstStripe, secondStripe))) {
+                synchronized (locks.get(Math.max(firstStripe, secondStripe))) {
+                    return change.get();
+                }
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Runs a change to several accounts atomically in direct mode, holding their stripes
+     * @param sortedStripes distinct stripe indexes in ascending order
+     * @param change the change
+     * @param <T> the result type
+     * @return the change's result
+     */
+    private <T> T locked(int[] sortedStripes, Supplier<T> change) {
+        snapshotLock.readLock().lock();
+        try {
+            return locks.withStripes(sortedStripes, change);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Runs a change while no other change to any account runs: under the write side of
+     * the snapshot lock, or on the sharded engine while every shard is paused
+     * @param change the change
+     * @param <T> the result type
+     * @return the change's result
+     */
+    private <T> T exclusive(Supplier<T> change) {
+        if (engine != null) {
+            return engine.callExclusive(null, change);
+        }
+        
+        snapshotLock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
     }
     
     /**
@@ -413,6 +1314,121 @@ public class EconomyManager {
      * @return map of currency IDs to account holders
      */
     public Map<String, AccountHolder> getPlayerAccounts(UUID playerUuid) {
-        return accounts.getOrDefault(playerUuid, Collections.emptyMap());
+        return accounts.getPlayerAccounts(playerUuid);
+    }
+    
+    /**
+     * A transfer handed from the sender's shard to the receiver's. Between the two steps the
+     * amount is in transit: taken from the sender, not yet added to the receiver.
+     */
+    private final class Transfer implements ShardedEngine.HandOff<EconomyResult> {
+        private final UUID fromUuid;
+        private final UUID toUuid;
+        private final BigDecimal amount;
+        private final Currency currency;
+        private AccountHolder source;
+        private BigDecimal fromBalance;
+        private long generation;
+        
+        private Transfer(UUID fromUuid, UUID toUuid, BigDecimal amount, Currency currency) {
+            this.fromUuid = fromUuid;
+            this.toUuid = toUuid;
+            this.amount = amount;
+            this.currency = currency;
+        }
+        
+        @Override
+        public EconomyResult take() {
+            if (amount == null || currency == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                return EconomyResult.failure(EconomyResult.Status.INVALID_AMOUNT);
+            }
+            settle(fromUuid, currency);
+            
+            source = accounts.get(fromUuid, currency);
+            if (source == null) {
+                return EconomyResult.failure(EconomyResult.Status.NO_ACCOUNT);
+            }
+            fromBalance = source.getBalance();
+            if (!currency.isAllowNegative() && fromBalance.subtract(amount).compareTo(currency.getMinBalance()) < 0) {
+                return EconomyResult.failure(EconomyResult.Status.INSUFFICIENT_FUNDS);
+            }
+            
+            // Not saved yet, the receiver's shard saves both accounts once the amount arrives
+            generation = restoreGeneration;
+            inTransit.add(this);
+            updateBalance(source, fromBalance.subtract(amount));
+            return null;
+        }
+        
+        @Override
+        public EconomyResult give() {
+            // A restore since the amount was taken replaced the sender's account, and the amount with it
+            if (generation != restoreGeneration) {
+                return EconomyResult.failure(EconomyResult.Status.ERROR);
+            }
+            settle(toUuid, currency);
+            
+            AccountHolder target = accounts.get(toUuid, currency);
+            BigDecimal toBalance = target != null ? target.getBalance() : BigDecimal.ZERO;
+            if (toBalance.add(amount).compareTo(currency.getMaxBalance()) > 0) {
+                return null;
+            }
+            
+            if (target == null) {
+                target = addAccount(new AccountHolder(toUuid, Bukkit.getOfflinePlayer(toUuid).getName(), currency.getId(), BigDecimal.ZERO));
+            }
+            updateBalance(target, toBalance.add(amount));
+            inTransit.remove(this);
+            
+            // Save both rows in one transaction
+            databaseManager.saveAccounts(List.of(source, target));
+            
+            // Fire events
+            callEvent(new BalanceChangeEvent(fromUuid, currency, fromBalance, fromBalance.subtract(amount), events.isAsync()));
+            callEvent(new BalanceChangeEvent(toUuid, currency, toBalance, toBalance.add(amount), events.isAsync()));
+            callTransaction(new TransactionEvent(TransactionEvent.Type.TRANSFER, fromUuid, toUuid, currency, amount, events.isAsync()));
+            
+            return EconomyResult.success(fromBalance, fromBalance.subtract(amount), nextTransactionId());
+        }
+        
+        @Override
+        public EconomyResult giveBack() {
+            if (generation != restoreGeneration) {
+                return EconomyResult.failure(EconomyResult.Status.ERROR);
+            }
+            
+            // Given back in full even past the maximum, it was the sender's to begin with
+            updateBalance(source, source.getBalance().add(amount));
+            inTransit.remove(this);
+            databaseManager.saveAccount(source);
+            
+            return EconomyResult.failure(EconomyResult.Status.BALANCE_LIMIT);
+        }
+    }
+    
+    /**
+     * Collected deposits applied to an account, with the balance before and after
+     */
+    private record Settled(BigDecimal collected, BigDecimal before, BigDecimal after) {
+    }
+    
+    /**
+     * The net change a transaction makes to one account, filled in while its locks are held
+     */
+    private static final class PendingChange {
+        private final UUID playerUuid;
+        private final String playerName;
+        private final Currency currency;
+        private final BigDecimal amount;
+        private AccountHolder account;
+        private BigDecimal before;
+        private BigDecimal after;
+        
+        private PendingChange(UUID playerUuid, String playerName, Currency currency, BigDecimal amount) {
+            this.playerUuid = playerUuid;
+            this.playerName = playerName;
+            this.currency = currency;
+            this.amount = amount;
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,143 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.math.BigDecimal;
+
+/**
+ * The outcome of a balance-changing operation.
+ * <p>
+ * A success carries the balance before and after the change and the ID of the
+ * transaction, so callers don't have to look the balance up again. Failures are shared
+ * preallocated instances per status and carry no balances, except that a failed
+ * compare-and-set carries the balance it found.
+ */
+public final class EconomyResult {
+    /**
+     * Why an operation succeeded or failed
+     */
+    public enum Status {
+        SUCCESS("Success"),
+        INVALID_AMOUNT("Invalid amount"),
+        NO_ACCOUNT("Account not found"),
+        INSUFFICIENT_FUNDS("Insufficient funds"),
+        BALANCE_LIMIT("Maximum balance exceeded"),
+        SAME_ACCOUNT("Cannot transfer to the same account"),
+        BALANCE_CHANGED("Balance changed"),
+        ERROR("Internal error");
+        
+        private final String message;
+        
+        Status(String message) {
+            this.message = message;
+        }
+        
+        /**
+         * Gets a short description for players and other plugins
+         * @return the message
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+    
+    private static final EconomyResult[] FAILURES = new EconomyResult[Status.values().length];
+    
+    static {
+        for (Status status : Status.values()) {
+            if (status != Status.SUCCESS && status != Status.BALANCE_CHANGED) {
+                FAILURES[status.ordinal()] = new EconomyResult(status, null, null, 0L);
+            }
+        }
+    }
+    
+    private final Status status;
+    private final BigDecimal oldBalance;
+    private final BigDecimal newBalance;
+    private final long transactionId;
+    
+    private EconomyResult(Status status, BigDecimal oldBalance, BigDecimal newBalance, long transactionId) {
+        this.status = status;
+        this.oldBalance = oldBalance;
+        this.newBalance = newBalance;
+        this.transactionId = transactionId;
+    }
+    
+    /**
+     * Creates a successful result
+     * @param oldBalance the balance before the change
+     * @param newBalance the balance after the change
+     * @param transactionId the ID of the transaction
+     * @return the result
+     */
+    public static EconomyResult success(BigDecimal oldBalance, BigDecimal newBalance, long transactionId) {
+        return new EconomyResult(Status.SUCCESS, oldBalance, newBalance, transactionId);
+    }
+    
+    /**
+     * Gets the shared result for a failure
+     * @param status why the operation failed, not {@link Status#SUCCESS} or {@link Status#BALANCE_CHANGED}
+     * @return the result
+     */
+    public static EconomyResult failure(Status status) {
+        EconomyResult result = FAILURES[status.ordinal()];
+        if (result == null) {
+            throw new IllegalArgumentException("Not a failure status: " + status);
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the result of a compare-and-set that found a different balance
+     * @param currentBalance the balance found, as both the old and the new balance
+     * @return the result
+     */
+    public static EconomyResult balanceChanged(BigDecimal currentBalance) {
+        return new EconomyResult(Status.BALANCE_CHANGED, currentBalance, currentBalance, 0L);
+    }
+    
+    /**
+     * Checks whether the operation succeeded
+     * @return true on success
+     */
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+    
+    /**
+     * Gets why the operation succeeded or failed
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+    
+    /**
+     * Gets the balance before the change; for a transfer, the sender's
+     * @return the old balance, or null for most failures and for a multi-leg transaction
+     */
+    public BigDecimal getOldBalance() {
+        return oldBalance;
+    }
+    
+    /**
+     * Gets the balance after the change; for a transfer, the sender's
+     * @return the new balance, or null for most failures and for a multi-leg transaction
+     */
+    public BigDecimal getNewBalance() {
+        return newBalance;
+    }
+    
+    /**
+     * Gets the ID of the transaction, which is also the group ID of a multi-leg transaction's history entries
+     * @return the transaction ID, or 0 for a failure
+     */
+    public long getTransactionId() {
+        return transactionId;
+    }
+    
+    @Override
+    public String toString() {
+        return isSuccess()
+                ? "EconomyResult{SUCCESS, " + oldBalance + " -> " + newBalance + ", id=" + transactionId + "}"
+                : "EconomyResult{" + status + "}";
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,160 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.scheduler.BukkitTask;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.EventSettings;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Fires economy events from whichever thread changed a balance.
+ * <p>
+ * On the main thread events are fired directly. Vault is often called from async
+ * threads, where synchronous events must not be fired. In queue mode such events wait
+ * in a bounded queue that the main thread drains once per tick, within a time budget;
+ * when the queue is full, events are dropped rather than blocking the caller. In async
+ * mode they are created as asynchronous events and fired in order on a dedicated thread,
+ * not on the calling one, which may be a shard thread that must not block on another shard.
+ */
+public class EventBridge {
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    
+    private final FrizzlenEco plugin;
+    private final EventSettings settings;
+    private final BlockingQueue<Event> queue;
+    private final ExecutorService asyncDispatcher;
+    private final AtomicLong dropped = new AtomicLong();
+    private BukkitTask drainTask;
+    private long lastDropWarning;
+    
+    /**
+     * Creates a new EventBridge
+     * @param plugin the FrizzlenEco plugin instance
+     * @param settings the event settings
+     */
+    public EventBridge(FrizzlenEco plugin, EventSettings settings) {
+        this.plugin = plugin;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.asyncDispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.getQueueCapacity()),
+                Thread.ofPlatform().name("FrizzlenEco-Events").daemon().factory());
+    }
+    
+    /**
+     * Starts draining queued events on the main thread, unless the drain is already running.
+     * Can be called again after {@link #shutdown()} to restart it.
+     */
+    public void initialize() {
+        if (settings.getMode() == EventSettings.Mode.QUEUE && drainTask == null) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+    
+    /**
+     * Checks whether an event raised now should be created as an asynchronous event
+     * @return true in async mode off the main thread
+     */
+    public boolean isAsync() {
+        return settings.getMode() == EventSettings.Mode.ASYNC && !Bukkit.isPrimaryThread();
+    }
+    
+    /**
+     * Fires an event now, or queues it for the main thread or the async event thread. Never blocks.
+     * @param event the event, asynchronous if {@link #isAsync()} said so
+     */
+    public void fire(Event event) {
+        if (event.isAsynchronous()) {
+            try {
+                asyncDispatcher.execute(() -> dispatch(event));
+            } catch (RejectedExecutionException e) {
+                dropped.incrementAndGet();
+                warnDropped();
+            }
+        } else if (Bukkit.isPrimaryThread()) {
+            dispatch(event);
+        } else if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Fires queued events until the queue is empty or the tick's budget is spent
+     */
+    private void drain() {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(settings.getTickBudgetMicros());
+        Event event;
+        while (System.nanoTime() < deadline && (event = queue.poll()) != null) {
+            dispatch(event);
+        }
+        warnDropped();
+    }
+    
+    /**
+     * Reports dropped events, at most once per interval
+     */
+    private synchronized void warnDropped() {
+        long now = System.nanoTime();
+        if (dropped.get() > 0 && now - lastDropWarning > DROP_WARNING_INTERVAL_NANOS) {
+            lastDropWarning = now;
+            plugin.getLogger().warning("Dropped " + dropped.getAndSet(0) + " economy events raised off the main thread, "
+                    + "the event queue was full. Consider raising events.queueCapacity"
+                    + (settings.getMode() == EventSettings.Mode.QUEUE ? " or using events.mode: async" : ""));
+        }
+    }
+    
+    /**
+     * Calls an event's listeners, charging main-thread time to the tick profiler
+     * @param event the event to fire
+     */
+    private void dispatch(Event event) {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.EVENT, event.getEventName())) {
+            Bukkit.getPluginManager().callEvent(event);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error firing " + event.getEventName(), e);
+        }
+    }
+    
+    /**
+     * Gets the number of events waiting for the main thread
+     * @return the queue size
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+    
+    /**
+     * Stops draining and fires what is still queued, without a budget.
+     * Asynchronous events still waiting are given a few seconds to be fired.
+     */
+    public void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        
+        Event event;
+        while ((event = queue.poll()) != null) {
+            dispatch(event);
+        }
+        
+        asyncDispatcher.shutdown();
+        try {
+            if (!asyncDispatcher.awaitTermination(5, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Asynchronous economy events were still being fired at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+} 
\ No newline at end of file
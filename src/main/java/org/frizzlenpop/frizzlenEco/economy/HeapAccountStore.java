@@ -0,0 +1,48 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every account as its own {@link AccountHolder} object in nested concurrent maps
+ */
+public class HeapAccountStore implements AccountStore {
+    private final Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
+    
+    @Override
+    public AccountHolder get(UUID playerUuid, String currencyId) {
+        Map<String, AccountHolder> playerAccounts = accounts.get(playerUuid);
+        return playerAccounts != null ? playerAccounts.get(currencyId) : null;
+    }
+    
+    @Override
+    public Map<String, AccountHolder> getPlayerAccounts(UUID playerUuid) {
+        Map<String, AccountHolder> playerAccounts = accounts.get(playerUuid);
+        return playerAccounts != null ? Collections.unmodifiableMap(playerAccounts) : Collections.emptyMap();
+    }
+    
+    @Override
+    public AccountHolder add(AccountHolder account) {
+        Map<String, AccountHolder> playerAccounts = accounts.computeIfAbsent(account.getPlayerUuid(), k -> new ConcurrentHashMap<>());
+        AccountHolder existing = playerAccounts.putIfAbsent(account.getCurrencyId(), account);
+        return existing != null ? existing : account;
+    }
+    
+    @Override
+    public void replaceAll(Map<UUID, Map<String, AccountHolder>> replacement) {
+        accounts.clear();
+        accounts.putAll(replacement);
+    }
+    
+    @Override
+    public Map<UUID, Map<String, AccountHolder>> asMap() {
+        return Collections.unmodifiableMap(accounts);
+    }
+    
+    @Override
+    public int size() {
+        return accounts.size();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,664 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps accounts as fixed-size records in direct memory, outside the Java heap.
+ * <p>
+ * Records are 88 bytes and live in pages of 1024 that never move. An open-addressing
+ * index, also off-heap, maps a player UUID and currency to a record. The garbage
+ * collector only sees a few page buffers, however many accounts are loaded.
+ * <p>
+ * Balances are stored as an unscaled long with the scale in its low bits, and names
+ * as up to 16 ASCII bytes. Values that do not fit are kept in small heap maps. The
+ * {@link AccountHolder}s handed out are views of a record, created on every lookup.
+ * <p>
+ * Lookups are lock-free. Adding accounts and renaming are serialized on one lock,
+ * and accounts are never removed, only replaced all at once.
+ */
+public class OffHeapAccountStore implements AccountStore {
+    private static final int RECORD_SIZE = 88;
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+    private static final int PAGE_BYTES = PAGE_RECORDS * RECORD_SIZE;
+    
+    // Record layout, the longs are 8-byte aligned
+    private static final int MSB = 0;
+    private static final int LSB = 8;
+    private static final int BALANCE = 16;
+    private static final int CREATED = 24;
+    private static final int LAST_TRANSACTION = 32;
+    private static final int VERSION = 40;
+    private static final int FLUSHED_VERSION = 48;
+    private static final int CURRENCY = 56;
+    private static final int NAME_STAMP = 60;
+    private static final int NAME_LENGTH = 64;
+    private static final int NAME = 65;
+    private static final int NAME_CAPACITY = 16;
+    
+    private static final byte NAME_NULL = -1;
+    private static final byte NAME_ON_HEAP = -2;
+    
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    
+    private final Object writeLock = new Object();
+    private final int initialCapacity;
+    private final CurrencyRegistry currencies;
+    private volatile Table table;
+    
+    /**
+     * Creates a new empty store
+     * @param currencies the registry that numbers the currencies
+     * @param initialCapacity the number of accounts space is reserved for up front
+     */
+    public OffHeapAccountStore(CurrencyRegistry currencies, int initialCapacity) {
+        this.currencies = currencies;
+        this.initialCapacity = Math.max(16, initialCapacity);
+        this.table = new Table(this.initialCapacity);
+    }
+    
+    @Override
+    public AccountHolder get(UUID playerUuid, String currencyId) {
+        int currency = currencies.ordinalOf(currencyId);
+        if (currency < 0) {
+            return null;
+        }
+        
+        Table current = table;
+        int record = current.find(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits(), currency);
+        return record >= 0 ? new AccountView(current, record, playerUuid, currencyId) : null;
+    }
+    
+    @Override
+    public AccountHolder get(UUID playerUuid, Currency currency) {
+        int ordinal = currency.getOrdinal();
+        if (ordinal < 0) {
+            return get(playerUuid, currency.getId());
+        }
+        
+        Table current = table;
+        int record = current.find(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits(), ordinal);
+        return record >= 0 ? new AccountView(current, record, playerUuid, currency.getId()) : null;
+    }
+    
+    @Override
+    public Map<String, AccountHolder> getPlayerAccounts(UUID playerUuid) {
+        Table current = table;
+        if (current.firstRecord(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits()) < 0) {
+            return Collections.emptyMap();
+        }
+        return new PlayerAccounts(current, playerUuid);
+    }
+    
+    @Override
+    public AccountHolder add(AccountHolder account) {
+        synchronized (writeLock) {
+            Table current = table;
+            int record = current.insert(account, currencies.assignOrdinal(account.getCurrencyId()));
+            return new AccountView(current, record, account.getPlayerUuid(), account.getCurrencyId());
+        }
+    }
+    
+    @Override
+    public void replaceAll(Map<UUID, Map<String, AccountHolder>> accounts) {
+        int count = 0;
+        for (Map<String, AccountHolder> playerAccounts : accounts.values()) {
+            count += playerAccounts.size();
+        }
+        
+        synchronized (writeLock) {
+            // Built off to the side, views of the old table keep working but no longer count
+            Table replacement = new Table(Math.max(initialCapacity, count));
+            for (Map<String, AccountHolder> playerAccounts : accounts.values()) {
+                for (AccountHolder account : playerAccounts.values()) {
+                    replacement.insert(account, currencies.assignOrdinal(account.getCurrencyId()));
+                }
+            }
+            table = replacement;
+        }
+    }
+    
+    @Override
+    public Map<UUID, Map<String, AccountHolder>> asMap() {
+        return new AllAccounts();
+    }
+    
+    @Override
+    public int size() {
+        return table.players;
+    }
+    
+    /**
+     * Gets the direct memory the records and index take up
+     * @return the off-heap size in bytes
+     */
+    public long getOffHeapBytes() {
+        Table current = table;
+        return (long) current.pages.length * PAGE_BYTES + current.index.capacity() * 4L;
+    }
+    
+    /**
+     * Checks if a name can be stored in a record
+     * @param name the name
+     * @return true if it is short ASCII
+     */
+    private static boolean fitsInRecord(String name) {
+        if (name.length() > NAME_CAPACITY) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Spreads a player UUID and currency over the index
+     */
+    private static int hash(long msb, long lsb, int currency) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32) ^ currency) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 29));
+    }
+    
+    /**
+     * One generation of records and their index.
+     * Replaced as a whole by {@link #replaceAll(Map)}.
+     */
+    private final class Table {
+        private final Map<Integer, BigDecimal> heapBalances = new ConcurrentHashMap<>();
+        private final Map<Integer, String> heapNames = new ConcurrentHashMap<>();
+        private volatile ByteBuffer[] pages = new ByteBuffer[0];
+        private volatile Index index;
+        private volatile int records;
+        private volatile int players;
+        
+        private Table(int capacity) {
+            this.index = new Index(Integer.highestOneBit(Math.max(16, capacity) * 2 - 1) << 1);
+        }
+        
+        /**
+         * Finds the record of an account
+         * @return the record number, or -1 if there is none
+         */
+        private int find(long msb, long lsb, int currency) {
+            Index current = index;
+            int cell = hash(msb, lsb, currency) & current.mask;
+            while (true) {
+                int entry = current.get(cell);
+                if (entry == 0) {
+                    return -1;
+                }
+                
+                int record = entry - 1;
+                // Records are written before they are indexed, so the pages are read after the index
+                ByteBuffer page = pages[record >>> PAGE_SHIFT];
+                int offset = offset(record);
+                if ((long) LONG.get(page, offset + MSB) == msb && (long) LONG.get(page, offset + LSB) == lsb
+                        && (int) INT.get(page, offset + CURRENCY) == currency) {
+                    return record;
+                }
+                cell = (cell + 1) & current.mask;
+            }
+        }
+        
+        /**
+         * Finds the lowest-numbered record of a player
+         * @return the record number, or -1 if the player has no accounts
+         */
+        private int firstRecord(long msb, long lsb) {
+            int first = -1;
+            int count = currencies.ids().length;
+            for (int currency = 0; currency < count; currency++) {
+                int record = find(msb, lsb, currency);
+                if (record >= 0 && (first < 0 || record < first)) {
+                    first = record;
+                }
+            }
+            return first;
+        }
+        
+        /**
+         * Adds a record for an account unless there is one. Must hold the write lock.
+         * @return the record number
+         */
+        private int insert(AccountHolder account, int currency) {
+            long msb = account.getPlayerUuid().getMostSignificantBits();
+            long lsb = account.getPlayerUuid().getLeastSignificantBits();
+            int existing = find(msb, lsb, currency);
+            if (existing >= 0) {
+                return existing;
+            }
+            boolean newPlayer = firstRecord(msb, lsb) < 0;
+            
+            int record = records;
+            if (record >>> PAGE_SHIFT == pages.length) {
+                ByteBuffer[] grown = Arrays.copyOf(pages, pages.length + 1);
+                grown[pages.length] = ByteBuffer.allocateDirect(PAGE_BYTES + 7).alignedSlice(8);
+                pages = grown;
+            }
+            
+            ByteBuffer page = page(record);
+            int offset = offset(record);
+            LONG.set(page, offset + MSB, msb);
+            LONG.set(page, offset + LSB, lsb);
+            INT.set(page, offset + CURRENCY, currency);
+            LONG.set(page, offset + CREATED, account.getCreated().toEpochMilli());
+            LONG.set(page, offset + LAST_TRANSACTION, account.getLastTransaction().toEpochMilli());
+            LONG.set(page, offset + VERSION, account.isDirty() ? 1L : 0L);
+            LONG.set(page, offset + FLUSHED_VERSION, 0L);
+            INT.set(page, offset + NAME_STAMP, 0);
+            setBalance(record, account.getBalance());
+            writeName(record, account.getPlayerName());
+            
+            if ((record + 1) * 2L > index.capacity()) {
+                Index grown = new Index(index.capacity() * 2);
+                for (int i = 0; i < record; i++) {
+                    ByteBuffer other = page(i);
+                    int otherOffset = offset(i);
+                    grown.add(hash((long) LONG.get(other, otherOffset + MSB), (long) LONG.get(other, otherOffset + LSB),
+                            (int) INT.get(other, otherOffset + CURRENCY)), i);
+                }
+                index = grown;
+            }
+            index.add(hash(msb, lsb, currency), record);
+            
+            records = record + 1;
+            if (newPlayer) {
+                players++;
+            }
+            return record;
+        }
+        
+        private ByteBuffer page(int record) {
+            return pages[record >>> PAGE_SHIFT];
+        }
+        
+        private int offset(int record) {
+            return (record & (PAGE_RECORDS - 1)) * RECORD_SIZE;
+        }
+        
+        private BigDecimal getBalance(int record) {
+            ByteBuffer page = page(record);
+            int offset = offset(record) + BALANCE;
+            while (true) {
+                long word = (long) LONG.getVolatile(page, offset);
+                if (BalanceWord.isEncoded(word)) {
+                    return BalanceWord.decode(word);
+                }
+                
+                BigDecimal balance = heapBalances.get(record);
+                if (balance != null) {
+                    return balance;
+                }
+                // Moved back into the record meanwhile
+            }
+        }
+        
+        private void setBalance(int record, BigDecimal balance) {
+            ByteBuffer page = page(record);
+            int offset = offset(record) + BALANCE;
+            long word = BalanceWord.encode(balance);
+            if (word == BalanceWord.NONE) {
+                heapBalances.put(record, balance);
+                LONG.setVolatile(page, offset, word);
+            } else {
+                LONG.setVolatile(page, offset, word);
+                heapBalances.remove(record);
+            }
+        }
+        
+        /**
+         * Reads a name, retrying while a rename is in progress
+         */
+        private String readName(int record) {
+            ByteBuffer page = page(record);
+            int offset = offset(record);
+            while (true) {
+                int stamp = (int) INT.getAcquire(page, offset + NAME_STAMP);
+                if ((stamp & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                
+                String name;
+                byte length = page.get(offset + NAME_LENGTH);
+                if (length == NAME_NULL) {
+                    name = null;
+                } else if (length == NAME_ON_HEAP) {
+                    name = heapNames.get(record);
+                } else {
+                    byte[] bytes = new byte[Math.max(0, Math.min(length, NAME_CAPACITY))];
+                    page.get(offset + NAME, bytes);
+                    name = new String(bytes, StandardCharsets.US_ASCII);
+                }
+                
+                VarHandle.loadLoadFence();
+                if ((int) INT.getAcquire(page, offset + NAME_STAMP) == stamp) {
+                    return name;
+                }
+            }
+        }
+        
+        /**
+         * Writes a name behind a sequence stamp, so readers never see half of it. Must hold the write lock.
+         */
+        private void writeName(int record, String name) {
+            ByteBuffer page = page(record);
+            int offset = offset(record);
+            boolean onHeap = name != null && !fitsInRecord(name);
+            if (onHeap) {
+                heapNames.put(record, name);
+            }
+            
+            int stamp = (int) INT.get(page, offset + NAME_STAMP);
+            INT.setVolatile(page, offset + NAME_STAMP, stamp + 1);
+            VarHandle.storeStoreFence();
+            if (name == null) {
+                page.put(offset + NAME_LENGTH, NAME_NULL);
+            } else if (onHeap) {
+                page.put(offset + NAME_LENGTH, NAME_ON_HEAP);
+            } else {
+                page.put(offset + NAME_LENGTH, (byte) name.length());
+                for (int i = 0; i < name.length(); i++) {
+                    page.put(offset + NAME + i, (byte) name.charAt(i));
+                }
+            }
+            INT.setRelease(page, offset + NAME_STAMP, stamp + 2);
+            
+            if (!onHeap) {
+                heapNames.remove(record);
+            }
+        }
+        
+        private long getLong(int record, int field) {
+            return (long) LONG.getVolatile(page(record), offset(record) + field);
+        }
+        
+        private void setLong(int record, int field, long value) {
+            LONG.setVolatile(page(record), offset(record) + field, value);
+        }
+        
+        private void incrementVersion(int record) {
+            LONG.getAndAdd(page(record), offset(record) + VERSION, 1L);
+        }
+        
+        private void markFlushed(int record, long storedVersion) {
+            // The last write to land wins, even an older one, see AccountHolder.markFlushed
+            setLong(record, FLUSHED_VERSION, storedVersion);
+        }
+    }
+    
+    /**
+     * Open-addressing hash index from account to record number, in direct memory.
+     * Cells hold the record number plus one, so zero marks an empty cell.
+     */
+    private static final class Index {
+        private final ByteBuffer cells;
+        private final int mask;
+        
+        private Index(int capacity) {
+            this.cells = ByteBuffer.allocateDirect(capacity * 4 + 3).alignedSlice(4);
+            this.mask = capacity - 1;
+        }
+        
+        private int capacity() {
+            return mask + 1;
+        }
+        
+        private int get(int cell) {
+            return (int) INT.getAcquire(cells, cell << 2);
+        }
+        
+        private void add(int hash, int record) {
+            int cell = hash & mask;
+            while (get(cell) != 0) {
+                cell = (cell + 1) & mask;
+            }
+            INT.setRelease(cells, cell << 2, record + 1);
+        }
+    }
+    
+    /**
+     * A live account backed by a record
+     */
+    private final class AccountView extends AccountHolder {
+        private final Table owner;
+        private final int record;
+        
+        private AccountView(Table owner, int record, UUID playerUuid, String currencyId) {
+            super(playerUuid, currencyId);
+            this.owner = owner;
+            this.record = record;
+        }
+        
+        @Override
+        public String getPlayerName() {
+            return owner.readName(record);
+        }
+        
+        @Override
+        public void setPlayerName(String playerName) {
+            synchronized (writeLock) {
+                owner.writeName(record, playerName);
+            }
+            owner.incrementVersion(record);
+        }
+        
+        @Override
+        public BigDecimal getBalance() {
+            return owner.getBalance(record);
+        }
+        
+        @Override
+        public void setBalance(BigDecimal balance) {
+            owner.setBalance(record, balance);
+            owner.setLong(record, LAST_TRANSACTION, System.currentTimeMillis());
+            owner.incrementVersion(record);
+        }
+        
+        @Override
+        public Instant getLastTransaction() {
+            return Instant.ofEpochMilli(owner.getLong(record, LAST_TRANSACTION));
+        }
+        
+        @Override
+        public void setLastTransaction(Instant lastTransaction) {
+            owner.setLong(record, LAST_TRANSACTION, lastTransaction.toEpochMilli());
+            owner.incrementVersion(record);
+        }
+        
+        @Override
+        public Instant getCreated() {
+            return Instant.ofEpochMilli(owner.getLong(record, CREATED));
+        }
+        
+        @Override
+        public void setCreated(Instant created) {
+            owner.setLong(record, CREATED, created.toEpochMilli());
+            owner.incrementVersion(record);
+        }
+        
+        @Override
+        public long getVersion() {
+            return owner.getLong(record, VERSION);
+        }
+        
+        @Override
+        public boolean isDirty() {
+            return owner.getLong(record, VERSION) != owner.getLong(record, FLUSHED_VERSION);
+        }
+        
+        @Override
+        public void markFlushed(long storedVersion) {
+            owner.markFlushed(record, storedVersion);
+        }
+    }
+    
+    /**
+     * Read-only view of one player's accounts, probing the index once per known currency
+     */
+    private final class PlayerAccounts extends AbstractMap<String, AccountHolder> {
+        private final Table owner;
+        private final UUID playerUuid;
+        
+        private PlayerAccounts(Table owner, UUID playerUuid) {
+            this.owner = owner;
+            this.playerUuid = playerUuid;
+        }
+        
+        @Override
+        public AccountHolder get(Object key) {
+            int currency = currencies.ordinalOf(key);
+            if (currency < 0) {
+                return null;
+            }
+            
+            int record = owner.find(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits(), currency);
+            return record >= 0 ? new AccountView(owner, record, playerUuid, (String) key) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public Set<Entry<String, AccountHolder>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, AccountHolder>> iterator() {
+                    String[] ids = currencies.ids();
+                    return new Iterator<>() {
+                        private int currency = -1;
+                        private AccountHolder next = advance();
+                        
+                        private AccountHolder advance() {
+                            while (++currency < ids.length) {
+                                int record = owner.find(playerUuid.getMostSignificantBits(),
+                                        playerUuid.getLeastSignificantBits(), currency);
+                                if (record >= 0) {
+                                    return new AccountView(owner, record, playerUuid, ids[currency]);
+                                }
+                            }
+                            return null;
+                        }
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+                        
+                        @Override
+                        public Entry<String, AccountHolder> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            AccountHolder account = next;
+                            next = advance();
+                            return new SimpleImmutableEntry<>(account.getCurrencyId(), account);
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (Iterator<Entry<String, AccountHolder>> it = iterator(); it.hasNext(); it.next()) {
+                        size++;
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+    
+    /**
+     * Read-only view of all players, walking the records and yielding each player at their first record
+     */
+    private final class AllAccounts extends AbstractMap<UUID, Map<String, AccountHolder>> {
+        private final Table owner = table;
+        
+        @Override
+        public Map<String, AccountHolder> get(Object key) {
+            if (!(key instanceof UUID playerUuid)
+                    || owner.firstRecord(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits()) < 0) {
+                return null;
+            }
+            return new PlayerAccounts(owner, playerUuid);
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public int size() {
+            return owner.players;
+        }
+        
+        @Override
+        public Set<Entry<UUID, Map<String, AccountHolder>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<UUID, Map<String, AccountHolder>>> iterator() {
+                    int records = owner.records;
+                    return new Iterator<>() {
+                        private int record = -1;
+                        private UUID next = advance();
+                        
+                        private UUID advance() {
+                            while (++record < records) {
+                                long msb = owner.getLong(record, MSB);
+                                long lsb = owner.getLong(record, LSB);
+                                if (owner.firstRecord(msb, lsb) == record) {
+                                    return new UUID(msb, lsb);
+                                }
+                            }
+                            return null;
+                        }
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+                        
+                        @Override
+                        public Entry<UUID, Map<String, AccountHolder>> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            UUID playerUuid = next;
+                            next = advance();
+                            return new SimpleImmutableEntry<>(playerUuid, new PlayerAccounts(owner, playerUuid));
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    return owner.players;
+                }
+            };
+        }
+    }
+} 
\ No newline at end of file
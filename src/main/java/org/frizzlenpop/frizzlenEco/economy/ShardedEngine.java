@@ -0,0 +1,292 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs account operations on single-writer shards.
+ * <p>
+ * Players are partitioned by UUID hash across a fixed number of shards, each a single
+ * thread with its own queue, so operations on one player are applied one at a time in
+ * submission order. A shard is the only thread that changes its players' accounts, so
+ * operations take no locks. Transfers between two shards are handed off in two steps:
+ * the sender's shard takes the amount, then the receiver's shard adds it, or hands it
+ * back if it can't. The rare changes that must apply to several shards at once, like a
+ * multi-leg transaction, pause those shards and run while they wait. A shard thread
+ * never blocks on another shard.
+ */
+public class ShardedEngine {
+    private final Shard[] shards;
+    private final ReentrantLock exclusive = new ReentrantLock();
+    
+    /**
+     * Creates and starts the shard threads
+     * @param shardCount the number of shards
+     */
+    public ShardedEngine(int shardCount) {
+        this.shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+    
+    /**
+     * Queues an operation on the shard that owns a player
+     * @param playerUuid the player whose accounts the operation changes
+     * @param operation the operation
+     * @param <T> the result type
+     * @return a future completed on the shard thread with the operation's result
+     */
+    public <T> CompletableFuture<T> submit(UUID playerUuid, Supplier<T> operation) {
+        return submit(shardOf(playerUuid), operation);
+    }
+    
+    private <T> CompletableFuture<T> submit(Shard shard, Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(operation, shard.executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Economy engine is shut down", e));
+        }
+    }
+    
+    /**
+     * Runs an operation on the shard that owns a player and waits for its result.
+     * On that shard's own thread the operation runs immediately.
+     * @param playerUuid the player whose accounts the operation changes
+     * @param operation the operation
+     * @param <T> the result type
+     * @return the operation's result
+     * @throws IllegalStateException if called from another shard's thread, which could deadlock
+     */
+    public <T> T call(UUID playerUuid, Supplier<T> operation) {
+        Shard shard = shardOf(playerUuid);
+        if (Thread.currentThread() == shard.thread) {
+            return operation.get();
+        }
+        // Rejected before queueing, so whether it fails does not depend on how busy the other shard is
+        if (isShardThread()) {
+            throw new IllegalStateException("Blocking economy call on a shard thread, use the async variant");
+        }
+        return await(submit(playerUuid, operation));
+    }
+    
+    /**
+     * Moves something from one player's shard to another's in two steps.
+     * The sender's shard runs {@link HandOff#take()}, then the receiver's shard runs
+     * {@link HandOff#give()}; if that refuses, the sender's shard runs {@link HandOff#giveBack()}.
+     * Neither shard waits for the other, and each step only changes its own shard's players.
+     * @param fromUuid the player whose shard takes
+     * @param toUuid the player whose shard gives
+     * @param handOff the steps
+     * @param <T> the result type
+     * @return a future completed with the result of the last step that ran
+     */
+    public <T> CompletableFuture<T> handOff(UUID fromUuid, UUID toUuid, HandOff<T> handOff) {
+        return submit(fromUuid, handOff::take).thenCompose(taken -> {
+            if (taken != null) {
+                return CompletableFuture.completedFuture(taken);
+            }
+            return submit(toUuid, handOff::give).thenCompose(given -> given != null
+                    ? CompletableFuture.completedFuture(given)
+                    : submit(fromUuid, handOff::giveBack));
+        });
+    }
+    
+    /**
+     * Runs an operation on the calling thread while the shards owning some players are paused.
+     * The operation is then the only writer of those players' accounts. Meant for rare changes
+     * that must apply to several shards at once; one such operation runs at a time.
+     * @param playerUuids the players whose shards to pause, or null to pause every shard
+     * @param operation the operation
+     * @param <T> the result type
+     * @return the operation's result
+     * @throws IllegalStateException if called from a shard thread, which could deadlock
+     */
+    public <T> T callExclusive(Collection<UUID> playerUuids, Supplier<T> operation) {
+        Set<Shard> paused = new LinkedHashSet<>();
+        if (playerUuids == null) {
+            paused.addAll(Arrays.asList(shards));
+        } else {
+            for (UUID playerUuid : playerUuids) {
+                paused.add(shardOf(playerUuid));
+            }
+        }
+        
+        // A single shard is exclusive anyway, run on it
+        if (paused.size() == 1) {
+            Shard shard = paused.iterator().next();
+            return Thread.currentThread() == shard.thread ? operation.get() : await(submit(shard, operation));
+        }
+        if (isShardThread()) {
+            throw new IllegalStateException("Economy call spanning shards on a shard thread, run it from another thread");
+        }
+        
+        exclusive.lock();
+        CountDownLatch parked = new CountDownLatch(paused.size());
+        CountDownLatch resume = new CountDownLatch(1);
+        try {
+            for (Shard shard : paused) {
+                try {
+                    shard.executor.execute(() -> {
+                        parked.countDown();
+                        try {
+                            resume.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    throw new IllegalStateException("Economy engine is shut down", e);
+                }
+            }
+            
+            try {
+                parked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while pausing the economy shards", e);
+            }
+            return operation.get();
+        } finally {
+            resume.countDown();
+            exclusive.unlock();
+        }
+    }
+    
+    /**
+     * Waits for the result of an operation queued on the shards
+     * @param future the operation's future
+     * @param <T> the result type
+     * @return the operation's result
+     * @throws IllegalStateException if called from a shard thread, which could deadlock
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        if (!future.isDone() && isShardThread()) {
+            throw new IllegalStateException("Blocking economy call on a shard thread, use the async variant");
+        }
+        
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Checks whether two players are owned by the same shard
+     * @param first the first player's UUID
+     * @param second the second player's UUID
+     * @return true if one shard owns both
+     */
+    public boolean isSameShard(UUID first, UUID second) {
+        return shardOf(first) == shardOf(second);
+    }
+    
+    /**
+     * Checks whether the current thread is a shard thread
+     * @return true on a shard thread
+     */
+    public boolean isShardThread() {
+        for (Shard shard : shards) {
+            if (Thread.currentThread() == shard.thread) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the number of shards
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    /**
+     * Stops accepting operations and waits for the queued ones to finish
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if every queue drained in time
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained = true;
+        for (Shard shard : shards) {
+            try {
+                drained &= shard.executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return drained;
+    }
+    
+    private Shard shardOf(UUID playerUuid) {
+        // Version 4 UUIDs are random in both halves, mixing them keeps name-based ones spread too
+        long bits = playerUuid.getMostSignificantBits() ^ playerUuid.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32));
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+    
+    /**
+     * A change that moves something between two shards, see {@link #handOff}
+     * @param <T> the result type
+     */
+    public interface HandOff<T> {
+        /**
+         * Takes from the sender, on the sender's shard
+         * @return null to go on with {@link #give()}, or the result if nothing was taken
+         */
+        T take();
+        
+        /**
+         * Gives to the receiver, on the receiver's shard
+         * @return the result, or null if the receiver refused and the sender must get it back
+         */
+        T give();
+        
+        /**
+         * Gives back to the sender after the receiver refused, on the sender's shard
+         * @return the result
+         */
+        T giveBack();
+    }
+    
+    /**
+     * A single thread and its queue of operations
+     */
+    private static final class Shard {
+        private final ExecutorService executor;
+        private volatile Thread thread;
+        
+        private Shard(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread created = new Thread(runnable, "FrizzlenEco-Shard-" + index);
+                created.setDaemon(true);
+                thread = created;
+                return created;
+            });
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One debit or credit of a multi-leg transaction
+ */
+public final class TransactionLeg {
+    private final UUID playerUuid;
+    private final Currency currency;
+    private final BigDecimal amount;
+    private final boolean debit;
+    
+    /**
+     * Creates a new leg
+     * @param playerUuid the player whose account the leg changes
+     * @param currency the currency of the account
+     * @param amount the amount, which must be positive
+     * @param debit true to take the amount, false to give it
+     */
+    public TransactionLeg(UUID playerUuid, Currency currency, BigDecimal amount, boolean debit) {
+        this.playerUuid = playerUuid;
+        this.currency = currency;
+        this.amount = amount;
+        this.debit = debit;
+    }
+    
+    /**
+     * Gets the player whose account the leg changes
+     * @return the player's UUID
+     */
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+    
+    /**
+     * Gets the currency of the account
+     * @return the currency
+     */
+    public Currency getCurrency() {
+        return currency;
+    }
+    
+    /**
+     * Gets the amount of the leg
+     * @return the amount, always positive
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    /**
+     * Checks whether the leg takes money
+     * @return true for a debit, false for a credit
+     */
+    public boolean isDebit() {
+        return debit;
+    }
+    
+    /**
+     * Gets the change the leg makes to the balance
+     * @return the amount, negated for a debit
+     */
+    public BigDecimal getSignedAmount() {
+        return debit ? amount.negate() : amount;
+    }
+} 
\ No newline at end of file
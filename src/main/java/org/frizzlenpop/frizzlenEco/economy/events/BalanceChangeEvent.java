@@ -26,6 +26,19 @@ public class BalanceChangeEvent extends Event {
      * @param newBalance the new balance
      */
     public BalanceChangeEvent(UUID playerUuid, Currency currency, BigDecimal oldBalance, BigDecimal newBalance) {
+        this(playerUuid, currency, oldBalance, newBalance, false);
+    }
+    
+    /**
+     * Creates a new balance change event, fired on the event bridge's own dispatch thread if async
+     * @param playerUuid the player's UUID
+     * @param currency the currency that changed
+     * @param oldBalance the old balance
+     * @param newBalance the new balance
+     * @param async true if the event is fired off the main thread
+     */
+    public BalanceChangeEvent(UUID playerUuid, Currency currency, BigDecimal oldBalance, BigDecimal newBalance, boolean async) {
+        super(async);
         this.playerUuid = playerUuid;
         this.currency = currency;
         this.oldBalance = oldBalance;
@@ -37,6 +37,20 @@ public class TransactionEvent extends Event {
      * @param amount the amount of the transaction
      */
     public TransactionEvent(Type type, UUID fromUuid, UUID toUuid, Currency currency, BigDecimal amount) {
+        this(type, fromUuid, toUuid, currency, amount, false);
+    }
+    
+    /**
+     * Creates a new transaction event, fired on the event bridge's own dispatch thread if async
+     * @param type the transaction type
+     * @param fromUuid the UUID of the player money is taken from (can be null for deposits)
+     * @param toUuid the UUID of the player money is given to (can be null for withdrawals)
+     * @param currency the currency involved
+     * @param amount the amount of the transaction
+     * @param async true if the event is fired off the main thread
+     */
+    public TransactionEvent(Type type, UUID fromUuid, UUID toUuid, Currency currency, BigDecimal amount, boolean async) {
+        super(async);
         this.type = type;
         this.fromUuid = fromUuid;
         this.toUuid = toUuid;
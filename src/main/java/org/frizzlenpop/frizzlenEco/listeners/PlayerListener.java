@@ -8,6 +8,8 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
 import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
+import org.frizzlenpop.frizzlenEco.vault.VaultCurrencyAdapter;
 
 import java.util.logging.Level;
 
@@ -33,11 +35,25 @@ public class PlayerListener implements Listener {
      */
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        Player player = event.getPlayer();
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.LISTENER, "PlayerJoinEvent")) {
+            handleJoin(event.getPlayer());
+        }
+    }
+    
+    /**
+     * Loads a joining player's preferences and makes sure they have an account
+     * @param player the joining player
+     */
+    private void handleJoin(Player player) {
+        // Load the player's Vault currency preference in the background
+        VaultCurrencyAdapter currencyAdapter = getCurrencyAdapter();
+        if (currencyAdapter != null) {
+            currencyAdapter.loadPlayerCurrency(player.getUniqueId());
+        }
         
         // Run in async task to avoid lag on join
         plugin.getServer().getScheduler().runTask(plugin, () -> {
-            try {
+            try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.LISTENER, "join account check")) {
                 // Ensure player has an account for the default currency
                 Currency defaultCurrency = economyManager.getDefaultCurrency();
                 
@@ -54,6 +70,11 @@ public class PlayerListener implements Listener {
                                     finalCurrency.format(finalCurrency.getInitialBalance()) + "§e!");
                         }
                     });
+                } else {
+                    // Keep stored names and tab completion current after a name change
+                    String playerName = player.getName();
+                    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () ->
+                            economyManager.updatePlayerName(player.getUniqueId(), playerName));
                 }
             } catch (Exception e) {
                 plugin.getLogger().log(Level.SEVERE, "Error creating account for player: " + player.getName(), e);
@@ -69,7 +90,22 @@ public class PlayerListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         
+        // Drop the cached Vault currency preference, it is reloaded on the next join
+        VaultCurrencyAdapter currencyAdapter = getCurrencyAdapter();
+        if (currencyAdapter != null) {
+            try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.LISTENER, "PlayerQuitEvent")) {
+                currencyAdapter.unloadPlayerCurrency(player.getUniqueId());
+            }
+        }
+        
         // No need to save player data here as it's done automatically by the database manager
-        // But we could add additional logic if needed
+    }
+    
+    /**
+     * Gets the Vault currency adapter if Vault is hooked
+     * @return the currency adapter, or null if Vault is not hooked
+     */
+    private VaultCurrencyAdapter getCurrencyAdapter() {
+        return plugin.getVaultHook() != null ? plugin.getVaultHook().getCurrencyAdapter() : null;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package org.frizzlenpop.frizzlenEco.listeners;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Answers tab completion for FrizzlenEco commands on Paper's async tab-complete thread.
+ * Name suggestions come from the account name index, so nothing here needs the main thread.
+ */
+public class TabCompleteListener implements Listener {
+    private final FrizzlenEco plugin;
+    
+    /**
+     * Creates a new TabCompleteListener
+     * @param plugin the FrizzlenEco plugin instance
+     */
+    public TabCompleteListener(FrizzlenEco plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Handles async tab completion for FrizzlenEco commands
+     * @param event the tab complete event
+     */
+    @EventHandler
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand()) {
+            return;
+        }
+        
+        String buffer = event.getBuffer();
+        int labelEnd = buffer.indexOf(' ');
+        if (labelEnd < 0) {
+            return; // Still typing the command itself
+        }
+        
+        String label = buffer.substring(buffer.startsWith("/") ? 1 : 0, labelEnd);
+        PluginCommand command = plugin.getCommand(label);
+        if (command == null) {
+            return;
+        }
+        
+        TabCompleter completer = command.getTabCompleter();
+        if (completer == null) {
+            return;
+        }
+        
+        // Keep the trailing empty argument so "/pay " completes the first argument
+        String[] args = buffer.substring(labelEnd + 1).split(" ", -1);
+        try {
+            List<String> completions = completer.onTabComplete(event.getSender(), command, label, args);
+            if (completions != null) {
+                event.setCompletions(completions);
+                event.setHandled(true);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error tab completing: " + Arrays.toString(args), e);
+        }
+    }
+} 
\ No newline at end of file
@@ -3,28 +3,41 @@ package org.frizzlenpop.frizzlenEco.metrics;
 import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitTask;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.database.DatabaseExecutor;
 import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
+import org.frizzlenpop.frizzlenEco.economy.CurrencyRegistry;
+import org.frizzlenpop.frizzlenEco.economy.events.TransactionEvent;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 /**
  * Manages plugin metrics and statistics
+ * <p>
+ * Counters are kept per transaction type in arrays indexed by currency ordinal, so
+ * recording a transaction neither builds a key string nor hashes one per currency.
  */
 public class MetricsManager {
+    private static final String[] TYPE_KEYS = Arrays.stream(TransactionEvent.Type.values())
+            .map(type -> type.name().toLowerCase(Locale.ROOT))
+            .toArray(String[]::new);
+    
     private final FrizzlenEco plugin;
-    private final Map<String, AtomicInteger> transactionCounts = new ConcurrentHashMap<>();
-    private final Map<String, AtomicLong> transactionVolumes = new ConcurrentHashMap<>();
+    private final CurrencyRegistry currencyRegistry;
+    private final Map<String, TypeCounters> transactionCounters = new ConcurrentHashMap<>();
     private final AtomicInteger totalAccounts = new AtomicInteger(0);
-    private final Map<String, AtomicInteger> currencyAccounts = new ConcurrentHashMap<>();
+    private volatile int[] currencyAccounts = new int[0];
     
     private BukkitTask statsTask;
     private Instant startTime;
@@ -35,6 +48,7 @@ public class MetricsManager {
      */
     public MetricsManager(FrizzlenEco plugin) {
         this.plugin = plugin;
+        this.currencyRegistry = plugin.getEconomyManager().getCurrencyRegistry();
         this.startTime = Instant.now();
     }
     
@@ -63,10 +77,9 @@ public class MetricsManager {
      * Resets all metrics counters
      */
     public void resetMetrics() {
-        transactionCounts.clear();
-        transactionVolumes.clear();
+        transactionCounters.clear();
         totalAccounts.set(0);
-        currencyAccounts.clear();
+        currencyAccounts = new int[0];
     }
     
     /**
@@ -78,19 +91,33 @@ public class MetricsManager {
             return;
         }
         
-        // Reset account counters
-        totalAccounts.set(0);
-        currencyAccounts.clear();
-        
-        // Count accounts by currency
+        // Count accounts by currency ordinal, then publish the counts together
+        int total = 0;
+        int[] counts = new int[currencyRegistry.getOrdinalCount()];
         for (Map<String, AccountHolder> playerAccounts : accounts.values()) {
-            totalAccounts.addAndGet(playerAccounts.size());
+            total += playerAccounts.size();
             
             for (AccountHolder account : playerAccounts.values()) {
-                currencyAccounts.computeIfAbsent(account.getCurrencyId(), k -> new AtomicInteger(0))
-                               .incrementAndGet();
+                int ordinal = currencyRegistry.assignOrdinal(account.getCurrencyId());
+                if (ordinal >= counts.length) {
+                    counts = Arrays.copyOf(counts, currencyRegistry.getOrdinalCount());
+                }
+                counts[ordinal]++;
             }
         }
+        
+        totalAccounts.set(total);
+        currencyAccounts = counts;
+    }
+    
+    /**
+     * Records a transaction of one of the economy's own types for metrics
+     * @param type the transaction type, counted as its lower-case name
+     * @param currency the currency
+     * @param amount the transaction amount
+     */
+    public void recordTransaction(TransactionEvent.Type type, Currency currency, BigDecimal amount) {
+        recordTransaction(TYPE_KEYS[type.ordinal()], currency, amount);
     }
     
     /**
@@ -105,16 +132,12 @@ public class MetricsManager {
         }
         
         try {
-            String key = type + "_" + currency.getId();
-            
-            // Increment transaction count
-            transactionCounts.computeIfAbsent(key, k -> new AtomicInteger(0))
-                            .incrementAndGet();
+            int ordinal = currency.getOrdinal() >= 0 ? currency.getOrdinal() : currencyRegistry.assignOrdinal(currency.getId());
+            CurrencyCounter counter = transactionCounters.computeIfAbsent(type, k -> new TypeCounters()).get(ordinal);
             
-            // Add to transaction volume (convert to long cents to avoid BigDecimal in concurrent map)
-            long amountCents = amount.movePointRight(currency.getDecimalPlaces()).longValue();
-            transactionVolumes.computeIfAbsent(key, k -> new AtomicLong(0))
-                             .addAndGet(amountCents);
+            // Add to transaction volume (convert to long cents to avoid BigDecimal in the counters)
+            counter.count.increment();
+            counter.volume.add(amount.movePointRight(currency.getDecimalPlaces()).longValue());
         } catch (Exception e) {
             plugin.getLogger().log(Level.WARNING, "Error recording transaction metrics", e);
         }
@@ -136,16 +159,31 @@ public class MetricsManager {
             
             // Log accounts by currency
             plugin.getLogger().info("=== Accounts by Currency ===");
-            for (Map.Entry<String, AtomicInteger> entry : currencyAccounts.entrySet()) {
-                Currency currency = plugin.getEconomyManager().getCurrency(entry.getKey());
-                String currencyName = currency != null ? currency.getName() : entry.getKey();
-                plugin.getLogger().info(currencyName + ": " + entry.getValue().get());
+            CurrencyRegistry.Snapshot currencies = currencyRegistry.getSnapshot();
+            int[] counts = currencyAccounts;
+            for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                if (counts[ordinal] == 0) {
+                    continue;
+                }
+                
+                Currency currency = currencies.getCurrency(ordinal);
+                String currencyName = currency != null ? currency.getName() : currencyRegistry.getCurrencyId(ordinal);
+                plugin.getLogger().info(currencyName + ": " + counts[ordinal]);
             }
             
             // Log transaction counts
             plugin.getLogger().info("=== Transaction Counts ===");
-            for (Map.Entry<String, AtomicInteger> entry : transactionCounts.entrySet()) {
-                plugin.getLogger().info(entry.getKey() + ": " + entry.getValue().get());
+            for (Map.Entry<String, Long> entry : getTransactionTotals().entrySet()) {
+                plugin.getLogger().info(entry.getKey() + ": " + entry.getValue());
+            }
+            
+            // Log database executor load
+            DatabaseExecutor executor = plugin.getDatabaseManager().getExecutor();
+            if (executor != null) {
+                plugin.getLogger().info("=== Database Calls ===");
+                plugin.getLogger().info(String.format("Submitted: %d, failed: %d, in flight: %d/%d permits, avg wait %.1fms, avg run %.1fms",
+                        executor.getSubmittedCount(), executor.getFailedCount(), executor.getInFlight(), executor.getPermits(),
+                        executor.getAverageWaitMillis(), executor.getAverageRunMillis()));
             }
         } catch (Exception e) {
             plugin.getLogger().log(Level.WARNING, "Error logging stats", e);
@@ -169,10 +207,65 @@ public class MetricsManager {
     }
     
     /**
-     * Gets the transaction counts map
-     * @return the transaction counts map
+     * Gets the transaction counts, keyed by type and currency ID as in {@code deposit_coin}
+     * @return a copy of the transaction counts, not changed by later transactions
      */
     public Map<String, AtomicInteger> getTransactionCounts() {
-        return transactionCounts;
+        Map<String, AtomicInteger> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : getTransactionTotals().entrySet()) {
+            counts.put(entry.getKey(), new AtomicInteger((int) Math.min(Integer.MAX_VALUE, entry.getValue())));
+        }
+        return counts;
+    }
+    
+    /**
+     * Gets the transaction counts as longs, keyed by type and currency ID as in {@code deposit_coin}
+     * @return a snapshot of the transaction counts
+     */
+    public Map<String, Long> getTransactionTotals() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, TypeCounters> entry : transactionCounters.entrySet()) {
+            CurrencyCounter[] counters = entry.getValue().counters;
+            for (int ordinal = 0; ordinal < counters.length; ordinal++) {
+                if (counters[ordinal] != null) {
+                    counts.put(entry.getKey() + "_" + currencyRegistry.getCurrencyId(ordinal), counters[ordinal].count.sum());
+                }
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Counters of one transaction type, indexed by currency ordinal. The array is replaced
+     * when it grows, but the counters are carried over, so no increment is lost.
+     */
+    private static final class TypeCounters {
+        private volatile CurrencyCounter[] counters = new CurrencyCounter[0];
+        
+        private CurrencyCounter get(int ordinal) {
+            CurrencyCounter[] current = counters;
+            CurrencyCounter counter = ordinal < current.length ? current[ordinal] : null;
+            return counter != null ? counter : create(ordinal);
+        }
+        
+        private synchronized CurrencyCounter create(int ordinal) {
+            CurrencyCounter[] current = counters;
+            if (ordinal < current.length && current[ordinal] != null) {
+                return current[ordinal];
+            }
+            
+            CurrencyCounter[] grown = Arrays.copyOf(current, Math.max(current.length, ordinal + 1));
+            grown[ordinal] = new CurrencyCounter();
+            counters = grown;
+            return grown[ordinal];
+        }
+    }
+    
+    /**
+     * Transaction count and volume in the currency's smallest unit
+     */
+    private static final class CurrencyCounter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder volume = new LongAdder();
     }
 } 
\ No newline at end of file
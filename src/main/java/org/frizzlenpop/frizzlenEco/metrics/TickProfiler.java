@@ -0,0 +1,342 @@
+package org.frizzlenpop.frizzlenEco.metrics;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitTask;
+import org.frizzlenpop.frizzlenEco.FrizzlenEco;
+import org.frizzlenpop.frizzlenEco.config.ProfilerSettings;
+import org.frizzlenpop.frizzlenEco.util.MessageUtil;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.logging.Level;
+
+/**
+ * Attributes FrizzlenEco's main-thread time to its entry points, tick by tick.
+ * <p>
+ * Entry points open a {@link Scope} around their work. Nested scopes pause their parent,
+ * so each section is charged only its exclusive time. A task running every tick rolls the
+ * totals into a ring buffer that backs the 1s, 1m and 5m windows shown by {@code /ecoadmin profile}.
+ * Work off the main thread is not measured, since it cannot lag the server.
+ * <p>
+ * All state is only touched from the main thread, so no locking is needed.
+ */
+public class TickProfiler {
+    /**
+     * The plugin entry points main-thread time is attributed to
+     */
+    public enum Section {
+        COMMAND, LISTENER, VAULT, EVENT, DB_WRITE
+    }
+    
+    /**
+     * An open measurement, closed when the entry point returns
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+    
+    private static final Scope NOOP = () -> { };
+    private static final Section[] SECTIONS = Section.values();
+    private static final int HISTORY_TICKS = 5 * 60 * 20;
+    private static final int[] WINDOW_TICKS = {20, 60 * 20, HISTORY_TICKS};
+    private static final String[] WINDOW_NAMES = {"1s", "1m", "5m"};
+    private static final int MAX_DEPTH = 32;
+    private static final long WARNING_COOLDOWN_NANOS = 10_000_000_000L;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    
+    private final FrizzlenEco plugin;
+    private final boolean enabled;
+    private final long tickBudgetNanos;
+    private final long operationBudgetNanos;
+    private final boolean logStackTraces;
+    
+    private final Frame[] stack = new Frame[MAX_DEPTH];
+    private int depth;
+    
+    private final long[] tickNanos = new long[SECTIONS.length];
+    private Section slowestSection;
+    private String slowestOperation;
+    private long slowestOperationNanos;
+    
+    private final long[][] history = new long[SECTIONS.length][HISTORY_TICKS];
+    private final long[] totalHistory = new long[HISTORY_TICKS];
+    private int head;
+    private long ticksRecorded;
+    private long overBudgetTicks;
+    
+    private final long[] lastOperationWarning = new long[SECTIONS.length];
+    private long lastTickWarning;
+    
+    private BukkitTask tickTask;
+    
+    /**
+     * Creates a new TickProfiler
+     * @param plugin the FrizzlenEco plugin instance
+     */
+    public TickProfiler(FrizzlenEco plugin) {
+        this.plugin = plugin;
+        
+        ProfilerSettings settings = plugin.getConfigManager().getProfilerSettings();
+        this.enabled = settings.isEnabled();
+        this.tickBudgetNanos = settings.getTickBudgetMicros() * 1000L;
+        this.operationBudgetNanos = settings.getOperationBudgetMicros() * 1000L;
+        this.logStackTraces = settings.isLogStackTraces();
+        
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            stack[i] = new Frame();
+        }
+        
+        long now = System.nanoTime() - WARNING_COOLDOWN_NANOS;
+        Arrays.fill(lastOperationWarning, now);
+        lastTickWarning = now;
+    }
+    
+    /**
+     * Starts the per-tick rollover task
+     */
+    public void initialize() {
+        if (!enabled) {
+            plugin.getLogger().info("Tick profiler is disabled in config");
+            return;
+        }
+        
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::endTick, 1L, 1L);
+    }
+    
+    /**
+     * Stops the per-tick rollover task
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+    
+    /**
+     * Opens a measurement for an entry point.
+     * Returns a no-op scope when profiling is off or the caller is not on the main thread.
+     * @param section the section to charge the time to
+     * @param operation a short name of the operation, shown in warnings
+     * @return the scope to close when the operation returns
+     */
+    public Scope enter(Section section, String operation) {
+        if (tickTask == null || depth == MAX_DEPTH || !Bukkit.isPrimaryThread()) {
+            return NOOP;
+        }
+        
+        long now = System.nanoTime();
+        if (depth > 0) {
+            Frame parent = stack[depth - 1];
+            parent.exclusiveNanos += now - parent.resumedAt;
+        }
+        
+        Frame frame = stack[depth++];
+        frame.section = section;
+        frame.operation = operation;
+        frame.startedAt = now;
+        frame.resumedAt = now;
+        frame.exclusiveNanos = 0;
+        return frame;
+    }
+    
+    /**
+     * Closes the innermost scope
+     * @param frame the frame being closed
+     */
+    private void exit(Frame frame) {
+        if (depth == 0 || stack[depth - 1] != frame) {
+            return; // Closed twice or out of order, ignore rather than corrupt the stack
+        }
+        
+        long now = System.nanoTime();
+        frame.exclusiveNanos += now - frame.resumedAt;
+        tickNanos[frame.section.ordinal()] += frame.exclusiveNanos;
+        
+        long elapsed = now - frame.startedAt;
+        if (elapsed > slowestOperationNanos) {
+            slowestOperationNanos = elapsed;
+            slowestSection = frame.section;
+            slowestOperation = frame.operation;
+        }
+        if (elapsed > operationBudgetNanos) {
+            warnSlowOperation(frame, elapsed, now);
+        }
+        
+        depth--;
+        if (depth > 0) {
+            stack[depth - 1].resumedAt = now;
+        }
+    }
+    
+    /**
+     * Logs an operation that went over its budget, rate limited per section
+     * @param frame the slow operation's frame, still on the stack
+     * @param elapsed the operation's time including nested sections
+     * @param now the current time
+     */
+    private void warnSlowOperation(Frame frame, long elapsed, long now) {
+        int section = frame.section.ordinal();
+        if (now - lastOperationWarning[section] < WARNING_COOLDOWN_NANOS) {
+            return;
+        }
+        lastOperationWarning[section] = now;
+        
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            if (i > 0) {
+                path.append(" > ");
+            }
+            path.append(stack[i].section).append(' ').append(stack[i].operation);
+        }
+        
+        String message = String.format(Locale.ROOT, "%s %s took %.2f ms on the main thread (budget %.2f ms), call path: %s",
+                frame.section, frame.operation, elapsed / NANOS_PER_MILLI, operationBudgetNanos / NANOS_PER_MILLI, path);
+        if (logStackTraces) {
+            plugin.getLogger().log(Level.WARNING, message, new Throwable("Stack of slow " + frame.section + " operation"));
+        } else {
+            plugin.getLogger().warning(message);
+        }
+    }
+    
+    /**
+     * Rolls this tick's totals into the history and checks the tick budget
+     */
+    private void endTick() {
+        long total = 0;
+        for (int i = 0; i < SECTIONS.length; i++) {
+            history[i][head] = tickNanos[i];
+            total += tickNanos[i];
+        }
+        totalHistory[head] = total;
+        head = (head + 1) % HISTORY_TICKS;
+        ticksRecorded++;
+        
+        if (total > tickBudgetNanos) {
+            overBudgetTicks++;
+            long now = System.nanoTime();
+            if (now - lastTickWarning >= WARNING_COOLDOWN_NANOS) {
+                lastTickWarning = now;
+                plugin.getLogger().warning(String.format(Locale.ROOT,
+                        "FrizzlenEco used %.2f ms of the last tick (budget %.2f ms): %s, slowest operation: %s %s (%.2f ms)",
+                        total / NANOS_PER_MILLI, tickBudgetNanos / NANOS_PER_MILLI, describeTick(),
+                        slowestSection, slowestOperation, slowestOperationNanos / NANOS_PER_MILLI));
+            }
+        }
+        
+        Arrays.fill(tickNanos, 0L);
+        slowestSection = null;
+        slowestOperation = null;
+        slowestOperationNanos = 0;
+    }
+    
+    /**
+     * Describes the current tick's time per section
+     * @return the non-zero sections and their times
+     */
+    private String describeTick() {
+        StringBuilder builder = new StringBuilder();
+        for (Section section : SECTIONS) {
+            long nanos = tickNanos[section.ordinal()];
+            if (nanos > 0) {
+                if (builder.length() > 0) {
+                    builder.append(", ");
+                }
+                builder.append(String.format(Locale.ROOT, "%s %.2f ms", section, nanos / NANOS_PER_MILLI));
+            }
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * Sends the rolling window report to a command sender
+     * @param sender the command sender
+     */
+    public void sendReport(CommandSender sender) {
+        if (tickTask == null) {
+            MessageUtil.sendError(sender, "The tick profiler is disabled, enable it with profiler.enabled in config.yml");
+            return;
+        }
+        
+        MessageUtil.sendInfo(sender, String.format(Locale.ROOT, "=== Main-thread time per tick (budget %.2f ms) ===",
+                tickBudgetNanos / NANOS_PER_MILLI));
+        
+        for (int w = 0; w < WINDOW_TICKS.length; w++) {
+            int ticks = (int) Math.min(WINDOW_TICKS[w], ticksRecorded);
+            if (ticks == 0) {
+                continue;
+            }
+            
+            StringBuilder line = new StringBuilder(WINDOW_NAMES[w]).append(": ");
+            line.append(formatWindow(totalHistory, ticks)).append(" total");
+            for (Section section : SECTIONS) {
+                long[] sectionHistory = history[section.ordinal()];
+                if (sum(sectionHistory, ticks) > 0) {
+                    line.append(", ").append(section).append(' ').append(formatWindow(sectionHistory, ticks));
+                }
+            }
+            MessageUtil.sendInfo(sender, line.toString());
+        }
+        
+        MessageUtil.sendInfo(sender, "Ticks over budget: " + overBudgetTicks + " of " + ticksRecorded);
+    }
+    
+    /**
+     * Clears all recorded history
+     */
+    public void reset() {
+        for (long[] sectionHistory : history) {
+            Arrays.fill(sectionHistory, 0L);
+        }
+        Arrays.fill(totalHistory, 0L);
+        ticksRecorded = 0;
+        overBudgetTicks = 0;
+    }
+    
+    /**
+     * Formats the average and peak of the most recent ticks
+     * @param values the per-tick history
+     * @param ticks the number of recent ticks to include
+     * @return the formatted average and peak in milliseconds
+     */
+    private String formatWindow(long[] values, int ticks) {
+        long max = 0;
+        for (int i = 1; i <= ticks; i++) {
+            max = Math.max(max, values[(head - i + HISTORY_TICKS) % HISTORY_TICKS]);
+        }
+        return String.format(Locale.ROOT, "%.3f ms avg / %.2f ms max",
+                sum(values, ticks) / (double) ticks / NANOS_PER_MILLI, max / NANOS_PER_MILLI);
+    }
+    
+    /**
+     * Sums the most recent ticks of a history
+     * @param values the per-tick history
+     * @param ticks the number of recent ticks to include
+     * @return the sum in nanoseconds
+     */
+    private long sum(long[] values, int ticks) {
+        long sum = 0;
+        for (int i = 1; i <= ticks; i++) {
+            sum += values[(head - i + HISTORY_TICKS) % HISTORY_TICKS];
+        }
+        return sum;
+    }
+    
+    /**
+     * A reusable stack frame, so opening a scope does not allocate
+     */
+    private final class Frame implements Scope {
+        private Section section;
+        private String operation;
+        private long startedAt;
+        private long resumedAt;
+        private long exclusiveNanos;
+        
+        @Override
+        public void close() {
+            exit(this);
+        }
+    }
+} 
\ No newline at end of file
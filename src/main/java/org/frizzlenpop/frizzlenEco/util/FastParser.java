@@ -0,0 +1,99 @@
+package org.frizzlenpop.frizzlenEco.util;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Allocation-light parsers for values read in bulk from the database.
+ * Each parser falls back to the JDK implementation for input it doesn't handle.
+ */
+public final class FastParser {
+    private static final int MAX_FAST_DIGITS = 18;
+    
+    private FastParser() {
+    }
+    
+    /**
+     * Parses a UUID in its canonical 36 character form
+     * @param value the UUID string
+     * @return the parsed UUID
+     * @throws IllegalArgumentException if the value is not a valid UUID
+     */
+    public static UUID parseUuid(String value) {
+        if (value.length() != 36 || value.charAt(8) != '-' || value.charAt(13) != '-'
+                || value.charAt(18) != '-' || value.charAt(23) != '-') {
+            return UUID.fromString(value);
+        }
+        
+        long most = (parseHex(value, 0, 8) << 32) | (parseHex(value, 9, 13) << 16) | parseHex(value, 14, 18);
+        long least = (parseHex(value, 19, 23) << 48) | parseHex(value, 24, 36);
+        return new UUID(most, least);
+    }
+    
+    /**
+     * Parses a plain decimal number such as "-1234.50".
+     * Values with more than 18 digits or an exponent use {@link BigDecimal#BigDecimal(String)}.
+     * @param value the number string
+     * @return the parsed number
+     * @throws NumberFormatException if the value is not a valid number
+     */
+    public static BigDecimal parseDecimal(String value) {
+        int length = value.length();
+        int start = 0;
+        boolean negative = false;
+        
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            start = 1;
+        }
+        
+        if (length == start || length - start > MAX_FAST_DIGITS + 1) {
+            return new BigDecimal(value);
+        }
+        
+        long unscaled = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return new BigDecimal(value);
+            }
+        }
+        
+        if (digits == 0 || digits > MAX_FAST_DIGITS) {
+            return new BigDecimal(value);
+        }
+        
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+    
+    /**
+     * Parses a range of hex characters into a long
+     * @param value the string to read from
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return the parsed value
+     */
+    private static long parseHex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid UUID string: " + value);
+            }
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
+} 
\ No newline at end of file
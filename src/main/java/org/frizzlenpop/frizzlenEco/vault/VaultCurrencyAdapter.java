@@ -1,21 +1,30 @@
 package org.frizzlenpop.frizzlenEco.vault;
 
-import org.bukkit.entity.Player;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
+import org.frizzlenpop.frizzlenEco.economy.CurrencyRegistry;
+import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class to help maintain state about which currency a player is using
  * when interacting through Vault.
  * This allows plugins using Vault to indirectly work with a multi-currency system.
+ * <p>
+ * Preferences are held in a concurrent map so Vault calls from async threads are safe,
+ * persisted in the database, and loaded lazily when a player joins. They are kept as
+ * currency ordinals and resolved against the current currency snapshot, so a reload
+ * never leaves a stale currency behind.
  */
 public class VaultCurrencyAdapter {
     private final FrizzlenEco plugin;
-    private final Map<UUID, Currency> playerCurrencyPreferences;
+    private final EconomyManager economyManager;
+    private final CurrencyRegistry currencyRegistry;
+    private final Map<UUID, Integer> playerCurrencyPreferences;
+    private final Map<UUID, Object> pendingLoads;
     
     /**
      * Creates a new VaultCurrencyAdapter instance.
@@ -23,7 +32,10 @@ public class VaultCurrencyAdapter {
      */
     public VaultCurrencyAdapter(FrizzlenEco plugin) {
         this.plugin = plugin;
-        this.playerCurrencyPreferences = new HashMap<>();
+        this.economyManager = plugin.getEconomyManager();
+        this.currencyRegistry = economyManager.getCurrencyRegistry();
+        this.playerCurrencyPreferences = new ConcurrentHashMap<>();
+        this.pendingLoads = new ConcurrentHashMap<>();
     }
     
     /**
@@ -34,26 +46,73 @@ public class VaultCurrencyAdapter {
      * @return The player's preferred currency
      */
     public Currency getPlayerCurrency(UUID playerUuid) {
-        return playerCurrencyPreferences.getOrDefault(playerUuid, 
-            plugin.getEconomyManager().getDefaultCurrency());
+        CurrencyRegistry.Snapshot snapshot = currencyRegistry.getSnapshot();
+        Integer ordinal = playerCurrencyPreferences.get(playerUuid);
+        Currency currency = ordinal != null ? snapshot.getCurrency(ordinal) : null;
+        return currency != null ? currency : snapshot.getDefaultCurrency();
     }
     
     /**
      * Sets a player's preferred currency for Vault operations.
+     * The preference is persisted asynchronously.
      * 
      * @param playerUuid The UUID of the player
      * @param currency The currency to use
      */
     public void setPlayerCurrency(UUID playerUuid, Currency currency) {
-        playerCurrencyPreferences.put(playerUuid, currency);
+        String currencyId = currency.getId();
+        playerCurrencyPreferences.put(playerUuid, currencyRegistry.assignOrdinal(currencyId));
+        
+        plugin.getDatabaseManager().saveCurrencyPreference(playerUuid, currencyId);
     }
     
     /**
      * Resets a player's currency preference to the default.
+     * The stored preference is removed asynchronously.
      * 
      * @param playerUuid The UUID of the player
      */
     public void resetPlayerCurrency(UUID playerUuid) {
+        pendingLoads.remove(playerUuid);
+        playerCurrencyPreferences.remove(playerUuid);
+        
+        plugin.getDatabaseManager().deleteCurrencyPreference(playerUuid);
+    }
+    
+    /**
+     * Loads a player's stored preference from the database asynchronously.
+     * A preference set while the load is in flight takes priority over the stored one,
+     * and a load that finishes after the player was unloaded or reset is dropped.
+     * 
+     * @param playerUuid The UUID of the player
+     */
+    public void loadPlayerCurrency(UUID playerUuid) {
+        Object token = new Object();
+        pendingLoads.put(playerUuid, token);
+        
+        plugin.getDatabaseManager().loadCurrencyPreferenceAsync(playerUuid).thenAccept(currencyId -> {
+            Currency currency = currencyId != null ? economyManager.getCurrency(currencyId) : null;
+            
+            // Store it under the token's bin lock, so an unload can't slip in between
+            pendingLoads.computeIfPresent(playerUuid, (uuid, pending) -> {
+                if (pending != token) {
+                    return pending;
+                }
+                if (currency != null) {
+                    playerCurrencyPreferences.putIfAbsent(playerUuid, currency.getOrdinal());
+                }
+                return null;
+            });
+        });
+    }
+    
+    /**
+     * Drops a player's cached preference without touching the stored one.
+     * 
+     * @param playerUuid The UUID of the player
+     */
+    public void unloadPlayerCurrency(UUID playerUuid) {
+        pendingLoads.remove(playerUuid);
         playerCurrencyPreferences.remove(playerUuid);
     }
     
@@ -65,12 +124,17 @@ public class VaultCurrencyAdapter {
      * @return The currency, or the default currency if not found
      */
     public Currency getCurrencyById(String currencyId) {
-        for (Currency currency : plugin.getEconomyManager().getCurrencies()) {
-            if (currency.getId().equals(currencyId)) {
-                return currency;
-            }
-        }
-        return plugin.getEconomyManager().getDefaultCurrency();
+        Currency currency = economyManager.getCurrency(currencyId);
+        return currency != null ? currency : economyManager.getDefaultCurrency();
+    }
+    
+    /**
+     * Drops cached preferences for currencies that no longer exist after a reload.
+     * The others resolve to the reloaded currencies through their ordinals.
+     */
+    public void invalidatePreferences() {
+        CurrencyRegistry.Snapshot snapshot = currencyRegistry.getSnapshot();
+        playerCurrencyPreferences.values().removeIf(ordinal -> snapshot.getCurrency(ordinal) == null);
     }
     
     /**
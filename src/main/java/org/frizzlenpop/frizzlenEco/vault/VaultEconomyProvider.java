@@ -6,6 +6,8 @@ import org.bukkit.OfflinePlayer;
 import org.frizzlenpop.frizzlenEco.FrizzlenEco;
 import org.frizzlenpop.frizzlenEco.economy.Currency;
 import org.frizzlenpop.frizzlenEco.economy.EconomyManager;
+import org.frizzlenpop.frizzlenEco.economy.EconomyResult;
+import org.frizzlenpop.frizzlenEco.metrics.TickProfiler;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -64,13 +66,15 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public boolean hasAccount(String playerName) {
-        OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
-        return hasAccount(player);
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "hasAccount")) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
+            return hasAccount(player);
+        }
     }
 
     @Override
     public boolean hasAccount(OfflinePlayer player) {
-        try {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "hasAccount")) {
             return economyManager.hasAccount(player.getUniqueId(), economyManager.getDefaultCurrency());
         } catch (Exception e) {
             plugin.getLogger().severe("Error checking if player has account: " + e.getMessage());
@@ -92,13 +96,15 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public double getBalance(String playerName) {
-        OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
-        return getBalance(player);
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "getBalance")) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
+            return getBalance(player);
+        }
     }
 
     @Override
     public double getBalance(OfflinePlayer player) {
-        try {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "getBalance")) {
             Currency currency = currencyAdapter.getPlayerCurrency(player.getUniqueId());
             BigDecimal balance = economyManager.getBalance(player.getUniqueId(), currency);
             return balance.doubleValue();
@@ -122,13 +128,15 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public boolean has(String playerName, double amount) {
-        OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
-        return has(player, amount);
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "has")) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
+            return has(player, amount);
+        }
     }
 
     @Override
     public boolean has(OfflinePlayer player, double amount) {
-        try {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "has")) {
             Currency currency = currencyAdapter.getPlayerCurrency(player.getUniqueId());
             BigDecimal balance = economyManager.getBalance(player.getUniqueId(), currency);
             return balance.compareTo(BigDecimal.valueOf(amount)) >= 0;
@@ -152,29 +160,33 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public EconomyResponse withdrawPlayer(String playerName, double amount) {
-        OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
-        return withdrawPlayer(player, amount);
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "withdrawPlayer")) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
+            return withdrawPlayer(player, amount);
+        }
     }
 
     @Override
     public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
-        if (amount < 0) {
-            return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Cannot withdraw negative amount");
-        }
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "withdrawPlayer")) {
+            if (amount < 0) {
+                return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Cannot withdraw negative amount");
+            }
         
-        try {
-            BigDecimal decimalAmount = BigDecimal.valueOf(amount);
-            Currency currency = currencyAdapter.getPlayerCurrency(player.getUniqueId());
+            try {
+                BigDecimal decimalAmount = BigDecimal.valueOf(amount);
+                Currency currency = currencyAdapter.getPlayerCurrency(player.getUniqueId());
             
-            if (economyManager.withdraw(player.getUniqueId(), decimalAmount, currency)) {
-                double newBalance = economyManager.getBalance(player.getUniqueId(), currency).doubleValue();
-                return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
-            } else {
-                return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Insufficient funds");
+                EconomyResult result = economyManager.withdraw(player.getUniqueId(), decimalAmount, currency);
+                if (result.isSuccess()) {
+                    return new EconomyResponse(amount, result.getNewBalance().doubleValue(), EconomyResponse.ResponseType.SUCCESS, null);
+                } else {
+                    return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, result.getStatus().getMessage());
+                }
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error withdrawing from player account: " + e.getMessage());
+                return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Internal error: " + e.getMessage());
             }
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error withdrawing from player account: " + e.getMessage());
-            return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Internal error: " + e.getMessage());
         }
     }
 
@@ -192,29 +204,33 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public EconomyResponse depositPlayer(String playerName, double amount) {
-        OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
-        return depositPlayer(player, amount);
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "depositPlayer")) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
+            return depositPlayer(player, amount);
+        }
     }
 
     @Override
     public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
-        if (amount < 0) {
-            return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Cannot deposit negative amount");
-        }
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "depositPlayer")) {
+            if (amount < 0) {
+                return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Cannot deposit negative amount");
+            }
         
-        try {
-            BigDecimal decimalAmount = BigDecimal.valueOf(amount);
-            Currency currency = currencyAdapter.getPlayerCurrency(player.getUniqueId());
+            try {
+                BigDecimal decimalAmount = BigDecimal.valueOf(amount);
+                Currency currency = currencyAdapter.getPlayerCurrency(player.getUniqueId());
             
-            if (economyManager.deposit(player.getUniqueId(), decimalAmount, currency)) {
-                double newBalance = economyManager.getBalance(player.getUniqueId(), currency).doubleValue();
-                return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
-            } else {
-                return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Failed to deposit");
+                EconomyResult result = economyManager.credit(player.getUniqueId(), decimalAmount, currency);
+                if (result.isSuccess()) {
+                    return new EconomyResponse(amount, result.getNewBalance().doubleValue(), EconomyResponse.ResponseType.SUCCESS, null);
+                } else {
+                    return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, result.getStatus().getMessage());
+                }
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error depositing to player account: " + e.getMessage());
+                return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Internal error: " + e.getMessage());
             }
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error depositing to player account: " + e.getMessage());
-            return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Internal error: " + e.getMessage());
         }
     }
 
@@ -315,13 +331,15 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public boolean createPlayerAccount(String playerName) {
-        OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
-        return createPlayerAccount(player);
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "createPlayerAccount")) {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(playerName);
+            return createPlayerAccount(player);
+        }
     }
 
     @Override
     public boolean createPlayerAccount(OfflinePlayer player) {
-        try {
+        try (TickProfiler.Scope ignored = plugin.getTickProfiler().enter(TickProfiler.Section.VAULT, "createPlayerAccount")) {
             Currency currency = currencyAdapter.getPlayerCurrency(player.getUniqueId());
             return economyManager.createAccount(player.getUniqueId(), player.getName(), currency);
         } catch (Exception e) {
@@ -0,0 +1,138 @@
+package org.frizzlenpop.frizzlenEco.backup;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the snapshot file format
+ */
+public class SnapshotFileTest {
+    @Test
+    public void testAccountsSurviveARoundTrip() throws IOException {
+        Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        add(accounts, account(alice, "Alice", "coins", "12.50"));
+        add(accounts, account(alice, "Alice", "gems", "3"));
+        add(accounts, account(bob, null, "coins", "-4.25"));
+        
+        File file = File.createTempFile("snapshot", ".fesnap.gz");
+        assertEquals(3, SnapshotFile.write(file, accounts, new AccountSnapshot()));
+        
+        Map<UUID, Map<String, AccountHolder>> read = SnapshotFile.read(file);
+        assertEquals(2, read.size());
+        for (Map<String, AccountHolder> playerAccounts : accounts.values()) {
+            for (AccountHolder account : playerAccounts.values()) {
+                AccountHolder copy = read.get(account.getPlayerUuid()).get(account.getCurrencyId());
+                assertEquals(account.getBalance(), copy.getBalance());
+                assertEquals(account.getCreated().toEpochMilli(), copy.getCreated().toEpochMilli());
+                assertEquals(account.getLastTransaction().toEpochMilli(), copy.getLastTransaction().toEpochMilli());
+            }
+        }
+        assertEquals("Alice", read.get(alice).get("gems").getPlayerName());
+        assertEquals("", read.get(bob).get("coins").getPlayerName());
+    }
+    
+    @Test
+    public void testAccountsAreWrittenAsOfTheMarker() throws IOException {
+        Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
+        AccountHolder changed = account(UUID.randomUUID(), "Changed", "coins", "100");
+        add(accounts, changed);
+        
+        AccountSnapshot snapshot = new AccountSnapshot();
+        snapshot.beforeMutation(changed);
+        changed.setBalance(new BigDecimal("40"));
+        AccountHolder created = account(UUID.randomUUID(), "Created", "coins", "5");
+        snapshot.created(created);
+        add(accounts, created);
+        
+        File file = File.createTempFile("snapshot", ".fesnap.gz");
+        assertEquals(1, SnapshotFile.write(file, accounts, snapshot));
+        
+        Map<UUID, Map<String, AccountHolder>> read = SnapshotFile.read(file);
+        assertEquals(1, read.size());
+        assertEquals(new BigDecimal("100"), read.get(changed.getPlayerUuid()).get("coins").getBalance());
+    }
+    
+    @Test
+    public void testCorruptFilesAreRejected() throws IOException {
+        Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
+        add(accounts, account(UUID.randomUUID(), "Player", "coins", "12345"));
+        File file = File.createTempFile("snapshot", ".fesnap.gz");
+        SnapshotFile.write(file, accounts, new AccountSnapshot());
+        byte[] content = gunzip(file);
+        
+        // A balance digit changed inside a valid gzip stream only shows in the checksum
+        byte[] flipped = content.clone();
+        int digit = indexOf(flipped, "12345".getBytes());
+        flipped[digit] = '9';
+        gzip(file, flipped);
+        IOException checksum = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertTrue(checksum.getMessage().contains("checksum"));
+        
+        // A file cut short ends before the trailer
+        gzip(file, Arrays.copyOf(content, content.length - 12));
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        
+        // Anything else is not a snapshot at all
+        byte[] foreign = content.clone();
+        foreign[0] ^= 1;
+        gzip(file, foreign);
+        IOException magic = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertTrue(magic.getMessage().contains("Not a FrizzlenEco snapshot"));
+        
+        Files.write(file.toPath(), content);
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+    
+    private static AccountHolder account(UUID playerUuid, String playerName, String currencyId, String balance) {
+        AccountHolder account = new AccountHolder(playerUuid, playerName, currencyId, new BigDecimal(balance));
+        account.setCreated(Instant.ofEpochMilli(1_000L));
+        account.setLastTransaction(Instant.ofEpochMilli(2_000L));
+        return account;
+    }
+    
+    private static void add(Map<UUID, Map<String, AccountHolder>> accounts, AccountHolder account) {
+        accounts.computeIfAbsent(account.getPlayerUuid(), k -> new ConcurrentHashMap<>()).put(account.getCurrencyId(), account);
+    }
+    
+    private static byte[] gunzip(File file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            return in.readAllBytes();
+        }
+    }
+    
+    private static void gzip(File file, byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        Files.write(file.toPath(), bytes.toByteArray());
+    }
+    
+    private static int indexOf(byte[] content, byte[] part) {
+        for (int i = 0; i <= content.length - part.length; i++) {
+            if (Arrays.equals(content, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("Not found");
+    }
+} 
\ No newline at end of file
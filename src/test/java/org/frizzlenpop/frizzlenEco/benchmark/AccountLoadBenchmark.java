@@ -0,0 +1,108 @@
+package org.frizzlenpop.frizzlenEco.benchmark;
+
+import org.frizzlenpop.frizzlenEco.database.AccountLoader;
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Startup load benchmark comparing the old single-threaded loader with {@link AccountLoader}.
+ * Not run by the test suite; run manually with the test classpath:
+ * <pre>java -cp target/test-classes:target/classes:&lt;sqlite-jdbc.jar&gt; org.frizzlenpop.frizzlenEco.benchmark.AccountLoadBenchmark 100000 1000000 5000000</pre>
+ */
+public class AccountLoadBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        long[] sizes = args.length > 0 ? new long[args.length] : new long[] {100_000L, 1_000_000L, 5_000_000L};
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Long.parseLong(args[i]);
+        }
+        
+        Logger logger = Logger.getLogger("AccountLoadBenchmark");
+        
+        for (long size : sizes) {
+            File file = File.createTempFile("frizzleneco-bench-", ".db");
+            file.deleteOnExit();
+            String url = "jdbc:sqlite:" + file.getAbsolutePath();
+            
+            populate(url, size);
+            
+            long start = System.nanoTime();
+            int legacyPlayers = legacyLoad(url).size();
+            long legacyMillis = (System.nanoTime() - start) / 1_000_000L;
+            
+            for (int partitions : new int[] {1, 4, 8}) {
+                AccountLoader loader = new AccountLoader(logger, () -> DriverManager.getConnection(url), partitions, 5000);
+                start = System.nanoTime();
+                int players = loader.loadAll().size();
+                long millis = (System.nanoTime() - start) / 1_000_000L;
+                
+                System.out.printf("%,d rows: legacy %dms (%d players), streaming x%d %dms (%d players)%n",
+                        size, legacyMillis, legacyPlayers, partitions, millis, players);
+            }
+            
+            file.delete();
+        }
+    }
+    
+    /**
+     * Fills a new database with random accounts
+     */
+    private static void populate(String url, long size) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE accounts (player_uuid VARCHAR(36) NOT NULL, player_name VARCHAR(36) NOT NULL, " +
+                    "currency_id VARCHAR(36) NOT NULL, balance TEXT NOT NULL, created BIGINT NOT NULL, " +
+                    "last_transaction BIGINT NOT NULL, PRIMARY KEY (player_uuid, currency_id))");
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO accounts VALUES (?, ?, ?, ?, ?, ?)")) {
+                long now = System.currentTimeMillis();
+                for (long i = 0; i < size; i++) {
+                    insert.setString(1, UUID.randomUUID().toString());
+                    insert.setString(2, "Player" + i);
+                    insert.setString(3, "coin");
+                    insert.setString(4, BigDecimal.valueOf(i * 37 % 1_000_000, 2).toString());
+                    insert.setLong(5, now);
+                    insert.setLong(6, now);
+                    insert.addBatch();
+                    
+                    if (i % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+    
+    /**
+     * The loader as it was before the streaming loader was added
+     */
+    private static Map<UUID, Map<String, AccountHolder>> legacyLoad(String url) throws SQLException {
+        Map<UUID, Map<String, AccountHolder>> accounts = new ConcurrentHashMap<>();
+        
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM accounts");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
+                String currencyId = rs.getString("currency_id");
+                AccountHolder account = new AccountHolder(playerUuid, rs.getString("player_name"), currencyId,
+                        new BigDecimal(rs.getString("balance")));
+                account.setCreated(Instant.ofEpochMilli(rs.getLong("created")));
+                accounts.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>()).put(currencyId, account);
+            }
+        }
+        
+        return accounts;
+    }
+} 
\ No newline at end of file
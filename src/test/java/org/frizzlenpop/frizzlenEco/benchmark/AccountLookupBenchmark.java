@@ -0,0 +1,93 @@
+package org.frizzlenpop.frizzlenEco.benchmark;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.economy.AccountStore;
+import org.frizzlenpop.frizzlenEco.economy.CompactAccountStore;
+import org.frizzlenpop.frizzlenEco.economy.Currency;
+import org.frizzlenpop.frizzlenEco.economy.CurrencyRegistry;
+import org.frizzlenpop.frizzlenEco.economy.HeapAccountStore;
+import org.frizzlenpop.frizzlenEco.economy.OffHeapAccountStore;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Balance lookup benchmark comparing the nested-map {@link HeapAccountStore} with the
+ * {@link CompactAccountStore} and {@link OffHeapAccountStore} layouts. Players are looked up
+ * in random order, so most lookups miss the CPU caches as they would on a large server.
+ * Lookups pass the {@link Currency}, so the compact and off-heap stores index by ordinal.
+ * Not run by the test suite; run manually with the test classpath:
+ * <pre>java -cp target/test-classes:target/classes org.frizzlenpop.frizzlenEco.benchmark.AccountLookupBenchmark 1000000 3</pre>
+ */
+public class AccountLookupBenchmark {
+    private static final String[] CURRENCIES = {"coin", "gem", "token"};
+    private static final int LOOKUPS = 10_000_000;
+    
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int currencies = args.length > 1 ? Math.min(CURRENCIES.length, Integer.parseInt(args[1])) : 3;
+        
+        UUID[] uuids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            uuids[i] = UUID.randomUUID();
+        }
+        
+        CurrencyRegistry registry = new CurrencyRegistry();
+        List<Currency> configured = new ArrayList<>();
+        for (int c = 0; c < currencies; c++) {
+            configured.add(Currency.builder().id(CURRENCIES[c]).name(CURRENCIES[c]).build());
+        }
+        registry.publish(configured, configured.get(0));
+        Currency[] byIndex = configured.toArray(new Currency[0]);
+        
+        AccountStore[] stores = {new HeapAccountStore(), new CompactAccountStore(registry, players), new OffHeapAccountStore(registry, players * currencies)};
+        for (AccountStore store : stores) {
+            store.replaceAll(accounts(uuids, currencies));
+        }
+        
+        for (int round = 0; round < 5; round++) {
+            for (AccountStore store : stores) {
+                long start = System.nanoTime();
+                BigDecimal total = lookup(store, uuids, byIndex);
+                long nanos = System.nanoTime() - start;
+                
+                // Early rounds are warm-up
+                if (round >= 2) {
+                    System.out.printf("%s: %.1f ns per lookup (checksum %s)%n",
+                            store.getClass().getSimpleName(), (double) nanos / LOOKUPS, total);
+                }
+            }
+        }
+    }
+    
+    private static BigDecimal lookup(AccountStore store, UUID[] uuids, Currency[] currencies) {
+        SplittableRandom random = new SplittableRandom(42);
+        long unscaled = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            AccountHolder account = store.get(uuids[random.nextInt(uuids.length)], currencies[random.nextInt(currencies.length)]);
+            unscaled += account.getBalance().unscaledValue().longValue();
+        }
+        return BigDecimal.valueOf(unscaled, 2);
+    }
+    
+    private static Map<UUID, Map<String, AccountHolder>> accounts(UUID[] uuids, int currencies) {
+        Map<UUID, Map<String, AccountHolder>> accounts = new HashMap<>(uuids.length * 4 / 3 + 1);
+        Instant now = Instant.now();
+        for (int i = 0; i < uuids.length; i++) {
+            Map<String, AccountHolder> playerAccounts = new ConcurrentHashMap<>();
+            for (int c = 0; c < currencies; c++) {
+                playerAccounts.put(CURRENCIES[c], new AccountHolder(uuids[i], "Player" + i, CURRENCIES[c],
+                        BigDecimal.valueOf(i, 2), now, now));
+            }
+            accounts.put(uuids[i], playerAccounts);
+        }
+        return accounts;
+    }
+} 
\ No newline at end of file
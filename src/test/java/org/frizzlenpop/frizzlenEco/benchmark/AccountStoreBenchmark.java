@@ -0,0 +1,108 @@
+package org.frizzlenpop.frizzlenEco.benchmark;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.economy.AccountStore;
+import org.frizzlenpop.frizzlenEco.economy.CurrencyRegistry;
+import org.frizzlenpop.frizzlenEco.economy.HeapAccountStore;
+import org.frizzlenpop.frizzlenEco.economy.OffHeapAccountStore;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Heap footprint and garbage collection benchmark comparing {@link HeapAccountStore} with
+ * {@link OffHeapAccountStore}. Each store is filled, then balances are updated while
+ * short-lived garbage is allocated, and the collector time is read from the GC beans.
+ * Not run by the test suite; run manually with the test classpath, one store per JVM:
+ * <pre>java -Xmx4g -cp target/test-classes:target/classes org.frizzlenpop.frizzlenEco.benchmark.AccountStoreBenchmark heap 2000000</pre>
+ * <pre>java -Xmx4g -cp target/test-classes:target/classes org.frizzlenpop.frizzlenEco.benchmark.AccountStoreBenchmark offheap 2000000</pre>
+ */
+public class AccountStoreBenchmark {
+    private static volatile Object sink;
+    
+    public static void main(String[] args) {
+        boolean offHeap = args.length > 0 && args[0].equalsIgnoreCase("offheap");
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int updates = args.length > 2 ? Integer.parseInt(args[2]) : 20_000_000;
+        
+        long baseline = usedHeapAfterGc();
+        
+        AccountStore store = offHeap ? new OffHeapAccountStore(new CurrencyRegistry(), players) : new HeapAccountStore();
+        UUID[] uuids = fill(store, players);
+        long footprint = usedHeapAfterGc() - baseline;
+        
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long start = System.nanoTime();
+        
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < updates; i++) {
+            AccountHolder account = store.get(uuids[random.nextInt(players)], "coin");
+            account.setBalance(account.getBalance().add(BigDecimal.ONE));
+            
+            // Garbage from the rest of the server, so young collections have to scan the live accounts
+            sink = new byte[256];
+        }
+        
+        long updateMillis = (System.nanoTime() - start) / 1_000_000L;
+        long fullStart = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - fullStart) / 1_000_000L;
+        
+        System.out.printf("%s, %,d players: heap %,d bytes (%.1f per account)%s%n",
+                offHeap ? "off-heap" : "heap", players, footprint, (double) footprint / players,
+                store instanceof OffHeapAccountStore offHeapStore
+                        ? String.format(", off-heap %,d bytes", offHeapStore.getOffHeapBytes()) : "");
+        System.out.printf("%,d updates in %dms: %d collections taking %dms, full collection %dms%n",
+                updates, updateMillis, gcCount() - gcCountBefore, gcMillis() - gcMillisBefore, fullGcMillis);
+    }
+    
+    /**
+     * Loads the store the way startup does, from a map of freshly created accounts
+     */
+    private static UUID[] fill(AccountStore store, int players) {
+        UUID[] uuids = new UUID[players];
+        Map<UUID, Map<String, AccountHolder>> loaded = new HashMap<>(players * 4 / 3 + 1);
+        Instant now = Instant.now();
+        for (int i = 0; i < players; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids[i] = uuid;
+            Map<String, AccountHolder> playerAccounts = new ConcurrentHashMap<>();
+            playerAccounts.put("coin", new AccountHolder(uuid, "Player" + i, "coin", BigDecimal.valueOf(i, 2), now, now));
+            loaded.put(uuid, playerAccounts);
+        }
+        store.replaceAll(loaded);
+        return uuids;
+    }
+    
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+    
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return millis;
+    }
+} 
\ No newline at end of file
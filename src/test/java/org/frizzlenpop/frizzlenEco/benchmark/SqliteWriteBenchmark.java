@@ -0,0 +1,110 @@
+package org.frizzlenpop.frizzlenEco.benchmark;
+
+import org.frizzlenpop.frizzlenEco.database.SqliteWriter;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * SQLite write throughput benchmark comparing the old autocommit path, which prepares a
+ * statement per write, with WAL mode and the group-committing {@link SqliteWriter}.
+ * Not run by the test suite; run manually with the test classpath:
+ * <pre>java -cp target/test-classes:target/classes:&lt;sqlite-jdbc.jar&gt; org.frizzlenpop.frizzlenEco.benchmark.SqliteWriteBenchmark 5000 8</pre>
+ */
+public class SqliteWriteBenchmark {
+    private static final String UPSERT = "INSERT OR REPLACE INTO accounts " +
+            "(player_uuid, player_name, currency_id, balance, created, last_transaction) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    public static void main(String[] args) throws Exception {
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        
+        File file = File.createTempFile("frizzleneco-bench-", ".db");
+        file.deleteOnExit();
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        createTable(url);
+        
+        long start = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection(url)) {
+            for (int i = 0; i < writes; i++) {
+                try (PreparedStatement stmt = conn.prepareStatement(UPSERT)) {
+                    bind(stmt, i);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+        report("autocommit, rollback journal", writes, System.nanoTime() - start);
+        
+        Connection writerConnection = DriverManager.getConnection(url);
+        try (Statement stmt = writerConnection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+        }
+        SqliteWriter writer = new SqliteWriter(Logger.getLogger("SqliteWriteBenchmark"), writerConnection, 1000);
+        writer.start();
+        
+        start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int offset = p;
+            Thread thread = new Thread(() -> {
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int i = offset; i < writes; i += producers) {
+                    int row = i;
+                    futures.add(writer.submit(statements -> {
+                        PreparedStatement stmt = statements.prepare(UPSERT);
+                        bind(stmt, row);
+                        stmt.executeUpdate();
+                    }));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        report("WAL, single writer, " + producers + " producers", writes, System.nanoTime() - start);
+        
+        writer.shutdown(10_000L);
+        file.delete();
+    }
+    
+    /**
+     * Creates the accounts table
+     */
+    private static void createTable(String url) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE accounts (player_uuid VARCHAR(36) NOT NULL, player_name VARCHAR(36) NOT NULL, " +
+                    "currency_id VARCHAR(36) NOT NULL, balance TEXT NOT NULL, created BIGINT NOT NULL, " +
+                    "last_transaction BIGINT NOT NULL, PRIMARY KEY (player_uuid, currency_id))");
+        }
+    }
+    
+    /**
+     * Binds a generated account row
+     */
+    private static void bind(PreparedStatement stmt, int row) throws SQLException {
+        stmt.setString(1, new UUID(0L, row).toString());
+        stmt.setString(2, "Player" + row);
+        stmt.setString(3, "dollars");
+        stmt.setString(4, "100.00");
+        stmt.setLong(5, System.currentTimeMillis());
+        stmt.setLong(6, System.currentTimeMillis());
+    }
+    
+    /**
+     * Prints the throughput of a run
+     */
+    private static void report(String name, int writes, long nanos) {
+        System.out.printf("%s: %,d writes in %dms (%,.0f writes/s)%n",
+                name, writes, nanos / 1_000_000L, writes / (nanos / 1_000_000_000.0));
+    }
+} 
\ No newline at end of file
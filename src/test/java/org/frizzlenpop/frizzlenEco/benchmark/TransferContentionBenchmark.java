@@ -0,0 +1,121 @@
+package org.frizzlenpop.frizzlenEco.benchmark;
+
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.frizzlenpop.frizzlenEco.economy.AccountLocks;
+import org.frizzlenpop.frizzlenEco.economy.Currency;
+import org.frizzlenpop.frizzlenEco.economy.HeapAccountStore;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark of many threads transferring among a small hot set of accounts.
+ * Compares the ordered striped locking used by transfers with one global lock and with
+ * the old unlocked withdraw-then-deposit sequence, and checks that no money is created
+ * or lost. Not run by the test suite; run manually with the test classpath:
+ * <pre>java -cp target/test-classes:target/classes org.frizzlenpop.frizzlenEco.benchmark.TransferContentionBenchmark 16 8</pre>
+ */
+public class TransferContentionBenchmark {
+    private static final int TRANSFERS_PER_THREAD = 500_000;
+    private static final BigDecimal START_BALANCE = BigDecimal.valueOf(1_000_000);
+    
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int hotAccounts = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        Currency currency = Currency.builder().id("coin").name("Coin").minBalance(BigDecimal.ZERO).build();
+        
+        for (int round = 0; round < 3; round++) {
+            for (String mode : new String[] {"striped", "global", "unlocked"}) {
+                run(mode, threads, hotAccounts, currency, round > 0);
+            }
+        }
+    }
+    
+    private static void run(String mode, int threads, int hotAccounts, Currency currency, boolean report) throws InterruptedException {
+        HeapAccountStore store = new HeapAccountStore();
+        UUID[] players = new UUID[hotAccounts];
+        for (int i = 0; i < hotAccounts; i++) {
+            players[i] = UUID.randomUUID();
+            store.add(new AccountHolder(players[i], "Player" + i, currency.getId(), START_BALANCE));
+        }
+        
+        AccountLocks locks = new AccountLocks(1024);
+        Object globalLock = new Object();
+        AtomicLong succeeded = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                long ok = 0;
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    UUID from = players[random.nextInt(hotAccounts)];
+                    UUID to = players[random.nextInt(hotAccounts)];
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 100));
+                    
+                    boolean transferred;
+                    if (mode.equals("striped")) {
+                        int fromStripe = locks.indexOf(from, currency);
+                        int toStripe = locks.indexOf(to, currency);
+                        synchronized (locks.get(Math.min(fromStripe, toStripe))) {
+                            synchronized (locks.get(Math.max(fromStripe, toStripe))) {
+                                transferred = move(store, from, to, amount, currency);
+                            }
+                        }
+                    } else if (mode.equals("global")) {
+                        synchronized (globalLock) {
+                            transferred = move(store, from, to, amount, currency);
+                        }
+                    } else {
+                        transferred = move(store, from, to, amount, currency);
+                    }
+                    if (transferred) {
+                        ok++;
+                    }
+                }
+                succeeded.addAndGet(ok);
+                done.countDown();
+            }, "TransferBenchmark-" + t);
+            thread.start();
+        }
+        done.await();
+        long nanos = System.nanoTime() - start;
+        
+        BigDecimal total = BigDecimal.ZERO;
+        for (UUID player : players) {
+            total = total.add(store.get(player, currency.getId()).getBalance());
+        }
+        BigDecimal drift = total.subtract(START_BALANCE.multiply(BigDecimal.valueOf(hotAccounts)));
+        
+        if (report) {
+            System.out.printf("%-8s %d threads, %d accounts: %,.0f transfers/s, %,d succeeded, money drift %s%n",
+                    mode, threads, hotAccounts, succeeded.get() / (nanos / 1e9), succeeded.get(), drift);
+        }
+    }
+    
+    /**
+     * The body of a transfer: both limits are checked before either balance changes
+     */
+    private static boolean move(HeapAccountStore store, UUID from, UUID to, BigDecimal amount, Currency currency) {
+        AccountHolder source = store.get(from, currency.getId());
+        AccountHolder target = store.get(to, currency.getId());
+        BigDecimal fromBalance = source.getBalance();
+        BigDecimal toBalance = target.getBalance();
+        if (fromBalance.subtract(amount).compareTo(currency.getMinBalance()) < 0
+                || toBalance.add(amount).compareTo(currency.getMaxBalance()) > 0) {
+            return false;
+        }
+        
+        source.setBalance(fromBalance.subtract(amount));
+        target.setBalance(toBalance.add(amount));
+        return true;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,38 @@
+package org.frizzlenpop.frizzlenEco.commands;
+
+import org.frizzlenpop.frizzlenEco.config.NotificationSettings;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for how merged notifications are worded
+ */
+public class NotificationQueueTest {
+    
+    @Test
+    public void testSingleNoticeNamesTheSender() {
+        NotificationQueue.Batch batch = new NotificationQueue.Batch(0);
+        batch.add(new BigDecimal("5"), "Alex");
+        assertEquals("You received $5.00 from Alex",
+                NotificationQueue.format(NotificationSettings.Type.PAYMENT_RECEIVED, "$5.00", batch));
+    }
+    
+    @Test
+    public void testMergedNoticesAreCounted() {
+        NotificationQueue.Batch batch = new NotificationQueue.Batch(0);
+        batch.add(new BigDecimal("5"), "Alex");
+        batch.add(new BigDecimal("7.50"), "Alex");
+        assertEquals(new BigDecimal("12.50"), batch.getTotal());
+        assertEquals("You received $12.50 from Alex in 2 payments",
+                NotificationQueue.format(NotificationSettings.Type.PAYMENT_RECEIVED, "$12.50", batch));
+        
+        batch.add(new BigDecimal("1"), "Sam");
+        assertEquals("You received $13.50 from 2 players",
+                NotificationQueue.format(NotificationSettings.Type.PAYMENT_RECEIVED, "$13.50", batch));
+        assertEquals("Admins took $13.50 from your account in 3 changes",
+                NotificationQueue.format(NotificationSettings.Type.ADMIN_TAKE, "$13.50", batch));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,122 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for running database calls on virtual threads
+ */
+public class DatabaseExecutorTest {
+    private final Logger logger = Logger.getLogger("DatabaseExecutorTest");
+    
+    @Test
+    public void testPermitsBoundConcurrentCalls() {
+        DatabaseExecutor executor = new DatabaseExecutor(logger, 4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        
+        // Far more calls than platform threads would comfortably allow
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            calls.add(executor.execute("sleep", () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        
+        assertTrue(peak.get() <= 4, "peak " + peak.get());
+        assertEquals(2000, executor.getSubmittedCount());
+        assertEquals(0, executor.getInFlight());
+        assertTrue(executor.shutdown(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testAsyncCallsHoldTheirPermitUntilTheyComplete() throws Exception {
+        DatabaseExecutor executor = new DatabaseExecutor(logger, 1);
+        CompletableFuture<String> backendWrite = new CompletableFuture<>();
+        
+        CompletableFuture<String> write = executor.submitAsync("write", () -> backendWrite);
+        CompletableFuture<String> read = executor.submit("read", () -> "read");
+        Thread.sleep(50);
+        assertFalse(read.isDone());
+        assertEquals(2, executor.getInFlight());
+        
+        backendWrite.complete("written");
+        assertEquals("written", write.get(1, TimeUnit.SECONDS));
+        assertEquals("read", read.get(1, TimeUnit.SECONDS));
+        assertTrue(executor.shutdown(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testKeyedCallsApplyInSubmissionOrder() throws Exception {
+        DatabaseExecutor executor = new DatabaseExecutor(logger, 4);
+        MemoryBackend backend = new MemoryBackend();
+        UUID player = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        
+        // The first save is slow, unordered the delete would land first and the save would win
+        CompletableFuture<Void> slowSave = executor.submitAsync(List.of(player), "saveCurrencyPreference",
+                () -> CompletableFuture.runAsync(() -> {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    backend.saveCurrencyPreference(player, "gems").join();
+                }));
+        CompletableFuture<Void> delete = executor.submitAsync(List.of(player), "deleteCurrencyPreference",
+                () -> backend.deleteCurrencyPreference(player));
+        CompletableFuture<Void> unrelated = executor.submitAsync(List.of(other), "saveCurrencyPreference",
+                () -> backend.saveCurrencyPreference(other, "coins"));
+        
+        // Other players are not held up
+        unrelated.get(1, TimeUnit.SECONDS);
+        assertFalse(slowSave.isDone());
+        
+        delete.get(1, TimeUnit.SECONDS);
+        assertTrue(slowSave.isDone());
+        assertNull(backend.loadCurrencyPreference(player));
+        assertEquals("coins", backend.loadCurrencyPreference(other));
+        assertTrue(executor.shutdown(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testContextIsPropagatedToNestedCalls() {
+        DatabaseExecutor executor = new DatabaseExecutor(logger, 2);
+        String caller = Thread.currentThread().getName();
+        
+        DatabaseExecutor.Context nested = executor.submit("outer", () -> {
+            assertEquals("outer", DatabaseExecutor.current().getOperation());
+            return executor.submit("inner", DatabaseExecutor::current);
+        }).thenCompose(inner -> inner).join();
+        
+        assertEquals("inner", nested.getOperation());
+        assertEquals(caller, nested.getOrigin());
+        assertNull(DatabaseExecutor.current());
+        executor.shutdown(1, TimeUnit.SECONDS);
+    }
+    
+    @Test
+    public void testCallsAfterShutdownFail() {
+        DatabaseExecutor executor = new DatabaseExecutor(logger, 1);
+        executor.shutdown(1, TimeUnit.SECONDS);
+        
+        CompletableFuture<Void> call = executor.execute("late", () -> { });
+        assertTrue(call.isCompletedExceptionally());
+    }
+} 
\ No newline at end of file
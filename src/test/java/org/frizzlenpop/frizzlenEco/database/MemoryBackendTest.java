@@ -0,0 +1,70 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-memory storage backend
+ */
+public class MemoryBackendTest {
+    
+    @Test
+    public void testUpsertAndLoad() {
+        MemoryBackend backend = new MemoryBackend();
+        UUID player = UUID.randomUUID();
+        
+        backend.upsertAccounts(List.of(row(player, "dollars", "10.50"), row(player, "gems", "3"))).join();
+        backend.upsertAccounts(List.of(row(player, "dollars", "20"))).join();
+        
+        assertEquals(1, backend.loadAllAccounts().size());
+        assertEquals(0, new BigDecimal("20").compareTo(backend.loadAccounts(player).get("dollars").getBalance()));
+        assertEquals(0, new BigDecimal("3").compareTo(backend.loadAccounts(player).get("gems").getBalance()));
+        assertTrue(backend.loadAccounts(UUID.randomUUID()).isEmpty());
+    }
+    
+    @Test
+    public void testHistoryIsNewestFirst() {
+        MemoryBackend backend = new MemoryBackend();
+        UUID player = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        
+        backend.appendTransactions(List.of(
+                new TransactionRow("DEPOSIT", null, player, "dollars", BigDecimal.ONE),
+                new TransactionRow("PAY", other, player, "dollars", BigDecimal.TEN),
+                new TransactionRow("DEPOSIT", null, other, "dollars", BigDecimal.ONE),
+                new TransactionRow("WITHDRAW", player, null, "dollars", new BigDecimal("2")))).join();
+        
+        List<TransactionRow> history = backend.queryHistory(player, 2);
+        assertEquals(2, history.size());
+        assertEquals("WITHDRAW", history.get(0).getType());
+        assertEquals("PAY", history.get(1).getType());
+    }
+    
+    @Test
+    public void testCommitJournalsLegsAsOneGroup() {
+        MemoryBackend backend = new MemoryBackend();
+        UUID buyer = UUID.randomUUID();
+        UUID seller = UUID.randomUUID();
+        String groupId = UUID.randomUUID().toString();
+        
+        backend.commit(List.of(row(buyer, "dollars", "90"), row(seller, "dollars", "10")), List.of(
+                new TransactionRow("SHOP", buyer, null, "dollars", BigDecimal.TEN, groupId, 1L),
+                new TransactionRow("SHOP", null, seller, "dollars", BigDecimal.TEN, groupId, 1L))).join();
+        
+        assertEquals(0, new BigDecimal("10").compareTo(backend.loadAccounts(seller).get("dollars").getBalance()));
+        TransactionRow debit = backend.queryHistory(buyer, 10).get(0);
+        TransactionRow credit = backend.queryHistory(seller, 10).get(0);
+        assertEquals(groupId, debit.getGroupId());
+        assertEquals(groupId, credit.getGroupId());
+        assertNotEquals(debit.getId(), credit.getId());
+    }
+    
+    private static AccountRow row(UUID player, String currencyId, String balance) {
+        return new AccountRow(null, 0L, player, "Player", currencyId, balance, 0L, 0L);
+    }
+} 
\ No newline at end of file
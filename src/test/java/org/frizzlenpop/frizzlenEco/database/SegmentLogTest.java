@@ -0,0 +1,70 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the segment log behind the embedded storage engine
+ */
+public class SegmentLogTest {
+    private static final Logger LOGGER = Logger.getLogger("SegmentLogTest");
+    
+    @Test
+    public void testBatchesAreReplayedInOrder() throws IOException {
+        File directory = Files.createTempDirectory("segment-log").toFile();
+        
+        SegmentLog log = new SegmentLog(LOGGER, directory, 1 << 20, 0L);
+        log.open((payload, location) -> fail("A new log has no records"));
+        List<SegmentLog.Location> locations = new ArrayList<>();
+        log.append(List.of(record(1), record(2)), locations).join();
+        log.append(List.of(record(3)), locations).join();
+        assertEquals(3, locations.size());
+        assertEquals(2, log.read(locations.get(1)).get(1));
+        log.close();
+        
+        List<Byte> replayed = reopen(directory);
+        assertEquals(List.of((byte) 1, (byte) 2, (byte) 3), replayed);
+    }
+    
+    @Test
+    public void testTornBatchIsCutOff() throws IOException {
+        File directory = Files.createTempDirectory("segment-log").toFile();
+        
+        SegmentLog log = new SegmentLog(LOGGER, directory, 1 << 20, 0L);
+        log.open((payload, location) -> { });
+        log.append(List.of(record(1)), new ArrayList<>()).join();
+        log.close();
+        
+        // A record frame whose batch never got its commit record, as after a crash mid-write
+        Path segment = directory.listFiles()[0].toPath();
+        long committedSize = Files.size(segment);
+        ByteBuffer torn = ByteBuffer.allocate(10).putInt(2).putInt(0).put((byte) 7).put((byte) 7).flip();
+        Files.write(segment, torn.array(), StandardOpenOption.APPEND);
+        
+        assertEquals(List.of((byte) 1), reopen(directory));
+        assertEquals(committedSize, Files.size(segment));
+    }
+    
+    private static List<Byte> reopen(File directory) throws IOException {
+        List<Byte> replayed = new ArrayList<>();
+        SegmentLog log = new SegmentLog(LOGGER, directory, 1 << 20, 0L);
+        log.open((payload, location) -> replayed.add(payload.get(1)));
+        log.close();
+        return replayed;
+    }
+    
+    private static ByteBuffer record(int value) {
+        return ByteBuffer.wrap(new byte[] {1, (byte) value});
+    }
+} 
\ No newline at end of file
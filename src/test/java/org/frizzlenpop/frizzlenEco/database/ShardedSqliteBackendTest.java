@@ -0,0 +1,192 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.frizzlenpop.frizzlenEco.config.DatabaseSettings;
+import org.frizzlenpop.frizzlenEco.config.SqliteSettings;
+import org.frizzlenpop.frizzlenEco.economy.AccountHolder;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SQLite storage split across several files, run against real database files
+ */
+public class ShardedSqliteBackendTest {
+    private static final Logger LOGGER = Logger.getLogger("ShardedSqliteBackendTest");
+    
+    @Test
+    public void testInterruptedIntentIsFinishedOnceOnStart() throws Exception {
+        File directory = Files.createTempDirectory("sharded-sqlite").toFile();
+        
+        ShardedSqliteBackend backend = open(directory, 2);
+        UUID[] players = playersOnTwoShards(backend);
+        backend.upsertAccounts(List.of(row(players[0], "100", 1000L), row(players[1], "100", 1000L))).join();
+        
+        // The intent is committed, then the server stops before any shard applies it
+        backend.recordIntent(transfer(backend, players, 2000L)).join();
+        backend.close();
+        
+        backend = open(directory, 2);
+        assertBalance("90", backend, players[0]);
+        assertBalance("110", backend, players[1]);
+        assertEquals(1, backend.queryHistory(players[0], 10).size());
+        assertEquals(1, backend.queryHistory(players[1], 10).size());
+        backend.close();
+        
+        // Once finished the intent is gone, so another start does not apply it again
+        backend = open(directory, 2);
+        assertBalance("90", backend, players[0]);
+        assertEquals(1, backend.queryHistory(players[0], 10).size());
+        assertEquals(1, backend.queryHistory(players[1], 10).size());
+        backend.close();
+    }
+    
+    @Test
+    public void testApplyingAnIntentTwiceIsIdempotent() throws Exception {
+        File directory = Files.createTempDirectory("sharded-sqlite").toFile();
+        
+        ShardedSqliteBackend backend = open(directory, 2);
+        UUID[] players = playersOnTwoShards(backend);
+        backend.upsertAccounts(List.of(row(players[0], "100", 1000L), row(players[1], "100", 1000L))).join();
+        
+        Map<Integer, ShardedSqliteBackend.IntentPart> parts = transfer(backend, players, 2000L);
+        String intentId = backend.recordIntent(parts).join();
+        backend.applyParts(intentId, parts).join();
+        // A second insert of the same transaction record would fail, the marker skips it
+        backend.applyParts(intentId, parts).join();
+        
+        assertBalance("90", backend, players[0]);
+        assertBalance("110", backend, players[1]);
+        assertEquals(1, backend.queryHistory(players[0], 10).size());
+        assertEquals(1, backend.queryHistory(players[1], 10).size());
+        backend.close();
+        
+        // Recovery finds the intent still pending and skips both applied parts
+        backend = open(directory, 2);
+        assertBalance("90", backend, players[0]);
+        assertEquals(1, backend.queryHistory(players[1], 10).size());
+        backend.close();
+    }
+    
+    @Test
+    public void testIntentDoesNotOverwriteANewerSave() throws Exception {
+        File directory = Files.createTempDirectory("sharded-sqlite").toFile();
+        
+        ShardedSqliteBackend backend = open(directory, 2);
+        UUID[] players = playersOnTwoShards(backend);
+        backend.upsertAccounts(List.of(row(players[0], "100", 1000L), row(players[1], "100", 1000L))).join();
+        
+        // A regular save of one account reaches its shard before the intent is applied
+        backend.recordIntent(transfer(backend, players, 2000L)).join();
+        backend.upsertAccounts(List.of(row(players[0], "50", 3000L))).join();
+        backend.close();
+        
+        backend = open(directory, 2);
+        assertBalance("50", backend, players[0]);
+        assertBalance("110", backend, players[1]);
+        assertEquals(1, backend.queryHistory(players[0], 10).size());
+        backend.close();
+    }
+    
+    @Test
+    public void testUnshardedDatabaseIsMigrated() throws Exception {
+        File directory = Files.createTempDirectory("sharded-sqlite").toFile();
+        File legacy = new File(directory, "economy.db");
+        
+        SqliteBackend unsharded = new SqliteBackend(LOGGER, settings(directory), sqliteSettings(1), legacy, 1, 1, false);
+        unsharded.open();
+        List<UUID> players = new ArrayList<>();
+        List<AccountRow> rows = new ArrayList<>();
+        List<TransactionRow> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            players.add(UUID.randomUUID());
+            rows.add(row(players.get(i), String.valueOf(i), 1000L));
+            if (i > 0) {
+                records.add(new TransactionRow("TRANSFER", players.get(i - 1), players.get(i), "coins", BigDecimal.ONE,
+                        null, 1000L + i));
+            }
+        }
+        unsharded.upsertAccounts(rows).join();
+        unsharded.appendTransactions(records).join();
+        unsharded.saveCurrencyPreference(players.get(0), "gems").join();
+        unsharded.close();
+        
+        ShardedSqliteBackend backend = open(directory, 4);
+        Map<UUID, Map<String, AccountHolder>> accounts = backend.loadAllAccounts();
+        assertEquals(20, accounts.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, new BigDecimal(i).compareTo(accounts.get(players.get(i)).get("coins").getBalance()));
+        }
+        // A transfer is kept in the history of both players, whichever shards they are in
+        assertEquals(2, backend.queryHistory(players.get(5), 10).size());
+        assertEquals(1, backend.queryHistory(players.get(19), 10).size());
+        assertEquals("gems", backend.loadCurrencyPreference(players.get(0)));
+        backend.close();
+        
+        assertFalse(legacy.exists());
+        assertTrue(new File(directory, "economy.db.migrated").isFile());
+        assertTrue(ShardedSqliteBackend.shardFile(legacy, 3).isFile());
+        
+        // The shards remember their layout, and the unsharded backend refuses to start empty
+        assertThrows(StorageException.class, () -> open(directory, 2));
+        assertThrows(StorageException.class, () -> new SqliteBackend(LOGGER, settings(directory), sqliteSettings(1),
+                legacy, 1, 1, false).open());
+        
+        backend = open(directory, 4);
+        assertEquals(20, backend.loadAllAccounts().size());
+        backend.close();
+    }
+    
+    private static ShardedSqliteBackend open(File directory, int shards) throws StorageException {
+        ShardedSqliteBackend backend = new ShardedSqliteBackend(LOGGER, settings(directory), sqliteSettings(shards));
+        backend.open();
+        return backend;
+    }
+    
+    private static DatabaseSettings settings(File directory) {
+        return new DatabaseSettings(DatabaseSettings.DatabaseType.SQLITE, null, 0, null, null, null, false,
+                new File(directory, "economy.db"), 2, 1000);
+    }
+    
+    private static SqliteSettings sqliteSettings(int shards) {
+        return new SqliteSettings(true, 2048, 0, 2, 64, shards);
+    }
+    
+    /**
+     * Finds two players whose accounts live in different shards
+     */
+    private static UUID[] playersOnTwoShards(ShardedSqliteBackend backend) {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        while (backend.shardOf(second) == backend.shardOf(first)) {
+            second = UUID.randomUUID();
+        }
+        return new UUID[] {first, second};
+    }
+    
+    /**
+     * Builds the cross-shard changes of a transfer of 10 from the first player to the second
+     */
+    private static Map<Integer, ShardedSqliteBackend.IntentPart> transfer(ShardedSqliteBackend backend, UUID[] players,
+                                                                          long timestamp) {
+        return backend.split(List.of(row(players[0], "90", timestamp), row(players[1], "110", timestamp)),
+                List.of(new TransactionRow("TRANSFER", players[0], players[1], "coins", BigDecimal.TEN, null, timestamp)));
+    }
+    
+    private static AccountRow row(UUID playerUuid, String balance, long lastTransaction) {
+        return new AccountRow(null, 0L, playerUuid, "Player", "coins", balance, 0L, lastTransaction);
+    }
+    
+    private static void assertBalance(String expected, ShardedSqliteBackend backend, UUID playerUuid)
+            throws StorageException {
+        assertEquals(0, new BigDecimal(expected).compareTo(backend.loadAccounts(playerUuid).get("coins").getBalance()));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,153 @@
+package org.frizzlenpop.frizzlenEco.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for group commit on the SQLite writer thread, against a connection that counts transactions
+ */
+public class SqliteWriterTest {
+    private static final Logger LOGGER = Logger.getLogger("SqliteWriterTest");
+    
+    static {
+        // Failed writes are logged as severe, which is expected here
+        LOGGER.setLevel(Level.OFF);
+    }
+    
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+    
+    @Test
+    public void testQueuedWritesCommitTogether() throws Exception {
+        SqliteWriter writer = new SqliteWriter(LOGGER, connection(), 4);
+        writer.start();
+        
+        // Hold the writer on one write while ten more queue up behind it
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = writer.submit(statements -> {
+            started.countDown();
+            await(release);
+        });
+        started.await();
+        
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int write = i;
+            writes.add(writer.submit(statements -> order.add(write)));
+        }
+        assertEquals(10, writer.getQueueSize());
+        release.countDown();
+        
+        blocker.join();
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), order);
+        // One for the blocker, then groups of at most four
+        assertEquals(4, commits.get());
+        assertEquals(0, rollbacks.get());
+        
+        writer.shutdown(5000L);
+    }
+    
+    @Test
+    public void testFailedGroupIsRetriedOneWriteAtATime() throws Exception {
+        SqliteWriter writer = new SqliteWriter(LOGGER, connection(), 64);
+        writer.start();
+        
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit(statements -> {
+            started.countDown();
+            await(release);
+        });
+        started.await();
+        
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Void> first = writer.submit(statements -> runs.incrementAndGet());
+        CompletableFuture<Void> bad = writer.submit(statements -> {
+            throw new SQLException("constraint failed");
+        });
+        CompletableFuture<Void> last = writer.submit(statements -> runs.incrementAndGet());
+        release.countDown();
+        
+        first.join();
+        last.join();
+        CompletionException failure = assertThrows(CompletionException.class, bad::join);
+        assertTrue(failure.getCause() instanceof SQLException);
+        
+        // The good writes ran in the failed group and again on their own
+        assertEquals(3, runs.get());
+        // The blocker, then each good write in its own transaction
+        assertEquals(3, commits.get());
+        // The group, then the bad write on its own
+        assertEquals(2, rollbacks.get());
+        
+        writer.shutdown(5000L);
+    }
+    
+    @Test
+    public void testShutdownCommitsQueuedWritesAndRejectsLaterOnes() throws Exception {
+        SqliteWriter writer = new SqliteWriter(LOGGER, connection(), 64);
+        
+        // Rejected before the writer starts
+        CompletionException early = assertThrows(CompletionException.class, () -> writer.submit(statements -> {
+        }).join());
+        assertTrue(early.getCause() instanceof RejectedExecutionException);
+        
+        writer.start();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            writes.add(writer.submit(statements -> {
+            }));
+        }
+        writer.shutdown(5000L);
+        
+        for (CompletableFuture<Void> write : writes) {
+            assertTrue(write.isDone());
+            assertFalse(write.isCompletedExceptionally());
+        }
+        
+        CompletableFuture<Void> late = writer.submit(statements -> {
+        });
+        assertTrue(late.isCompletedExceptionally());
+    }
+    
+    /**
+     * Builds a connection that only counts commits and rollbacks
+     */
+    private Connection connection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "commit" -> commits.incrementAndGet();
+                        case "rollback" -> rollbacks.incrementAndGet();
+                        default -> {
+                        }
+                    }
+                    return method.getReturnType() == boolean.class ? false : null;
+                });
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,126 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the account holder name trie used by tab completion
+ */
+public class AccountNameIndexTest {
+    
+    @Test
+    public void testPrefixLookupIsOrderedAndLimited() {
+        AccountNameIndex index = new AccountNameIndex();
+        for (String name : List.of("alice", "Alfred", "bob", "albert", "alex")) {
+            index.put(UUID.randomUUID(), name);
+        }
+        
+        assertEquals(List.of("albert", "alex", "Alfred", "alice"), index.complete("al", 10));
+        assertEquals(List.of("albert", "alex"), index.complete("al", 2));
+        assertEquals(List.of("albert", "alex", "Alfred", "alice", "bob"), index.complete("", 10));
+        assertEquals(index.complete("", 10), index.complete(null, 10));
+        assertTrue(index.complete("alz", 10).isEmpty());
+        assertTrue(index.complete("al", 0).isEmpty());
+        assertEquals(5, index.size());
+    }
+    
+    @Test
+    public void testLookupIgnoresCase() {
+        AccountNameIndex index = new AccountNameIndex();
+        index.put(UUID.randomUUID(), "Notch");
+        
+        assertEquals(List.of("Notch"), index.complete("NO", 10));
+        assertEquals(List.of("Notch"), index.complete("nOtCh", 10));
+        assertTrue(index.complete("notchy", 10).isEmpty());
+    }
+    
+    @Test
+    public void testNamesDifferingOnlyByCaseAreKeptApart() {
+        AccountNameIndex index = new AccountNameIndex();
+        UUID upper = UUID.randomUUID();
+        UUID lower = UUID.randomUUID();
+        index.put(upper, "Steve");
+        index.put(lower, "steve");
+        
+        assertEquals(List.of("Steve", "steve"), index.complete("st", 10));
+        
+        // Removing the holder added last leaves the other's spelling, not its own
+        index.remove(lower);
+        assertEquals(List.of("Steve"), index.complete("st", 10));
+        
+        index.put(lower, "steve");
+        index.remove(upper);
+        assertEquals(List.of("steve"), index.complete("ST", 10));
+        
+        index.remove(lower);
+        assertTrue(index.complete("", 10).isEmpty());
+        assertEquals(0, index.nodeCount());
+    }
+    
+    @Test
+    public void testRenameReplacesTheOldName() {
+        AccountNameIndex index = new AccountNameIndex();
+        UUID player = UUID.randomUUID();
+        index.put(player, "Notch");
+        index.put(player, "Jeb");
+        
+        assertTrue(index.complete("no", 10).isEmpty());
+        assertEquals(List.of("Jeb"), index.complete("je", 10));
+        assertEquals(1, index.size());
+        
+        // A rename that only changes case is still a rename
+        index.put(player, "jeb");
+        assertEquals(List.of("jeb"), index.complete("je", 10));
+        assertEquals(3, index.nodeCount());
+        
+        // Missing names are ignored rather than clearing the old one
+        index.put(player, "");
+        index.put(player, null);
+        assertEquals(List.of("jeb"), index.complete("", 10));
+    }
+    
+    @Test
+    public void testRemovalPrunesEmptyNodes() {
+        AccountNameIndex index = new AccountNameIndex();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.put(first, "abc");
+        index.put(second, "abd");
+        assertEquals(4, index.nodeCount());
+        
+        index.remove(second);
+        assertEquals(3, index.nodeCount());
+        assertEquals(List.of("abc"), index.complete("ab", 10));
+        
+        // Removing a player twice, or one never added, changes nothing
+        index.remove(second);
+        index.remove(UUID.randomUUID());
+        assertEquals(3, index.nodeCount());
+        
+        index.remove(first);
+        assertEquals(0, index.nodeCount());
+        assertEquals(0, index.size());
+    }
+    
+    @Test
+    public void testRebuildReplacesTheContents() {
+        AccountNameIndex index = new AccountNameIndex();
+        index.put(UUID.randomUUID(), "Gone");
+        
+        UUID player = UUID.randomUUID();
+        UUID unnamed = UUID.randomUUID();
+        index.rebuild(Map.of(
+                player, Map.of("coins", new AccountHolder(player, "Kept", "coins", BigDecimal.ONE)),
+                unnamed, Map.of("coins", new AccountHolder(unnamed, null, "coins", BigDecimal.ONE))));
+        
+        assertTrue(index.complete("go", 10).isEmpty());
+        assertEquals(List.of("Kept"), index.complete("k", 10));
+        assertEquals(1, index.size());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,141 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Flow;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for pushing balance changes to subscribers
+ */
+public class BalanceFeedTest {
+    private final Currency coins = Currency.builder().id("coins").name("Coins").build();
+    private final Currency gems = Currency.builder().id("gems").name("Gems").build();
+    
+    @Test
+    public void testFiltersByPlayerAndCurrency() {
+        BalanceFeed feed = feed();
+        UUID watched = UUID.randomUUID();
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        feed.publisher(Set.of(watched), coins).subscribe(recorder);
+        
+        feed.publish(watched, "coins", new BigDecimal("1.00"));
+        feed.publish(watched, "gems", new BigDecimal("2.00"));
+        feed.publish(UUID.randomUUID(), "coins", new BigDecimal("3.00"));
+        
+        assertEquals(1, recorder.updates.size());
+        assertEquals(watched, recorder.updates.get(0).getPlayerUuid());
+        assertSame(coins, recorder.updates.get(0).getCurrency());
+        assertEquals(new BigDecimal("1.00"), recorder.updates.get(0).getBalance());
+    }
+    
+    @Test
+    public void testKeepsOnlyLatestBalanceUntilRequested() {
+        BalanceFeed feed = feed();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Recorder recorder = new Recorder(0);
+        feed.publisher(null, null).subscribe(recorder);
+        
+        feed.publish(first, "coins", new BigDecimal("1.00"));
+        feed.publish(second, "gems", new BigDecimal("5.00"));
+        feed.publish(first, "coins", new BigDecimal("2.00"));
+        assertTrue(recorder.updates.isEmpty());
+        
+        recorder.subscription.request(1);
+        assertEquals(1, recorder.updates.size());
+        assertEquals(new BigDecimal("2.00"), recorder.updates.get(0).getBalance());
+        
+        recorder.subscription.request(5);
+        assertEquals(2, recorder.updates.size());
+        assertEquals(second, recorder.updates.get(1).getPlayerUuid());
+    }
+    
+    @Test
+    public void testCancelStopsUpdates() {
+        BalanceFeed feed = feed();
+        UUID player = UUID.randomUUID();
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        feed.publisher(Set.of(player), null).subscribe(recorder);
+        assertTrue(feed.hasSubscribers());
+        
+        recorder.subscription.cancel();
+        feed.publish(player, "coins", BigDecimal.ONE);
+        assertFalse(feed.hasSubscribers());
+        assertTrue(recorder.updates.isEmpty());
+    }
+    
+    @Test
+    public void testCloseCompletesSubscribers() {
+        BalanceFeed feed = feed();
+        Recorder before = new Recorder(1);
+        feed.publisher(null, coins).subscribe(before);
+        
+        feed.close();
+        Recorder after = new Recorder(1);
+        feed.publisher(null, coins).subscribe(after);
+        
+        assertTrue(before.completed);
+        assertTrue(after.completed);
+        assertFalse(feed.hasSubscribers());
+    }
+    
+    @Test
+    public void testNonPositiveRequestIsAnError() {
+        BalanceFeed feed = feed();
+        Recorder recorder = new Recorder(0);
+        feed.publisher(null, null).subscribe(recorder);
+        
+        recorder.subscription.request(0);
+        assertTrue(recorder.error instanceof IllegalArgumentException);
+        assertFalse(feed.hasSubscribers());
+    }
+    
+    private BalanceFeed feed() {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        registry.publish(List.of(coins, gems), coins);
+        return new BalanceFeed(registry, Runnable::run, Logger.getLogger("BalanceFeedTest"));
+    }
+    
+    private static final class Recorder implements Flow.Subscriber<BalanceUpdate> {
+        private final long initialRequest;
+        private final List<BalanceUpdate> updates = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+        
+        private Recorder(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+        
+        @Override
+        public void onNext(BalanceUpdate item) {
+            updates.add(item);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+        
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+} 
\ No newline at end of file
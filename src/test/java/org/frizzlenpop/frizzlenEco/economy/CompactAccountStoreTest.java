@@ -0,0 +1,89 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compact account store, including its footprint as measured by JOL
+ */
+public class CompactAccountStoreTest {
+    private static final int PLAYERS = 20_000;
+    
+    @Test
+    public void testAccountsAcrossCurrencies() {
+        CompactAccountStore store = new CompactAccountStore(new CurrencyRegistry(), 16);
+        UUID player = UUID.randomUUID();
+        
+        store.add(new AccountHolder(player, "Alex", "dollars", new BigDecimal("5.00")));
+        AccountHolder gems = store.add(new AccountHolder(player, "Alex", "gems", new BigDecimal("1E+40")));
+        gems.markFlushed(gems.getVersion());
+        store.get(player, "dollars").markFlushed(store.get(player, "dollars").getVersion());
+        
+        assertEquals(new BigDecimal("1E+40"), store.get(player, "gems").getBalance());
+        assertEquals(2, store.getPlayerAccounts(player).size());
+        assertEquals(1, store.size());
+        
+        // A rename has to rewrite the rows of every currency
+        store.get(player, "dollars").setPlayerName("Alexandra");
+        assertEquals("Alexandra", store.get(player, "gems").getPlayerName());
+        assertTrue(store.get(player, "gems").isDirty());
+        assertTrue(store.get(player, "dollars").isDirty());
+        
+        store.get(player, "gems").setBalance(new BigDecimal("2.50"));
+        assertEquals(new BigDecimal("2.50"), store.get(player, "gems").getBalance());
+        assertEquals(new BigDecimal("5.00"), store.get(player, "dollars").getBalance());
+        assertNull(store.get(UUID.randomUUID(), "dollars"));
+    }
+    
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        CompactAccountStore store = new CompactAccountStore(new CurrencyRegistry(), 16);
+        Map<UUID, BigDecimal> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            UUID player = UUID.randomUUID();
+            BigDecimal balance = BigDecimal.valueOf(i, 2);
+            store.add(new AccountHolder(player, "P" + i, "dollars", balance));
+            expected.put(player, balance);
+        }
+        
+        assertEquals(5000, store.size());
+        assertEquals(5000, store.asMap().entrySet().size());
+        for (Map.Entry<UUID, BigDecimal> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), store.get(entry.getKey(), "dollars").getBalance());
+        }
+    }
+    
+    @Test
+    public void testFootprintIsLessThanHalfOfHeapLayout() {
+        HeapAccountStore heap = new HeapAccountStore();
+        heap.replaceAll(accounts());
+        CompactAccountStore compact = new CompactAccountStore(new CurrencyRegistry(), 16);
+        compact.replaceAll(accounts());
+        
+        long heapBytes = GraphLayout.parseInstance(heap).totalSize();
+        long compactBytes = GraphLayout.parseInstance(compact).totalSize();
+        assertTrue(compactBytes * 2 < heapBytes,
+                "compact " + compactBytes / PLAYERS + " bytes per account, heap " + heapBytes / PLAYERS);
+    }
+    
+    private static Map<UUID, Map<String, AccountHolder>> accounts() {
+        Map<UUID, Map<String, AccountHolder>> accounts = new HashMap<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < PLAYERS; i++) {
+            UUID player = new UUID(i, i);
+            Map<String, AccountHolder> playerAccounts = new ConcurrentHashMap<>();
+            playerAccounts.put("dollars", new AccountHolder(player, "Player" + i, "dollars", BigDecimal.valueOf(i, 2), now, now));
+            accounts.put(player, playerAccounts);
+        }
+        return accounts;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the currency registry and ordinal-indexed account lookups
+ */
+public class CurrencyRegistryTest {
+    
+    @Test
+    public void testOrdinalsSurviveReload() {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        Currency coin = Currency.builder().id("coin").name("Coin").build();
+        Currency gem = Currency.builder().id("gem").name("Gem").build();
+        registry.publish(List.of(coin, gem), coin);
+        
+        assertEquals(0, coin.getOrdinal());
+        assertEquals(1, gem.getOrdinal());
+        assertSame(gem, registry.getCurrency(1));
+        assertSame(coin, registry.getSnapshot().getDefaultCurrency());
+        assertEquals(List.of(coin, gem), registry.getSnapshot().getCurrencies());
+        
+        // A reload that drops a currency and adds one keeps the old numbers
+        Currency reloadedGem = Currency.builder().id("gem").name("Gem").build();
+        Currency token = Currency.builder().id("token").name("Token").build();
+        registry.publish(List.of(reloadedGem, token), reloadedGem);
+        
+        assertEquals(1, reloadedGem.getOrdinal());
+        assertEquals(2, token.getOrdinal());
+        assertNull(registry.getCurrency(0));
+        assertNull(registry.getCurrency("coin"));
+        assertEquals("coin", registry.getCurrencyId(0));
+        assertSame(reloadedGem, registry.getCurrency(gem.getOrdinal()));
+        assertEquals(-1, registry.ordinalOf("missing"));
+        assertEquals(-1, registry.ordinalOf(null));
+    }
+    
+    @Test
+    public void testStoresResolveByOrdinal() {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        Currency coin = Currency.builder().id("coin").name("Coin").build();
+        Currency unpublished = Currency.builder().id("gem").name("Gem").build();
+        registry.publish(List.of(coin), coin);
+        
+        UUID player = UUID.randomUUID();
+        AccountStore[] stores = {new HeapAccountStore(), new CompactAccountStore(registry, 16), new OffHeapAccountStore(registry, 16)};
+        for (AccountStore store : stores) {
+            store.add(new AccountHolder(player, "Alex", "coin", new BigDecimal("3.50")));
+            store.add(new AccountHolder(player, "Alex", "gem", new BigDecimal("7")));
+            
+            assertEquals(new BigDecimal("3.50"), store.get(player, coin).getBalance());
+            assertEquals(new BigDecimal("7"), store.get(player, unpublished).getBalance());
+            assertNull(store.get(UUID.randomUUID(), coin));
+        }
+    }
+} 
\ No newline at end of file
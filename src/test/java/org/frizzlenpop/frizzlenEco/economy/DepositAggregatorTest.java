@@ -0,0 +1,111 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for collecting small deposits
+ */
+public class DepositAggregatorTest {
+    private final Currency coins = Currency.builder().id("coins").name("Coins").build();
+    
+    @Test
+    public void testAcceptsOnlySmallPositiveAmounts() {
+        DepositAggregator aggregator = new DepositAggregator(new BigDecimal("10"));
+        assertTrue(aggregator.accepts(new BigDecimal("0.05")));
+        assertTrue(aggregator.accepts(new BigDecimal("10.00")));
+        assertFalse(aggregator.accepts(new BigDecimal("10.01")));
+        assertFalse(aggregator.accepts(BigDecimal.ZERO));
+        assertFalse(aggregator.accepts(null));
+    }
+    
+    @Test
+    public void testTakeRemovesTheCollectedTotal() {
+        DepositAggregator aggregator = new DepositAggregator(BigDecimal.TEN);
+        UUID player = UUID.randomUUID();
+        aggregator.collect(player, coins, BigDecimal.ZERO, new BigDecimal("0.25"));
+        aggregator.collect(player, coins, BigDecimal.ZERO, new BigDecimal("0.50"));
+        
+        assertEquals(new BigDecimal("0.75"), aggregator.getPending(player, coins));
+        assertEquals(BigDecimal.ZERO, aggregator.getPending(UUID.randomUUID(), coins));
+        assertEquals(new BigDecimal("0.75"), aggregator.take(player, coins));
+        assertNull(aggregator.take(player, coins));
+        assertTrue(aggregator.isEmpty());
+    }
+    
+    @Test
+    public void testCollectChecksTheMaximumAgainstThePendingTotal() {
+        Currency capped = Currency.builder().id("capped").name("Capped").maxBalance(new BigDecimal("1.00")).build();
+        DepositAggregator aggregator = new DepositAggregator(BigDecimal.TEN);
+        UUID player = UUID.randomUUID();
+        BigDecimal balance = new BigDecimal("0.50");
+        
+        assertEquals(new BigDecimal("0.25"), aggregator.collect(player, capped, balance, new BigDecimal("0.25")));
+        assertEquals(new BigDecimal("0.50"), aggregator.collect(player, capped, balance, new BigDecimal("0.25")));
+        
+        // The balance alone has room, with what is collected it has not
+        assertNull(aggregator.collect(player, capped, balance, new BigDecimal("0.01")));
+        assertEquals(new BigDecimal("0.50"), aggregator.getPending(player, capped));
+        
+        // Settled as the owner does, then spent, there is room again
+        balance = balance.add(settle(aggregator).get(player));
+        assertEquals(0, new BigDecimal("1.00").compareTo(balance));
+        assertNull(aggregator.collect(player, capped, balance, new BigDecimal("0.01")));
+        balance = balance.subtract(new BigDecimal("0.10"));
+        assertEquals(new BigDecimal("0.10"), aggregator.collect(player, capped, balance, new BigDecimal("0.10")));
+    }
+    
+    @Test
+    public void testConcurrentDepositsAreNotLost() throws Exception {
+        DepositAggregator aggregator = new DepositAggregator(BigDecimal.TEN);
+        UUID[] players = {UUID.randomUUID(), UUID.randomUUID()};
+        
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    assertNotNull(aggregator.collect(players[i & 1], coins, BigDecimal.ZERO, new BigDecimal("0.01")));
+                }
+            });
+        }
+        
+        executor.shutdown();
+        
+        // Settle while deposits are still coming in, as the scheduled task does
+        Map<UUID, BigDecimal> applied = new HashMap<>();
+        while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            settle(aggregator).forEach((player, amount) -> applied.merge(player, amount, BigDecimal::add));
+        }
+        settle(aggregator).forEach((player, amount) -> applied.merge(player, amount, BigDecimal::add));
+        
+        assertEquals(new BigDecimal("200.00"), applied.get(players[0]));
+        assertEquals(new BigDecimal("200.00"), applied.get(players[1]));
+        assertTrue(aggregator.isEmpty());
+    }
+    
+    /**
+     * Settles every account with collected deposits the way the economy does:
+     * visit the pending totals, then take each one whole when applying it
+     * @param aggregator the aggregator
+     * @return the amount taken per player
+     */
+    private Map<UUID, BigDecimal> settle(DepositAggregator aggregator) {
+        Map<UUID, BigDecimal> taken = new HashMap<>();
+        aggregator.forEachPending((player, currency, amount) -> {
+            BigDecimal total = aggregator.take(player, currency);
+            if (total != null) {
+                taken.merge(player, total, BigDecimal::add);
+            }
+        });
+        return taken;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,41 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for operation results
+ */
+public class EconomyResultTest {
+    
+    @Test
+    public void testFailuresAreShared() {
+        EconomyResult result = EconomyResult.failure(EconomyResult.Status.INSUFFICIENT_FUNDS);
+        assertSame(result, EconomyResult.failure(EconomyResult.Status.INSUFFICIENT_FUNDS));
+        assertFalse(result.isSuccess());
+        assertNull(result.getNewBalance());
+        assertEquals("Insufficient funds", result.getStatus().getMessage());
+        assertThrows(IllegalArgumentException.class, () -> EconomyResult.failure(EconomyResult.Status.SUCCESS));
+    }
+    
+    @Test
+    public void testSuccessCarriesBalances() {
+        EconomyResult result = EconomyResult.success(new BigDecimal("10.00"), new BigDecimal("7.50"), 42L);
+        assertTrue(result.isSuccess());
+        assertEquals(new BigDecimal("10.00"), result.getOldBalance());
+        assertEquals(new BigDecimal("7.50"), result.getNewBalance());
+        assertEquals(42L, result.getTransactionId());
+    }
+    
+    @Test
+    public void testBalanceChangedCarriesCurrentBalance() {
+        EconomyResult result = EconomyResult.balanceChanged(new BigDecimal("3.00"));
+        assertFalse(result.isSuccess());
+        assertEquals(EconomyResult.Status.BALANCE_CHANGED, result.getStatus());
+        assertEquals(new BigDecimal("3.00"), result.getNewBalance());
+        assertThrows(IllegalArgumentException.class, () -> EconomyResult.failure(EconomyResult.Status.BALANCE_CHANGED));
+    }
+} 
\ No newline at end of file
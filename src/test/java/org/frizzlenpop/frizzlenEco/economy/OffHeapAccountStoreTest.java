@@ -0,0 +1,103 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the off-heap account store
+ */
+public class OffHeapAccountStoreTest {
+    
+    @Test
+    public void testViewsWriteThroughToRecords() {
+        OffHeapAccountStore store = new OffHeapAccountStore(new CurrencyRegistry(), 16);
+        UUID player = UUID.randomUUID();
+        
+        AccountHolder added = store.add(new AccountHolder(player, "Steve", "dollars", new BigDecimal("10.50")));
+        assertTrue(added.isDirty());
+        long version = added.getVersion();
+        added.markFlushed(version);
+        assertFalse(store.get(player, "dollars").isDirty());
+        
+        store.get(player, "dollars").setBalance(new BigDecimal("-3.25"));
+        AccountHolder account = store.get(player, "dollars");
+        assertEquals(new BigDecimal("-3.25"), account.getBalance());
+        assertTrue(account.isDirty());
+        assertEquals("Steve", account.getPlayerName());
+        assertEquals(added, account);
+        assertNull(store.get(player, "gems"));
+        assertNull(store.get(UUID.randomUUID(), "dollars"));
+    }
+    
+    @Test
+    public void testOlderWriteLandingLastLeavesTheAccountDirty() {
+        OffHeapAccountStore store = new OffHeapAccountStore(new CurrencyRegistry(), 16);
+        UUID player = UUID.randomUUID();
+        
+        AccountHolder account = store.add(new AccountHolder(player, "Steve", "dollars", BigDecimal.ONE));
+        long flushImage = account.getVersion();
+        account.setBalance(BigDecimal.TEN);
+        long saveImage = account.getVersion();
+        
+        account.markFlushed(saveImage);
+        assertFalse(account.isDirty());
+        account.markFlushed(flushImage);
+        assertTrue(account.isDirty());
+    }
+    
+    @Test
+    public void testValuesThatDoNotFitAreKept() {
+        OffHeapAccountStore store = new OffHeapAccountStore(new CurrencyRegistry(), 16);
+        UUID player = UUID.randomUUID();
+        BigDecimal huge = new BigDecimal("123456789012345678901234567890.123456789");
+        
+        store.add(new AccountHolder(player, "Ünïcödé_Näme_Too_Long", "dollars", huge));
+        assertEquals(huge, store.get(player, "dollars").getBalance());
+        assertEquals("Ünïcödé_Näme_Too_Long", store.get(player, "dollars").getPlayerName());
+        
+        store.get(player, "dollars").setBalance(new BigDecimal("1.00"));
+        store.get(player, "dollars").setPlayerName(null);
+        assertEquals(new BigDecimal("1.00"), store.get(player, "dollars").getBalance());
+        assertNull(store.get(player, "dollars").getPlayerName());
+    }
+    
+    @Test
+    public void testMapViewGroupsAccountsByPlayer() {
+        Map<UUID, Map<String, AccountHolder>> accounts = new HashMap<>();
+        Instant created = Instant.ofEpochMilli(1_000_000L);
+        for (int i = 0; i < 3000; i++) {
+            UUID player = UUID.randomUUID();
+            Map<String, AccountHolder> playerAccounts = new HashMap<>();
+            playerAccounts.put("dollars", new AccountHolder(player, "P" + i, "dollars", BigDecimal.valueOf(i, 2), created, created));
+            if (i % 3 == 0) {
+                playerAccounts.put("gems", new AccountHolder(player, "P" + i, "gems", BigDecimal.valueOf(i), created, created));
+            }
+            accounts.put(player, playerAccounts);
+        }
+        
+        OffHeapAccountStore store = new OffHeapAccountStore(new CurrencyRegistry(), 16);
+        store.replaceAll(accounts);
+        assertEquals(3000, store.size());
+        
+        int players = 0;
+        int rows = 0;
+        for (Map.Entry<UUID, Map<String, AccountHolder>> entry : store.asMap().entrySet()) {
+            players++;
+            for (AccountHolder account : entry.getValue().values()) {
+                rows++;
+                assertEquals(accounts.get(entry.getKey()).get(account.getCurrencyId()).getBalance(), account.getBalance());
+                assertEquals(created, account.getCreated());
+                assertFalse(account.isDirty());
+            }
+        }
+        assertEquals(3000, players);
+        assertEquals(4000, rows);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,172 @@
+package org.frizzlenpop.frizzlenEco.economy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the single-writer shards
+ */
+public class ShardedEngineTest {
+    
+    @Test
+    public void testOperationsOnAPlayerRunInOrderOnOneThread() {
+        ShardedEngine engine = new ShardedEngine(4);
+        UUID player = UUID.randomUUID();
+        List<Integer> applied = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int step = i;
+            futures.add(engine.submit(player, () -> {
+                // Only the owning shard touches these lists, so they need no locking
+                applied.add(step);
+                threads.add(Thread.currentThread().getName());
+                return step;
+            }));
+        }
+        
+        assertEquals(Integer.valueOf(999), engine.await(futures.get(999)));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), applied.get(i));
+        }
+        assertEquals(1, threads.stream().distinct().count());
+        assertTrue(engine.shutdown(5, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testCallsFromShardThreads() {
+        ShardedEngine engine = new ShardedEngine(2);
+        UUID first = UUID.randomUUID();
+        UUID other = first;
+        while (engine.isSameShard(first, other)) {
+            other = UUID.randomUUID();
+        }
+        UUID second = other;
+        
+        // The owning shard runs nested calls inline, other shards must not block on it
+        assertEquals("nested", engine.call(first, () -> engine.call(first, () -> "nested")));
+        CompletableFuture<String> blocked = engine.submit(first, () -> engine.call(second, () -> "blocked"));
+        CompletableFuture<String> chained = engine.submit(first, () -> "first")
+                .thenCompose(value -> engine.submit(second, () -> value + " then second"));
+        
+        assertThrows(IllegalStateException.class, () -> engine.await(blocked));
+        assertEquals("first then second", engine.await(chained));
+        engine.shutdown(5, TimeUnit.SECONDS);
+        assertThrows(IllegalStateException.class, () -> engine.call(first, () -> "rejected"));
+    }
+    
+    @Test
+    public void testHandOffsConserveMoneyUnderConcurrency() throws Exception {
+        ShardedEngine engine = new ShardedEngine(4);
+        int players = 16;
+        UUID[] uuids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            uuids[i] = UUID.randomUUID();
+        }
+        
+        // Each balance is only touched by its owner's shard, so plain longs will do
+        long[] balances = new long[players];
+        Arrays.fill(balances, 1_000);
+        long cap = 3_000;
+        AtomicLong inTransit = new AtomicLong();
+        
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Boolean>> transfers = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int from = ThreadLocalRandom.current().nextInt(players);
+            int to = (from + 1 + ThreadLocalRandom.current().nextInt(players - 1)) % players;
+            long amount = 1 + ThreadLocalRandom.current().nextInt(200);
+            transfers.add(CompletableFuture.supplyAsync(() -> engine.handOff(uuids[from], uuids[to], new ShardedEngine.HandOff<Boolean>() {
+                @Override
+                public Boolean take() {
+                    if (balances[from] < amount) {
+                        return false;
+                    }
+                    balances[from] -= amount;
+                    inTransit.addAndGet(amount);
+                    return null;
+                }
+                
+                @Override
+                public Boolean give() {
+                    if (balances[to] + amount > cap) {
+                        return null;
+                    }
+                    balances[to] += amount;
+                    inTransit.addAndGet(-amount);
+                    return true;
+                }
+                
+                @Override
+                public Boolean giveBack() {
+                    balances[from] += amount;
+                    inTransit.addAndGet(-amount);
+                    return false;
+                }
+            }), callers).thenCompose(future -> future));
+        }
+        
+        // Pausing every shard sees no transfer half applied, other than the amounts in transit
+        for (int i = 0; i < 20; i++) {
+            long total = engine.callExclusive(null, () -> Arrays.stream(balances).sum() + inTransit.get());
+            assertEquals(players * 1_000L, total);
+        }
+        
+        CompletableFuture.allOf(transfers.toArray(new CompletableFuture[0])).join();
+        assertTrue(transfers.stream().anyMatch(CompletableFuture::join));
+        callers.shutdown();
+        assertTrue(engine.shutdown(5, TimeUnit.SECONDS));
+        
+        assertEquals(0, inTransit.get());
+        assertEquals(players * 1_000L, Arrays.stream(balances).sum());
+        for (long balance : balances) {
+            assertTrue(balance >= 0 && balance <= cap, "balance " + balance);
+        }
+    }
+    
+    @Test
+    public void testExclusiveCallsHoldBackThePausedShards() {
+        ShardedEngine engine = new ShardedEngine(2);
+        UUID first = UUID.randomUUID();
+        UUID other = first;
+        while (engine.isSameShard(first, other)) {
+            other = UUID.randomUUID();
+        }
+        UUID second = other;
+        
+        List<String> applied = new ArrayList<>();
+        CompletableFuture<Boolean> queued = engine.callExclusive(List.of(first, second), () -> {
+            CompletableFuture<Boolean> later = engine.submit(second, () -> applied.add("queued"));
+            sleep(50);
+            applied.add("exclusive");
+            return later;
+        });
+        
+        assertTrue(engine.await(queued));
+        assertEquals(List.of("exclusive", "queued"), applied);
+        assertThrows(IllegalStateException.class,
+                () -> engine.await(engine.submit(first, () -> engine.callExclusive(null, () -> "spans shards"))));
+        assertTrue(engine.shutdown(5, TimeUnit.SECONDS));
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+} 
\ No newline at end of file
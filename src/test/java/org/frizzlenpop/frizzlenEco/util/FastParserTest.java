@@ -0,0 +1,50 @@
+package org.frizzlenpop.frizzlenEco.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the bulk-load parsers
+ */
+public class FastParserTest {
+    
+    @Test
+    public void testParseUuidMatchesJdk() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            assertEquals(uuid, FastParser.parseUuid(uuid.toString()));
+            assertEquals(uuid, FastParser.parseUuid(uuid.toString().toUpperCase()));
+        }
+        
+        UUID edge = new UUID(-1L, Long.MIN_VALUE);
+        assertEquals(edge, FastParser.parseUuid(edge.toString()));
+    }
+    
+    @Test
+    public void testParseUuidRejectsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> FastParser.parseUuid("not-a-uuid"));
+        assertThrows(IllegalArgumentException.class, () -> FastParser.parseUuid("zzzzzzzz-0000-0000-0000-000000000000"));
+    }
+    
+    @Test
+    public void testParseDecimalMatchesJdk() {
+        String[] values = {"0", "100", "-5", "+7", "10.50", "0.01", "-1234.5678", "123456789012345678",
+                "1234567890123456789", "1.7976931348623157E+308", "1e3", ".5"};
+        
+        for (String value : values) {
+            assertEquals(new BigDecimal(value), FastParser.parseDecimal(value), value);
+        }
+    }
+    
+    @Test
+    public void testParseDecimalRejectsInvalid() {
+        assertThrows(NumberFormatException.class, () -> FastParser.parseDecimal("abc"));
+        assertThrows(NumberFormatException.class, () -> FastParser.parseDecimal("-"));
+        assertThrows(NumberFormatException.class, () -> FastParser.parseDecimal("1.2.3"));
+    }
+} 
\ No newline at end of file